@@ -1,12 +1,27 @@
 package com.rb.biz.investing.modeling.selection.overrides;
 
+import com.rb.biz.types.asset.InstrumentId;
 import com.rb.nonbiz.collections.HasLongMap;
+import com.rb.nonbiz.collections.IidMap;
+import com.rb.nonbiz.collections.MutableIidMap;
+import com.rb.nonbiz.collections.MutableRBMap;
 import com.rb.nonbiz.collections.RBMap;
 import com.rb.nonbiz.types.HasLongRepresentation;
+import com.rb.nonbiz.types.Pointer;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
+import static com.rb.nonbiz.collections.IidMapConstructors.iidMapFromParallelInstrumentIdStream;
+import static com.rb.nonbiz.collections.IidMapSimpleConstructors.newIidMap;
+import static com.rb.nonbiz.collections.MutableIidMap.newMutableIidMapWithExpectedSize;
+import static com.rb.nonbiz.collections.MutableRBMap.newMutableRBMapWithExpectedSize;
+import static com.rb.nonbiz.collections.RBMapSimpleConstructors.newRBMap;
 import static com.rb.nonbiz.collections.RBOptionals.getOrThrow;
+import static com.rb.nonbiz.types.Pointer.uninitializedPointer;
 
 /**
  * Possibly applies an override to a value retrieved from a map.
@@ -14,6 +29,11 @@ import static com.rb.nonbiz.collections.RBOptionals.getOrThrow;
  * <p> Retrieves a value for a key out of a map, subject to the {@link Overrides} specified
  * (i.e. what to do if a value is missing, what values to override even if they are there, etc.) </p>
  *
+ * <p> If you need the overridden values for all the keys in a map (e.g. for every instrument in the universe),
+ * use {@link #applyOverrides(IidMap, Overrides)} instead of calling {@link #getValue} once per key.
+ * It figures out the behaviors in the {@link Overrides} once per call instead of once per key,
+ * and it does not allocate any Optionals. </p>
+ *
  * @see Overrides
  */
 public class OverridesApplier {
@@ -27,6 +47,92 @@ public class OverridesApplier {
     return getValueForSingleItem(key, originalMap.getOptional(key), overrides);
   }
 
+  /**
+   * Returns the overridden values for every key that appears in either the original map or the overrides map.
+   *
+   * <p> A key in neither map would need {@link Overrides#getWhenNoValueAndNoOverride()}, but there is no such key
+   * here; use {@link #getValue} for keys that may not be in either map. </p>
+   */
+  public <V extends Comparable<? super V>> IidMap<V> applyOverrides(
+      IidMap<V> originalMap, Overrides<InstrumentId, V> overrides) {
+    if (overrides.getOverridesMap().isEmpty() && usesExistingValueWhenOverrideMissing(overrides)) {
+      // Common case: nothing to override, and IidMaps are immutable, so we can just return the original.
+      return originalMap;
+    }
+    Map<InstrumentId, V> overridesMap = overrides.getOverridesMap().asMap();
+    UnaryOperator<V> whenNoOverride = resolveBehaviorWithValueButNoOverride(overrides);
+    BinaryOperator<V> whenOverride = resolveBehaviorWithValueAndOverride(overrides);
+
+    MutableIidMap<V> mutableMap = newMutableIidMapWithExpectedSize(originalMap.size() + overridesMap.size());
+    originalMap.forEachEntry( (instrumentId, existing) -> {
+      V override = overridesMap.get(instrumentId);
+      mutableMap.putAssumingAbsent(instrumentId, override == null
+          ? whenNoOverride.apply(existing)
+          : whenOverride.apply(existing, override));
+    });
+    overridesMap.forEach( (instrumentId, override) -> {
+      if (!originalMap.containsKey(instrumentId)) {
+        mutableMap.putAssumingAbsent(instrumentId, override); // no value, has override
+      }
+    });
+    return newIidMap(mutableMap);
+  }
+
+  /**
+   * Same as {@link #applyOverrides(IidMap, Overrides)}, except that it runs on all cores.
+   *
+   * <p> This is only worth it for large maps, e.g. the entire universe of instruments. </p>
+   */
+  public <V extends Comparable<? super V>> IidMap<V> parallelApplyOverrides(
+      IidMap<V> originalMap, Overrides<InstrumentId, V> overrides) {
+    if (overrides.getOverridesMap().isEmpty() && usesExistingValueWhenOverrideMissing(overrides)) {
+      return originalMap;
+    }
+    Map<InstrumentId, V> overridesMap = overrides.getOverridesMap().asMap();
+    UnaryOperator<V> whenNoOverride = resolveBehaviorWithValueButNoOverride(overrides);
+    BinaryOperator<V> whenOverride = resolveBehaviorWithValueAndOverride(overrides);
+
+    return iidMapFromParallelInstrumentIdStream(
+        Stream.concat(
+            originalMap.parallelInstrumentIdStream(),
+            overridesMap.keySet().stream().filter(instrumentId -> !originalMap.containsKey(instrumentId))),
+        instrumentId -> {
+          // Reading the raw map avoids allocating an Optional per key.
+          V existing = originalMap.getRawMapUnsafe().get(instrumentId.asLong());
+          V override = overridesMap.get(instrumentId);
+          return existing == null ? override
+              : override == null ? whenNoOverride.apply(existing)
+              : whenOverride.apply(existing, override);
+        });
+  }
+
+  /**
+   * Same as {@link #applyOverrides(IidMap, Overrides)}, but for a general {@link RBMap}.
+   */
+  public <K, V extends Comparable<? super V>> RBMap<K, V> applyOverrides(
+      RBMap<K, V> originalMap, Overrides<K, V> overrides) {
+    if (overrides.getOverridesMap().isEmpty() && usesExistingValueWhenOverrideMissing(overrides)) {
+      return originalMap;
+    }
+    Map<K, V> overridesMap = overrides.getOverridesMap().asMap();
+    UnaryOperator<V> whenNoOverride = resolveBehaviorWithValueButNoOverride(overrides);
+    BinaryOperator<V> whenOverride = resolveBehaviorWithValueAndOverride(overrides);
+
+    MutableRBMap<K, V> mutableMap = newMutableRBMapWithExpectedSize(originalMap.size() + overridesMap.size());
+    originalMap.forEachEntry( (key, existing) -> {
+      V override = overridesMap.get(key);
+      mutableMap.putAssumingAbsent(key, override == null
+          ? whenNoOverride.apply(existing)
+          : whenOverride.apply(existing, override));
+    });
+    overridesMap.forEach( (key, override) -> {
+      if (!originalMap.containsKey(key)) {
+        mutableMap.putAssumingAbsent(key, override); // no value, has override
+      }
+    });
+    return newRBMap(mutableMap);
+  }
+
   public <K, V extends Comparable<? super V>> V getValueForSingleItem(
       K key, Optional<V> maybeExisting, Overrides<K, V> overrides) {
     Optional<V> maybeOverride = overrides.getOverridesMap().getOptional(key);
@@ -71,4 +177,68 @@ public class OverridesApplier {
     });
   }
 
+  private <K, V extends Comparable<? super V>> boolean usesExistingValueWhenOverrideMissing(Overrides<K, V> overrides) {
+    Pointer<Boolean> usesExistingValue = uninitializedPointer();
+    overrides.getBehaviorWithValueButNoOverride().visit(new BehaviorWithValueButNoOverride.Visitor<V>() {
+      @Override
+      public V visitUseExistingValueWhenOverrideMissing() {
+        usesExistingValue.set(true);
+        return null;
+      }
+
+      @Override
+      public V visitUseFixedValueWhenOverrideMissing(V fixedValue) {
+        usesExistingValue.set(false);
+        return null;
+      }
+    });
+    return usesExistingValue.getOrThrow();
+  }
+
+  // The visitors below run once per call to one of the bulk methods, not once per key.
+
+  private <K, V extends Comparable<? super V>> UnaryOperator<V> resolveBehaviorWithValueButNoOverride(
+      Overrides<K, V> overrides) {
+    Pointer<UnaryOperator<V>> resolved = uninitializedPointer();
+    overrides.getBehaviorWithValueButNoOverride().visit(new BehaviorWithValueButNoOverride.Visitor<V>() {
+      @Override
+      public V visitUseExistingValueWhenOverrideMissing() {
+        resolved.set(existing -> existing);
+        return null;
+      }
+
+      @Override
+      public V visitUseFixedValueWhenOverrideMissing(V fixedValue) {
+        resolved.set(ignoredExisting -> fixedValue);
+        return null;
+      }
+    });
+    return resolved.getOrThrow();
+  }
+
+  private <K, V extends Comparable<? super V>> BinaryOperator<V> resolveBehaviorWithValueAndOverride(
+      Overrides<K, V> overrides) {
+    Pointer<BinaryOperator<V>> resolved = uninitializedPointer();
+    overrides.getBehaviorWithValueAndOverride().visit(new BehaviorWithValueAndOverride.Visitor<V>() {
+      @Override
+      public V visitAlwaysUseOverrideAndIgnoreExistingValue() {
+        resolved.set( (ignoredExisting, override) -> override);
+        return null;
+      }
+
+      @Override
+      public V visitAlwaysUseExistingValueAndIgnoreOverride() {
+        resolved.set( (existing, ignoredOverride) -> existing);
+        return null;
+      }
+
+      @Override
+      public V visitOnlyUseOverrideToFurtherReduceExistingValue() {
+        resolved.set( (existing, override) -> existing.compareTo(override) < 0 ? existing : override);
+        return null;
+      }
+    });
+    return resolved.getOrThrow();
+  }
+
 }
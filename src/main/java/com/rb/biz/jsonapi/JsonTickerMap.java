@@ -3,10 +3,14 @@ package com.rb.biz.jsonapi;
 import com.rb.biz.marketdata.instrumentmaster.InstrumentMaster;
 import com.rb.biz.types.Symbol;
 import com.rb.biz.types.asset.InstrumentId;
+import com.rb.nonbiz.collections.IidMap;
 import com.rb.nonbiz.text.PrintsInstruments;
 
 import java.util.Optional;
 
+import static com.rb.biz.jsonapi.JsonTicker.jsonTicker;
+import static java.util.Comparator.comparing;
+
 /**
  * This is a {@link JsonTicker} {@code <-->} {@link InstrumentId} bidirectional map.
  *
@@ -42,4 +46,28 @@ public interface JsonTickerMap extends PrintsInstruments {
 
   Optional<JsonTicker> getOptionalJsonTicker(InstrumentId instrumentId);
 
+  /**
+   * Like {@link #getOptionalInstrumentId(JsonTicker)}, but for a ticker exactly as it appears in the JSON.
+   *
+   * <p> This is for code that parses large JSON payloads. Implementations can override it, so that such code
+   * doesn't have to create (and validate) a {@link JsonTicker} for every key; a string that is not a valid
+   * {@link JsonTicker} will then just not be found. This default implementation does create a {@link JsonTicker},
+   * so it throws for such a string. </p>
+   */
+  default Optional<InstrumentId> getOptionalInstrumentId(String freeFormTicker) {
+    return getOptionalInstrumentId(jsonTicker(freeFormTicker));
+  }
+
+  /**
+   * Returns the keys of the map, sorted by their ticker strings, e.g. so that we serialize JSON deterministically.
+   *
+   * <p> This default implementation compares the ticker strings. Implementations can override it with something
+   * faster, such as sorting by a precomputed ticker order. </p>
+   */
+  default InstrumentId[] getKeysInTickerOrder(IidMap<?> map) {
+    return map.instrumentIdStream()
+        .sorted(comparing(instrumentId -> getJsonTickerOrThrow(instrumentId).getFreeFormString()))
+        .toArray(InstrumentId[]::new);
+  }
+
 }
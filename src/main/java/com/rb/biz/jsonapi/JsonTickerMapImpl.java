@@ -3,24 +3,54 @@ package com.rb.biz.jsonapi;
 import com.rb.biz.marketdata.instrumentmaster.InstrumentMaster;
 import com.rb.biz.types.asset.InstrumentId;
 import com.rb.nonbiz.collections.IidBiMap;
+import com.rb.nonbiz.collections.IidMap;
 import com.rb.nonbiz.text.Strings;
 import com.rb.nonbiz.util.RBPreconditions;
+import gnu.trove.map.hash.TLongIntHashMap;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
 
+import static com.google.common.collect.Maps.newHashMapWithExpectedSize;
 import static com.rb.biz.marketdata.instrumentmaster.NullInstrumentMaster.NULL_INSTRUMENT_MASTER;
 import static com.rb.nonbiz.date.RBDates.UNUSED_DATE;
+import static java.util.Comparator.comparing;
 
 /**
  * A simple concrete implementation of the {@link JsonTickerMap} interface, using an {@link IidBiMap}.
+ *
+ * <p> Since a {@link JsonTickerMap} gets used to convert every instrument-keyed part of a (possibly large) JSON payload,
+ * we also precompute a few things once, at construction time: a map from the plain ticker strings to instrument IDs
+ * (so that parsing does not need to create a {@link JsonTicker} per key), and the order of the instruments
+ * when sorted by ticker (so that serializing in ticker order does not need to compare strings). </p>
  */
 public class JsonTickerMapImpl implements JsonTickerMap {
 
   private final IidBiMap<JsonTicker> rawBiMap;
+  private final Map<String, InstrumentId> instrumentIdFromFreeFormTicker;
+  private final InstrumentId[] instrumentIdsInTickerOrder;
+  private final TLongIntHashMap tickerOrderFromInstrumentId;
 
   private JsonTickerMapImpl(IidBiMap<JsonTicker> rawBiMap) {
     this.rawBiMap = rawBiMap;
+
+    int size = rawBiMap.size();
+    this.instrumentIdFromFreeFormTicker = newHashMapWithExpectedSize(size);
+    rawBiMap.getItemFromInstrumentId().forEachEntry( (instrumentId, jsonTicker) ->
+        instrumentIdFromFreeFormTicker.put(jsonTicker.getFreeFormString(), instrumentId));
+
+    // Tickers are unique, so there is no need to sort by anything else first.
+    this.instrumentIdsInTickerOrder = rawBiMap.getItemFromInstrumentId()
+        .instrumentIdStream()
+        .sorted(comparing(instrumentId -> rawBiMap.getItemFromInstrumentId().getOrThrow(instrumentId).getFreeFormString()))
+        .toArray(InstrumentId[]::new);
+    this.tickerOrderFromInstrumentId = new TLongIntHashMap(size, 0.5f, -1L, -1);
+    for (int i = 0; i < instrumentIdsInTickerOrder.length; i++) {
+      tickerOrderFromInstrumentId.put(instrumentIdsInTickerOrder[i].asLong(), i);
+    }
   }
 
   public static JsonTickerMapImpl jsonTickerMap(IidBiMap<JsonTicker> rawBiMap) {
@@ -54,6 +84,55 @@ public class JsonTickerMapImpl implements JsonTickerMap {
     return rawBiMap.getItemFromInstrumentId().getOptional(instrumentId);
   }
 
+  @Override
+  public Optional<InstrumentId> getOptionalInstrumentId(String freeFormTicker) {
+    return Optional.ofNullable(instrumentIdFromFreeFormTicker.get(freeFormTicker));
+  }
+
+  /**
+   * Returns the position of this instrument's ticker, if all the tickers in this map were sorted by their string.
+   * Sorting instruments by this number gives the same order as sorting them by their ticker strings,
+   * but without having to look up and compare any strings.
+   */
+  public int getTickerOrderOrThrow(InstrumentId instrumentId) {
+    int tickerOrder = tickerOrderFromInstrumentId.get(instrumentId.asLong());
+    RBPreconditions.checkArgumentWithoutAllocating(
+        tickerOrder >= 0,
+        "Instrument %s is not in the JsonTickerMap",
+        instrumentId);
+    return tickerOrder;
+  }
+
+  /**
+   * The inverse of {@link #getTickerOrderOrThrow(InstrumentId)}.
+   */
+  public InstrumentId getInstrumentIdInTickerOrder(int tickerOrder) {
+    RBPreconditions.checkArgument(
+        0 <= tickerOrder && tickerOrder < instrumentIdsInTickerOrder.length,
+        "Ticker order %s is invalid; there are %s tickers",
+        tickerOrder, instrumentIdsInTickerOrder.length);
+    return instrumentIdsInTickerOrder[tickerOrder];
+  }
+
+  /**
+   * Instead of comparing ticker strings (and looking up the tickers on every comparison), we sort the positions
+   * of the tickers in the precomputed ticker order, which are plain ints.
+   */
+  @Override
+  public InstrumentId[] getKeysInTickerOrder(IidMap<?> map) {
+    int[] tickerOrders = new int[map.size()];
+    int i = 0;
+    for (Iterator<InstrumentId> iterator = map.instrumentIdKeysIterator(); iterator.hasNext(); ) {
+      tickerOrders[i++] = getTickerOrderOrThrow(iterator.next());
+    }
+    Arrays.sort(tickerOrders);
+    InstrumentId[] keysInTickerOrder = new InstrumentId[tickerOrders.length];
+    for (int j = 0; j < tickerOrders.length; j++) {
+      keysInTickerOrder[j] = instrumentIdsInTickerOrder[tickerOrders[j]];
+    }
+    return keysInTickerOrder;
+  }
+
   @Override
   public String toString() {
     return toString(NULL_INSTRUMENT_MASTER, UNUSED_DATE);
@@ -1,13 +1,13 @@
 package com.rb.biz.marketdata;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
-import com.google.common.collect.ImmutableMap;
 import com.rb.biz.types.Symbol;
 import com.rb.biz.types.asset.InstrumentId;
 import com.rb.nonbiz.types.HasLongRepresentation;
 import com.rb.nonbiz.util.RBPreconditions;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static com.rb.biz.types.Symbol.symbol;
 
 /**
@@ -37,89 +37,105 @@ import static com.rb.biz.types.Symbol.symbol;
  *
  * <p> Although the documentation above refers to {@link InstrumentId}, this code is more general and supports
  * {@link HasLongRepresentation}, which is more general than {@link InstrumentId}. </p>
+ *
+ * <p> The mappings are stored in small primitive arrays (char to code, and code to char), so encoding and decoding
+ * do not box any characters. This has no state, so it is thread-safe; code that cannot inject it
+ * (e.g. an interface default method) can use {@link #ENCODED_ID_GENERATOR}. </p>
  */
 public class EncodedIdGenerator {
 
-  private static final BiMap<Character, Integer> CODES = HashBiMap.create(ImmutableMap.<Character, Integer>builder()
-      .put('A', 1)
-      .put('B', 2)
-      .put('C', 3)
-      .put('D', 4)
-      .put('E', 5)
-      .put('F', 6)
-      .put('G', 7)
-      .put('H', 8)
-      .put('I', 9)
-      .put('J', 10)
-      .put('K', 11)
-      .put('L', 12)
-      .put('M', 13)
-      .put('N', 14)
-      .put('O', 15)
-      .put('P', 16)
-      .put('Q', 17)
-      .put('R', 18)
-      .put('S', 19)
-      .put('T', 20)
-      .put('U', 21)
-      .put('V', 22)
-      .put('W', 23)
-      .put('X', 24)
-      .put('Y', 25)
-      .put('Z', 26)
-      .put('0', 27)
-      .put('1', 28)
-      .put('2', 29)
-      .put('3', 30)
-      .put('4', 31)
-      .put('5', 32)
-      .put('6', 33)
-      .put('7', 34)
-      .put('8', 35)
-      .put('9', 36)
-      .put('.', 37)
-      .put('_', 38)
-      .put('/', 39)
-      .build());
-
-  private static final int BASE = CODES.size() + 1;
+  public static final EncodedIdGenerator ENCODED_ID_GENERATOR = new EncodedIdGenerator();
+
+  // The character at position i has code i + 1. Code 0 is not used, so that e.g. "A" and "0A" don't collide.
+  // Don't change this; it would change every instrument ID we generate.
+  private static final String ENCODABLE_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789._/";
+
+  private static final int BASE = ENCODABLE_CHARACTERS.length() + 1;
+
+  // Indexed by character; 0 means the character cannot be encoded. All encodable characters are ASCII.
+  private static final byte[] CHAR_TO_CODE = new byte[128];
+
+  // Indexed by code; position 0 is unused.
+  private static final char[] CODE_TO_CHAR = new char[BASE];
+
+  // The longest encoded ID that fits in a (positive) long.
+  private static final int MAX_DECODED_LENGTH = 12;
+
+  static {
+    for (int i = 0; i < ENCODABLE_CHARACTERS.length(); i++) {
+      char c = ENCODABLE_CHARACTERS.charAt(i);
+      CHAR_TO_CODE[c] = (byte) (i + 1);
+      CODE_TO_CHAR[i + 1] = c;
+    }
+  }
 
   public long generateLongId(Symbol symbol) {
-    long longId = 0;
+    return generateLongId(symbol.toString());
+  }
 
-    // In the US markets, we can't have 2 symbols that differ only in the capitalization of some of their letters
-    String symbolString = symbol.toString().toUpperCase();
-    for (int i = 0; i < symbolString.length(); i++) {
+  /**
+   * Same as {@link #generateLongId(Symbol)}, but for a raw ticker, e.g. when reading a vendor file,
+   * so that there is no need to create a {@link Symbol} (or even a String) first.
+   */
+  public long generateLongId(CharSequence ticker) {
+    long longId = 0;
+    for (int i = 0; i < ticker.length(); i++) {
       longId *= BASE;
-      longId += getCode(symbolString.charAt(i));
+      // In the US markets, we can't have 2 symbols that differ only in the capitalization of some of their letters
+      longId += getCode(Character.toUpperCase(ticker.charAt(i)));
     }
     return longId;
   }
 
+  /**
+   * Returns the IDs in the same order as the symbols.
+   */
+  public long[] generateLongIds(List<Symbol> symbols) {
+    long[] longIds = new long[symbols.size()];
+    for (int i = 0; i < longIds.length; i++) {
+      longIds[i] = generateLongId(symbols.get(i));
+    }
+    return longIds;
+  }
+
   public Symbol getBestGuessSymbol(HasLongRepresentation hasLongRepresentation) {
-    long longId = hasLongRepresentation.asLong();
-    StringBuilder sb = new StringBuilder();
+    return getBestGuessSymbol(hasLongRepresentation.asLong(), new char[MAX_DECODED_LENGTH]);
+  }
+
+  /**
+   * Returns the symbols in the same order as the IDs.
+   */
+  public List<Symbol> getBestGuessSymbols(long[] longIds) {
+    List<Symbol> symbols = new ArrayList<>(longIds.length);
+    char[] buffer = new char[MAX_DECODED_LENGTH];
+    for (long longId : longIds) {
+      symbols.add(getBestGuessSymbol(longId, buffer));
+    }
+    return symbols;
+  }
+
+  // The buffer gets filled from the end, since we decode the last character first.
+  private Symbol getBestGuessSymbol(long longId, char[] buffer) {
+    int start = buffer.length;
     while (longId > 0) {
-      sb.append(getChar((int) (longId % BASE)));
+      buffer[--start] = getChar((int) (longId % BASE));
       longId = longId / BASE;
     }
-    return symbol(sb.reverse().toString());
+    return symbol(new String(buffer, start, buffer.length - start));
   }
 
   private int getCode(char c) {
-    RBPreconditions.checkArgument(
-        CODES.containsKey(c),
-        "Unmappable character: '%s'",
-        c);
-    return CODES.get(c);
+    int code = c < CHAR_TO_CODE.length ? CHAR_TO_CODE[c] : 0;
+    RBPreconditions.checkArgumentWithoutAllocating(code != 0, "Unmappable character: '%s'", c);
+    return code;
   }
 
-  private char getChar(Integer code) {
+  private char getChar(int code) {
     RBPreconditions.checkArgument(
-        CODES.containsValue(code),
+        code > 0,
         "Unmappable code: %s",
         code);
-    return CODES.inverse().get(code);
+    return CODE_TO_CHAR[code];
   }
 
 }
@@ -13,9 +13,8 @@ import static com.rb.biz.types.asset.InstrumentId.instrumentId;
  */
 public class InstrumentIdGenerator {
 
-  // This is one of the rare cases where an injected member has to be public.
-  // An interface default method InstrumentMaster#getLatestValidSymbolOrBestGuess)
-  // has to construct an InstrumentIdGenerator, since it cannot inject anything.
+  // This is one of the rare cases where an injected member has to be public, so that test code
+  // (see FakeInstruments) can construct an InstrumentIdGenerator without injection.
   @Inject public EncodedIdGenerator encodedIdGenerator;
 
   public InstrumentId generate(Symbol symbol) {
@@ -0,0 +1,214 @@
+package com.rb.biz.marketdata.instrumentmaster;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.rb.biz.types.Symbol;
+import com.rb.biz.types.asset.InstrumentId;
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.rb.biz.marketdata.instrumentmaster.InstrumentMasterCacheStats.instrumentMasterCacheStats;
+
+/**
+ * Wraps any {@link InstrumentMaster} and remembers its answers, keyed by (instrument or symbol, date).
+ *
+ * <p> This is useful when the underlying {@link InstrumentMaster} is slow-ish, e.g. a {@link CascadingInstrumentMaster},
+ * which calls every {@link InstrumentMaster} in its list until it finds an answer, and therefore does the most work
+ * for the lookups that fail. This is why we also remember when there is no answer ('negative caching'). </p>
+ *
+ * <p> The caches are bounded, so this won't keep growing over a long backtest. If most of your lookups are for the same
+ * date (e.g. a backtest that processes one day at a time), you can also call {@link #pinToDate(LocalDate)};
+ * lookups for that date will then go to a separate, unbounded cache that is only for that date, so they won't
+ * evict (or be evicted by) lookups for other dates. </p>
+ *
+ * <p> This assumes that the underlying {@link InstrumentMaster} always returns the same answer for the same arguments.
+ * It is thread-safe, as long as the underlying {@link InstrumentMaster} is. If two threads ask for the same
+ * uncached value at the same time, both may end up calling the underlying {@link InstrumentMaster}, which is fine. </p>
+ */
+public class CachingInstrumentMaster implements InstrumentMaster {
+
+  private final InstrumentMaster underlyingInstrumentMaster;
+  private final Cache<DatedKey<InstrumentId>, Optional<Symbol>> symbolCache;
+  private final Cache<DatedKey<InstrumentId>, Optional<Symbol>> latestValidSymbolCache;
+  private final Cache<DatedKey<Symbol>, Optional<InstrumentId>> instrumentIdCache;
+  private volatile PinnedDateCache pinnedDateCache;
+  private final LongAdder numHits;
+  private final LongAdder numMisses;
+
+  /**
+   * The lookups for a single date, for when we call {@link #pinToDate(LocalDate)}.
+   */
+  private static class PinnedDateCache {
+
+    private final LocalDate date;
+    private final ConcurrentHashMap<InstrumentId, Optional<Symbol>> symbols = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<InstrumentId, Optional<Symbol>> latestValidSymbols = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Symbol, Optional<InstrumentId>> instrumentIds = new ConcurrentHashMap<>();
+
+    private PinnedDateCache(LocalDate date) {
+      this.date = date;
+    }
+
+  }
+
+  /**
+   * An instrument ID or symbol, plus a date, which we store as an epoch day, so that hashing is cheap.
+   */
+  private static class DatedKey<K> {
+
+    private final K key;
+    private final long epochDay;
+
+    private DatedKey(K key, LocalDate date) {
+      this.key = key;
+      this.epochDay = date.toEpochDay();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      DatedKey<?> datedKey = (DatedKey<?>) o;
+      return epochDay == datedKey.epochDay && key.equals(datedKey.key);
+    }
+
+    @Override
+    public int hashCode() {
+      // Objects.hash would allocate a varargs array and box epochDay on every cache lookup.
+      return 31 * key.hashCode() + Long.hashCode(epochDay);
+    }
+
+  }
+
+  private CachingInstrumentMaster(InstrumentMaster underlyingInstrumentMaster, int maxCachedLookupsPerType) {
+    this.underlyingInstrumentMaster = underlyingInstrumentMaster;
+    this.symbolCache = CacheBuilder.newBuilder().maximumSize(maxCachedLookupsPerType).build();
+    this.latestValidSymbolCache = CacheBuilder.newBuilder().maximumSize(maxCachedLookupsPerType).build();
+    this.instrumentIdCache = CacheBuilder.newBuilder().maximumSize(maxCachedLookupsPerType).build();
+    this.pinnedDateCache = null;
+    this.numHits = new LongAdder();
+    this.numMisses = new LongAdder();
+  }
+
+  /**
+   * There are 3 separate caches, one for each of the 3 {@link InstrumentMaster} lookup methods;
+   * each will hold at most maxCachedLookupsPerType entries.
+   */
+  public static CachingInstrumentMaster cachingInstrumentMaster(
+      InstrumentMaster underlyingInstrumentMaster, int maxCachedLookupsPerType) {
+    RBPreconditions.checkArgument(
+        maxCachedLookupsPerType > 0,
+        "The maximum number of cached lookups must be positive, but was %s",
+        maxCachedLookupsPerType);
+    return new CachingInstrumentMaster(underlyingInstrumentMaster, maxCachedLookupsPerType);
+  }
+
+  @Override
+  public Optional<InstrumentId> getInstrumentId(Symbol symbol, LocalDate effectiveDate) {
+    PinnedDateCache pinned = pinnedDateCache;
+    return pinned != null && pinned.date.equals(effectiveDate)
+        ? getOrLoad(
+            pinned.instrumentIds, symbol,
+            v -> underlyingInstrumentMaster.getInstrumentId(v, effectiveDate))
+        : getOrLoad(
+            instrumentIdCache, new DatedKey<>(symbol, effectiveDate),
+            () -> underlyingInstrumentMaster.getInstrumentId(symbol, effectiveDate));
+  }
+
+  @Override
+  public Optional<Symbol> getSymbol(InstrumentId instrumentId, LocalDate effectiveDate) {
+    PinnedDateCache pinned = pinnedDateCache;
+    return pinned != null && pinned.date.equals(effectiveDate)
+        ? getOrLoad(
+            pinned.symbols, instrumentId,
+            v -> underlyingInstrumentMaster.getSymbol(v, effectiveDate))
+        : getOrLoad(
+            symbolCache, new DatedKey<>(instrumentId, effectiveDate),
+            () -> underlyingInstrumentMaster.getSymbol(instrumentId, effectiveDate));
+  }
+
+  @Override
+  public Optional<Symbol> getLatestValidSymbol(InstrumentId instrumentId, LocalDate effectiveDate) {
+    PinnedDateCache pinned = pinnedDateCache;
+    return pinned != null && pinned.date.equals(effectiveDate)
+        ? getOrLoad(
+            pinned.latestValidSymbols, instrumentId,
+            v -> underlyingInstrumentMaster.getLatestValidSymbol(v, effectiveDate))
+        : getOrLoad(
+            latestValidSymbolCache, new DatedKey<>(instrumentId, effectiveDate),
+            () -> underlyingInstrumentMaster.getLatestValidSymbol(instrumentId, effectiveDate));
+  }
+
+  /**
+   * From now on, lookups for this date will use a separate, unbounded cache. Any previously pinned date
+   * (and its cached lookups) gets dropped.
+   *
+   * <p> Pinning the date that is already pinned does nothing, so it's OK to call this at the start of every task
+   * in a backtest day. </p>
+   */
+  public void pinToDate(LocalDate date) {
+    PinnedDateCache pinned = pinnedDateCache;
+    if (pinned == null || !pinned.date.equals(date)) {
+      pinnedDateCache = new PinnedDateCache(date);
+    }
+  }
+
+  /**
+   * Stops using the cache for the pinned date, if any. Lookups for all dates will use the bounded caches.
+   */
+  public void unpin() {
+    pinnedDateCache = null;
+  }
+
+  public Optional<LocalDate> getPinnedDate() {
+    PinnedDateCache pinned = pinnedDateCache;
+    return pinned == null ? Optional.empty() : Optional.of(pinned.date);
+  }
+
+  public InstrumentMasterCacheStats getCacheStats() {
+    return instrumentMasterCacheStats(numHits.sum(), numMisses.sum());
+  }
+
+  private <K, V> Optional<V> getOrLoad(Cache<K, Optional<V>> cache, K key, Supplier<Optional<V>> loader) {
+    Optional<V> cached = cache.getIfPresent(key);
+    if (cached != null) {
+      numHits.increment();
+      return cached;
+    }
+    numMisses.increment();
+    Optional<V> loaded = loader.get();
+    cache.put(key, loaded);
+    return loaded;
+  }
+
+  private <K, V> Optional<V> getOrLoad(
+      ConcurrentHashMap<K, Optional<V>> map, K key, Function<K, Optional<V>> loader) {
+    Optional<V> cached = map.get(key);
+    if (cached != null) {
+      numHits.increment();
+      return cached;
+    }
+    numMisses.increment();
+    Optional<V> loaded = loader.apply(key);
+    map.put(key, loaded);
+    return loaded;
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[CIM pinned= %s ; %s ; %s CIM]",
+        getPinnedDate(), getCacheStats(), underlyingInstrumentMaster);
+  }
+
+}
@@ -21,6 +21,9 @@ import static com.rb.nonbiz.collections.RBOptionals.findFirstPresentOptional;
  * add 4+-arg (and more) versions later. We could also add a list argument, but it would be less succinct, because typically
  * when we use this, we will know exactly how many {@link InstrumentMaster}s we would need; it's not a programmatically
  * determined answer. Plus, we don't need to worry about a list of 0 or 1 items.
+ *
+ * Each lookup may call every {@link InstrumentMaster} in the list, especially when there is no answer. If you do many
+ * lookups, consider wrapping this in a {@link CachingInstrumentMaster}.
  */
 public class CascadingInstrumentMaster implements InstrumentMaster {
 
@@ -1,7 +1,6 @@
 package com.rb.biz.marketdata.instrumentmaster;
 
 import com.rb.biz.marketdata.EncodedIdGenerator;
-import com.rb.biz.marketdata.InstrumentIdGenerator;
 import com.rb.biz.types.Symbol;
 import com.rb.biz.types.asset.AssetId;
 import com.rb.biz.types.asset.AssetId.AssetIdVisitor;
@@ -11,6 +10,7 @@ import com.rb.biz.types.asset.InstrumentId;
 import java.time.LocalDate;
 import java.util.Optional;
 
+import static com.rb.biz.marketdata.EncodedIdGenerator.ENCODED_ID_GENERATOR;
 import static com.rb.biz.types.Symbol.instrumentIdAsSymbol;
 import static com.rb.biz.types.asset.CashId.cashSymbol;
 
@@ -43,10 +43,8 @@ public interface InstrumentMaster {
    * intuitive numeric {@link InstrumentId}.
    */
   default Symbol getLatestValidSymbolOrBestGuess(InstrumentId instrumentId, LocalDate effectiveDate) {
-    InstrumentIdGenerator instrumentIdGenerator = new InstrumentIdGenerator();
-    instrumentIdGenerator.encodedIdGenerator = new EncodedIdGenerator();
     return getLatestValidSymbol(instrumentId, effectiveDate)
-        .orElseGet( () -> instrumentIdGenerator.getBestGuessSymbol(instrumentId));
+        .orElseGet( () -> ENCODED_ID_GENERATOR.getBestGuessSymbol(instrumentId));
   }
 
   default Symbol getLatestValidSymbolOrAssetIdAsSymbol(AssetId assetId, LocalDate effectiveDate) {
@@ -0,0 +1,66 @@
+package com.rb.biz.marketdata.instrumentmaster;
+
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.types.UnitFraction;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.util.Optional;
+
+import static com.rb.nonbiz.types.UnitFraction.unitFraction;
+
+/**
+ * A snapshot of how many lookups a {@link CachingInstrumentMaster} has answered from its cache ('hits'),
+ * and how many it had to pass on to the underlying {@link InstrumentMaster} ('misses').
+ *
+ * <p> A cached 'not found' answer counts as a hit, since it also saves a call to the underlying
+ * {@link InstrumentMaster}. </p>
+ */
+public class InstrumentMasterCacheStats {
+
+  private final long numHits;
+  private final long numMisses;
+
+  private InstrumentMasterCacheStats(long numHits, long numMisses) {
+    this.numHits = numHits;
+    this.numMisses = numMisses;
+  }
+
+  public static InstrumentMasterCacheStats instrumentMasterCacheStats(long numHits, long numMisses) {
+    RBPreconditions.checkArgument(
+        numHits >= 0 && numMisses >= 0,
+        "Number of cache hits ( %s ) and misses ( %s ) cannot be negative",
+        numHits, numMisses);
+    return new InstrumentMasterCacheStats(numHits, numMisses);
+  }
+
+  public static InstrumentMasterCacheStats noInstrumentMasterLookupsYet() {
+    return instrumentMasterCacheStats(0, 0);
+  }
+
+  public long getNumHits() {
+    return numHits;
+  }
+
+  public long getNumMisses() {
+    return numMisses;
+  }
+
+  public long getNumLookups() {
+    return numHits + numMisses;
+  }
+
+  /**
+   * Returns empty if there have been no lookups yet.
+   */
+  public Optional<UnitFraction> getOptionalHitRate() {
+    return getNumLookups() == 0
+        ? Optional.empty()
+        : Optional.of(unitFraction(numHits, getNumLookups()));
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[IMCS %s hits ; %s misses IMCS]", numHits, numMisses);
+  }
+
+}
@@ -0,0 +1,91 @@
+package com.rb.biz.marketdata.instrumentmaster;
+
+import com.rb.biz.types.Symbol;
+import com.rb.biz.types.asset.InstrumentId;
+import com.rb.nonbiz.collections.IidMap;
+import com.rb.nonbiz.collections.RBMap;
+import com.rb.nonbiz.text.Strings;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * All the symbol / instrument mappings of an {@link InstrumentMaster} for a single date, in hash maps, so that each
+ * lookup for that date is a single hash lookup. Lookups for other dates go to the underlying {@link InstrumentMaster},
+ * so this can be passed anywhere an {@link InstrumentMaster} is expected.
+ *
+ * <p> See {@link IntervalIndexedInstrumentMaster#getDailySnapshot(LocalDate)}. </p>
+ */
+public class InstrumentMasterDailySnapshot implements InstrumentMaster {
+
+  private final LocalDate date;
+  private final IidMap<Symbol> validSymbols;
+  private final IidMap<Symbol> latestValidSymbols;
+  private final RBMap<Symbol, InstrumentId> instrumentIds;
+  private final InstrumentMaster underlyingInstrumentMaster;
+
+  private InstrumentMasterDailySnapshot(
+      LocalDate date,
+      IidMap<Symbol> validSymbols,
+      IidMap<Symbol> latestValidSymbols,
+      RBMap<Symbol, InstrumentId> instrumentIds,
+      InstrumentMaster underlyingInstrumentMaster) {
+    this.date = date;
+    this.validSymbols = validSymbols;
+    this.latestValidSymbols = latestValidSymbols;
+    this.instrumentIds = instrumentIds;
+    this.underlyingInstrumentMaster = underlyingInstrumentMaster;
+  }
+
+  /**
+   * The maps must be consistent with what the underlying {@link InstrumentMaster} returns for the date.
+   * That would be too expensive to check here, which is why this is package-private.
+   */
+  static InstrumentMasterDailySnapshot instrumentMasterDailySnapshot(
+      LocalDate date,
+      IidMap<Symbol> validSymbols,
+      IidMap<Symbol> latestValidSymbols,
+      RBMap<Symbol, InstrumentId> instrumentIds,
+      InstrumentMaster underlyingInstrumentMaster) {
+    return new InstrumentMasterDailySnapshot(
+        date, validSymbols, latestValidSymbols, instrumentIds, underlyingInstrumentMaster);
+  }
+
+  public LocalDate getDate() {
+    return date;
+  }
+
+  /**
+   * The instruments that have a valid symbol on this date, and their symbols.
+   */
+  public IidMap<Symbol> getValidSymbols() {
+    return validSymbols;
+  }
+
+  @Override
+  public Optional<InstrumentId> getInstrumentId(Symbol symbol, LocalDate effectiveDate) {
+    return date.equals(effectiveDate)
+        ? instrumentIds.getOptional(symbol)
+        : underlyingInstrumentMaster.getInstrumentId(symbol, effectiveDate);
+  }
+
+  @Override
+  public Optional<Symbol> getSymbol(InstrumentId instrumentId, LocalDate effectiveDate) {
+    return date.equals(effectiveDate)
+        ? validSymbols.getOptional(instrumentId)
+        : underlyingInstrumentMaster.getSymbol(instrumentId, effectiveDate);
+  }
+
+  @Override
+  public Optional<Symbol> getLatestValidSymbol(InstrumentId instrumentId, LocalDate effectiveDate) {
+    return date.equals(effectiveDate)
+        ? latestValidSymbols.getOptional(instrumentId)
+        : underlyingInstrumentMaster.getLatestValidSymbol(instrumentId, effectiveDate);
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[IMDS %s : %s valid symbols IMDS]", date, validSymbols.size());
+  }
+
+}
@@ -0,0 +1,235 @@
+package com.rb.biz.marketdata.instrumentmaster;
+
+import com.google.common.collect.Range;
+import com.rb.biz.types.Symbol;
+import com.rb.biz.types.asset.InstrumentId;
+import com.rb.nonbiz.collections.IidMap;
+import com.rb.nonbiz.collections.IidSet;
+import com.rb.nonbiz.collections.MutableIidMap;
+import com.rb.nonbiz.collections.MutableRBMap;
+import com.rb.nonbiz.collections.NonContiguousLocalDateRangeMap;
+import com.rb.nonbiz.collections.RBMap;
+import com.rb.nonbiz.collections.RBSet;
+import com.rb.nonbiz.text.Strings;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.rb.biz.marketdata.instrumentmaster.InstrumentMasterDailySnapshot.instrumentMasterDailySnapshot;
+import static com.rb.nonbiz.collections.IidMapSimpleConstructors.newIidMap;
+import static com.rb.nonbiz.collections.MutableIidMap.newMutableIidMapWithExpectedSize;
+import static com.rb.nonbiz.collections.MutableRBMap.newMutableRBMapWithExpectedSize;
+import static com.rb.nonbiz.collections.NonContiguousLocalDateRangeMap.nonContiguousLocalDateRangeMap;
+import static com.rb.nonbiz.collections.RBMapSimpleConstructors.newRBMap;
+
+/**
+ * An {@link InstrumentMaster} that knows the full symbol history of every instrument, e.g. that an instrument
+ * traded as "FB" until some date, and as "META" afterwards, and that "FB" may later have been reused for another
+ * instrument.
+ *
+ * <p> Each instrument's history is a sorted series of non-overlapping date ranges, stored as epoch-day int arrays
+ * (see {@link NonContiguousLocalDateRangeMap}); we also keep the reverse index, from each symbol to the instruments
+ * that used it over time. So every lookup is a hash lookup plus a binary search over the k ranges for that instrument
+ * or symbol, i.e. O(log k), where k is almost always 1 or 2. </p>
+ *
+ * <p> For code that looks up many instruments on the same date (e.g. printing an {@link IidSet}, or a backtest that
+ * processes one day at a time), there are bulk methods, and {@link #getDailySnapshot(LocalDate)}, which turns all
+ * lookups for a date into plain hash lookups. </p>
+ *
+ * <p> This is immutable, other than the cached snapshot, and is thread-safe. </p>
+ *
+ * @see IntervalIndexedInstrumentMasterLoader
+ */
+public class IntervalIndexedInstrumentMaster implements InstrumentMaster {
+
+  private final IidMap<NonContiguousLocalDateRangeMap<Symbol>> symbolHistories;
+  private final RBMap<Symbol, NonContiguousLocalDateRangeMap<InstrumentId>> instrumentIdHistories;
+  // Backtests usually ask for the same day's snapshot many times in a row, so we keep the last one.
+  private final AtomicReference<InstrumentMasterDailySnapshot> lastDailySnapshot;
+
+  private IntervalIndexedInstrumentMaster(
+      IidMap<NonContiguousLocalDateRangeMap<Symbol>> symbolHistories,
+      RBMap<Symbol, NonContiguousLocalDateRangeMap<InstrumentId>> instrumentIdHistories) {
+    this.symbolHistories = symbolHistories;
+    this.instrumentIdHistories = instrumentIdHistories;
+    this.lastDailySnapshot = new AtomicReference<>();
+  }
+
+  /**
+   * The intervals can be in any order. However, the intervals for the same instrument cannot overlap, and neither can
+   * the intervals for the same symbol, since a symbol can only refer to one instrument on any given date.
+   * Only an instrument's (or symbol's) last interval can be open-ended.
+   */
+  public static IntervalIndexedInstrumentMaster intervalIndexedInstrumentMaster(
+      List<SymbolValidityInterval> intervals) {
+    Map<InstrumentId, List<SymbolValidityInterval>> byInstrumentId = groupAndSort(
+        intervals, v -> v.getInstrumentId());
+    Map<Symbol, List<SymbolValidityInterval>> bySymbol = groupAndSort(
+        intervals, v -> v.getSymbol());
+
+    MutableIidMap<NonContiguousLocalDateRangeMap<Symbol>> symbolHistories =
+        newMutableIidMapWithExpectedSize(byInstrumentId.size());
+    byInstrumentId.forEach( (instrumentId, intervalsForInstrument) ->
+        symbolHistories.putAssumingAbsent(
+            instrumentId,
+            toRangeMap(intervalsForInstrument, v -> v.getSymbol())));
+
+    MutableRBMap<Symbol, NonContiguousLocalDateRangeMap<InstrumentId>> instrumentIdHistories =
+        newMutableRBMapWithExpectedSize(bySymbol.size());
+    bySymbol.forEach( (symbol, intervalsForSymbol) ->
+        instrumentIdHistories.putAssumingAbsent(
+            symbol,
+            toRangeMap(intervalsForSymbol, v -> v.getInstrumentId())));
+
+    return new IntervalIndexedInstrumentMaster(newIidMap(symbolHistories), newRBMap(instrumentIdHistories));
+  }
+
+  private static <K> Map<K, List<SymbolValidityInterval>> groupAndSort(
+      List<SymbolValidityInterval> intervals, Function<SymbolValidityInterval, K> keyExtractor) {
+    Map<K, List<SymbolValidityInterval>> grouped = new HashMap<>();
+    for (SymbolValidityInterval interval : intervals) {
+      grouped.computeIfAbsent(keyExtractor.apply(interval), ignored -> new ArrayList<>()).add(interval);
+    }
+    grouped.values().forEach(list -> list.sort(Comparator.comparing(v -> v.getFirstValidDate())));
+    return grouped;
+  }
+
+  // NonContiguousRangeMap will throw if any of the ranges overlap.
+  private static <V> NonContiguousLocalDateRangeMap<V> toRangeMap(
+      List<SymbolValidityInterval> sortedIntervals, Function<SymbolValidityInterval, V> valueExtractor) {
+    List<Range<LocalDate>> ranges = sortedIntervals
+        .stream()
+        .map(v -> v.getValidDates())
+        .collect(Collectors.toList());
+    List<V> values = sortedIntervals
+        .stream()
+        .map(valueExtractor)
+        .collect(Collectors.toList());
+    return nonContiguousLocalDateRangeMap(ranges, values);
+  }
+
+  @Override
+  public Optional<InstrumentId> getInstrumentId(Symbol symbol, LocalDate effectiveDate) {
+    Optional<NonContiguousLocalDateRangeMap<InstrumentId>> history = instrumentIdHistories.getOptional(symbol);
+    return history.isPresent()
+        ? history.get().getOptional(effectiveDate)
+        : Optional.empty();
+  }
+
+  @Override
+  public Optional<Symbol> getSymbol(InstrumentId instrumentId, LocalDate effectiveDate) {
+    Optional<NonContiguousLocalDateRangeMap<Symbol>> history = symbolHistories.getOptional(instrumentId);
+    return history.isPresent()
+        ? history.get().getOptional(effectiveDate)
+        : Optional.empty();
+  }
+
+  /**
+   * Returns the symbol that is valid on the date; otherwise, the last symbol the instrument had before the date.
+   */
+  @Override
+  public Optional<Symbol> getLatestValidSymbol(InstrumentId instrumentId, LocalDate effectiveDate) {
+    Optional<NonContiguousLocalDateRangeMap<Symbol>> history = symbolHistories.getOptional(instrumentId);
+    return history.isPresent()
+        ? history.get().getOptionalWithHighestKeyBelow(effectiveDate)
+        : Optional.empty();
+  }
+
+  /**
+   * Returns the symbols of the instruments that have a valid symbol on the date; the rest get omitted.
+   */
+  public IidMap<Symbol> getSymbols(IidSet instrumentIds, LocalDate effectiveDate) {
+    int epochDay = Math.toIntExact(effectiveDate.toEpochDay());
+    return instrumentIds.toIidMapWithFilteredKeys(instrumentId -> {
+      Optional<NonContiguousLocalDateRangeMap<Symbol>> history = symbolHistories.getOptional(instrumentId);
+      return history.isPresent()
+          ? history.get().getOptionalByEpochDay(epochDay)
+          : Optional.empty();
+    });
+  }
+
+  /**
+   * Like {@link #getSymbols(IidSet, LocalDate)}, but using {@link #getLatestValidSymbol(InstrumentId, LocalDate)}.
+   */
+  public IidMap<Symbol> getLatestValidSymbols(IidSet instrumentIds, LocalDate effectiveDate) {
+    int epochDay = Math.toIntExact(effectiveDate.toEpochDay());
+    return instrumentIds.toIidMapWithFilteredKeys(instrumentId -> {
+      Optional<NonContiguousLocalDateRangeMap<Symbol>> history = symbolHistories.getOptional(instrumentId);
+      return history.isPresent()
+          ? history.get().getOptionalWithHighestKeyBelowByEpochDay(epochDay)
+          : Optional.empty();
+    });
+  }
+
+  /**
+   * Returns the instrument IDs of the symbols that are valid on the date; the rest get omitted.
+   */
+  public RBMap<Symbol, InstrumentId> getInstrumentIds(RBSet<Symbol> symbols, LocalDate effectiveDate) {
+    int epochDay = Math.toIntExact(effectiveDate.toEpochDay());
+    MutableRBMap<Symbol, InstrumentId> mutableMap = newMutableRBMapWithExpectedSize(symbols.size());
+    for (Symbol symbol : symbols) {
+      instrumentIdHistories.getOptional(symbol)
+          .flatMap(history -> history.getOptionalByEpochDay(epochDay))
+          .ifPresent(instrumentId -> mutableMap.putAssumingAbsent(symbol, instrumentId));
+    }
+    return newRBMap(mutableMap);
+  }
+
+  /**
+   * Returns an {@link InstrumentMaster} that answers all lookups for this date with a single hash lookup.
+   * Building one takes time proportional to the number of instruments, so this is only worth it if you will do many
+   * lookups for the same date. We keep the last snapshot, so calling this repeatedly for the same date
+   * (e.g. once per instrument, or once per task in a backtest day) only builds it once.
+   */
+  public InstrumentMasterDailySnapshot getDailySnapshot(LocalDate date) {
+    InstrumentMasterDailySnapshot snapshot = lastDailySnapshot.get();
+    if (snapshot != null && snapshot.getDate().equals(date)) {
+      return snapshot;
+    }
+    // If two threads get here at the same time for the same date, they will both build the snapshot, which is fine.
+    InstrumentMasterDailySnapshot newSnapshot = buildDailySnapshot(date);
+    lastDailySnapshot.set(newSnapshot);
+    return newSnapshot;
+  }
+
+  private InstrumentMasterDailySnapshot buildDailySnapshot(LocalDate date) {
+    int epochDay = Math.toIntExact(date.toEpochDay());
+    MutableIidMap<Symbol> validSymbols = newMutableIidMapWithExpectedSize(symbolHistories.size());
+    MutableIidMap<Symbol> latestValidSymbols = newMutableIidMapWithExpectedSize(symbolHistories.size());
+    MutableRBMap<Symbol, InstrumentId> instrumentIds = newMutableRBMapWithExpectedSize(symbolHistories.size());
+    symbolHistories.forEachEntry( (instrumentId, history) -> {
+      history.getOptionalByEpochDay(epochDay).ifPresent(symbol -> {
+        validSymbols.putAssumingAbsent(instrumentId, symbol);
+        // A symbol can only belong to one instrument on any date, so this is the same as looking up the symbol
+        // in instrumentIdHistories.
+        instrumentIds.putAssumingAbsent(symbol, instrumentId);
+      });
+      history.getOptionalWithHighestKeyBelowByEpochDay(epochDay).ifPresent(symbol ->
+          latestValidSymbols.putAssumingAbsent(instrumentId, symbol));
+    });
+    return instrumentMasterDailySnapshot(
+        date, newIidMap(validSymbols), newIidMap(latestValidSymbols), newRBMap(instrumentIds), this);
+  }
+
+  public int getNumInstruments() {
+    return symbolHistories.size();
+  }
+
+  public int getNumSymbols() {
+    return instrumentIdHistories.size();
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[IIIM %s instruments ; %s symbols IIIM]", getNumInstruments(), getNumSymbols());
+  }
+
+}
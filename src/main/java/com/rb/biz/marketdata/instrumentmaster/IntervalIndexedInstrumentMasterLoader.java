@@ -0,0 +1,125 @@
+package com.rb.biz.marketdata.instrumentmaster;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Range;
+import com.rb.biz.types.asset.InstrumentId;
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.rb.biz.marketdata.instrumentmaster.IntervalIndexedInstrumentMaster.intervalIndexedInstrumentMaster;
+import static com.rb.biz.marketdata.instrumentmaster.SymbolValidityInterval.symbolValidityIntervalWithEnd;
+import static com.rb.biz.marketdata.instrumentmaster.SymbolValidityInterval.symbolValidityIntervalWithNoEnd;
+import static com.rb.biz.types.Symbol.symbol;
+import static com.rb.biz.types.asset.InstrumentId.instrumentId;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads and writes the symbol histories behind an {@link IntervalIndexedInstrumentMaster}, in a compact,
+ * line-based text format.
+ *
+ * <p> The first line is a header with a format version. Each other line is one {@link SymbolValidityInterval}, with
+ * 4 tab-separated columns: the numeric instrument ID, the symbol, and the epoch days of the first and last valid
+ * dates. The last column is empty if the symbol is still valid. Using epoch days instead of e.g. 2020-01-31
+ * keeps the file smaller, and means we don't need to parse any dates when loading it. </p>
+ */
+public class IntervalIndexedInstrumentMasterLoader {
+
+  private static final String FILE_HEADER = "RBIIIM";
+  private static final int FILE_FORMAT_VERSION = 1;
+  private static final char COLUMN_SEPARATOR = '\t';
+
+  public IntervalIndexedInstrumentMaster load(Path file) {
+    return intervalIndexedInstrumentMaster(readIntervals(file));
+  }
+
+  public List<SymbolValidityInterval> readIntervals(Path file) {
+    try (BufferedReader reader = Files.newBufferedReader(file, UTF_8)) {
+      return readIntervals(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public List<SymbolValidityInterval> readIntervals(BufferedReader reader) throws IOException {
+    String header = reader.readLine();
+    RBPreconditions.checkArgument(
+        Joiner.on(COLUMN_SEPARATOR).join(FILE_HEADER, FILE_FORMAT_VERSION).equals(header),
+        "Instrument master file has an unexpected header: %s",
+        header);
+    Splitter columnSplitter = Splitter.on(COLUMN_SEPARATOR);
+    List<SymbolValidityInterval> intervals = new ArrayList<>();
+    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+      if (line.isEmpty()) {
+        continue;
+      }
+      List<String> columns = columnSplitter.splitToList(line);
+      RBPreconditions.checkArgument(
+          columns.size() == 4,
+          "Malformed line in instrument master file: %s",
+          line);
+      InstrumentId instrumentId = instrumentId(parseLong(columns.get(0), line));
+      LocalDate firstValidDate = LocalDate.ofEpochDay(parseLong(columns.get(2), line));
+      String lastValidEpochDay = columns.get(3);
+      intervals.add(lastValidEpochDay.isEmpty()
+          ? symbolValidityIntervalWithNoEnd(instrumentId, symbol(columns.get(1)), firstValidDate)
+          : symbolValidityIntervalWithEnd(instrumentId, symbol(columns.get(1)), firstValidDate,
+              LocalDate.ofEpochDay(parseLong(lastValidEpochDay, line))));
+    }
+    return intervals;
+  }
+
+  private long parseLong(String column, String line) {
+    try {
+      return Long.parseLong(column);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(Strings.format(
+          "'%s' is not a valid number in this line of the instrument master file: %s",
+          column, line), e);
+    }
+  }
+
+  /**
+   * We first write to a temporary file and then move it, so that a reader never sees a half-written file.
+   */
+  public void write(List<SymbolValidityInterval> intervals, Path file) {
+    try {
+      Path parent = file.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      Path tempFile = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+      try (BufferedWriter writer = Files.newBufferedWriter(tempFile, UTF_8)) {
+        writeIntervals(intervals, writer);
+      }
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public void writeIntervals(List<SymbolValidityInterval> intervals, BufferedWriter writer) throws IOException {
+    Joiner columnJoiner = Joiner.on(COLUMN_SEPARATOR);
+    writer.write(columnJoiner.join(FILE_HEADER, FILE_FORMAT_VERSION));
+    writer.newLine();
+    for (SymbolValidityInterval interval : intervals) {
+      Range<LocalDate> validDates = interval.getValidDates();
+      writer.write(columnJoiner.join(
+          interval.getInstrumentId().asLong(),
+          interval.getSymbol().asString(),
+          validDates.lowerEndpoint().toEpochDay(),
+          validDates.hasUpperBound() ? Long.toString(validDates.upperEndpoint().toEpochDay()) : ""));
+      writer.newLine();
+    }
+  }
+
+}
@@ -0,0 +1,72 @@
+package com.rb.biz.marketdata.instrumentmaster;
+
+import com.google.common.collect.Range;
+import com.rb.biz.types.Symbol;
+import com.rb.biz.types.asset.InstrumentId;
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.time.LocalDate;
+
+import static com.rb.nonbiz.collections.RBRanges.rangeIsAtLeast;
+import static com.rb.nonbiz.collections.RBRanges.rangeIsClosed;
+
+/**
+ * Says that an {@link InstrumentId} traded under a {@link Symbol} for a range of dates.
+ * The range is closed, unless the symbol is still in use, in which case it's 'at least X' (no end date).
+ *
+ * <p> An instrument's full symbol history is a series of these; see {@link IntervalIndexedInstrumentMaster}. </p>
+ */
+public class SymbolValidityInterval {
+
+  private final InstrumentId instrumentId;
+  private final Symbol symbol;
+  private final Range<LocalDate> validDates;
+
+  private SymbolValidityInterval(InstrumentId instrumentId, Symbol symbol, Range<LocalDate> validDates) {
+    this.instrumentId = instrumentId;
+    this.symbol = symbol;
+    this.validDates = validDates;
+  }
+
+  public static SymbolValidityInterval symbolValidityInterval(
+      InstrumentId instrumentId, Symbol symbol, Range<LocalDate> validDates) {
+    RBPreconditions.checkArgument(
+        rangeIsClosed(validDates) || rangeIsAtLeast(validDates),
+        "Range of valid dates for %s / %s must be closed, or 'at least X'; was %s",
+        instrumentId, symbol, validDates);
+    return new SymbolValidityInterval(instrumentId, symbol, validDates);
+  }
+
+  public static SymbolValidityInterval symbolValidityIntervalWithEnd(
+      InstrumentId instrumentId, Symbol symbol, LocalDate firstValidDate, LocalDate lastValidDate) {
+    return symbolValidityInterval(instrumentId, symbol, Range.closed(firstValidDate, lastValidDate));
+  }
+
+  public static SymbolValidityInterval symbolValidityIntervalWithNoEnd(
+      InstrumentId instrumentId, Symbol symbol, LocalDate firstValidDate) {
+    return symbolValidityInterval(instrumentId, symbol, Range.atLeast(firstValidDate));
+  }
+
+  public InstrumentId getInstrumentId() {
+    return instrumentId;
+  }
+
+  public Symbol getSymbol() {
+    return symbol;
+  }
+
+  public Range<LocalDate> getValidDates() {
+    return validDates;
+  }
+
+  public LocalDate getFirstValidDate() {
+    return validDates.lowerEndpoint();
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[SVI %s %s %s SVI]", instrumentId, symbol, validDates);
+  }
+
+}
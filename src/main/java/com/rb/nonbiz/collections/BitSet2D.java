@@ -3,29 +3,64 @@ package com.rb.nonbiz.collections;
 import com.google.common.annotations.VisibleForTesting;
 import com.rb.nonbiz.util.RBPreconditions;
 
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * This is effectively a space-optimized 2-dimensional boolean array.
  *
- * <p> Internally, and although this is not exposed, we are using a 1-d plain {@link BitSet},
- * but this class has constant-time access for any row/column combination. </p>
+ * <p> Internally, and although this is not exposed, we store the bits in a flat long[], 64 bits per 'word',
+ * similar to a {@link BitSet}. However, each row starts at the beginning of a new word.
+ * This wastes up to 63 bits per row, but it means that operations on a whole row
+ * (e.g. cardinality, AND, OR, finding the next bit that's on) work on 64 bits at a time,
+ * instead of having to look at each bit separately. This class still has constant-time access
+ * for any row/column combination. </p>
+ *
+ * <p> Operations on a whole column can't work on words this way. If you need many of those,
+ * use {@link #transpose()} once, and then use the row operations of the result. </p>
  *
  * <p> This is a rare instance of a mutable class. </p>
  */
 public class BitSet2D {
 
-  private final BitSet flatBitSet;
+  private static final int BITS_PER_WORD = Long.SIZE;
+
+  private final long[] words;
   private final int numRows;
   private final int numColumns;
+  private final int wordsPerRow;
 
-  public BitSet2D(BitSet flatBitSet, int numRows, int numColumns) {
-    this.flatBitSet = flatBitSet;
+  private BitSet2D(long[] words, int numRows, int numColumns, int wordsPerRow) {
+    this.words = words;
     this.numRows = numRows;
     this.numColumns = numColumns;
+    this.wordsPerRow = wordsPerRow;
+  }
+
+  /**
+   * Creates a {@link BitSet2D} out of a flat {@link BitSet}, where bit (row, column) is at position
+   * row * numColumns + column. This copies the bits, so subsequent changes to the flat {@link BitSet}
+   * will not be reflected here, and vice versa.
+   */
+  public BitSet2D(BitSet flatBitSet, int numRows, int numColumns) {
+    this(allocateWords(numRows, numColumns), numRows, numColumns, calculateWordsPerRow(numColumns));
+    RBPreconditions.checkArgument(
+        flatBitSet.length() <= (long) numRows * numColumns,
+        "The flat BitSet has bits up to position %s , but a %s x %s BitSet2D only has %s positions",
+        flatBitSet.length() - 1, numRows, numColumns, (long) numRows * numColumns);
+    for (int flatIndex = flatBitSet.nextSetBit(0); flatIndex >= 0; flatIndex = flatBitSet.nextSetBit(flatIndex + 1)) {
+      set(flatIndex / numColumns, flatIndex % numColumns);
+    }
   }
 
   public static BitSet2D bitSet2D(int numRows, int numColumns) {
+    return new BitSet2D(allocateWords(numRows, numColumns), numRows, numColumns, calculateWordsPerRow(numColumns));
+  }
+
+  // This is static, so that the public constructor can check the dimensions before it calls this(...).
+  private static long[] allocateWords(int numRows, int numColumns) {
     RBPreconditions.checkArgument(
         numRows > 0,
         "You must have a positive number of rows, not %s",
@@ -34,20 +69,27 @@ public class BitSet2D {
         numColumns > 0,
         "You must have a positive number of columns, not %s",
         numColumns);
-    BitSet flatBitSet = new BitSet(numRows * numColumns);
-    return new BitSet2D(flatBitSet, numRows, numColumns);
+    return new long[numRows * calculateWordsPerRow(numColumns)];
+  }
+
+  private static int calculateWordsPerRow(int numColumns) {
+    return (numColumns + BITS_PER_WORD - 1) / BITS_PER_WORD;
   }
 
   public boolean get(int row, int column) {
-    return flatBitSet.get(getFlatIndex(row, column));
+    checkRowAndColumn(row, column);
+    return (words[getWordIndex(row, column)] & (1L << column)) != 0;
   }
 
   public void set(int row, int column) {
-    flatBitSet.set(getFlatIndex(row, column));
+    checkRowAndColumn(row, column);
+    // Like in java.util.BitSet, shifting a long by 'column' only uses the lowest 6 bits of 'column'.
+    words[getWordIndex(row, column)] |= 1L << column;
   }
 
   public void clear(int row, int column) {
-    flatBitSet.clear(getFlatIndex(row, column));
+    checkRowAndColumn(row, column);
+    words[getWordIndex(row, column)] &= ~(1L << column);
   }
 
   public void setAssumingOff(int row, int column) {
@@ -67,19 +109,24 @@ public class BitSet2D {
   }
 
   public int rowCardinality(int row) {
+    checkRow(row);
     int numBitsTurnedOn = 0;
-    for (int column = 0; column < getNumColumns(); column++) {
-      if (get(row, column)) {
-        numBitsTurnedOn++;
-      }
+    for (int wordIndex = row * wordsPerRow, end = wordIndex + wordsPerRow; wordIndex < end; wordIndex++) {
+      numBitsTurnedOn += Long.bitCount(words[wordIndex]);
     }
     return numBitsTurnedOn;
   }
 
+  /**
+   * This has to look at one word per row. If you need the cardinality of many columns,
+   * it's faster to use {@link #transpose()} once, and then {@link #rowCardinality(int)}.
+   */
   public int columnCardinality(int column) {
+    checkColumn(column);
     int numBitsTurnedOn = 0;
-    for (int row = 0; row < getNumRows(); row++) {
-      if (get(row, column)) {
+    long mask = 1L << column;
+    for (int wordIndex = column / BITS_PER_WORD; wordIndex < words.length; wordIndex += wordsPerRow) {
+      if ((words[wordIndex] & mask) != 0) {
         numBitsTurnedOn++;
       }
     }
@@ -87,24 +134,183 @@ public class BitSet2D {
   }
 
   public int cardinality() {
-    return flatBitSet.cardinality();
+    int numBitsTurnedOn = 0;
+    for (long word : words) {
+      numBitsTurnedOn += Long.bitCount(word);
+    }
+    return numBitsTurnedOn;
   }
 
-  private int getFlatIndex(int row, int column) {
+  /**
+   * Returns the first column at or after 'fromColumn' whose bit is on in this row, or -1 if there is none.
+   * This follows the same convention as {@link BitSet#nextSetBit(int)}.
+   */
+  public int nextSetBitInRow(int row, int fromColumn) {
+    checkRow(row);
     RBPreconditions.checkArgument(
-        0 <= row && row < getNumRows(),
-        "Row must be between 0 and %s , inclusive, but was %s",
-        getNumRows(), row);
+        fromColumn >= 0,
+        "fromColumn must not be negative, but was %s",
+        fromColumn);
+    if (fromColumn >= numColumns) {
+      return -1;
+    }
+    int rowStart = row * wordsPerRow;
+    int wordInRow = fromColumn / BITS_PER_WORD;
+    long word = words[rowStart + wordInRow] & (-1L << fromColumn);
+    while (true) {
+      if (word != 0) {
+        // Bits past the last column are never set, so we don't need to check against numColumns here.
+        return wordInRow * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+      }
+      wordInRow++;
+      if (wordInRow == wordsPerRow) {
+        return -1;
+      }
+      word = words[rowStart + wordInRow];
+    }
+  }
+
+  /**
+   * Calls the consumer with each column whose bit is on in this row, in increasing order.
+   */
+  public void forEachSetBitInRow(int row, IntConsumer columnConsumer) {
+    checkRow(row);
+    int rowStart = row * wordsPerRow;
+    for (int wordInRow = 0; wordInRow < wordsPerRow; wordInRow++) {
+      long word = words[rowStart + wordInRow];
+      while (word != 0) {
+        columnConsumer.accept(wordInRow * BITS_PER_WORD + Long.numberOfTrailingZeros(word));
+        word &= word - 1; // turns off the lowest bit that's on
+      }
+    }
+  }
+
+  /**
+   * Returns the columns whose bit is on in this row, in increasing order.
+   */
+  public IntStream setBitsInRowStream(int row) {
+    return getRow(row).stream();
+  }
+
+  /**
+   * Returns a copy of this row, as a {@link BitSet} indexed by column.
+   */
+  public BitSet getRow(int row) {
+    checkRow(row);
+    return BitSet.valueOf(Arrays.copyOfRange(words, row * wordsPerRow, (row + 1) * wordsPerRow));
+  }
+
+  /**
+   * Turns off every bit in this row whose column is not on in the mask; i.e. row = row AND mask.
+   */
+  public void andRow(int row, BitSet columnMask) {
+    checkRow(row);
+    long[] maskWords = columnMask.toLongArray();
+    int rowStart = row * wordsPerRow;
+    for (int wordInRow = 0; wordInRow < wordsPerRow; wordInRow++) {
+      words[rowStart + wordInRow] &= wordInRow < maskWords.length ? maskWords[wordInRow] : 0L;
+    }
+  }
+
+  /**
+   * Turns on every bit in this row whose column is on in the mask; i.e. row = row OR mask.
+   * The mask may not have any bits on past the last column.
+   */
+  public void orRow(int row, BitSet columnMask) {
+    checkRow(row);
     RBPreconditions.checkArgument(
-        0 <= column && column < getNumColumns(),
+        columnMask.length() <= numColumns,
+        "The mask has a bit on at column %s , but there are only %s columns",
+        columnMask.length() - 1, numColumns);
+    long[] maskWords = columnMask.toLongArray();
+    int rowStart = row * wordsPerRow;
+    for (int wordInRow = 0; wordInRow < maskWords.length; wordInRow++) {
+      words[rowStart + wordInRow] |= maskWords[wordInRow];
+    }
+  }
+
+  /**
+   * Returns the columns whose bits are on in every row in [fromRowInclusive, toRowExclusive).
+   *
+   * <p> E.g. if rows are dates and columns are instruments, this tells us which instruments
+   * have data on every day in a window. </p>
+   */
+  public BitSet andOfRows(int fromRowInclusive, int toRowExclusive) {
+    checkRowRange(fromRowInclusive, toRowExclusive);
+    long[] result = Arrays.copyOfRange(words, fromRowInclusive * wordsPerRow, (fromRowInclusive + 1) * wordsPerRow);
+    for (int row = fromRowInclusive + 1; row < toRowExclusive; row++) {
+      int rowStart = row * wordsPerRow;
+      for (int wordInRow = 0; wordInRow < wordsPerRow; wordInRow++) {
+        result[wordInRow] &= words[rowStart + wordInRow];
+      }
+    }
+    return BitSet.valueOf(result);
+  }
+
+  /**
+   * Returns the columns whose bits are on in at least one row in [fromRowInclusive, toRowExclusive).
+   */
+  public BitSet orOfRows(int fromRowInclusive, int toRowExclusive) {
+    checkRowRange(fromRowInclusive, toRowExclusive);
+    long[] result = Arrays.copyOfRange(words, fromRowInclusive * wordsPerRow, (fromRowInclusive + 1) * wordsPerRow);
+    for (int row = fromRowInclusive + 1; row < toRowExclusive; row++) {
+      int rowStart = row * wordsPerRow;
+      for (int wordInRow = 0; wordInRow < wordsPerRow; wordInRow++) {
+        result[wordInRow] |= words[rowStart + wordInRow];
+      }
+    }
+    return BitSet.valueOf(result);
+  }
+
+  /**
+   * Returns a new {@link BitSet2D} where rows and columns are swapped, i.e. bit (column, row) of the result
+   * is the same as bit (row, column) of this. Use this if you need to run many operations on columns,
+   * since those are much faster on rows.
+   *
+   * <p> This is a copy; subsequent changes to this object will not be reflected in the result. </p>
+   */
+  public BitSet2D transpose() {
+    BitSet2D transposed = bitSet2D(numColumns, numRows);
+    for (int row = 0; row < numRows; row++) {
+      int finalRow = row;
+      forEachSetBitInRow(row, column -> transposed.set(column, finalRow));
+    }
+    return transposed;
+  }
+
+  private int getWordIndex(int row, int column) {
+    return row * wordsPerRow + column / BITS_PER_WORD;
+  }
+
+  private void checkRowAndColumn(int row, int column) {
+    checkRow(row);
+    checkColumn(column);
+  }
+
+  private void checkRow(int row) {
+    RBPreconditions.checkArgumentWithoutAllocating(
+        row >= 0 && row < numRows,
+        "Row must be between 0 and %s , inclusive, but was %s",
+        numRows - 1, row);
+  }
+
+  private void checkColumn(int column) {
+    RBPreconditions.checkArgumentWithoutAllocating(
+        column >= 0 && column < numColumns,
         "Column must be between 0 and %s , inclusive, but was %s",
-        getNumColumns(), column);
-    return row * numColumns + column;
+        numColumns - 1, column);
+  }
+
+  private void checkRowRange(int fromRowInclusive, int toRowExclusive) {
+    RBPreconditions.checkArgument(
+        0 <= fromRowInclusive && fromRowInclusive < toRowExclusive && toRowExclusive <= numRows,
+        "Invalid row range [ %s , %s ) for a BitSet2D with %s rows; it must also be non-empty",
+        fromRowInclusive, toRowExclusive, numRows);
   }
 
   @VisibleForTesting // this is only here to help the test matcher
-  BitSet getFlatBitSet() {
-    return flatBitSet;
+  long[] getRawWords() {
+    return words;
   }
 
 }
@@ -38,11 +38,10 @@ public class ContiguousDiscreteRangeMap<K extends Comparable<? super K>, V> {
       List<Range<K>> ranges, List<V> values, UnaryOperator<K> nextItemGenerator) {
     NonContiguousRangeMap<K, V> nonContiguousMap = nonContiguousRangeMap(ranges, values);
     RBOrderingPreconditions.checkConsecutive(
-        nonContiguousMap.getRawRangeMap().asDescendingMapOfRanges().keySet(),
-        // Inverted order (range2, range1) is intentional; it effectively reverses the order of asDescendingMapOfRanges.
-        (range2, range1) -> (nextItemGenerator.apply(range1.upperEndpoint()).equals(range2.lowerEndpoint())),
+        nonContiguousMap.getRanges(),
+        (range1, range2) -> (nextItemGenerator.apply(range1.upperEndpoint()).equals(range2.lowerEndpoint())),
         "The %s ranges specified are not contiguous.",
-        nonContiguousMap.getRawRangeMap().asDescendingMapOfRanges().size());
+        nonContiguousMap.size());
     return new ContiguousDiscreteRangeMap<K, V>(nonContiguousMap);
   }
 
@@ -69,6 +68,14 @@ public class ContiguousDiscreteRangeMap<K extends Comparable<? super K>, V> {
     return underlyingMap.getOrThrow(key);
   }
 
+  /**
+   * Use this when you will perform many lookups with keys that never decrease, e.g. in a day-by-day loop.
+   * See {@link NonContiguousRangeMap.SweepCursor}.
+   */
+  public NonContiguousRangeMap<K, V>.SweepCursor newSweepCursor() {
+    return underlyingMap.newSweepCursor();
+  }
+
   public NonContiguousRangeMap<K, V> getUnderlyingMap() {
     return underlyingMap;
   }
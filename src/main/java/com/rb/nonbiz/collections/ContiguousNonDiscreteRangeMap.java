@@ -1,6 +1,6 @@
 package com.rb.nonbiz.collections;
 
-import com.google.common.collect.Iterables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeMap;
 import com.google.common.collect.TreeRangeMap;
@@ -26,6 +26,10 @@ import static java.util.Collections.singletonList;
  * Integers, LocalDates etc are NOT. </p>
  *
  * <p> A better word for this is 'continuous', but ContiguousContinuousRangeMap sounds very confusing. </p>
+ *
+ * <p> Since the ranges have no gaps, all we need to store is the starting points (in increasing order), plus the
+ * first invalid point after the last range, if there is one. Lookups binary-search on the starting points,
+ * which is faster and uses less memory than a Guava {@link TreeRangeMap}. </p>
  */
 // RangeMap is officially marked @Beta / unstable, but it sounds like this is an oversight. So it's safe to use.
 // https://github.com/google/guava/issues/3376
@@ -33,10 +37,15 @@ import static java.util.Collections.singletonList;
 @SuppressWarnings("UnstableApiUsage")
 public class ContiguousNonDiscreteRangeMap<K extends Comparable<? super K>, V> {
 
-  private final RangeMap<K, V> rawRangeMap;
+  private final List<K> rangeStartingPoints;
+  private final List<V> values;
+  private final Optional<K> firstInvalidPointAfterRanges;
 
-  private ContiguousNonDiscreteRangeMap(RangeMap<K, V> rawRangeMap) {
-    this.rawRangeMap = rawRangeMap;
+  private ContiguousNonDiscreteRangeMap(
+      List<K> rangeStartingPoints, List<V> values, Optional<K> firstInvalidPointAfterRanges) {
+    this.rangeStartingPoints = rangeStartingPoints;
+    this.values = values;
+    this.firstInvalidPointAfterRanges = firstInvalidPointAfterRanges;
   }
 
   /**
@@ -48,15 +57,8 @@ public class ContiguousNonDiscreteRangeMap<K extends Comparable<? super K>, V> {
       List<K> rangeStartingPoints,
       List<V> values) {
     sanityCheckCommon(rangeStartingPoints, values);
-    RangeMap<K, V> rawRangeMap = TreeRangeMap.create();
-    for (int i = 0; i < values.size(); i++) {
-      boolean isLast = (i == values.size() - 1);
-      Range<K> range = isLast
-          ? Range.<K>atLeast(rangeStartingPoints.get(i))
-          : Range.closedOpen(rangeStartingPoints.get(i), rangeStartingPoints.get(i + 1));
-      rawRangeMap.put(range, values.get(i));
-    }
-    return new ContiguousNonDiscreteRangeMap<K, V>(rawRangeMap);
+    return new ContiguousNonDiscreteRangeMap<K, V>(
+        ImmutableList.copyOf(rangeStartingPoints), ImmutableList.copyOf(values), Optional.empty());
   }
 
   /**
@@ -84,15 +86,8 @@ public class ContiguousNonDiscreteRangeMap<K extends Comparable<? super K>, V> {
         rangeStartingPoints.get(rangeStartingPoints.size() - 1).compareTo(firstInvalidPointAfterRanges) < 0,
         "First invalid point after ranges is %s but it is not strictly larger than the last starting point %s",
         firstInvalidPointAfterRanges, rangeStartingPoints.get(rangeStartingPoints.size() - 1));
-    RangeMap<K, V> rawRangeMap = TreeRangeMap.create();
-    for (int i = 0; i < values.size(); i++) {
-      boolean isLast = (i == values.size() - 1);
-      Range<K> range = Range.closedOpen(
-          rangeStartingPoints.get(i),
-          isLast ? firstInvalidPointAfterRanges : rangeStartingPoints.get(i + 1));
-      rawRangeMap.put(range, values.get(i));
-    }
-    return new ContiguousNonDiscreteRangeMap<K, V>(rawRangeMap);
+    return new ContiguousNonDiscreteRangeMap<K, V>(
+        ImmutableList.copyOf(rangeStartingPoints), ImmutableList.copyOf(values), Optional.of(firstInvalidPointAfterRanges));
   }
 
   /**
@@ -124,7 +119,23 @@ public class ContiguousNonDiscreteRangeMap<K extends Comparable<? super K>, V> {
   }
 
   public Optional<V> getOptional(K key) {
-    return Optional.ofNullable(rawRangeMap.get(key));
+    if (firstInvalidPointAfterRanges.isPresent() && firstInvalidPointAfterRanges.get().compareTo(key) <= 0) {
+      return Optional.empty();
+    }
+    // Binary search for the last range that starts at or before the key.
+    int low = 0;
+    int high = rangeStartingPoints.size() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (rangeStartingPoints.get(mid).compareTo(key) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high >= 0
+        ? Optional.of(values.get(high))
+        : Optional.empty();
   }
 
   public V getOrThrow(K key) {
@@ -136,24 +147,49 @@ public class ContiguousNonDiscreteRangeMap<K extends Comparable<? super K>, V> {
     return value.get();
   }
 
+  /**
+   * We no longer store a {@link RangeMap} internally, so this builds a new one every time it's called.
+   * It's only here for the rare cases that need the Guava interface; don't use it for lookups.
+   */
   public RangeMap<K, V> getRawRangeMap() {
+    RangeMap<K, V> rawRangeMap = TreeRangeMap.create();
+    for (int i = 0; i < values.size(); i++) {
+      boolean isLast = (i == values.size() - 1);
+      Range<K> range = !isLast
+          ? Range.closedOpen(rangeStartingPoints.get(i), rangeStartingPoints.get(i + 1))
+          : firstInvalidPointAfterRanges.isPresent()
+          ? Range.closedOpen(rangeStartingPoints.get(i), firstInvalidPointAfterRanges.get())
+          : Range.atLeast(rangeStartingPoints.get(i));
+      rawRangeMap.put(range, values.get(i));
+    }
     return rawRangeMap;
   }
 
+  /**
+   * The starting points of the ranges, in increasing order.
+   */
+  public List<K> getRangeStartingPoints() {
+    return rangeStartingPoints;
+  }
+
+  /**
+   * The values, in the same order as {@link #getRangeStartingPoints()}.
+   */
+  public List<V> getValues() {
+    return values;
+  }
+
   public boolean hasEnd() {
-    return Iterables.getLast(rawRangeMap.asMapOfRanges().keySet()).hasUpperBound();
+    return firstInvalidPointAfterRanges.isPresent();
   }
 
   public Optional<K> getFirstInvalidPointAfterRange() {
-    Range<K> lastRange = Iterables.getLast(rawRangeMap.asMapOfRanges().keySet());
-    return lastRange.hasUpperBound()
-        ? Optional.of(lastRange.upperEndpoint())
-        : Optional.empty();
+    return firstInvalidPointAfterRanges;
   }
 
   @Override
   public String toString() {
-    return Strings.format("[CNDRM %s CNDRM]", rawRangeMap);
+    return Strings.format("[CNDRM %s CNDRM]", getRawRangeMap());
   }
 
 }
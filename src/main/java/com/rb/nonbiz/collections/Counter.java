@@ -2,13 +2,20 @@ package com.rb.nonbiz.collections;
 
 import com.rb.nonbiz.util.RBBuilder;
 import com.rb.nonbiz.util.RBPreconditions;
+import gnu.trove.iterator.TIntIterator;
+import gnu.trove.iterator.TObjectIntIterator;
+import gnu.trove.map.hash.TObjectIntHashMap;
 
-import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntPredicate;
 
-import static com.rb.nonbiz.collections.MutableRBMap.newMutableRBMap;
+import static com.google.common.collect.Sets.newHashSetWithExpectedSize;
+import static com.rb.nonbiz.collections.MutableRBMap.newMutableRBMapWithExpectedSize;
 import static com.rb.nonbiz.collections.RBMapSimpleConstructors.newRBMap;
+import static com.rb.nonbiz.text.SmartFormatter.smartFormat;
+import static java.lang.Math.toIntExact;
 
 /**
  * Helps us keep a track of the number of times we have seen set of items.
@@ -17,15 +24,24 @@ import static com.rb.nonbiz.collections.RBMapSimpleConstructors.newRBMap;
  * We can only increment the counters of individual items and see their counts, but not overwrite the counts. </p>
  *
  * <p> This class is mutable, which is generally rare in the codebase, hence worth pointing out. </p>
+ *
+ * <p> The counts are stored in a GNU Trove object-to-int map, so incrementing a count does not box anything. </p>
+ *
+ * @see IidCounter
  */
 public class Counter<T> {
 
+  /**
+   * An {@link RBBuilder} that constructs a {@link Counter}.
+   *
+   * <p> This is not thread-safe; see {@link ConcurrentCounterBuilder} for that. </p>
+   */
   public static class CounterBuilder<T> implements RBBuilder<Counter<T>> {
 
-    private final MutableRBMap<T, Integer> rawMutableMap;
+    private final TObjectIntHashMap<T> rawCounts;
 
     private CounterBuilder() {
-      this.rawMutableMap = newMutableRBMap();
+      this.rawCounts = new TObjectIntHashMap<>();
     }
 
     public static <T> CounterBuilder<T> counterBuilder() {
@@ -37,8 +53,7 @@ public class Counter<T> {
           value >= 0,
           "cannot add value %s to counter; must be non-negative",
           value);
-      Optional<Integer> currentCount = rawMutableMap.getOptional(key);
-      rawMutableMap.put(key, currentCount.isPresent() ? currentCount.get() + value : value);
+      rawCounts.adjustOrPutValue(key, value, value);
       return this;
     }
 
@@ -58,34 +73,106 @@ public class Counter<T> {
 
     @Override
     public Counter<T> buildWithoutPreconditions() {
-      return new Counter<T>(newRBMap(rawMutableMap));
+      return new Counter<T>(rawCounts);
     }
 
   }
 
 
-  private final RBMap<T, Integer> rawMap;
+  /**
+   * Like {@link CounterBuilder}, except that multiple threads can add to it at the same time, without any locking.
+   *
+   * <p> Similar to {@link java.util.concurrent.atomic.LongAdder}, each thread accumulates into its own cell
+   * (here, its own primitive object-to-int map), so threads never contend with each other.
+   * The cells only get merged when we build the final {@link Counter}. </p>
+   *
+   * <p> #build must only be called after all threads are done adding. </p>
+   *
+   * @see IidCounter.ConcurrentIidCounterBuilder
+   */
+  public static class ConcurrentCounterBuilder<T> implements RBBuilder<Counter<T>> {
+
+    private final Queue<TObjectIntHashMap<T>> allPerThreadCounts;
+    private final ThreadLocal<TObjectIntHashMap<T>> perThreadCounts;
+
+    private ConcurrentCounterBuilder() {
+      this.allPerThreadCounts = new ConcurrentLinkedQueue<>();
+      this.perThreadCounts = ThreadLocal.withInitial( () -> {
+        TObjectIntHashMap<T> countsForThisThread = new TObjectIntHashMap<>();
+        allPerThreadCounts.add(countsForThisThread);
+        return countsForThisThread;
+      });
+    }
+
+    public static <T> ConcurrentCounterBuilder<T> concurrentCounterBuilder() {
+      return new ConcurrentCounterBuilder<>();
+    }
+
+    public ConcurrentCounterBuilder<T> add(T key, int value) {
+      RBPreconditions.checkArgument(
+          value >= 0,
+          "cannot add value %s to counter; must be non-negative",
+          value);
+      perThreadCounts.get().adjustOrPutValue(key, value, value);
+      return this;
+    }
+
+    public ConcurrentCounterBuilder<T> increment(T key) {
+      return add(key, 1);
+    }
+
+    @Override
+    public void sanityCheckContents() {
+      // there's no invalid state for this, so nothing to assert on
+    }
+
+    @Override
+    public Counter<T> buildWithoutPreconditions() {
+      TObjectIntHashMap<T> mergedCounts = new TObjectIntHashMap<>();
+      allPerThreadCounts.forEach(countsForOneThread ->
+          countsForOneThread.forEachEntry( (key, count) -> {
+            mergedCounts.adjustOrPutValue(key, count, count);
+            return true;
+          }));
+      return new Counter<T>(mergedCounts);
+    }
 
-  private Counter(RBMap<T, Integer> rawMap) {
-    this.rawMap = rawMap;
   }
 
+
+  private final TObjectIntHashMap<T> rawCounts;
+
+  private Counter(TObjectIntHashMap<T> rawCounts) {
+    this.rawCounts = rawCounts;
+  }
+
+  /**
+   * Throws if the sum does not fit in an int, instead of silently overflowing.
+   */
   public int getSumOfCounts() {
-    return rawMap.values()
-        .stream()
-        .reduce(0, Integer::sum);
+    long sum = 0;
+    for (TIntIterator iterator = rawCounts.valueCollection().iterator(); iterator.hasNext(); ) {
+      sum += iterator.next();
+    }
+    return toIntExact(sum);
   }
 
   public boolean isEmpty() {
-    return rawMap.isEmpty();
+    return rawCounts.isEmpty();
   }
 
   public int getCountOrThrow(T key) {
-    return rawMap.getOrThrow(key);
+    int count = rawCounts.get(key);
+    // Trove returns 0 for a missing key, so we only need the 2nd lookup in that case.
+    if (count == 0 && !rawCounts.containsKey(key)) {
+      throw new IllegalArgumentException(smartFormat(
+          "Key %s does not exist in Counter %s", key, this));
+    }
+    return count;
   }
 
   public int getCountOrZero(T key) {
-    return rawMap.getOrDefault(key, 0);
+    return rawCounts.get(key);
   }
 
   public Set<T> getItemsWithNonZeroCounts() {
@@ -93,10 +180,7 @@ public class Counter<T> {
   }
 
   public Set<T> getItemsWithCountOfAtLeast(int minCount) {
-    return rawMap.keySet()
-        .stream()
-        .filter(instrumentId -> getCountOrThrow(instrumentId) >= minCount)
-        .collect(Collectors.toSet());
+    return getItemsWithCountSatisfying(count -> count >= minCount);
   }
 
   public Set<T> getItemsWithCountOf(int countFilter) {
@@ -104,22 +188,36 @@ public class Counter<T> {
         countFilter >= 0,
         "You can't ask for the items with a negative count in the Counter: %s",
         countFilter);
-    return rawMap.keySet()
-        .stream()
-        .filter(instrumentId -> getCountOrThrow(instrumentId) == countFilter)
-        .collect(Collectors.toSet());
+    return getItemsWithCountSatisfying(count -> count == countFilter);
+  }
+
+  private Set<T> getItemsWithCountSatisfying(IntPredicate countPredicate) {
+    Set<T> items = newHashSetWithExpectedSize(rawCounts.size());
+    for (TObjectIntIterator<T> iterator = rawCounts.iterator(); iterator.hasNext(); ) {
+      iterator.advance();
+      if (countPredicate.test(iterator.value())) {
+        items.add(iterator.key());
+      }
+    }
+    return items;
   }
 
   /**
    * Do not use this; it is here to help the test matcher and by a JSON API converter.
+   * It boxes every count, so it is not cheap.
    */
   public RBMap<T, Integer> getRawMapUnsafe() {
-    return rawMap;
+    MutableRBMap<T, Integer> mutableMap = newMutableRBMapWithExpectedSize(rawCounts.size());
+    rawCounts.forEachEntry( (key, count) -> {
+      mutableMap.putAssumingAbsent(key, count);
+      return true;
+    });
+    return newRBMap(mutableMap);
   }
 
   @Override
   public String toString() {
-    return rawMap.toString();
+    return getRawMapUnsafe().toString();
   }
 
 }
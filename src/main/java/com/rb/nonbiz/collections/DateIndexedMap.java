@@ -0,0 +1,292 @@
+package com.rb.nonbiz.collections;
+
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBBuilder;
+import com.rb.nonbiz.util.RBPreconditions;
+import gnu.trove.map.hash.TIntObjectHashMap;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+
+import static com.rb.nonbiz.collections.MutableRBMap.newMutableRBMapWithExpectedSize;
+import static com.rb.nonbiz.collections.RBMapSimpleConstructors.newRBMap;
+import static com.rb.nonbiz.text.SmartFormatter.smartFormat;
+
+/**
+ * A faster alternative to an {@code RBMap<LocalDate, V>}, for when the dates are not too far from each other,
+ * and we need to look up values very often (e.g. every day in a backtest that spans decades).
+ *
+ * <p> The values are stored in an array with one slot per calendar day, from the first to the last date in the map,
+ * so a lookup is an array access at (epoch day of the date - epoch day of the first date), without hashing a
+ * {@link LocalDate}. We also precompute, for every day in that span, the position of the nearest day on or before
+ * it (and on or after it) that has a value. That makes lookups such as 'the latest value as of this date'
+ * constant-time as well, regardless of how far back that value is. </p>
+ *
+ * <p> The downside is that this uses memory proportional to the number of calendar days between the first and
+ * last date, not to the number of dates with a value. So it's not a good fit if the dates are very sparse. </p>
+ *
+ * <p> This is immutable. Use {@link DateIndexedMapBuilder}, or convert from an existing {@link RBMap} or
+ * {@link NearbyDatesMap}. </p>
+ *
+ * @see NearbyDatesMap
+ */
+public class DateIndexedMap<V> {
+
+  private final int firstEpochDay;
+  // Slot i has the value for epoch day (firstEpochDay + i), or null if there is no value for that day.
+  private final Object[] values;
+  // Slot i has the largest j <= i such that values[j] is not null, or -1 if there is none.
+  private final int[] indexOfNearestValueOnOrBefore;
+  // Slot i has the smallest j >= i such that values[j] is not null, or -1 if there is none.
+  private final int[] indexOfNearestValueOnOrAfter;
+  private final int size;
+
+  private DateIndexedMap(int firstEpochDay, Object[] values, int size) {
+    this.firstEpochDay = firstEpochDay;
+    this.values = values;
+    this.size = size;
+
+    int numSlots = values.length;
+    this.indexOfNearestValueOnOrBefore = new int[numSlots];
+    this.indexOfNearestValueOnOrAfter = new int[numSlots];
+    int nearest = -1;
+    for (int i = 0; i < numSlots; i++) {
+      if (values[i] != null) {
+        nearest = i;
+      }
+      indexOfNearestValueOnOrBefore[i] = nearest;
+    }
+    nearest = -1;
+    for (int i = numSlots - 1; i >= 0; i--) {
+      if (values[i] != null) {
+        nearest = i;
+      }
+      indexOfNearestValueOnOrAfter[i] = nearest;
+    }
+  }
+
+  public static <V> DateIndexedMap<V> dateIndexedMap(RBMap<LocalDate, V> rbMap) {
+    DateIndexedMapBuilder<V> builder = DateIndexedMapBuilder.dateIndexedMapBuilder();
+    rbMap.forEachEntry( (date, value) -> builder.putAssumingAbsent(date, value));
+    return builder.build();
+  }
+
+  public static <V> DateIndexedMap<V> dateIndexedMap(NearbyDatesMap<V> nearbyDatesMap) {
+    return dateIndexedMap(nearbyDatesMap.getRawDateMap());
+  }
+
+  public static <V> DateIndexedMap<V> emptyDateIndexedMap() {
+    return new DateIndexedMap<>(0, new Object[0], 0);
+  }
+
+  public Optional<V> getOptional(LocalDate date) {
+    return getOptionalByEpochDay(toEpochDayInt(date));
+  }
+
+  public Optional<V> getOptionalByEpochDay(int epochDay) {
+    long index = (long) epochDay - firstEpochDay;
+    return index < 0 || index >= values.length
+        ? Optional.empty()
+        : Optional.ofNullable(getValueAt((int) index));
+  }
+
+  public V getOrThrow(LocalDate date) {
+    Optional<V> value = getOptional(date);
+    if (!value.isPresent()) {
+      throw new IllegalArgumentException(smartFormat(
+          "No value for date %s ; dates with values range from %s to %s",
+          date, getOptionalFirstDate(), getOptionalLastDate()));
+    }
+    return value.get();
+  }
+
+  public boolean containsDate(LocalDate date) {
+    return getOptional(date).isPresent();
+  }
+
+  /**
+   * Returns the latest date on or before the one passed in that has a value, if any.
+   */
+  public Optional<LocalDate> getOptionalDateOnOrBefore(LocalDate date) {
+    int index = indexOfNearestValueOnOrBefore(toEpochDayInt(date));
+    return index < 0 ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(firstEpochDay + index));
+  }
+
+  /**
+   * Returns the value for the latest date on or before the one passed in, if any.
+   * This is useful for 'as of' lookups, e.g. the latest known value on some day.
+   */
+  public Optional<V> getOptionalValueOnOrBefore(LocalDate date) {
+    int index = indexOfNearestValueOnOrBefore(toEpochDayInt(date));
+    return index < 0 ? Optional.empty() : Optional.of(getValueAt(index));
+  }
+
+  /**
+   * Returns the earliest date on or after the one passed in that has a value, if any.
+   */
+  public Optional<LocalDate> getOptionalDateOnOrAfter(LocalDate date) {
+    int index = indexOfNearestValueOnOrAfter(toEpochDayInt(date));
+    return index < 0 ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(firstEpochDay + index));
+  }
+
+  /**
+   * Returns the value for the earliest date on or after the one passed in, if any.
+   */
+  public Optional<V> getOptionalValueOnOrAfter(LocalDate date) {
+    int index = indexOfNearestValueOnOrAfter(toEpochDayInt(date));
+    return index < 0 ? Optional.empty() : Optional.of(getValueAt(index));
+  }
+
+  /**
+   * Calls the consumer for each date in the window (inclusive on both ends) that has a value, in increasing date order.
+   * It's fine for the window to extend beyond the dates in this map.
+   */
+  public void forEachEntryInWindow(ClosedRange<LocalDate> window, BiConsumer<LocalDate, V> consumer) {
+    // Clamping in long before casting, so that windows far away from firstEpochDay cannot overflow.
+    int fromIndex = (int) Math.max(0, (long) toEpochDayInt(window.lowerEndpoint()) - firstEpochDay);
+    int toIndexInclusive = (int) Math.min(
+        values.length - 1, (long) toEpochDayInt(window.upperEndpoint()) - firstEpochDay);
+    for (int i = fromIndex; i <= toIndexInclusive; i++) {
+      V value = getValueAt(i);
+      if (value != null) {
+        consumer.accept(LocalDate.ofEpochDay(firstEpochDay + i), value);
+      }
+    }
+  }
+
+  /**
+   * Calls the consumer for each date that has a value, in increasing date order.
+   */
+  public void forEachEntry(BiConsumer<LocalDate, V> consumer) {
+    for (int i = 0; i < values.length; i++) {
+      V value = getValueAt(i);
+      if (value != null) {
+        consumer.accept(LocalDate.ofEpochDay(firstEpochDay + i), value);
+      }
+    }
+  }
+
+  public Optional<LocalDate> getOptionalFirstDate() {
+    return isEmpty() ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(firstEpochDay));
+  }
+
+  public Optional<LocalDate> getOptionalLastDate() {
+    return isEmpty() ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(firstEpochDay + values.length - 1));
+  }
+
+  /**
+   * The number of dates with a value; not the number of calendar days between the first and last date.
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public RBMap<LocalDate, V> toRBMap() {
+    MutableRBMap<LocalDate, V> mutableMap = newMutableRBMapWithExpectedSize(size);
+    forEachEntry( (date, value) -> mutableMap.putAssumingAbsent(date, value));
+    return newRBMap(mutableMap);
+  }
+
+  @SuppressWarnings("unchecked")
+  private V getValueAt(int index) {
+    return (V) values[index];
+  }
+
+  // The index is a long, so that dates far away from firstEpochDay cannot overflow into a valid index.
+  private int indexOfNearestValueOnOrBefore(int epochDay) {
+    long index = (long) epochDay - firstEpochDay;
+    return index < 0 || values.length == 0
+        ? -1
+        : indexOfNearestValueOnOrBefore[(int) Math.min(index, values.length - 1)];
+  }
+
+  private int indexOfNearestValueOnOrAfter(int epochDay) {
+    long index = (long) epochDay - firstEpochDay;
+    return index >= values.length || values.length == 0
+        ? -1
+        : indexOfNearestValueOnOrAfter[(int) Math.max(index, 0)];
+  }
+
+  private static int toEpochDayInt(LocalDate date) {
+    long epochDay = date.toEpochDay();
+    RBPreconditions.checkArgumentWithoutAllocating(
+        epochDay >= Integer.MIN_VALUE && epochDay <= Integer.MAX_VALUE,
+        "Date %s is too far in the past or future to be stored as an int epoch day", date);
+    return (int) epochDay;
+  }
+
+  @Override
+  public String toString() {
+    StringJoiner joiner = new StringJoiner(" ; ");
+    forEachEntry( (date, value) -> joiner.add(Strings.format("%s = %s", date, value)));
+    return Strings.format("[DIM %s DIM]", joiner);
+  }
+
+
+  /**
+   * Use this to build a {@link DateIndexedMap} one date at a time. The dates can be added in any order.
+   */
+  public static class DateIndexedMapBuilder<V> implements RBBuilder<DateIndexedMap<V>> {
+
+    // Keyed by epoch day. We only know how big the final array needs to be once all dates are in.
+    private final TIntObjectHashMap<V> valuesByEpochDay;
+    private int minEpochDay;
+    private int maxEpochDay;
+
+    private DateIndexedMapBuilder() {
+      this.valuesByEpochDay = new TIntObjectHashMap<>();
+      this.minEpochDay = Integer.MAX_VALUE;
+      this.maxEpochDay = Integer.MIN_VALUE;
+    }
+
+    public static <V> DateIndexedMapBuilder<V> dateIndexedMapBuilder() {
+      return new DateIndexedMapBuilder<>();
+    }
+
+    public DateIndexedMapBuilder<V> putAssumingAbsent(LocalDate date, V value) {
+      RBPreconditions.checkNotNull(value, "Value for date %s cannot be null", date);
+      int epochDay = toEpochDayInt(date);
+      V previousValue = valuesByEpochDay.put(epochDay, value);
+      RBPreconditions.checkArgument(
+          previousValue == null,
+          "Date %s already has a value of %s ; cannot put %s",
+          date, previousValue, value);
+      minEpochDay = Math.min(minEpochDay, epochDay);
+      maxEpochDay = Math.max(maxEpochDay, epochDay);
+      return this;
+    }
+
+    @Override
+    public void sanityCheckContents() {
+      if (valuesByEpochDay.isEmpty()) {
+        return;
+      }
+      long numSlots = (long) maxEpochDay - minEpochDay + 1;
+      RBPreconditions.checkArgument(
+          numSlots <= Integer.MAX_VALUE - 8, // a few bytes less than the max, to be safe with JVM array header limits
+          "Dates from %s to %s span %s calendar days; that's too many for a DateIndexedMap",
+          LocalDate.ofEpochDay(minEpochDay), LocalDate.ofEpochDay(maxEpochDay), numSlots);
+    }
+
+    @Override
+    public DateIndexedMap<V> buildWithoutPreconditions() {
+      if (valuesByEpochDay.isEmpty()) {
+        return emptyDateIndexedMap();
+      }
+      Object[] values = new Object[maxEpochDay - minEpochDay + 1];
+      valuesByEpochDay.forEachEntry( (epochDay, value) -> {
+        values[epochDay - minEpochDay] = value;
+        return true;
+      });
+      return new DateIndexedMap<>(minEpochDay, values, valuesByEpochDay.size());
+    }
+
+  }
+
+}
@@ -0,0 +1,120 @@
+package com.rb.nonbiz.collections;
+
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.util.Arrays;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+
+/**
+ * A read-only view of a regularly spaced subset of the items of a double[], e.g. a single row or a single column
+ * of a 2d array that's stored in a flat, row-major double[]. See {@link MutableDoubleIndexableArray2D}.
+ *
+ * <p> This does not copy anything; it just remembers where the first item is ('offset'),
+ * how far apart consecutive items are ('stride'), and how many items there are. For a row of a row-major array,
+ * the stride is 1; for a column, the stride is the number of columns. </p>
+ *
+ * <p> Because this is a view, any subsequent changes to the underlying array will be visible through it. </p>
+ */
+public class DoubleArraySliceView {
+
+  private final double[] rawArray;
+  private final int offset;
+  private final int stride;
+  private final int size;
+
+  private DoubleArraySliceView(double[] rawArray, int offset, int stride, int size) {
+    this.rawArray = rawArray;
+    this.offset = offset;
+    this.stride = stride;
+    this.size = size;
+  }
+
+  public static DoubleArraySliceView doubleArraySliceView(double[] rawArray, int offset, int stride, int size) {
+    RBPreconditions.checkArgument(
+        offset >= 0 && stride >= 1 && size >= 0,
+        "Invalid slice: offset %s , stride %s , size %s",
+        offset, stride, size);
+    RBPreconditions.checkArgument(
+        size == 0 || offset + (long) (size - 1) * stride < rawArray.length,
+        "Slice with offset %s , stride %s , size %s goes past the end of an array of length %s",
+        offset, stride, size, rawArray.length);
+    return new DoubleArraySliceView(rawArray, offset, stride, size);
+  }
+
+  public double get(int index) {
+    RBPreconditions.checkArgumentWithoutAllocating(
+        index >= 0 && index < size,
+        "Index %s is out of bounds for a slice of size %s", index, size);
+    return rawArray[offset + index * stride];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public double sum() {
+    double sum = 0;
+    for (int i = 0, position = offset; i < size; i++, position += stride) {
+      sum += rawArray[position];
+    }
+    return sum;
+  }
+
+  public double min() {
+    checkNotEmpty("min");
+    double min = rawArray[offset];
+    for (int i = 1, position = offset + stride; i < size; i++, position += stride) {
+      min = Math.min(min, rawArray[position]);
+    }
+    return min;
+  }
+
+  public double max() {
+    checkNotEmpty("max");
+    double max = rawArray[offset];
+    for (int i = 1, position = offset + stride; i < size; i++, position += stride) {
+      max = Math.max(max, rawArray[position]);
+    }
+    return max;
+  }
+
+  public double mean() {
+    checkNotEmpty("mean");
+    return sum() / size;
+  }
+
+  /**
+   * Unlike the rest of this class, this creates a copy.
+   */
+  public double[] toDoubleArray() {
+    double[] copy = new double[size];
+    for (int i = 0, position = offset; i < size; i++, position += stride) {
+      copy[i] = rawArray[position];
+    }
+    return copy;
+  }
+
+  public DoubleStream doubleStream() {
+    return IntStream.range(0, size).mapToDouble(i -> rawArray[offset + i * stride]);
+  }
+
+  private void checkNotEmpty(String operation) {
+    RBPreconditions.checkArgument(
+        size > 0,
+        "Cannot compute the %s of an empty slice",
+        operation);
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[DASV %s DASV]", Arrays.toString(toDoubleArray()));
+  }
+
+}
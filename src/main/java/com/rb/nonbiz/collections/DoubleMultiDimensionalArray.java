@@ -0,0 +1,261 @@
+package com.rb.nonbiz.collections;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+import org.apache.commons.math3.util.MultidimensionalCounter;
+
+import java.util.Arrays;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+import static com.rb.nonbiz.collections.MultiDimensionalArrays.multiDimensionalArray;
+import static com.rb.nonbiz.collections.MutableDoubleMultiDimensionalArray.mutableDoubleMultiDimensionalArrayFromFlatValues;
+
+/**
+ * A specialized, more memory-efficient alternative to a {@code MultiDimensionalArray<Double>}.
+ * This is the immutable version of {@link MutableDoubleMultiDimensionalArray}.
+ *
+ * <p> In addition to lookups, this supports slicing, and reducing along a single dimension
+ * (e.g. summing, or finding the position of the maximum). Because the values live in a single flat array
+ * with known strides, these run as plain loops over the array, without creating a {@link Coordinates}
+ * (or anything else) per cell. For large arrays (e.g. a parameter sweep grid with millions of cells),
+ * the work gets split across the threads of the common fork-join pool. </p>
+ *
+ * <p> Like {@link MultiDimensionalArrays#getSliceOfMultiDimensionalArray}, the results of slicing and reducing
+ * keep the same number of dimensions; the dimension that got sliced or reduced just has a size of 1. </p>
+ *
+ * @see MultiDimensionalArray
+ */
+public class DoubleMultiDimensionalArray {
+
+  // Below roughly this many cells per thread, splitting the work across threads costs more than it saves.
+  private static final int MIN_CELLS_PER_PARALLEL_TASK = 1 << 14;
+
+  /**
+   * Processes a contiguous range [outputStart, outputEnd) of the cells of the result of slicing or reducing
+   * along some dimension. The k-th value along that dimension, for result cell j, is at position
+   * inputOffset + k * (stride of the dimension) + j of the original flat array.
+   */
+  private interface SegmentProcessor {
+
+    void process(int outputStart, int outputEnd, int inputOffset);
+
+  }
+
+  private final MutableDoubleMultiDimensionalArray rawMutableArray;
+
+  private DoubleMultiDimensionalArray(MutableDoubleMultiDimensionalArray rawMutableArray) {
+    this.rawMutableArray = rawMutableArray;
+  }
+
+  public static DoubleMultiDimensionalArray newDoubleMultiDimensionalArray(
+      MutableDoubleMultiDimensionalArray rawMutableArray) {
+    return new DoubleMultiDimensionalArray(rawMutableArray);
+  }
+
+  public static DoubleMultiDimensionalArray doubleMultiDimensionalArrayFromBoxed(
+      MultiDimensionalArray<Double> boxedArray) {
+    return newDoubleMultiDimensionalArray(mutableDoubleMultiDimensionalArrayFromFlatValues(
+        // Both classes use the MultidimensionalCounter order, so the flat orders match.
+        boxedArray.stream().mapToDouble(v -> v).toArray(),
+        boxedArray.getMultidimensionalCounter().getSizes()));
+  }
+
+  public double get(Coordinates coordinates) {
+    return rawMutableArray.get(coordinates);
+  }
+
+  public double getByFlatIndex(int flatIndex) {
+    return rawMutableArray.getByFlatIndex(flatIndex);
+  }
+
+  public int getFlatIndex(Coordinates coordinates) {
+    return rawMutableArray.getFlatIndex(coordinates);
+  }
+
+  public int getNumDimensions() {
+    return rawMutableArray.getNumDimensions();
+  }
+
+  public int getSize(int dimension) {
+    return rawMutableArray.getSize(dimension);
+  }
+
+  public int getStride(int dimension) {
+    return rawMutableArray.getStride(dimension);
+  }
+
+  public int getNumCells() {
+    return rawMutableArray.getNumCells();
+  }
+
+  public int[] getSizes() {
+    return rawMutableArray.getSizes();
+  }
+
+  public MultidimensionalCounter getMultidimensionalCounter() {
+    return rawMutableArray.getMultidimensionalCounter();
+  }
+
+  @VisibleForTesting // don't use this; it's here to help the matcher
+  MutableDoubleMultiDimensionalArray getRawMutableArray() {
+    return rawMutableArray;
+  }
+
+  /**
+   * Streams the values in the flat (last dimension varies fastest) order.
+   */
+  public DoubleStream doubleStream() {
+    return Arrays.stream(rawMutableArray.getValuesUnsafe());
+  }
+
+  public MultiDimensionalArray<Double> toBoxedMultiDimensionalArray() {
+    double[] values = rawMutableArray.getValuesUnsafe();
+    return multiDimensionalArray(getMultidimensionalCounter(), (flatIndex, ignoredCoordinates) -> values[flatIndex]);
+  }
+
+  /**
+   * Returns a copy of the cells where the 'sliceDimension'-th coordinate is 'sliceCoordinate'.
+   * See {@link MultiDimensionalArrays#getSliceOfMultiDimensionalArray} for an explanation.
+   */
+  public DoubleMultiDimensionalArray getSlice(int sliceDimension, int sliceCoordinate) {
+    checkValidDimension(sliceDimension);
+    RBPreconditions.checkArgument(
+        0 <= sliceCoordinate && sliceCoordinate < getSize(sliceDimension),
+        "Slice coordinate %s is invalid; dimension %s has size %s",
+        sliceCoordinate, sliceDimension, getSize(sliceDimension));
+    double[] values = rawMutableArray.getValuesUnsafe();
+    double[] sliced = new double[getNumCells() / getSize(sliceDimension)];
+    int sliceOffset = sliceCoordinate * getStride(sliceDimension);
+    forEachSegmentOfResult(sliceDimension, (outputStart, outputEnd, inputOffset) ->
+        System.arraycopy(values, inputOffset + sliceOffset + outputStart, sliced, outputStart, outputEnd - outputStart));
+    return makeResultWithDimensionOfSize1(sliced, sliceDimension);
+  }
+
+  /**
+   * Combines all the values along the specified dimension using the reducer, e.g. {@code Double::sum}.
+   *
+   * <p> The values are combined in order of increasing coordinate along the dimension, starting with the
+   * value at coordinate 0; there is no 'identity' value. </p>
+   */
+  public DoubleMultiDimensionalArray reduceAlongDimension(int dimension, DoubleBinaryOperator reducer) {
+    checkValidDimension(dimension);
+    double[] values = rawMutableArray.getValuesUnsafe();
+    double[] reduced = new double[getNumCells() / getSize(dimension)];
+    int dimensionSize = getSize(dimension);
+    int stride = getStride(dimension);
+    forEachSegmentOfResult(dimension, (outputStart, outputEnd, inputOffset) -> {
+      System.arraycopy(values, inputOffset + outputStart, reduced, outputStart, outputEnd - outputStart);
+      for (int k = 1; k < dimensionSize; k++) {
+        int offset = inputOffset + k * stride;
+        for (int j = outputStart; j < outputEnd; j++) {
+          reduced[j] = reducer.applyAsDouble(reduced[j], values[offset + j]);
+        }
+      }
+    });
+    return makeResultWithDimensionOfSize1(reduced, dimension);
+  }
+
+  public DoubleMultiDimensionalArray sumAlongDimension(int dimension) {
+    return reduceAlongDimension(dimension, (v1, v2) -> v1 + v2);
+  }
+
+  public DoubleMultiDimensionalArray minAlongDimension(int dimension) {
+    return reduceAlongDimension(dimension, Math::min);
+  }
+
+  public DoubleMultiDimensionalArray maxAlongDimension(int dimension) {
+    return reduceAlongDimension(dimension, Math::max);
+  }
+
+  public DoubleMultiDimensionalArray meanAlongDimension(int dimension) {
+    double[] sums = sumAlongDimension(dimension).rawMutableArray.getValuesUnsafe();
+    int dimensionSize = getSize(dimension);
+    for (int i = 0; i < sums.length; i++) {
+      sums[i] /= dimensionSize;
+    }
+    return makeResultWithDimensionOfSize1(sums, dimension);
+  }
+
+  /**
+   * For each cell of the result of reducing along 'dimension', returns the coordinate along that dimension
+   * where the value is the largest. Ties go to the smallest coordinate.
+   *
+   * <p> The result is in the same flat order as the values of e.g. {@link #maxAlongDimension}, i.e. position i of the
+   * result here is the coordinate of the value that ends up in flat index i of {@link #maxAlongDimension}. </p>
+   */
+  public int[] argMaxAlongDimension(int dimension) {
+    checkValidDimension(dimension);
+    double[] values = rawMutableArray.getValuesUnsafe();
+    int numOutputs = getNumCells() / getSize(dimension);
+    double[] max = new double[numOutputs];
+    int[] argMax = new int[numOutputs];
+    int dimensionSize = getSize(dimension);
+    int stride = getStride(dimension);
+    forEachSegmentOfResult(dimension, (outputStart, outputEnd, inputOffset) -> {
+      System.arraycopy(values, inputOffset + outputStart, max, outputStart, outputEnd - outputStart);
+      for (int k = 1; k < dimensionSize; k++) {
+        int offset = inputOffset + k * stride;
+        for (int j = outputStart; j < outputEnd; j++) {
+          double value = values[offset + j];
+          if (value > max[j]) {
+            max[j] = value;
+            argMax[j] = k;
+          }
+        }
+      }
+    });
+    return argMax;
+  }
+
+  /**
+   * The result of slicing or reducing along 'dimension' has (# of cells / size of dimension) cells. Result cell j
+   * corresponds to an 'outer' block (all dimensions before 'dimension') and an 'inner' offset (all dimensions after).
+   * Within an outer block, consecutive result cells map to consecutive cells of the original, so we hand out
+   * contiguous segments, which keeps the inner loops simple and cache-friendly.
+   */
+  private void forEachSegmentOfResult(int dimension, SegmentProcessor segmentProcessor) {
+    int dimensionSize = getSize(dimension);
+    int stride = getStride(dimension);
+    int numOutputs = getNumCells() / dimensionSize;
+    int numChunks = Math.max(1, Math.min(numOutputs, getNumCells() / MIN_CELLS_PER_PARALLEL_TASK));
+    IntConsumer processChunk = chunk -> {
+      int chunkStart = (int) ((long) chunk * numOutputs / numChunks);
+      int chunkEnd = (int) ((long) (chunk + 1) * numOutputs / numChunks);
+      int segmentStart = chunkStart;
+      while (segmentStart < chunkEnd) {
+        int outerIndex = segmentStart / stride;
+        int segmentEnd = Math.min(chunkEnd, (outerIndex + 1) * stride);
+        segmentProcessor.process(segmentStart, segmentEnd, outerIndex * (dimensionSize - 1) * stride);
+        segmentStart = segmentEnd;
+      }
+    };
+    if (numChunks == 1) {
+      processChunk.accept(0);
+    } else {
+      IntStream.range(0, numChunks).parallel().forEach(processChunk);
+    }
+  }
+
+  private DoubleMultiDimensionalArray makeResultWithDimensionOfSize1(double[] resultValues, int dimension) {
+    int[] resultSizes = getSizes(); // this is a copy, so it's OK to modify it
+    resultSizes[dimension] = 1;
+    return newDoubleMultiDimensionalArray(mutableDoubleMultiDimensionalArrayFromFlatValues(resultValues, resultSizes));
+  }
+
+  private void checkValidDimension(int dimension) {
+    RBPreconditions.checkArgument(
+        0 <= dimension && dimension < getNumDimensions(),
+        "Dimension %s is invalid; there are only %s dimensions",
+        dimension, getNumDimensions());
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[DMDA %s DMDA]", rawMutableArray.toString());
+  }
+
+}
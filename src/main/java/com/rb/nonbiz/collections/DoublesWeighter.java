@@ -4,6 +4,10 @@ import com.rb.nonbiz.types.PreciseValue;
 import com.rb.nonbiz.util.RBPreconditions;
 
 import java.util.Iterator;
+import java.util.stream.DoubleStream;
+
+import static com.rb.nonbiz.math.CompensatedSum.compensatedSum;
+import static com.rb.nonbiz.math.CompensatedSum.compensatedSumOfProducts;
 
 /**
  * Creates weighted averages where the weights are {@link PreciseValue} instances.
@@ -45,4 +49,40 @@ public class DoublesWeighter {
         : sumOfTerms / sumOfWeights;
   }
 
+  /**
+   * Same as the Iterable / Iterator versions, but without boxing, and with compensated summation
+   * (see {@link com.rb.nonbiz.math.CompensatedSum}), so it's accurate even for very large arrays.
+   * Large arrays get summed in parallel.
+   */
+  public double makeWeightedAverage(double[] values, double[] weights) {
+    RBPreconditions.checkArgument(
+        values.length > 0 && weights.length > 0,
+        "Neither values nor weights can be empty");
+    RBPreconditions.checkArgument(
+        values.length == weights.length,
+        "We did not have the same number of values and weights: %s vs %s",
+        values.length, weights.length);
+    double sumOfWeights = compensatedSum(weights);
+    RBPreconditions.checkArgument(
+        sumOfWeights > 1e-8,
+        "Individual weights can be 0, but not all can be 0 (actually epsilon, 1e-8). sumOfWeights= %s",
+        sumOfWeights);
+    return values.length == 1
+        ? values[0]
+        : compensatedSumOfProducts(values, weights) / sumOfWeights;
+  }
+
+  public double makeUnweightedAverage(double[] values) {
+    RBPreconditions.checkArgument(
+        values.length > 0,
+        "Cannot make an unweighted average of 0 values");
+    return values.length == 1
+        ? values[0]
+        : compensatedSum(values) / values.length;
+  }
+
+  public double makeUnweightedAverage(DoubleStream values) {
+    return makeUnweightedAverage(values.toArray());
+  }
+
 }
@@ -12,10 +12,13 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.Spliterator;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
+import static com.rb.nonbiz.collections.TroveLongHashSpliterator.troveLongHashSpliterator;
 import static com.rb.nonbiz.text.SmartFormatter.smartFormat;
 
 /**
@@ -132,8 +135,23 @@ public abstract class HasLongMap<K extends HasLongRepresentation, V> {
     return rawMap.valueCollection();
   }
 
+  /**
+   * Unlike Trove's own #keys, this does not copy the keys into a new array first; it walks the raw hash table.
+   * It is also splittable, so it can back a parallel stream.
+   */
+  public Spliterator.OfLong keysSpliterator() {
+    return troveLongHashSpliterator(rawMap);
+  }
+
   public LongStream keysStream() {
-    return LongStream.of(rawMap.keys());
+    return StreamSupport.longStream(keysSpliterator(), false);
+  }
+
+  /**
+   * Like #keysStream, but parallel. This is only worth it for large maps, and when the per-key work is not trivial.
+   */
+  public LongStream parallelKeysStream() {
+    return StreamSupport.longStream(keysSpliterator(), true);
   }
 
   public LongStream sortedKeysStream() {
@@ -9,11 +9,13 @@ import gnu.trove.set.hash.TLongHashSet;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
 import java.util.stream.Collectors;
-import java.util.stream.LongStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.rb.nonbiz.collections.RBSet.newRBSet;
+import static com.rb.nonbiz.collections.TroveLongHashSpliterator.troveLongHashSpliterator;
 
 
 /**
@@ -112,7 +114,17 @@ public abstract class HasLongSet<T extends HasLongRepresentation> implements Ite
     // I could have added more synchronization, but it might slow things down by a tiny bit.
     return sortedItems != null
         ? sortedStream()
-        : LongStream.of(rawSet.toArray()).mapToObj(v -> instantiateItem(v));
+        : StreamSupport.longStream(longsSpliterator(), false).mapToObj(v -> instantiateItem(v));
+  }
+
+  /**
+   * Like #stream, but parallel. This is only worth it for large sets, and when the per-item work is not trivial.
+   *
+   * <p> Unlike #stream, this always walks the raw hash table (even if we have already cached the items in sorted order),
+   * because that splits more evenly. Ordering doesn't mean much for a parallel stream anyway. </p>
+   */
+  public Stream<T> parallelStream() {
+    return StreamSupport.longStream(longsSpliterator(), true).mapToObj(v -> instantiateItem(v));
   }
 
   public Stream<T> sortedStream() {
@@ -159,6 +171,14 @@ public abstract class HasLongSet<T extends HasLongRepresentation> implements Ite
     };
   }
 
+  /**
+   * Unlike Trove's own #toArray, this does not copy the items into a new array first; it walks the raw hash table.
+   * It is also splittable, so it can back a parallel stream.
+   */
+  public Spliterator.OfLong longsSpliterator() {
+    return troveLongHashSpliterator(rawSet);
+  }
+
   /**
    * Avoid using this. We still expose it though, so some internal code can be faster.
    */
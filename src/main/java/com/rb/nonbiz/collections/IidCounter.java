@@ -5,17 +5,25 @@ import com.rb.biz.types.asset.InstrumentId;
 import com.rb.nonbiz.text.Strings;
 import com.rb.nonbiz.util.RBBuilder;
 import com.rb.nonbiz.util.RBPreconditions;
+import gnu.trove.iterator.TIntIterator;
+import gnu.trove.iterator.TLongIntIterator;
+import gnu.trove.map.hash.TLongIntHashMap;
 
-import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static com.rb.biz.types.asset.InstrumentId.instrumentId;
 import static com.rb.nonbiz.collections.IidCounter.IidCounterBuilder.iidCounterBuilder;
 import static com.rb.nonbiz.collections.IidMapSimpleConstructors.newIidMap;
 import static com.rb.nonbiz.collections.IidSetSimpleConstructors.newIidSet;
-import static com.rb.nonbiz.collections.MutableIidMap.newMutableIidMap;
+import static com.rb.nonbiz.collections.MutableIidMap.newMutableIidMapWithExpectedSize;
+import static com.rb.nonbiz.collections.MutableIidSet.newMutableIidSetWithExpectedSize;
+import static com.rb.nonbiz.text.SmartFormatter.smartFormat;
 import static com.rb.nonbiz.text.Strings.formatIidMap;
+import static java.lang.Math.toIntExact;
 
 /**
  * Helps us keep a track of the # of times we have seen a bunch of items, per InstrumentId.
@@ -26,14 +34,16 @@ import static com.rb.nonbiz.text.Strings.formatIidMap;
  * <p> This is a special, InstrumentId-specific implementation of {@link Counter}. It is a rare example of a mutable class
  * in our codebase. </p>
  *
+ * <p> The counts are stored in a GNU Trove long-to-int map, so incrementing a count does not box anything. </p>
+ *
  * @see Counter
  */
 public class IidCounter {
 
-  private final IidMap<Integer> rawMap;
+  private final TLongIntHashMap rawCounts;
 
-  private IidCounter(IidMap<Integer> rawMap) {
-    this.rawMap = rawMap;
+  private IidCounter(TLongIntHashMap rawCounts) {
+    this.rawCounts = rawCounts;
   }
 
   public static <T extends HasInstrumentId> IidCounter iidCounterFromStream(
@@ -48,7 +58,9 @@ public class IidCounter {
   }
 
   public static IidCounter iidCounterFromMap(IidMap<Integer> rawMap) {
-    return new IidCounter(rawMap);
+    TLongIntHashMap rawCounts = new TLongIntHashMap(rawMap.size());
+    rawMap.forEach( (asLong, count) -> rawCounts.put(asLong, count));
+    return new IidCounter(rawCounts);
   }
 
   public static <T extends HasInstrumentId> IidCounter iidCounterFromStream(
@@ -56,22 +68,33 @@ public class IidCounter {
     return iidCounterFromStream(stream, v -> true);
   }
 
+  /**
+   * Throws if the sum does not fit in an int, instead of silently overflowing.
+   */
   public int getSumOfCounts() {
-    return rawMap.values()
-        .stream()
-        .reduce(0, Integer::sum);
+    long sum = 0;
+    for (TIntIterator iterator = rawCounts.valueCollection().iterator(); iterator.hasNext(); ) {
+      sum += iterator.next();
+    }
+    return toIntExact(sum);
   }
 
   public boolean isEmpty() {
-    return rawMap.isEmpty();
+    return rawCounts.isEmpty();
   }
 
   public int getCountOrThrow(InstrumentId instrumentId) {
-    return rawMap.getOrThrow(instrumentId);
+    int count = rawCounts.get(instrumentId.asLong());
+    // Trove returns 0 for a missing key, so we only need the 2nd lookup in that case.
+    if (count == 0 && !rawCounts.containsKey(instrumentId.asLong())) {
+      throw new IllegalArgumentException(smartFormat(
+          "Instrument %s does not exist in IidCounter %s", instrumentId, this));
+    }
+    return count;
   }
 
   public int getCountOrZero(InstrumentId instrumentId) {
-    return rawMap.getOrDefault(instrumentId, 0);
+    return rawCounts.get(instrumentId.asLong());
   }
 
   public IidSet getItemsWithNonZeroCounts() {
@@ -79,10 +102,7 @@ public class IidCounter {
   }
 
   public IidSet getItemsWithCountOfAtLeast(int minCount) {
-    return newIidSet(rawMap.keySet()
-        .stream()
-        .filter(instrumentId -> getCountOrThrow(instrumentId) >= minCount)
-        .collect(Collectors.toSet()));
+    return getItemsWithCountSatisfying(count -> count >= minCount);
   }
 
   public IidSet getItemsWithCountOf(int countFilter) {
@@ -90,31 +110,49 @@ public class IidCounter {
         countFilter >= 0,
         "You can't ask for the items with a negative count in an IidCounter: %s",
         countFilter);
-    return rawMap.keySet()
-        .filter(instrumentId -> getCountOrThrow(instrumentId) == countFilter);
+    return getItemsWithCountSatisfying(count -> count == countFilter);
+  }
+
+  private IidSet getItemsWithCountSatisfying(IntPredicate countPredicate) {
+    MutableIidSet mutableSet = newMutableIidSetWithExpectedSize(rawCounts.size());
+    for (TLongIntIterator iterator = rawCounts.iterator(); iterator.hasNext(); ) {
+      iterator.advance();
+      if (countPredicate.test(iterator.value())) {
+        mutableSet.add(instrumentId(iterator.key()));
+      }
+    }
+    return newIidSet(mutableSet);
   }
 
   /**
    * Ideally do not use this; it is here to help the test matcher.
+   * It boxes every count, so it is not cheap.
    */
   public IidMap<Integer> getRawMap() {
-    return rawMap;
+    MutableIidMap<Integer> mutableMap = newMutableIidMapWithExpectedSize(rawCounts.size());
+    rawCounts.forEachEntry( (asLong, count) -> {
+      mutableMap.putAssumingAbsent(instrumentId(asLong), count);
+      return true;
+    });
+    return newIidMap(mutableMap);
   }
 
   @Override
   public String toString() {
-    return Strings.format("[IIC %s IIC", formatIidMap(rawMap));
+    return Strings.format("[IIC %s IIC", formatIidMap(getRawMap()));
   }
 
   /**
    * An {@link RBBuilder} that constructs an {@link IidCounter}.
+   *
+   * <p> This is not thread-safe; see {@link ConcurrentIidCounterBuilder} for that. </p>
    */
   public static class IidCounterBuilder implements RBBuilder<IidCounter> {
 
-    private final MutableIidMap<Integer> rawMutableMap;
+    private final TLongIntHashMap rawCounts;
 
     private IidCounterBuilder() {
-      this.rawMutableMap = newMutableIidMap();
+      this.rawCounts = new TLongIntHashMap();
     }
 
     public static IidCounterBuilder iidCounterBuilder() {
@@ -122,8 +160,7 @@ public class IidCounter {
     }
 
     public IidCounterBuilder add(InstrumentId instrumentId, int value) {
-      Optional<Integer> currentCount = rawMutableMap.getOptional(instrumentId);
-      rawMutableMap.put(instrumentId, currentCount.isPresent() ? currentCount.get() + value : value);
+      rawCounts.adjustOrPutValue(instrumentId.asLong(), value, value);
       return this;
     }
 
@@ -138,7 +175,64 @@ public class IidCounter {
 
     @Override
     public IidCounter buildWithoutPreconditions() {
-      return new IidCounter(newIidMap(rawMutableMap));
+      return new IidCounter(rawCounts);
+    }
+
+  }
+
+
+  /**
+   * Like {@link IidCounterBuilder}, except that multiple threads can add to it at the same time, without any locking,
+   * e.g. when counting instrument occurrences across the days of a backtest that runs in parallel.
+   *
+   * <p> Similar to {@link java.util.concurrent.atomic.LongAdder}, each thread accumulates into its own cell
+   * (here, its own primitive long-to-int map), so threads never contend with each other.
+   * The cells only get merged when we build the final {@link IidCounter}. </p>
+   *
+   * <p> #build must only be called after all threads are done adding, e.g. after the parallel stream
+   * or the executor that does the counting has finished. </p>
+   */
+  public static class ConcurrentIidCounterBuilder implements RBBuilder<IidCounter> {
+
+    private final Queue<TLongIntHashMap> allPerThreadCounts;
+    private final ThreadLocal<TLongIntHashMap> perThreadCounts;
+
+    private ConcurrentIidCounterBuilder() {
+      this.allPerThreadCounts = new ConcurrentLinkedQueue<>();
+      this.perThreadCounts = ThreadLocal.withInitial( () -> {
+        TLongIntHashMap countsForThisThread = new TLongIntHashMap();
+        allPerThreadCounts.add(countsForThisThread);
+        return countsForThisThread;
+      });
+    }
+
+    public static ConcurrentIidCounterBuilder concurrentIidCounterBuilder() {
+      return new ConcurrentIidCounterBuilder();
+    }
+
+    public ConcurrentIidCounterBuilder add(InstrumentId instrumentId, int value) {
+      perThreadCounts.get().adjustOrPutValue(instrumentId.asLong(), value, value);
+      return this;
+    }
+
+    public ConcurrentIidCounterBuilder increment(InstrumentId instrumentId) {
+      return add(instrumentId, 1);
+    }
+
+    @Override
+    public void sanityCheckContents() {
+      // there's no invalid state for this, so nothing to assert on
+    }
+
+    @Override
+    public IidCounter buildWithoutPreconditions() {
+      TLongIntHashMap mergedCounts = new TLongIntHashMap();
+      allPerThreadCounts.forEach(countsForOneThread ->
+          countsForOneThread.forEachEntry( (asLong, count) -> {
+            mergedCounts.adjustOrPutValue(asLong, count, count);
+            return true;
+          }));
+      return new IidCounter(mergedCounts);
     }
 
   }
@@ -23,6 +23,7 @@ import java.util.stream.Stream;
 
 import static com.rb.biz.marketdata.instrumentmaster.NullInstrumentMaster.NULL_INSTRUMENT_MASTER;
 import static com.rb.biz.types.asset.InstrumentId.instrumentId;
+import static com.rb.nonbiz.collections.IidMapConstructors.iidMapFromParallelInstrumentIdStream;
 import static com.rb.nonbiz.collections.IidMapSimpleConstructors.newIidMap;
 import static com.rb.nonbiz.collections.IidSetSimpleConstructors.newIidSet;
 import static com.rb.nonbiz.collections.IidSetSimpleConstructors.newIidSetInOrder;
@@ -94,6 +95,14 @@ public class IidMap<V> extends HasLongMap<InstrumentId, V> implements PrintsInst
         : super.keysStream().mapToObj(v -> instrumentId(v));
   }
 
+  /**
+   * Like #instrumentIdStream, but parallel. This is only worth it for large maps, and when the per-key work
+   * is not trivial.
+   */
+  public Stream<InstrumentId> parallelInstrumentIdStream() {
+    return super.parallelKeysStream().mapToObj(v -> instrumentId(v));
+  }
+
   public Stream<InstrumentId> sortedInstrumentIdStream() {
     // We first check outside the synchronization, so for the most cases where keySet is NOT null,
     // we won't bother acquiring the lock. This is just a small performance optimization.
@@ -117,6 +126,14 @@ public class IidMap<V> extends HasLongMap<InstrumentId, V> implements PrintsInst
         .map(instrumentId -> transformer.apply(getOrThrow(instrumentId)));
   }
 
+  /**
+   * Like #toTransformedValuesStream, but the transformer gets run in parallel, so it must be thread-safe.
+   */
+  public <V2> Stream<V2> parallelToTransformedValuesStream(Function<V, V2> transformer) {
+    return parallelInstrumentIdStream()
+        .map(instrumentId -> transformer.apply(getOrThrow(instrumentId)));
+  }
+
   public <V2> Stream<V2> toTransformedEntriesStream(BiFunction<InstrumentId, V, V2> transformer) {
     return instrumentIdStream()
         .map(instrumentId -> transformer.apply(instrumentId, getOrThrow(instrumentId)));
@@ -317,6 +334,28 @@ public class IidMap<V> extends HasLongMap<InstrumentId, V> implements PrintsInst
     return newIidMap(mutableMap);
   }
 
+  /**
+   * Like #transformValuesCopy, except that the transformer gets run on all cores. Each thread builds a partial map,
+   * and those get merged at the end.
+   *
+   * <p> The transformer must be thread-safe. This is only worth it for large maps (e.g. the entire universe of
+   * instruments) and non-trivial transformers; otherwise, the overhead of splitting and merging will dominate. </p>
+   */
+  public <V2> IidMap<V2> parallelTransformValuesCopy(Function<V, V2> transformer) {
+    return parallelTransformEntriesCopy( (ignoredInstrumentId, value) -> transformer.apply(value));
+  }
+
+  /**
+   * Like #transformEntriesCopy, except that the transformer gets run on all cores.
+   *
+   * @see #parallelTransformValuesCopy
+   */
+  public <V2> IidMap<V2> parallelTransformEntriesCopy(BiFunction<InstrumentId, V, V2> transformer) {
+    return iidMapFromParallelInstrumentIdStream(
+        parallelInstrumentIdStream(),
+        instrumentId -> transformer.apply(instrumentId, getOrThrow(instrumentId)));
+  }
+
   /**
    * Creates a new {@link RBMap} whose keys AND values are a transformation of the original ones,
    * and the key transformation doesn't depend on the value in any particular entry, and also
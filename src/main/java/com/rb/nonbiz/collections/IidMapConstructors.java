@@ -42,6 +42,24 @@ public class IidMapConstructors {
     return newIidMap(mutableMap);
   }
 
+  /**
+   * Converts a stream of distinct instrument IDs into an {@link IidMap} whose values are some function of the key.
+   *
+   * <p> This is meant for parallel streams (e.g. {@link IidSet#parallelStream}). Each thread builds its own partial map,
+   * and the partial maps get merged at the end, so the valueGenerator gets run on all cores without any locking.
+   * It will still work for a sequential stream, but then there is no point in using it. </p>
+   *
+   * <p> The valueGenerator must be thread-safe. This will also throw if the same InstrumentId appears more than once. </p>
+   */
+  public static <V> IidMap<V> iidMapFromParallelInstrumentIdStream(
+      Stream<InstrumentId> instrumentIdStream,
+      Function<InstrumentId, V> valueGenerator) {
+    return newIidMap(instrumentIdStream.collect(
+        () -> MutableIidMap.<V>newMutableIidMap(),
+        (partialMap, instrumentId) -> partialMap.putAssumingAbsent(instrumentId, valueGenerator.apply(instrumentId)),
+        (partialMap1, partialMap2) -> partialMap1.addAllAssumingNoOverlap(partialMap2)));
+  }
+
   /**
    * This will also throw if there is more than 1 item with the same InstrumentId.
    */
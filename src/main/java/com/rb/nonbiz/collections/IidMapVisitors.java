@@ -159,6 +159,33 @@ public class IidMapVisitors {
             triConsumer.accept(leftKey, leftValue, rightValue)));
   }
 
+  /**
+   * Like visitSharedInstrumentsOfTwoIidMaps, except that the triConsumer gets run on all cores,
+   * so it must be thread-safe (e.g. it writes into a concurrent collection, or into disjoint array slots).
+   *
+   * <p> Since we only care about shared instruments, we walk the smaller of the two maps and probe the larger one. </p>
+   */
+  public static <VL, VR> void parallelVisitSharedInstrumentsOfTwoIidMaps(
+      IidMap<VL> leftMap,
+      IidMap<VR> rightMap,
+      TriConsumer<InstrumentId, VL, VR> triConsumer) {
+    if (leftMap.size() <= rightMap.size()) {
+      leftMap.parallelInstrumentIdStream().forEach(instrumentId -> {
+        VR rightValue = rightMap.getOrDefault(instrumentId, (VR) null);
+        if (rightValue != null) {
+          triConsumer.accept(instrumentId, leftMap.getOrThrow(instrumentId), rightValue);
+        }
+      });
+    } else {
+      rightMap.parallelInstrumentIdStream().forEach(instrumentId -> {
+        VL leftValue = leftMap.getOrDefault(instrumentId, (VL) null);
+        if (leftValue != null) {
+          triConsumer.accept(instrumentId, leftValue, rightMap.getOrThrow(instrumentId));
+        }
+      });
+    }
+  }
+
   /**
    * When you have 2 IidMaps with the same keys (throws otherwise),
    * this lets you perform an action for the corresponding values in the 2 maps.
@@ -17,6 +17,7 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static com.rb.biz.types.asset.InstrumentId.instrumentId;
+import static com.rb.nonbiz.collections.IidMapConstructors.iidMapFromParallelInstrumentIdStream;
 import static com.rb.nonbiz.collections.IidMapSimpleConstructors.newIidMap;
 import static com.rb.nonbiz.collections.IidSetSimpleConstructors.newIidSet;
 import static com.rb.nonbiz.collections.MutableIidMap.newMutableIidMapWithExpectedSize;
@@ -55,11 +56,25 @@ public class IidSet extends HasLongSet<InstrumentId> implements PrintsInstrument
    */
   public <V> IidMap<V> toIidMap(Function<InstrumentId, V> valueGenerator) {
     MutableIidMap<V> mutableMap = newMutableIidMapWithExpectedSize(size());
-    iterator().forEachRemaining(instrumentId ->
+    // stream() walks the raw set in place, whereas iterator() boxes every item into a Long first.
+    stream().forEach(instrumentId ->
         mutableMap.put(instrumentId, valueGenerator.apply(instrumentId)));
     return newIidMap(mutableMap);
   }
 
+  /**
+   * Like #toIidMap, except that the valueGenerator gets run on all cores. Each thread builds a partial map,
+   * and those get merged at the end.
+   *
+   * <p> The valueGenerator must be thread-safe. This is only worth it for large sets (e.g. the entire universe of
+   * instruments) and non-trivial valueGenerators; otherwise, the overhead of splitting and merging will dominate. </p>
+   *
+   * @see #toIidMap
+   */
+  public <V> IidMap<V> parallelToIidMap(Function<InstrumentId, V> valueGenerator) {
+    return iidMapFromParallelInstrumentIdStream(parallelStream(), valueGenerator);
+  }
+
   /**
    * In some cases, we still need to convert to an old-style, non-specialized {@link RBMap}.
    *
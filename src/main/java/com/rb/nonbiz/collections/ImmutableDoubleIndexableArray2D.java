@@ -2,6 +2,7 @@ package com.rb.nonbiz.collections;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.rb.nonbiz.functional.TriFunction;
+import com.rb.nonbiz.math.vectorspaces.RBIndexableMatrix;
 import com.rb.nonbiz.math.vectorspaces.RBMatrix;
 import com.rb.nonbiz.types.Epsilon;
 
@@ -9,8 +10,9 @@ import java.util.Iterator;
 import java.util.stream.IntStream;
 
 import static com.rb.nonbiz.collections.ImmutableIndexableArray2D.immutableIndexableArray2D;
-import static com.rb.nonbiz.collections.MutableDoubleIndexableArray2D.mutableDoubleIndexableArray2D;
+import static com.rb.nonbiz.collections.MutableDoubleIndexableArray2D.mutableDoubleIndexableArray2DCopying;
 import static com.rb.nonbiz.collections.SimpleArrayIndexMapping.simpleArrayIndexMapping;
+import static com.rb.nonbiz.math.vectorspaces.RBIndexableMatrix.rbIndexableMatrix;
 import static com.rb.nonbiz.util.RBSimilarityPreconditions.checkBothSame;
 
 /**
@@ -39,7 +41,7 @@ public class ImmutableDoubleIndexableArray2D<R, C> implements IndexableDoubleDat
 
   public static <R, C> ImmutableDoubleIndexableArray2D<R, C> immutableDoubleIndexableArray2D(
       double[][] rawArray, ArrayIndexMapping<R> rowMapping, ArrayIndexMapping<C> columnMapping) {
-    return immutableDoubleIndexableArray2D(mutableDoubleIndexableArray2D(
+    return immutableDoubleIndexableArray2D(mutableDoubleIndexableArray2DCopying(
         rawArray, rowMapping, columnMapping));
   }
 
@@ -65,10 +67,59 @@ public class ImmutableDoubleIndexableArray2D<R, C> implements IndexableDoubleDat
     return mutableArray2D.getColumnMapping();
   }
 
+  /**
+   * This copies the values. Whoever created the {@link MutableDoubleIndexableArray2D} that this wraps may still
+   * modify it, and that must not change the {@link RBMatrix}.
+   */
   public RBMatrix toRBMatrix() {
     return mutableArray2D.toRBMatrix();
   }
 
+  /**
+   * Like {@link #toRBMatrix}, this copies the values. The (immutable) row and column mappings are shared.
+   */
+  public RBIndexableMatrix<R, C> toRBIndexableMatrix() {
+    return rbIndexableMatrix(toRBMatrix(), getRowMapping(), getColumnMapping());
+  }
+
+  /**
+   * A view (not a copy) of a single row.
+   */
+  public DoubleArraySliceView getRowView(R rowKey) {
+    return mutableArray2D.getRowView(rowKey);
+  }
+
+  public DoubleArraySliceView getRowViewByIndex(int rowIndex) {
+    return mutableArray2D.getRowViewByIndex(rowIndex);
+  }
+
+  /**
+   * A view (not a copy) of a single column.
+   */
+  public DoubleArraySliceView getColumnView(C columnKey) {
+    return mutableArray2D.getColumnView(columnKey);
+  }
+
+  public DoubleArraySliceView getColumnViewByIndex(int columnIndex) {
+    return mutableArray2D.getColumnViewByIndex(columnIndex);
+  }
+
+  public double[] getRowSums() {
+    return mutableArray2D.getRowSums();
+  }
+
+  public double[] getColumnSums() {
+    return mutableArray2D.getColumnSums();
+  }
+
+  public double[] getRowMeans() {
+    return mutableArray2D.getRowMeans();
+  }
+
+  public double[] getColumnMeans() {
+    return mutableArray2D.getColumnMeans();
+  }
+
   /**
    * Returns true if and only if the # of rows is the same as the # of columns.
    *
@@ -4,15 +4,15 @@ import com.google.common.annotations.VisibleForTesting;
 
 import java.util.Iterator;
 
-import static com.rb.nonbiz.collections.MutableIntegerIndexableArray2D.mutableIntegerIndexableArray2D;
+import static com.rb.nonbiz.collections.MutableIntegerIndexableArray2D.mutableIntegerIndexableArray2DCopying;
 import static com.rb.nonbiz.collections.SimpleArrayIndexMapping.simpleArrayIndexMapping;
 
 /**
  * See ImmutableIntegerIndexableArray2D for more.
  *
- * Note that someone can modify the underlying object if they have a handle to it via getRawArrayUnsafe()
+ * Note that someone can modify the underlying object if they have a handle to it via getMutableArray2D()
  * but at least they can't modify it through THIS object; there's no set() method here.
- * Plus, getRawArrayUnsafe is package-private, for extra safety.
+ * Plus, getMutableArray2D is package-private, for extra safety.
  */
 public class ImmutableIntegerIndexableArray2D<R, C> {
 
@@ -29,7 +29,7 @@ public class ImmutableIntegerIndexableArray2D<R, C> {
 
   public static <R, C> ImmutableIntegerIndexableArray2D<R, C> immutableIntegerIndexableArray2D(
       int[][] rawArray, ArrayIndexMapping<R> rowMapping, ArrayIndexMapping<C> columnMapping) {
-    return immutableIntegerIndexableArray2D(mutableIntegerIndexableArray2D(
+    return immutableIntegerIndexableArray2D(mutableIntegerIndexableArray2DCopying(
         rawArray, rowMapping, columnMapping));
   }
 
@@ -64,9 +64,12 @@ public class ImmutableIntegerIndexableArray2D<R, C> {
     return mutableArray2D.getNumColumns();
   }
 
-  @VisibleForTesting // Don't use this; it helps the matcher code be simpler
-  int[][] getRawArrayUnsafe() {
-    return mutableArray2D.getRawArrayUnsafe();
+  public long[] getRowSums() {
+    return mutableArray2D.getRowSums();
+  }
+
+  public long[] getColumnSums() {
+    return mutableArray2D.getColumnSums();
   }
 
   public ArrayIndexMapping<R> getRowMapping() {
@@ -9,8 +9,9 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.stream.IntStream;
 
+import static com.rb.nonbiz.collections.DoubleArraySliceView.doubleArraySliceView;
 import static com.rb.nonbiz.collections.RBOptionals.getIntOrThrow;
-import static com.rb.nonbiz.math.vectorspaces.RBMatrix.rbMatrix;
+import static com.rb.nonbiz.math.vectorspaces.RBMatrix.rbMatrixSharingRowMajorArray;
 
 /**
  * See {@link MutableIndexableArray2D}.
@@ -20,20 +21,30 @@ import static com.rb.nonbiz.math.vectorspaces.RBMatrix.rbMatrix;
  */
 public class MutableDoubleIndexableArray2D<R, C> implements IndexableDoubleDataStore2D<R, C> {
 
-  private final double[][] rawArray;
+  // Row-major: item (row, column) is at position row * numColumns + column.
+  // A single flat array (vs. a double[][]) avoids one pointer dereference per access, keeps the whole array
+  // contiguous in memory, and lets us share it with an RBMatrix (which uses the same layout) without copying.
+  private final double[] rowMajorArray;
+  private final int numColumns;
   private final ArrayIndexMapping<R> rowMapping;
   private final ArrayIndexMapping<C> columnMapping;
 
   private MutableDoubleIndexableArray2D(
-      double[][] rawArray,
+      double[] rowMajorArray,
       ArrayIndexMapping<R> rowMapping,
       ArrayIndexMapping<C> columnMapping) {
-    this.rawArray = rawArray;
+    this.rowMajorArray = rowMajorArray;
+    this.numColumns = columnMapping.size();
     this.rowMapping = rowMapping;
     this.columnMapping = columnMapping;
   }
 
-  public static <R, C> MutableDoubleIndexableArray2D<R, C> mutableDoubleIndexableArray2D(
+  /**
+   * This copies the 2d array into a flat row-major one (hence the name), so subsequent changes to the passed-in
+   * 2d array will not be reflected here, and vice versa. If you already have the data in row-major order, use
+   * {@link #mutableDoubleIndexableArray2DFromRowMajorArray}, which does not copy.
+   */
+  public static <R, C> MutableDoubleIndexableArray2D<R, C> mutableDoubleIndexableArray2DCopying(
       double[][] rawArray,
       ArrayIndexMapping<R> rowMapping,
       ArrayIndexMapping<C> columnMapping) {
@@ -53,20 +64,62 @@ public class MutableDoubleIndexableArray2D<R, C> implements IndexableDoubleDataS
           "A non-empty array with %s columns had %s column mappings",
           numColumns, columnMapping.size());
     }
-    return new MutableDoubleIndexableArray2D<>(rawArray, rowMapping, columnMapping);
+    int numColumns = columnMapping.size();
+    double[] rowMajorArray = new double[rawArray.length * numColumns];
+    for (int row = 0; row < rawArray.length; row++) {
+      RBPreconditions.checkArgument(
+          rawArray[row].length == numColumns,
+          "Row %s has %s columns, but row 0 has %s ; the 2d array must be rectangular",
+          row, rawArray[row].length, numColumns);
+      System.arraycopy(rawArray[row], 0, rowMajorArray, row * numColumns, numColumns);
+    }
+    return new MutableDoubleIndexableArray2D<>(rowMajorArray, rowMapping, columnMapping);
+  }
+
+  /**
+   * Uses the passed-in array as the storage, without copying it. Item (row, column) must be at position
+   * row * (# of columns) + column.
+   */
+  public static <R, C> MutableDoubleIndexableArray2D<R, C> mutableDoubleIndexableArray2DFromRowMajorArray(
+      double[] rowMajorArray,
+      ArrayIndexMapping<R> rowMapping,
+      ArrayIndexMapping<C> columnMapping) {
+    RBPreconditions.checkArgument(
+        (long) rowMapping.size() * columnMapping.size() == rowMajorArray.length,
+        "A %s x %s array cannot be backed by a row-major array of length %s",
+        rowMapping.size(), columnMapping.size(), rowMajorArray.length);
+    return new MutableDoubleIndexableArray2D<>(rowMajorArray, rowMapping, columnMapping);
   }
 
   @Override
   public double getByIndex(int rowIndex, int columnIndex) {
-    return rawArray[rowIndex][columnIndex];
+    return rowMajorArray[getFlatIndex(rowIndex, columnIndex)];
   }
 
   public void set(R rowKey, C columnKey, double value) {
-    rawArray[rowMapping.getIndexOrThrow(rowKey)][columnMapping.getIndexOrThrow(columnKey)] = value;
+    setByIndex(rowMapping.getIndexOrThrow(rowKey), columnMapping.getIndexOrThrow(columnKey), value);
+  }
+
+  public void setByIndex(int rowIndex, int columnIndex, double value) {
+    rowMajorArray[getFlatIndex(rowIndex, columnIndex)] = value;
   }
 
+  private int getFlatIndex(int rowIndex, int columnIndex) {
+    // Without these, an out-of-range column would silently read or write the next (or previous) row.
+    RBPreconditions.checkArgumentWithoutAllocating(
+        rowIndex >= 0 && rowIndex < getNumRows(),
+        "Row index %s is out of bounds for %s rows", rowIndex, getNumRows());
+    RBPreconditions.checkArgumentWithoutAllocating(
+        columnIndex >= 0 && columnIndex < numColumns,
+        "Column index %s is out of bounds for %s columns", columnIndex, numColumns);
+    return rowIndex * numColumns + columnIndex;
+  }
+
+  /**
+   * This copies the values, since an {@link RBMatrix} is immutable but this class is not.
+   */
   public RBMatrix toRBMatrix() {
-    return rbMatrix(rawArray);
+    return rbMatrixSharingRowMajorArray(getNumRows(), numColumns, rowMajorArray.clone());
   }
 
   @Override
@@ -80,51 +133,112 @@ public class MutableDoubleIndexableArray2D<R, C> implements IndexableDoubleDataS
   }
 
   @VisibleForTesting // Don't use this; it helps the matcher code be simpler
-  double[][] getRawArray() {
-    return rawArray;
+  double[] getRowMajorArrayUnsafe() {
+    return rowMajorArray;
   }
 
-  public Iterator<Double> singleRowIterator(R rowKey) {
-    int rowIndex = getIntOrThrow(
+  /**
+   * A view (not a copy) of a single row. Changes to this array will be visible through the view.
+   */
+  public DoubleArraySliceView getRowView(R rowKey) {
+    return getRowViewByIndex(getIntOrThrow(
         rowMapping.getOptionalIndex(rowKey),
         "Row key %s does not exist in mapping %s",
-        rowKey, rowMapping);
-    return IntStream.range(0, getNumColumns())
-        .mapToDouble(columnIndex -> rawArray[rowIndex][columnIndex])
-        .iterator();
+        rowKey, rowMapping));
   }
 
-  public Iterator<Double> singleColumnIterator(C columnKey) {
-    int columnIndex = getIntOrThrow(
+  public DoubleArraySliceView getRowViewByIndex(int rowIndex) {
+    RBPreconditions.checkValidArrayElement(rowIndex, getNumRows());
+    return doubleArraySliceView(rowMajorArray, rowIndex * numColumns, 1, numColumns);
+  }
+
+  /**
+   * A view (not a copy) of a single column. Changes to this array will be visible through the view.
+   */
+  public DoubleArraySliceView getColumnView(C columnKey) {
+    return getColumnViewByIndex(getIntOrThrow(
         columnMapping.getOptionalIndex(columnKey),
         "Column key %s does not exist in mapping %s",
-        columnKey, columnMapping);
-    return IntStream.range(0, getNumRows())
-        .mapToDouble(rowIndex -> rawArray[rowIndex][columnIndex])
-        .iterator();
+        columnKey, columnMapping));
   }
 
-  public Iterator<Double> rowMajorIterator() {
-    return new Iterator<Double>() {
-      int row = 0;
-      int column = 0;
+  public DoubleArraySliceView getColumnViewByIndex(int columnIndex) {
+    RBPreconditions.checkValidArrayElement(columnIndex, numColumns);
+    return doubleArraySliceView(rowMajorArray, columnIndex, numColumns, getNumRows());
+  }
 
-      @Override
-      public boolean hasNext() {
-        return row < getNumRows() && column < getNumColumns();
+  /**
+   * Returns the sum of each row, in row index order.
+   */
+  public double[] getRowSums() {
+    int numRows = getNumRows();
+    double[] rowSums = new double[numRows];
+    for (int row = 0, position = 0; row < numRows; row++) {
+      double sum = 0;
+      for (int column = 0; column < numColumns; column++, position++) {
+        sum += rowMajorArray[position];
       }
+      rowSums[row] = sum;
+    }
+    return rowSums;
+  }
 
-      @Override
-      public Double next() {
-        double nextItem = rawArray[row][column];
-        column++;
-        if (column == getNumColumns()) {
-          column = 0;
-          row++;
-        }
-        return nextItem;
+  /**
+   * Returns the sum of each column, in column index order.
+   *
+   * <p> This walks the array in storage (row-major) order and accumulates into all the column sums at once,
+   * which is much friendlier to the CPU cache than summing one column at a time. </p>
+   */
+  public double[] getColumnSums() {
+    int numRows = getNumRows();
+    double[] columnSums = new double[numColumns];
+    for (int row = 0, position = 0; row < numRows; row++) {
+      for (int column = 0; column < numColumns; column++, position++) {
+        columnSums[column] += rowMajorArray[position];
       }
-    };
+    }
+    return columnSums;
+  }
+
+  /**
+   * Returns the mean of each row, in row index order. Throws if there are no columns.
+   */
+  public double[] getRowMeans() {
+    RBPreconditions.checkArgument(
+        numColumns > 0,
+        "Cannot compute row means if there are no columns");
+    double[] rowMeans = getRowSums();
+    for (int row = 0; row < rowMeans.length; row++) {
+      rowMeans[row] /= numColumns;
+    }
+    return rowMeans;
+  }
+
+  /**
+   * Returns the mean of each column, in column index order. Throws if there are no rows.
+   */
+  public double[] getColumnMeans() {
+    int numRows = getNumRows();
+    RBPreconditions.checkArgument(
+        numRows > 0,
+        "Cannot compute column means if there are no rows");
+    double[] columnMeans = getColumnSums();
+    for (int column = 0; column < columnMeans.length; column++) {
+      columnMeans[column] /= numRows;
+    }
+    return columnMeans;
+  }
+
+  public Iterator<Double> singleRowIterator(R rowKey) {
+    return getRowView(rowKey).doubleStream().iterator();
+  }
+
+  public Iterator<Double> singleColumnIterator(C columnKey) {
+    return getColumnView(columnKey).doubleStream().iterator();
+  }
+
+  public Iterator<Double> rowMajorIterator() {
+    return Arrays.stream(rowMajorArray).iterator();
   }
 
   public boolean isEmpty() {
@@ -133,7 +247,10 @@ public class MutableDoubleIndexableArray2D<R, C> implements IndexableDoubleDataS
 
   @Override
   public String toString() {
-    return Strings.format("%s %s %s", rowMapping, columnMapping, Arrays.deepToString(rawArray));
+    return Strings.format("%s %s %s", rowMapping, columnMapping, Arrays.deepToString(
+        IntStream.range(0, getNumRows())
+            .mapToObj(row -> getRowViewByIndex(row).toDoubleArray())
+            .toArray()));
   }
 
 }
@@ -0,0 +1,165 @@
+package com.rb.nonbiz.collections;
+
+import com.google.common.base.Joiner;
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+import org.apache.commons.math3.util.MultidimensionalCounter;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A specialized, more memory-efficient alternative to a {@code MutableMultiDimensionalArray<Double>}.
+ *
+ * <p> The values are unboxed doubles in a single flat array, in the same order as {@link MultidimensionalCounter}
+ * uses, i.e. the last dimension varies the fastest. Unlike {@link MutableMultiDimensionalArray}, we precompute the
+ * 'stride' of each dimension (how far apart in the flat array two cells are, if they only differ by 1 in that
+ * dimension), so looking up a value is a few multiplications, without going through the
+ * {@link MultidimensionalCounter}. </p>
+ *
+ * <p> Just like with {@link MutableMultiDimensionalArray}, once you add the data you want,
+ * wrap the result in a {@link DoubleMultiDimensionalArray} and pass that around. </p>
+ *
+ * @see DoubleMultiDimensionalArray
+ */
+public class MutableDoubleMultiDimensionalArray {
+
+  private final int[] sizes;
+  private final int[] strides;
+  private final double[] values;
+
+  private MutableDoubleMultiDimensionalArray(int[] sizes, int[] strides, double[] values) {
+    this.sizes = sizes;
+    this.strides = strides;
+    this.values = values;
+  }
+
+  public static MutableDoubleMultiDimensionalArray mutableDoubleMultiDimensionalArray(int ... sizes) {
+    return mutableDoubleMultiDimensionalArrayFromFlatValues(new double[calculateNumCells(sizes)], sizes);
+  }
+
+  /**
+   * Uses the passed-in array as the storage, without copying it. The values must be in {@link MultidimensionalCounter}
+   * order, i.e. the last dimension varies the fastest.
+   */
+  public static MutableDoubleMultiDimensionalArray mutableDoubleMultiDimensionalArrayFromFlatValues(
+      double[] values, int ... sizes) {
+    int numCells = calculateNumCells(sizes);
+    RBPreconditions.checkArgument(
+        values.length == numCells,
+        "An array with sizes %s has %s cells, but we were given %s values",
+        Arrays.toString(sizes), numCells, values.length);
+    int[] strides = new int[sizes.length];
+    int stride = 1;
+    for (int dimension = sizes.length - 1; dimension >= 0; dimension--) {
+      strides[dimension] = stride;
+      stride *= sizes[dimension];
+    }
+    return new MutableDoubleMultiDimensionalArray(Arrays.copyOf(sizes, sizes.length), strides, values);
+  }
+
+  private static int calculateNumCells(int[] sizes) {
+    RBPreconditions.checkArgument(
+        sizes.length > 0,
+        "A multi-dimensional array must have at least one dimension");
+    long numCells = 1;
+    for (int size : sizes) {
+      RBPreconditions.checkArgument(
+          size > 0,
+          "All sizes must be positive, but we got %s",
+          Arrays.toString(sizes));
+      numCells *= size;
+      RBPreconditions.checkArgument(
+          numCells <= Integer.MAX_VALUE,
+          "An array with sizes %s would have more cells than fit in a Java array",
+          Arrays.toString(sizes));
+    }
+    return (int) numCells;
+  }
+
+  public double get(Coordinates coordinates) {
+    return values[getFlatIndex(coordinates)];
+  }
+
+  public double getByFlatIndex(int flatIndex) {
+    return values[flatIndex];
+  }
+
+  public MutableDoubleMultiDimensionalArray set(double value, Coordinates coordinates) {
+    values[getFlatIndex(coordinates)] = value;
+    return this;
+  }
+
+  public MutableDoubleMultiDimensionalArray setByFlatIndex(double value, int flatIndex) {
+    values[flatIndex] = value;
+    return this;
+  }
+
+  /**
+   * Returns the position of the cell with these coordinates in the flat (last dimension varies fastest) ordering.
+   */
+  public int getFlatIndex(Coordinates coordinates) {
+    int[] rawCoordinates = coordinates.getRawCoordinatesArray();
+    RBPreconditions.checkArgumentWithoutAllocating(
+        rawCoordinates.length == sizes.length,
+        "The coordinates have %s dimensions, but the array has %s",
+        rawCoordinates.length, sizes.length);
+    int flatIndex = 0;
+    for (int dimension = 0; dimension < sizes.length; dimension++) {
+      int coordinate = rawCoordinates[dimension];
+      RBPreconditions.checkArgumentWithoutAllocating(
+          coordinate < sizes[dimension],
+          "Coordinate %s in dimension %s is out of bounds for size %s",
+          coordinate, dimension, sizes[dimension]);
+      flatIndex += coordinate * strides[dimension];
+    }
+    return flatIndex;
+  }
+
+  public int getNumDimensions() {
+    return sizes.length;
+  }
+
+  public int getSize(int dimension) {
+    return sizes[dimension];
+  }
+
+  /**
+   * How far apart in the flat array two cells are, if their coordinates only differ by 1 in this dimension.
+   * The last dimension always has a stride of 1.
+   */
+  public int getStride(int dimension) {
+    return strides[dimension];
+  }
+
+  public int getNumCells() {
+    return values.length;
+  }
+
+  /**
+   * This returns a copy, so that callers cannot modify the sizes.
+   */
+  public int[] getSizes() {
+    return Arrays.copyOf(sizes, sizes.length);
+  }
+
+  public MultidimensionalCounter getMultidimensionalCounter() {
+    return new MultidimensionalCounter(sizes);
+  }
+
+  /**
+   * Don't use this. It is package-private so that {@link DoubleMultiDimensionalArray} can run its strided loops
+   * directly over the storage, and it also helps the matcher code be simpler.
+   */
+  double[] getValuesUnsafe() {
+    return values;
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[MDMDA dimensions: %s ; %s MDMDA]",
+        Joiner.on(' ').join(IntStream.of(sizes).iterator()),
+        Joiner.on(' ').join(Arrays.stream(values).iterator()));
+  }
+
+}
@@ -253,6 +253,27 @@ public class MutableHasLongMap<K extends HasLongRepresentation, V> {
     }
   }
 
+  /**
+   * Adds all the contents of the other map into this one.
+   * Throws if any key appears in both maps, in which case this map is left unchanged.
+   *
+   * <p> This is mostly useful for merging the partial maps that get built by different threads
+   * when we construct a map from a parallel stream. </p>
+   */
+  public void addAllAssumingNoOverlap(MutableHasLongMap<K, V> additionalValues) {
+    // We only have the long representation of the keys here, not the keys themselves, so that's what we print.
+    additionalValues.rawMap.forEachEntry( (keyAsLong, value) -> {
+      V existingValue = rawMap.get(keyAsLong);
+      if (existingValue != null) {
+        throw new IllegalArgumentException(smartFormat(
+            "Trying to add value %s to the key whose long representation is %s, which already maps to %s",
+            value, keyAsLong, existingValue));
+      }
+      return true;
+    });
+    rawMap.putAll(additionalValues.rawMap);
+  }
+
   /**
    * Adds a key/value mapping.
    * Throws if there already is a value for this key AND the existing value is not equal
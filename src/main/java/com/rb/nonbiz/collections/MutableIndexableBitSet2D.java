@@ -81,6 +81,17 @@ public class MutableIndexableBitSet2D<R, C> {
     return rawBitSet.cardinality();
   }
 
+  public int rowCardinality(R rowKey) {
+    return rawBitSet.rowCardinality(rowMapping.getIndexOrThrow(rowKey));
+  }
+
+  /**
+   * See {@link BitSet2D#columnCardinality(int)} for a performance note.
+   */
+  public int columnCardinality(C columnKey) {
+    return rawBitSet.columnCardinality(columnMapping.getIndexOrThrow(columnKey));
+  }
+
   @VisibleForTesting // Don't use this; it helps the matcher code be simpler
   public BitSet2D getRawBitSet() {
     return rawBitSet;
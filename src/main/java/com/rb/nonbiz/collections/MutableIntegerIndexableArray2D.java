@@ -2,44 +2,92 @@ package com.rb.nonbiz.collections;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.stream.IntStream;
 
 /**
  * See #MutableIndexableArray2D.
  *
  * <p> This is a specialized, more memory-efficient alternative to a {@code MutableIndexableArray2D<Integer>}.
- * It's a bit more efficient because it uses unboxed lowercase-i ints. </p>
+ * It's a bit more efficient because it uses unboxed lowercase-i ints, stored in a single flat array. </p>
  */
 public class MutableIntegerIndexableArray2D<R, C> {
 
-  private final int[][] rawArray;
+  // Row-major: item (row, column) is at position row * numColumns + column. See MutableDoubleIndexableArray2D.
+  private final int[] rowMajorArray;
+  private final int numColumns;
   private final ArrayIndexMapping<R> rowMapping;
   private final ArrayIndexMapping<C> columnMapping;
 
-  private MutableIntegerIndexableArray2D(int[][] rawArray,
+  private MutableIntegerIndexableArray2D(int[] rowMajorArray,
                                          ArrayIndexMapping<R> rowMapping, ArrayIndexMapping<C> columnMapping) {
-    this.rawArray = rawArray;
+    this.rowMajorArray = rowMajorArray;
+    this.numColumns = columnMapping.size();
     this.rowMapping = rowMapping;
     this.columnMapping = columnMapping;
   }
 
-  public static <R, C> MutableIntegerIndexableArray2D<R, C> mutableIntegerIndexableArray2D(
+  /**
+   * This copies the 2d array into a flat row-major one (hence the name), so subsequent changes to the passed-in
+   * 2d array will not be reflected here, and vice versa. If you already have the data in row-major order, use
+   * {@link #mutableIntegerIndexableArray2DFromRowMajorArray}, which does not copy.
+   */
+  public static <R, C> MutableIntegerIndexableArray2D<R, C> mutableIntegerIndexableArray2DCopying(
       int[][] rawArray, ArrayIndexMapping<R> rowMapping, ArrayIndexMapping<C> columnMapping) {
-    return new MutableIntegerIndexableArray2D<>(rawArray, rowMapping, columnMapping);
+    int numRows = rowMapping.size();
+    int numColumns = columnMapping.size();
+    RBPreconditions.checkArgument(
+        rawArray.length == numRows,
+        "Array has %s rows but mapping has %s",
+        rawArray.length, numRows);
+    int[] rowMajorArray = new int[numRows * numColumns];
+    for (int row = 0; row < numRows; row++) {
+      RBPreconditions.checkArgument(
+          rawArray[row].length == numColumns,
+          "Row %s has %s columns, but the column mapping has %s ; the 2d array must be rectangular",
+          row, rawArray[row].length, numColumns);
+      System.arraycopy(rawArray[row], 0, rowMajorArray, row * numColumns, numColumns);
+    }
+    return new MutableIntegerIndexableArray2D<>(rowMajorArray, rowMapping, columnMapping);
+  }
+
+  /**
+   * Uses the passed-in array as the storage, without copying it. Item (row, column) must be at position
+   * row * (# of columns) + column.
+   */
+  public static <R, C> MutableIntegerIndexableArray2D<R, C> mutableIntegerIndexableArray2DFromRowMajorArray(
+      int[] rowMajorArray, ArrayIndexMapping<R> rowMapping, ArrayIndexMapping<C> columnMapping) {
+    RBPreconditions.checkArgument(
+        (long) rowMapping.size() * columnMapping.size() == rowMajorArray.length,
+        "A %s x %s array cannot be backed by a row-major array of length %s",
+        rowMapping.size(), columnMapping.size(), rowMajorArray.length);
+    return new MutableIntegerIndexableArray2D<>(rowMajorArray, rowMapping, columnMapping);
   }
 
   public int get(R rowKey, C columnKey) {
-    return rawArray[rowMapping.getIndexOrThrow(rowKey)][columnMapping.getIndexOrThrow(columnKey)];
+    return getByIndex(rowMapping.getIndexOrThrow(rowKey), columnMapping.getIndexOrThrow(columnKey));
   }
 
   public int getByIndex(int rowIndex, int columnIndex) {
-    return rawArray[rowIndex][columnIndex];
+    return rowMajorArray[getFlatIndex(rowIndex, columnIndex)];
   }
 
   public void set(R rowKey, C columnKey, int value) {
-    rawArray[rowMapping.getIndexOrThrow(rowKey)][columnMapping.getIndexOrThrow(columnKey)] = value;
+    rowMajorArray[rowMapping.getIndexOrThrow(rowKey) * numColumns + columnMapping.getIndexOrThrow(columnKey)] = value;
+  }
+
+  private int getFlatIndex(int rowIndex, int columnIndex) {
+    // Without these, an out-of-range column would silently read the next (or previous) row.
+    RBPreconditions.checkArgumentWithoutAllocating(
+        rowIndex >= 0 && rowIndex < getNumRows(),
+        "Row index %s is out of bounds for %s rows", rowIndex, getNumRows());
+    RBPreconditions.checkArgumentWithoutAllocating(
+        columnIndex >= 0 && columnIndex < numColumns,
+        "Column index %s is out of bounds for %s columns", columnIndex, numColumns);
+    return rowIndex * numColumns + columnIndex;
   }
 
   public R getRowKey(int row) {
@@ -58,9 +106,41 @@ public class MutableIntegerIndexableArray2D<R, C> {
     return columnMapping.size();
   }
 
+  /**
+   * Returns the sum of each row, in row index order. The sums are longs, so they cannot overflow.
+   */
+  public long[] getRowSums() {
+    int numRows = getNumRows();
+    long[] rowSums = new long[numRows];
+    for (int row = 0, position = 0; row < numRows; row++) {
+      long sum = 0;
+      for (int column = 0; column < numColumns; column++, position++) {
+        sum += rowMajorArray[position];
+      }
+      rowSums[row] = sum;
+    }
+    return rowSums;
+  }
+
+  /**
+   * Returns the sum of each column, in column index order. The sums are longs, so they cannot overflow.
+   *
+   * <p> Like {@link MutableDoubleIndexableArray2D#getColumnSums}, this walks the array in storage order. </p>
+   */
+  public long[] getColumnSums() {
+    int numRows = getNumRows();
+    long[] columnSums = new long[numColumns];
+    for (int row = 0, position = 0; row < numRows; row++) {
+      for (int column = 0; column < numColumns; column++, position++) {
+        columnSums[column] += rowMajorArray[position];
+      }
+    }
+    return columnSums;
+  }
+
   @VisibleForTesting // Don't use this; it helps the matcher code be simpler
-  int[][] getRawArrayUnsafe() {
-    return rawArray;
+  int[] getRowMajorArrayUnsafe() {
+    return rowMajorArray;
   }
 
   public ArrayIndexMapping<C> getColumnMapping() {
@@ -72,31 +152,15 @@ public class MutableIntegerIndexableArray2D<R, C> {
   }
 
   public Iterator<Integer> rowMajorIterator() {
-    return new Iterator<Integer>() {
-      int row = 0;
-      int column = 0;
-
-      @Override
-      public boolean hasNext() {
-        return row < getNumRows() && column < getNumColumns();
-      }
-
-      @Override
-      public Integer next() {
-        int nextItem = rawArray[row][column];
-        column++;
-        if (column == getNumColumns()) {
-          column = 0;
-          row++;
-        }
-        return nextItem;
-      }
-    };
+    return Arrays.stream(rowMajorArray).iterator();
   }
 
   @Override
   public String toString() {
-    return Strings.format("%s %s %s", rowMapping, columnMapping, Arrays.deepToString(rawArray));
+    return Strings.format("%s %s %s", rowMapping, columnMapping, Arrays.deepToString(
+        IntStream.range(0, getNumRows())
+            .mapToObj(row -> Arrays.copyOfRange(rowMajorArray, row * numColumns, (row + 1) * numColumns))
+            .toArray()));
   }
 
 }
@@ -5,7 +5,7 @@ import com.rb.nonbiz.util.RBPreconditions;
 import java.util.OptionalDouble;
 
 import static com.rb.nonbiz.collections.ImmutableDoubleIndexableArray2D.immutableDoubleIndexableArray2D;
-import static com.rb.nonbiz.collections.MutableDoubleIndexableArray2D.mutableDoubleIndexableArray2D;
+import static com.rb.nonbiz.collections.MutableDoubleIndexableArray2D.mutableDoubleIndexableArray2DCopying;
 
 /**
  * See {@link MutableIndexableArray2D}.
@@ -58,8 +58,7 @@ public class MutableOptionalDoubleIndexableArray2D<R, C> extends MutableOptional
   }
 
   /**
-   * Note that this does not make a copy of the 2D array. That's intentional, for performance reasons.
-   * So tread carefully.
+   * See {@link #toUnmodifiableDoubleIndexedArray2DIgnoringEmpties}.
    */
   public ImmutableDoubleIndexableArray2D<R, C> toUnmodifiableDoubleIndexedArray2D() {
     RBPreconditions.checkArgument(
@@ -70,12 +69,12 @@ public class MutableOptionalDoubleIndexableArray2D<R, C> extends MutableOptional
   }
 
   /**
-   * Note that this does not make a copy of the 2D array. That's intentional, for performance reasons.
-   * So tread carefully.
+   * Note that this copies the values once, into the flat row-major storage of {@link MutableDoubleIndexableArray2D},
+   * so subsequent changes to this object will not be reflected in the result.
    */
   public ImmutableDoubleIndexableArray2D<R, C> toUnmodifiableDoubleIndexedArray2DIgnoringEmpties() {
     return immutableDoubleIndexableArray2D(
-        mutableDoubleIndexableArray2D(values, rowMapping, columnMapping));
+        mutableDoubleIndexableArray2DCopying(values, rowMapping, columnMapping));
   }
 
 }
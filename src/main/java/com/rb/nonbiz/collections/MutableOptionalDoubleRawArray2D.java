@@ -3,6 +3,7 @@ package com.rb.nonbiz.collections;
 import com.rb.nonbiz.types.UnitFraction;
 import com.rb.nonbiz.util.RBPreconditions;
 
+import java.util.BitSet;
 import java.util.OptionalDouble;
 
 import static com.rb.nonbiz.collections.BitSet2D.bitSet2D;
@@ -69,6 +70,15 @@ public class MutableOptionalDoubleRawArray2D {
     return isPresent.columnCardinality(column);
   }
 
+  /**
+   * Returns the columns that have a value in every row in [fromRowInclusive, toRowExclusive).
+   * E.g. if rows are days and columns are instruments, these are the instruments that have data on every day
+   * in that window. This works on 64 columns at a time, instead of checking each (row, column) separately.
+   */
+  public BitSet getColumnsWithValuesPresentInAllRows(int fromRowInclusive, int toRowExclusive) {
+    return isPresent.andOfRows(fromRowInclusive, toRowExclusive);
+  }
+
   public int getNumValuesPresent() {
     return isPresent.cardinality();
   }
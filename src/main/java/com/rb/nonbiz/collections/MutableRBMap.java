@@ -64,6 +64,17 @@ public class MutableRBMap<K, V> {
     additionalValues.forEachEntry( (key, value) -> putAssumingAbsent(key, value));
   }
 
+  /**
+   * Adds all the contents of the other mutable map into this one.
+   * Throws if any key appears in both maps.
+   *
+   * <p> This is mostly useful for merging the partial maps that get built by different threads
+   * when we construct a map from a parallel stream. </p>
+   */
+  public void addAllAssumingNoOverlap(MutableRBMap<K, V> additionalValues) {
+    additionalValues.rawMap.forEach( (key, value) -> putAssumingAbsent(key, value));
+  }
+
   public Map<K, V> asMap() {
     return rawMap;
   }
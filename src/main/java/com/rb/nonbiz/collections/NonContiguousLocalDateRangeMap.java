@@ -0,0 +1,203 @@
+package com.rb.nonbiz.collections;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static com.rb.nonbiz.collections.NonContiguousRangeMap.nonContiguousRangeMap;
+import static com.rb.nonbiz.text.SmartFormatter.smartFormat;
+
+/**
+ * A specialized, faster alternative to a {@code NonContiguousRangeMap<LocalDate, V>}.
+ *
+ * <p> The ranges are stored as two int arrays with the epoch days of their first and last (inclusive) dates, so
+ * a lookup is a binary search over an int[], without comparing any {@link LocalDate} objects. The methods whose
+ * names end in 'ByEpochDay' let callers who already have the epoch day (e.g. a loop over days)
+ * skip the conversion from {@link LocalDate} altogether. </p>
+ *
+ * <p> The semantics are the same as {@link NonContiguousRangeMap}: the ranges are all closed, except that the last
+ * one can be 'at least X', i.e. have no end. </p>
+ *
+ * @see NonContiguousRangeMap
+ */
+public class NonContiguousLocalDateRangeMap<V> {
+
+  // An 'at least X' range at the end ends at this epoch day. It's far enough in the future for all practical purposes.
+  private static final int NO_END_EPOCH_DAY = Integer.MAX_VALUE;
+
+  /**
+   * Like {@link NonContiguousRangeMap.SweepCursor}: this answers lookups in O(1) on average,
+   * as long as the dates passed in never decrease from one call to the next.
+   *
+   * <p> This is mutable, so don't share it across threads. </p>
+   */
+  public class SweepCursor {
+
+    private int lastIndex = -1;
+
+    private SweepCursor() {}
+
+    public Optional<V> getOptional(LocalDate date) {
+      return getOptionalByEpochDay(toEpochDayInt(date));
+    }
+
+    public Optional<V> getOptionalByEpochDay(int epochDay) {
+      int index = locate(epochDay);
+      return index >= 0 && epochDay <= lastEpochDays[index]
+          ? Optional.of(values.get(index))
+          : Optional.empty();
+    }
+
+    public Optional<V> getOptionalWithHighestKeyBelow(LocalDate date) {
+      return getOptionalWithHighestKeyBelowByEpochDay(toEpochDayInt(date));
+    }
+
+    public Optional<V> getOptionalWithHighestKeyBelowByEpochDay(int epochDay) {
+      int index = locate(epochDay);
+      return index >= 0
+          ? Optional.of(values.get(index))
+          : Optional.empty();
+    }
+
+    private int locate(int epochDay) {
+      int last = lastIndex;
+      if (last >= 0 && firstEpochDays[last] <= epochDay) {
+        int numRanges = firstEpochDays.length;
+        if (last + 1 == numRanges || firstEpochDays[last + 1] > epochDay) {
+          return last;
+        }
+        if (last + 2 == numRanges || firstEpochDays[last + 2] > epochDay) {
+          lastIndex = last + 1;
+          return last + 1;
+        }
+      }
+      lastIndex = indexOfLastRangeStartingAtOrBefore(epochDay);
+      return lastIndex;
+    }
+
+  }
+
+  private final int[] firstEpochDays;
+  private final int[] lastEpochDays;
+  private final List<V> values;
+
+  private NonContiguousLocalDateRangeMap(int[] firstEpochDays, int[] lastEpochDays, List<V> values) {
+    this.firstEpochDays = firstEpochDays;
+    this.lastEpochDays = lastEpochDays;
+    this.values = values;
+  }
+
+  /**
+   * See {@link NonContiguousRangeMap#nonContiguousRangeMap(List, List)} for the requirements on the ranges.
+   */
+  public static <V> NonContiguousLocalDateRangeMap<V> nonContiguousLocalDateRangeMap(
+      List<Range<LocalDate>> ranges, List<V> values) {
+    return nonContiguousLocalDateRangeMap(nonContiguousRangeMap(ranges, values));
+  }
+
+  public static <V> NonContiguousLocalDateRangeMap<V> nonContiguousLocalDateRangeMap(
+      NonContiguousRangeMap<LocalDate, V> nonContiguousRangeMap) {
+    // No need to check the ranges again; NonContiguousRangeMap has already done that.
+    List<Range<LocalDate>> ranges = nonContiguousRangeMap.getRanges();
+    int numRanges = ranges.size();
+    int[] firstEpochDays = new int[numRanges];
+    int[] lastEpochDays = new int[numRanges];
+    for (int i = 0; i < numRanges; i++) {
+      Range<LocalDate> range = ranges.get(i);
+      firstEpochDays[i] = toEpochDayInt(range.lowerEndpoint());
+      lastEpochDays[i] = range.hasUpperBound() ? toEpochDayInt(range.upperEndpoint()) : NO_END_EPOCH_DAY;
+    }
+    return new NonContiguousLocalDateRangeMap<>(
+        firstEpochDays, lastEpochDays, ImmutableList.copyOf(nonContiguousRangeMap.getValues()));
+  }
+
+  public Optional<V> getOptional(LocalDate date) {
+    return getOptionalByEpochDay(toEpochDayInt(date));
+  }
+
+  public Optional<V> getOptionalByEpochDay(int epochDay) {
+    int index = indexOfLastRangeStartingAtOrBefore(epochDay);
+    return index >= 0 && epochDay <= lastEpochDays[index]
+        ? Optional.of(values.get(index))
+        : Optional.empty();
+  }
+
+  /**
+   * Returns the value for the range that contains the date, if any. Otherwise, it returns the value for the
+   * last range that ends before the date, if any.
+   */
+  public Optional<V> getOptionalWithHighestKeyBelow(LocalDate date) {
+    return getOptionalWithHighestKeyBelowByEpochDay(toEpochDayInt(date));
+  }
+
+  public Optional<V> getOptionalWithHighestKeyBelowByEpochDay(int epochDay) {
+    int index = indexOfLastRangeStartingAtOrBefore(epochDay);
+    return index >= 0
+        ? Optional.of(values.get(index))
+        : Optional.empty();
+  }
+
+  public V getOrThrow(LocalDate date) {
+    Optional<V> value = getOptional(date);
+    if (!value.isPresent()) {
+      throw new IllegalArgumentException(smartFormat(
+          "Cannot find a value for date %s ; it is outside the range", date));
+    }
+    return value.get();
+  }
+
+  /**
+   * Use this when you will perform many lookups with dates that never decrease. See {@link SweepCursor}.
+   */
+  public SweepCursor newSweepCursor() {
+    return new SweepCursor();
+  }
+
+  public int size() {
+    return firstEpochDays.length;
+  }
+
+  public NonContiguousRangeMap<LocalDate, V> toNonContiguousRangeMap() {
+    ImmutableList.Builder<Range<LocalDate>> ranges = ImmutableList.builderWithExpectedSize(size());
+    for (int i = 0; i < size(); i++) {
+      LocalDate firstDate = LocalDate.ofEpochDay(firstEpochDays[i]);
+      ranges.add(lastEpochDays[i] == NO_END_EPOCH_DAY
+          ? Range.atLeast(firstDate)
+          : Range.closed(firstDate, LocalDate.ofEpochDay(lastEpochDays[i])));
+    }
+    return nonContiguousRangeMap(ranges.build(), values);
+  }
+
+  private int indexOfLastRangeStartingAtOrBefore(int epochDay) {
+    int low = 0;
+    int high = firstEpochDays.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (firstEpochDays[mid] <= epochDay) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high;
+  }
+
+  private static int toEpochDayInt(LocalDate date) {
+    long epochDay = date.toEpochDay();
+    RBPreconditions.checkArgumentWithoutAllocating(
+        epochDay >= Integer.MIN_VALUE && epochDay < NO_END_EPOCH_DAY,
+        "Date %s is too far in the past or future to be stored as an int epoch day", date);
+    return (int) epochDay;
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[NCLDRM %s NCLDRM]", toNonContiguousRangeMap());
+  }
+
+}
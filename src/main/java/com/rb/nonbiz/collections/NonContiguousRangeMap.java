@@ -1,5 +1,6 @@
 package com.rb.nonbiz.collections;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeMap;
@@ -9,7 +10,6 @@ import com.rb.nonbiz.util.RBOrderingPreconditions;
 import com.rb.nonbiz.util.RBPreconditions;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import static com.rb.nonbiz.collections.RBRanges.rangeIsAtLeast;
@@ -23,6 +23,14 @@ import static java.util.Collections.singletonList;
  * <p> I'm using {@code <? super K>} instead of {@code <K>} because there I mostly want to have K be LocalDate,
  * but LocalDate implements ChronoLocalDate which in turn implements {@code Comparable<ChronoLocalDate>},
  * so there's no other way to get this to work. </p>
+ *
+ * <p> This used to be backed by a Guava {@link TreeRangeMap}. However, this class is immutable, and the ranges
+ * are in increasing order, with no overlaps. Therefore, it's simpler and faster to store the ranges in a list,
+ * and binary-search on their lower endpoints. Lookups are O(log n); for a sequence of lookups with
+ * non-decreasing keys (e.g. a day-by-day backtest), use {@link #newSweepCursor()}, which makes them O(1)
+ * on average. </p>
+ *
+ * @see NonContiguousLocalDateRangeMap
  */
 // RangeMap is officially marked @Beta / unstable, but it sounds like this is an oversight. So it's safe to use.
 // https://github.com/google/guava/issues/3376
@@ -30,10 +38,60 @@ import static java.util.Collections.singletonList;
 @SuppressWarnings("UnstableApiUsage")
 public class NonContiguousRangeMap<K extends Comparable<? super K>, V> {
 
-  private final RangeMap<K, V> rawRangeMap;
+  /**
+   * Answers lookups faster than {@link NonContiguousRangeMap} itself does, as long as the keys passed in never
+   * decrease from one call to the next. It remembers the position of the range where the previous lookup
+   * landed, so a lookup that lands in the same range (or the next one) does not need a binary search.
+   * A smaller key than the previous one still gives the right answer; it just falls back to a binary search.
+   *
+   * <p> Unlike the {@link NonContiguousRangeMap} it comes from, this is mutable, so don't share it across threads.
+   * Just create one cursor per thread; it's cheap. </p>
+   */
+  public class SweepCursor {
+
+    private int lastIndex = -1;
+
+    private SweepCursor() {}
+
+    public Optional<V> getOptional(K key) {
+      int index = locate(key);
+      return index >= 0 && contains(index, key)
+          ? Optional.of(values.get(index))
+          : Optional.empty();
+    }
+
+    public Optional<V> getOptionalWithHighestKeyBelow(K key) {
+      int index = locate(key);
+      return index >= 0
+          ? Optional.of(values.get(index))
+          : Optional.empty();
+    }
+
+    private int locate(K key) {
+      int last = lastIndex;
+      if (last >= 0 && ranges.get(last).lowerEndpoint().compareTo(key) <= 0) {
+        // The most common cases by far in a sweep: the key is in the same range as before, or in the next one.
+        int numRanges = ranges.size();
+        if (last + 1 == numRanges || ranges.get(last + 1).lowerEndpoint().compareTo(key) > 0) {
+          return last;
+        }
+        if (last + 2 == numRanges || ranges.get(last + 2).lowerEndpoint().compareTo(key) > 0) {
+          lastIndex = last + 1;
+          return last + 1;
+        }
+      }
+      lastIndex = indexOfLastRangeStartingAtOrBefore(key);
+      return lastIndex;
+    }
+
+  }
+
+  private final List<Range<K>> ranges;
+  private final List<V> values;
 
-  private NonContiguousRangeMap(RangeMap<K, V> rawRangeMap) {
-    this.rawRangeMap = rawRangeMap;
+  private NonContiguousRangeMap(List<Range<K>> ranges, List<V> values) {
+    this.ranges = ranges;
+    this.values = values;
   }
 
   public static <K extends Comparable<? super K>, V> NonContiguousRangeMap<K, V> nonContiguousRangeMapWithEnd(
@@ -74,9 +132,7 @@ public class NonContiguousRangeMap<K extends Comparable<? super K>, V> {
         ranges,
         (range1, range2) -> range1.upperEndpoint().compareTo(range2.lowerEndpoint()) < 0,
         "Ranges must be strictly increasing");
-    RangeMap<K, V> rawRangeMap = TreeRangeMap.create();
-    RBIterables.forEachPair(ranges, values, (closedRange, value) -> rawRangeMap.put(closedRange, value));
-    return new NonContiguousRangeMap<K, V>(rawRangeMap);
+    return new NonContiguousRangeMap<K, V>(ImmutableList.copyOf(ranges), ImmutableList.copyOf(values));
   }
 
   public static <K extends Comparable<? super K>, V> NonContiguousRangeMap<K, V> singletonNonContiguousRangeMapWithEnd(
@@ -88,59 +144,104 @@ public class NonContiguousRangeMap<K extends Comparable<? super K>, V> {
 
   public static <K extends Comparable<? super K>, V> NonContiguousRangeMap<K, V> singletonNonContiguousRangeMapWithNoEnd(
       K startOfOpenInterval, V value) {
-    RangeMap<K, V> rawRangeMap = TreeRangeMap.create();
-    rawRangeMap.put(Range.atLeast(startOfOpenInterval), value);
-    return new NonContiguousRangeMap<K, V>(rawRangeMap);
-  }
-
-  private static <K extends Comparable<? super K>, V> void sanityCheckCommon(List<Range<K>> closedRanges,
-                                                                             List<V> values) {
-    RBPreconditions.checkArgument(
-        closedRanges.size() == values.size(),
-        "You have %s ranges but %s items",
-        closedRanges.size(), values.size());
-    RBPreconditions.checkArgument(
-        closedRanges.stream().allMatch(closedRange -> rangeIsClosed(closedRange)),
-        "All %s ranges must all be closed",
-        closedRanges.size());
-    RBOrderingPreconditions.checkConsecutive(
-        closedRanges,
-        (range1, range2) -> range1.upperEndpoint().compareTo(range2.lowerEndpoint()) < 0,
-        "Ranges must be strictly increasing");
+    return nonContiguousRangeMapWithNoEnd(
+        singletonList(Range.atLeast(startOfOpenInterval)),
+        singletonList(value));
   }
 
   public Optional<V> getOptional(K key) {
-    return Optional.ofNullable(rawRangeMap.get(key));
+    int index = indexOfLastRangeStartingAtOrBefore(key);
+    return index >= 0 && contains(index, key)
+        ? Optional.of(values.get(index))
+        : Optional.empty();
   }
 
+  /**
+   * Returns the value for the range that contains the key, if any. Otherwise, it returns the value for the
+   * last range that ends before the key, if any.
+   */
   public Optional<V> getOptionalWithHighestKeyBelow(K key) {
-    for (Map.Entry<Range<K>, V> entry : rawRangeMap.asDescendingMapOfRanges().entrySet()) {
-      Range<K> range = entry.getKey();
-      V value = entry.getValue();
-      if (range.contains(key)) {
-        return Optional.of(value);
-      } else if (range.hasUpperBound() && range.upperEndpoint().compareTo(key) < 0) {
-        return Optional.of(value);
-      }
-    }
-    return Optional.empty();
+    // The last range that starts at or before the key either contains it, or ends before it,
+    // since all ranges (except possibly an 'at least' range at the end) are closed.
+    int index = indexOfLastRangeStartingAtOrBefore(key);
+    return index >= 0
+        ? Optional.of(values.get(index))
+        : Optional.empty();
   }
 
   public V getOrThrow(K key) {
     Optional<V> value = getOptional(key);
     if (!value.isPresent()) {
       throw new IllegalArgumentException(smartFormat(
-          "Cannot find a value for key %s ; it is outside the range"));    }
+          "Cannot find a value for key %s ; it is outside the range", key));
+    }
     return value.get();
   }
 
+  /**
+   * Use this when you will perform many lookups with keys that never decrease. See {@link SweepCursor}.
+   */
+  public SweepCursor newSweepCursor() {
+    return new SweepCursor();
+  }
+
+  /**
+   * The ranges, in increasing order.
+   */
+  public List<Range<K>> getRanges() {
+    return ranges;
+  }
+
+  /**
+   * The values, in the same order as {@link #getRanges()}.
+   */
+  public List<V> getValues() {
+    return values;
+  }
+
+  public int size() {
+    return ranges.size();
+  }
+
+  /**
+   * We no longer store a {@link RangeMap} internally, so this builds a new one every time it's called.
+   * It's only here for the rare cases that need the Guava interface; don't use it for lookups.
+   */
   public RangeMap<K, V> getRawRangeMap() {
+    RangeMap<K, V> rawRangeMap = TreeRangeMap.create();
+    RBIterables.forEachPair(ranges, values, (range, value) -> rawRangeMap.put(range, value));
     return rawRangeMap;
   }
 
+  /**
+   * Returns the position of the last range whose lower endpoint is at or before the key, or -1 if the key is before
+   * all ranges.
+   */
+  private int indexOfLastRangeStartingAtOrBefore(K key) {
+    int low = 0;
+    int high = ranges.size() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (ranges.get(mid).lowerEndpoint().compareTo(key) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * Assumes that the range at this position starts at or before the key.
+   */
+  private boolean contains(int index, K key) {
+    Range<K> range = ranges.get(index);
+    return !range.hasUpperBound() || range.upperEndpoint().compareTo(key) >= 0;
+  }
+
   @Override
   public String toString() {
-    return Strings.format("[NCRM %s NCRM]", rawRangeMap);
+    return Strings.format("[NCRM %s NCRM]", getRawRangeMap());
   }
 
 }
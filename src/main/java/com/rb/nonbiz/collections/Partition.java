@@ -29,6 +29,7 @@ import static com.rb.nonbiz.types.PreciseValue.sumToBigDecimal;
 import static com.rb.nonbiz.types.UnitFraction.UNIT_FRACTION_0;
 import static com.rb.nonbiz.types.UnitFraction.UNIT_FRACTION_1;
 import static com.rb.nonbiz.types.UnitFraction.unitFraction;
+import static com.rb.nonbiz.util.TieredPreconditions.checkTiered;
 import static java.util.Comparator.reverseOrder;
 import static java.util.Map.Entry.comparingByValue;
 
@@ -59,11 +60,14 @@ public class Partition<K> {
             "Fractions in partitions cannot be zero. If you don't want something, just don't put it into the partition");
       }
     }
-    double sum = sumAsBigDecimals(fractions.values()).doubleValue();
-    RBPreconditions.checkArgument(
-        Math.abs(sum - 1) <= 1e-8,
-        "Fractions sum to %s which is not near 1 within an epsilon of 1e-8: %s",
-        sum, fractions);
+    // Summing BigDecimals is expensive for large partitions, so this check can be sampled; see TieredPreconditions.
+    checkTiered(Partition.class, () -> {
+      double sum = sumAsBigDecimals(fractions.values()).doubleValue();
+      RBPreconditions.checkArgument(
+          Math.abs(sum - 1) <= 1e-8,
+          "Fractions sum to %s which is not near 1 within an epsilon of 1e-8: %s",
+          sum, fractions);
+    });
     return new Partition<>(fractions);
   }
 
@@ -6,8 +6,11 @@ import com.rb.nonbiz.util.RBPreconditions;
 
 import java.math.BigDecimal;
 import java.util.Iterator;
+import java.util.List;
 
 import static com.rb.biz.investing.modeling.RBCommonsConstants.DEFAULT_MATH_CONTEXT;
+import static com.rb.nonbiz.math.CompensatedSum.compensatedSum;
+import static com.rb.nonbiz.math.CompensatedSum.compensatedSumOfProducts;
 import static java.math.MathContext.DECIMAL128;
 
 /**
@@ -83,4 +86,54 @@ public class PreciseValueWeighter {
         : sumOfTerms.divide(sumOfWeights, DEFAULT_MATH_CONTEXT);
   }
 
+  /**
+   * Like {@link #makeWeightedAverage(Iterable, Iterable)}, but computes the average using doubles
+   * (with compensated summation) instead of {@link BigDecimal}s. This is much faster for large lists,
+   * and accurate to roughly double precision, which is enough for most non-accounting uses
+   * (e.g. statistics and reporting). Use the BigDecimal versions when you need exact decimal results.
+   */
+  public <T extends PreciseValue<T>, W extends PreciseValue<W>> double makeWeightedAverageAsDouble(
+      List<T> values, List<W> weights) {
+    RBPreconditions.checkArgument(
+        !values.isEmpty() && !weights.isEmpty(),
+        "Neither values nor weights can be empty");
+    RBPreconditions.checkArgument(
+        values.size() == weights.size(),
+        "We did not have the same number of values and weights: %s vs %s",
+        values.size(), weights.size());
+    double[] valuesArray = toDoubleArray(values);
+    double[] weightsArray = toDoubleArray(weights);
+    double sumOfWeights = compensatedSum(weightsArray);
+    RBPreconditions.checkArgument(
+        sumOfWeights > 0,
+        "Individual weights can be 0, but not all can be 0. sumOfWeights= %s",
+        sumOfWeights);
+    return valuesArray.length == 1
+        ? valuesArray[0]
+        : compensatedSumOfProducts(valuesArray, weightsArray) / sumOfWeights;
+  }
+
+  /**
+   * Like {@link #makeUnweightedAverage(Iterable)}, but using doubles; see {@link #makeWeightedAverageAsDouble}.
+   */
+  public <T extends PreciseValue<T>> double makeUnweightedAverageAsDouble(List<T> values) {
+    RBPreconditions.checkArgument(
+        !values.isEmpty(),
+        "Cannot make an unweighted average of 0 values");
+    double[] valuesArray = toDoubleArray(values);
+    return valuesArray.length == 1
+        ? valuesArray[0]
+        : compensatedSum(valuesArray) / valuesArray.length;
+  }
+
+  private static <T extends PreciseValue<T>> double[] toDoubleArray(List<T> list) {
+    double[] array = new double[list.size()];
+    int i = 0;
+    // Iterating instead of using get(i), in case this is a LinkedList.
+    for (T item : list) {
+      array[i++] = item.doubleValue();
+    }
+    return array;
+  }
+
 }
@@ -0,0 +1,387 @@
+package com.rb.nonbiz.collections;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+import static com.rb.nonbiz.collections.RBSymmetricUnequalPairMap.getFlatIndexUnchecked;
+import static com.rb.nonbiz.collections.RBSymmetricUnequalPairMap.getNumPairs;
+import static com.rb.nonbiz.collections.SimpleArrayIndexMapping.simpleArrayIndexMapping;
+
+/**
+ * Same as {@link RBSymmetricUnequalPairMap}, but specialized for double values, which is the common case of
+ * pairwise correlations or distances over (possibly thousands of) instruments.
+ *
+ * <p> The values are stored in a flat double[], in the same 'lower triangle without the diagonal' layout as
+ * {@link RBSymmetricUnequalPairMap}, so there is no boxing. If you already know the numeric indices of the keys
+ * (i.e. their positions in the list of keys you passed in), {@link #getByIndex(int, int)} is just some integer
+ * arithmetic plus an array lookup; there are no map lookups and no Optionals. </p>
+ *
+ * <p> To create this, pass a function of the two numeric indices to one of the static constructors. For large maps,
+ * {@link #rbDoubleSymmetricUnequalPairMapInParallel} computes the values on all cores. </p>
+ */
+public class RBDoubleSymmetricUnequalPairMap<K> {
+
+  /**
+   * Computes the value for a pair, given the numeric indices of its two keys. It will only be called with
+   * index1 {@code >} index2.
+   */
+  @FunctionalInterface
+  public interface PairValueGenerator {
+
+    double apply(int index1, int index2);
+
+  }
+
+  // Below this, it is not worth splitting the work across cores.
+  private static final int MIN_PAIRS_FOR_PARALLEL_FILL = 1 << 14;
+
+  private final ArrayIndexMapping<K> arrayIndexMapping;
+  private final double[] rawFlatArray;
+
+  private RBDoubleSymmetricUnequalPairMap(ArrayIndexMapping<K> arrayIndexMapping, double[] rawFlatArray) {
+    this.arrayIndexMapping = arrayIndexMapping;
+    this.rawFlatArray = rawFlatArray;
+  }
+
+  public static <K> RBDoubleSymmetricUnequalPairMap<K> rbDoubleSymmetricUnequalPairMap(
+      List<K> keys, PairValueGenerator pairValueGenerator) {
+    ArrayIndexMapping<K> arrayIndexMapping = makeArrayIndexMapping(keys);
+    double[] rawFlatArray = new double[getNumPairs(keys.size())];
+    for (int row = 1; row < keys.size(); row++) {
+      fillRow(rawFlatArray, row, pairValueGenerator);
+    }
+    return new RBDoubleSymmetricUnequalPairMap<>(arrayIndexMapping, rawFlatArray);
+  }
+
+  /**
+   * Same as {@link #rbDoubleSymmetricUnequalPairMap}, except that the values get computed on all cores,
+   * so the pairValueGenerator must be thread-safe. Each row of the triangle gets written by a single thread,
+   * and different rows do not overlap in the flat array, so there is no locking.
+   */
+  public static <K> RBDoubleSymmetricUnequalPairMap<K> rbDoubleSymmetricUnequalPairMapInParallel(
+      List<K> keys, PairValueGenerator pairValueGenerator) {
+    ArrayIndexMapping<K> arrayIndexMapping = makeArrayIndexMapping(keys);
+    double[] rawFlatArray = new double[getNumPairs(keys.size())];
+    IntStream rows = IntStream.range(1, keys.size());
+    (rawFlatArray.length < MIN_PAIRS_FOR_PARALLEL_FILL ? rows : rows.parallel())
+        .forEach(row -> fillRow(rawFlatArray, row, pairValueGenerator));
+    return new RBDoubleSymmetricUnequalPairMap<>(arrayIndexMapping, rawFlatArray);
+  }
+
+  public static <K> RBDoubleSymmetricUnequalPairMap<K> rbDoubleSymmetricUnequalPairMap(
+      RBSymmetricUnequalPairMap<K, Double> pairMap) {
+    ArrayIndexMapping<K> arrayIndexMapping = pairMap.getArrayIndexMapping();
+    Double[] boxedValues = pairMap.getRawFlatArray();
+    double[] rawFlatArray = new double[boxedValues.length];
+    for (int i = 0; i < boxedValues.length; i++) {
+      rawFlatArray[i] = checkNotNaN(boxedValues[i]);
+    }
+    return new RBDoubleSymmetricUnequalPairMap<>(arrayIndexMapping, rawFlatArray);
+  }
+
+  private static <K> ArrayIndexMapping<K> makeArrayIndexMapping(List<K> keys) {
+    RBPreconditions.checkArgument(
+        keys.size() > 1,
+        "We must have 2 or more keys in order to store pairs of those keys; we had %s",
+        keys);
+    return simpleArrayIndexMapping(keys);
+  }
+
+  private static void fillRow(double[] rawFlatArray, int row, PairValueGenerator pairValueGenerator) {
+    int rowStart = getFlatIndexUnchecked(row, 0);
+    for (int column = 0; column < row; column++) {
+      rawFlatArray[rowStart + column] = checkNotNaN(pairValueGenerator.apply(row, column));
+    }
+  }
+
+  // NaN would break the ordering in the top-k methods, and is almost certainly a bug anyway.
+  private static double checkNotNaN(double value) {
+    RBPreconditions.checkArgumentWithoutAllocating(
+        !Double.isNaN(value),
+        "Values in an RBDoubleSymmetricUnequalPairMap cannot be NaN: %s",
+        value);
+    return value;
+  }
+
+  public double getByIndex(int index1, int index2) {
+    int numKeys = arrayIndexMapping.size();
+    RBPreconditions.checkArgumentWithoutAllocating(
+        index1 >= 0 && index2 >= 0 && index1 < numKeys && index2 < numKeys && index1 != index2,
+        "Invalid pair of indices ( %s , %s ); they must be different, and in 0 to %s",
+        index1, index2, numKeys - 1);
+    return index1 > index2
+        ? rawFlatArray[getFlatIndexUnchecked(index1, index2)]
+        : rawFlatArray[getFlatIndexUnchecked(index2, index1)];
+  }
+
+  public double getOrThrow(K key1, K key2) {
+    RBPreconditions.checkArgument(
+        !key1.equals(key2),
+        "We explicitly disallow the same item on both sides of a pair: %s",
+        key1);
+    return getByIndex(arrayIndexMapping.getIndexOrThrow(key1), arrayIndexMapping.getIndexOrThrow(key2));
+  }
+
+  public OptionalDouble getOptional(K key1, K key2) {
+    RBPreconditions.checkArgument(
+        !key1.equals(key2),
+        "We explicitly disallow the same item on both sides of a pair: %s",
+        key1);
+    if (!arrayIndexMapping.containsKey(key1) || !arrayIndexMapping.containsKey(key2)) {
+      return OptionalDouble.empty();
+    }
+    return OptionalDouble.of(getOrThrow(key1, key2));
+  }
+
+  public boolean containsKey(K key) {
+    return arrayIndexMapping.containsKey(key);
+  }
+
+  public int getNumKeys() {
+    return arrayIndexMapping.size();
+  }
+
+  public K getKey(int index) {
+    return arrayIndexMapping.getKey(index);
+  }
+
+  public int getIndexOrThrow(K key) {
+    return arrayIndexMapping.getIndexOrThrow(key);
+  }
+
+  /**
+   * The values for all pairs that include this key, without copying anything.
+   * E.g. if key is B, and all keys are A, B, C, D, this is a view of the values for BA, BC, BD, in that order.
+   */
+  public RowView getRowView(K key) {
+    return getRowViewByIndex(arrayIndexMapping.getIndexOrThrow(key));
+  }
+
+  public RowView getRowViewByIndex(int index) {
+    RBPreconditions.checkArgument(
+        index >= 0 && index < arrayIndexMapping.size(),
+        "Invalid index %s ; must be in 0 to %s",
+        index, arrayIndexMapping.size() - 1);
+    return new RowView(index);
+  }
+
+  /**
+   * The (up to) k other keys whose pairs with this key have the largest values, starting from the largest;
+   * e.g. the k instruments most correlated with this instrument. Ties go to the key with the smaller index.
+   */
+  public List<K> getKeysWithLargestValues(K key, int k) {
+    return toKeys(getRowView(key).getOtherKeyIndicesOfLargestValues(k));
+  }
+
+  /**
+   * The (up to) k other keys whose pairs with this key have the smallest values, starting from the smallest;
+   * e.g. the k nearest neighbors of this key, if the values are distances. Ties go to the key with the smaller index.
+   */
+  public List<K> getKeysWithSmallestValues(K key, int k) {
+    return toKeys(getRowView(key).getOtherKeyIndicesOfSmallestValues(k));
+  }
+
+  private List<K> toKeys(int[] indices) {
+    List<K> keys = new ArrayList<>(indices.length);
+    for (int index : indices) {
+      keys.add(arrayIndexMapping.getKey(index));
+    }
+    return keys;
+  }
+
+  @VisibleForTesting // do not use this; it's here to help the test matcher
+  ArrayIndexMapping<K> getArrayIndexMapping() {
+    return arrayIndexMapping;
+  }
+
+  @VisibleForTesting // do not use this; it's here to help the test matcher
+  double[] getRawFlatArray() {
+    return rawFlatArray;
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[RBDSUPM %s keys: %s RBDSUPM]", arrayIndexMapping.size(), arrayIndexMapping);
+  }
+
+
+  /**
+   * A read-only view of the values of all pairs that include a single key, i.e. a row of the full symmetric matrix,
+   * minus the (missing) diagonal. This does not copy anything.
+   *
+   * <p> Position p in the view corresponds to the other key with index p if p is before the row's own index,
+   * and p + 1 otherwise. Part of the row is consecutive in the flat array (pairs with keys of smaller index),
+   * and the rest is spread out (one item per subsequent row of the triangle), but that is hidden from the caller. </p>
+   */
+  public class RowView {
+
+    private final int rowIndex;
+
+    private RowView(int rowIndex) {
+      this.rowIndex = rowIndex;
+    }
+
+    public K getRowKey() {
+      return arrayIndexMapping.getKey(rowIndex);
+    }
+
+    public int size() {
+      return arrayIndexMapping.size() - 1;
+    }
+
+    public int getOtherKeyIndex(int position) {
+      checkValidPosition(position);
+      return position < rowIndex ? position : position + 1;
+    }
+
+    public double get(int position) {
+      int otherIndex = getOtherKeyIndex(position);
+      return otherIndex < rowIndex
+          ? rawFlatArray[getFlatIndexUnchecked(rowIndex, otherIndex)]
+          : rawFlatArray[getFlatIndexUnchecked(otherIndex, rowIndex)];
+    }
+
+    public double sum() {
+      double sum = 0;
+      int rowStart = getFlatIndexUnchecked(rowIndex, 0);
+      for (int otherIndex = 0; otherIndex < rowIndex; otherIndex++) {
+        sum += rawFlatArray[rowStart + otherIndex];
+      }
+      // Going from row r to row r + 1 of the triangle moves us r items ahead in the flat array.
+      int numKeys = arrayIndexMapping.size();
+      for (int otherIndex = rowIndex + 1, flatIndex = getFlatIndexUnchecked(rowIndex + 1, rowIndex);
+           otherIndex < numKeys;
+           flatIndex += otherIndex, otherIndex++) {
+        sum += rawFlatArray[flatIndex];
+      }
+      return sum;
+    }
+
+    public double mean() {
+      return sum() / size();
+    }
+
+    /**
+     * Unlike the rest of this class, this creates a copy.
+     */
+    public double[] toDoubleArray() {
+      double[] copy = new double[size()];
+      for (int position = 0; position < copy.length; position++) {
+        copy[position] = get(position);
+      }
+      return copy;
+    }
+
+    public DoubleStream doubleStream() {
+      return IntStream.range(0, size()).mapToDouble(position -> get(position));
+    }
+
+    public int[] getOtherKeyIndicesOfLargestValues(int k) {
+      return getOtherKeyIndicesOfTopValues(k, 1);
+    }
+
+    public int[] getOtherKeyIndicesOfSmallestValues(int k) {
+      return getOtherKeyIndicesOfTopValues(k, -1);
+    }
+
+    /**
+     * Keeps the best k positions seen so far in a heap whose root is the worst of them, so this is O(n log k)
+     * instead of the O(n log n) of sorting the whole row. 'sign' is 1 for the largest values, -1 for the smallest.
+     */
+    private int[] getOtherKeyIndicesOfTopValues(int k, int sign) {
+      RBPreconditions.checkArgument(
+          k >= 0,
+          "Cannot ask for the top %s values",
+          k);
+      int heapCapacity = Math.min(k, size());
+      int[] heap = new int[heapCapacity]; // positions in this view
+      int heapSize = 0;
+      for (int position = 0; position < size(); position++) {
+        if (heapSize < heapCapacity) {
+          heap[heapSize] = position;
+          siftUp(heap, heapSize, sign);
+          heapSize++;
+        } else if (heapCapacity > 0 && isBetter(position, heap[0], sign)) {
+          heap[0] = position;
+          siftDown(heap, heapSize, sign);
+        }
+      }
+      // Repeatedly moving the worst item to the end leaves the best one at the start.
+      for (int end = heapSize - 1; end > 0; end--) {
+        int worst = heap[0];
+        heap[0] = heap[end];
+        heap[end] = worst;
+        siftDown(heap, end, sign);
+      }
+      for (int i = 0; i < heapSize; i++) {
+        heap[i] = getOtherKeyIndex(heap[i]);
+      }
+      return heap;
+    }
+
+    // Positions earlier in the row win ties, so the result does not depend on the order we look at things.
+    private boolean isBetter(int position1, int position2, int sign) {
+      double value1 = sign * get(position1);
+      double value2 = sign * get(position2);
+      return value1 > value2 || (value1 == value2 && position1 < position2);
+    }
+
+    private void siftUp(int[] heap, int i, int sign) {
+      while (i > 0) {
+        int parent = (i - 1) / 2;
+        if (!isBetter(heap[parent], heap[i], sign)) {
+          return;
+        }
+        swap(heap, parent, i);
+        i = parent;
+      }
+    }
+
+    private void siftDown(int[] heap, int heapSize, int sign) {
+      int i = 0;
+      while (true) {
+        int worst = i;
+        int left = 2 * i + 1;
+        int right = left + 1;
+        if (left < heapSize && isBetter(heap[worst], heap[left], sign)) {
+          worst = left;
+        }
+        if (right < heapSize && isBetter(heap[worst], heap[right], sign)) {
+          worst = right;
+        }
+        if (worst == i) {
+          return;
+        }
+        swap(heap, i, worst);
+        i = worst;
+      }
+    }
+
+    private void swap(int[] heap, int i, int j) {
+      int temp = heap[i];
+      heap[i] = heap[j];
+      heap[j] = temp;
+    }
+
+    private void checkValidPosition(int position) {
+      RBPreconditions.checkArgumentWithoutAllocating(
+          position >= 0 && position < size(),
+          "Position %s is out of bounds for a row view of size %s", position, size());
+    }
+
+    @Override
+    public String toString() {
+      return Strings.format("[RV %s : %s RV]", getRowKey(), Arrays.toString(toDoubleArray()));
+    }
+
+  }
+
+}
@@ -219,6 +219,33 @@ public class RBMap<K, V> {
     return filterKeysAndTransformValuesCopy(valueTransformer, v -> true);
   }
 
+  /**
+   * Like #transformValuesCopy, except that the valueTransformer gets run on all cores. Each thread builds a partial map,
+   * and those get merged at the end.
+   *
+   * <p> The valueTransformer must be thread-safe. This is only worth it for large maps and non-trivial transformers;
+   * otherwise, the overhead of splitting and merging will dominate. </p>
+   */
+  public <V1> RBMap<K, V1> parallelTransformValuesCopy(Function<V, V1> valueTransformer) {
+    return parallelTransformEntriesCopy( (ignoredKey, value) -> valueTransformer.apply(value));
+  }
+
+  /**
+   * Like #transformEntriesCopy, except that the entryTransformer gets run on all cores.
+   *
+   * @see #parallelTransformValuesCopy
+   */
+  public <V1> RBMap<K, V1> parallelTransformEntriesCopy(BiFunction<K, V, V1> entryTransformer) {
+    // The underlying HashMap's entry set spliterator is already sized and splittable, so we can use it directly.
+    return newRBMap(entrySet()
+        .parallelStream()
+        .collect(
+            () -> MutableRBMap.<K, V1>newMutableRBMap(),
+            (partialMap, entry) -> partialMap.putAssumingAbsent(
+                entry.getKey(), entryTransformer.apply(entry.getKey(), entry.getValue())),
+            (partialMap1, partialMap2) -> partialMap1.addAllAssumingNoOverlap(partialMap2)));
+  }
+
   /**
    * Creates a new map whose keys are the same, and whose values are a transformation
    * of the values of the original map, when you don't care about they key when doing the transformation.
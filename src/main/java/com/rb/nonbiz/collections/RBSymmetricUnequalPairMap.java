@@ -10,8 +10,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.function.IntFunction;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import static com.google.common.collect.Lists.newArrayListWithExpectedSize;
 import static com.rb.nonbiz.collections.MutableRBMap.newMutableRBMap;
@@ -35,6 +33,9 @@ import static com.rb.nonbiz.collections.SimpleArrayIndexMapping.simpleArrayIndex
  */
 public class RBSymmetricUnequalPairMap<K, V> {
 
+  // Some JVMs reserve a few header words in an array, so this is the largest size that is safe everywhere.
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
   private final ArrayIndexMapping<K> arrayIndexMapping;
   private final V[] rawFlatArray;
 
@@ -72,10 +73,16 @@ public class RBSymmetricUnequalPairMap<K, V> {
    */
   public List<V> valuesForPairsWithKey(K key) {
     int index = getIntOrThrow(arrayIndexMapping.getOptionalIndex(key), "Cannot find mapping for key %s", key);
-    return IntStream.range(0, arrayIndexMapping.size())
-        .filter(otherKeyIndex -> otherKeyIndex != index)
-        .mapToObj(otherKeyIndex -> getOrThrow(key, arrayIndexMapping.getKey(otherKeyIndex)))
-        .collect(Collectors.toList());
+    // We already know the numeric indices, so there is no need to look up the other keys.
+    List<V> values = newArrayListWithExpectedSize(arrayIndexMapping.size() - 1);
+    for (int otherKeyIndex = 0; otherKeyIndex < arrayIndexMapping.size(); otherKeyIndex++) {
+      if (otherKeyIndex != index) {
+        values.add(rawFlatArray[otherKeyIndex < index
+            ? getFlatIndexUnchecked(index, otherKeyIndex)
+            : getFlatIndexUnchecked(otherKeyIndex, index)]);
+      }
+    }
+    return values;
   }
 
   /**
@@ -98,6 +105,29 @@ public class RBSymmetricUnequalPairMap<K, V> {
     return rawFlatArray;
   }
 
+  /**
+   * The size of the flat array for this many keys. Throws if that would not fit in a Java array,
+   * i.e. for more than about 65,000 keys.
+   */
+  static int getNumPairs(int numKeys) {
+    // This is a long, because numKeys * (numKeys - 1) overflows an int for more than 46,341 keys.
+    long numPairs = (long) numKeys * (numKeys - 1) / 2;
+    RBPreconditions.checkArgument(
+        numPairs <= MAX_ARRAY_SIZE,
+        "%s keys would need %s pairs, which is more than the %s items that fit in an array",
+        numKeys, numPairs, MAX_ARRAY_SIZE);
+    return (int) numPairs;
+  }
+
+  /**
+   * See {@link #getOptionalFlatIndex(ArrayIndexMapping, Object, Object)} for the layout.
+   * Requires index1 {@code >} index2 {@code >=} 0, and index1 less than a number of keys that passes
+   * {@link #getNumPairs(int)}, so that the result fits in an int.
+   */
+  static int getFlatIndexUnchecked(int index1, int index2) {
+    return (int) ((long) index1 * (index1 - 1) / 2) + index2;
+  }
+
   private static <K> OptionalInt getOptionalFlatIndex(ArrayIndexMapping<K> arrayIndexMapping, K key1, K key2) {
     RBPreconditions.checkArgument(
         !key1.equals(key2),
@@ -138,11 +168,7 @@ public class RBSymmetricUnequalPairMap<K, V> {
     int rowIndexInSquare    = Math.max(index1.getAsInt(), index2.getAsInt());
     int columnIndexInSquare = Math.min(index1.getAsInt(), index2.getAsInt());
 
-    int rowIndex = rowIndexInSquare - 1;
-    int columnIndex = columnIndexInSquare;
-
-    int flatIndex = (rowIndex * (rowIndex + 1)) / 2 + columnIndex;
-    return OptionalInt.of(flatIndex);
+    return OptionalInt.of(getFlatIndexUnchecked(rowIndexInSquare, columnIndexInSquare));
   }
 
 
@@ -196,9 +222,7 @@ public class RBSymmetricUnequalPairMap<K, V> {
     @Override
     public RBSymmetricUnequalPairMap<K, V> buildWithoutPreconditions() {
       ArrayIndexMapping<K> arrayIndexMapping = simpleArrayIndexMapping(newRBSet(rawMapOfMaps.keySet()).toSortedList());
-      int numKeys = arrayIndexMapping.size();
-      int size = numKeys * (numKeys - 1) / 2;
-      V[] rawFlatArray = rawArrayInstantiator.apply(size);
+      V[] rawFlatArray = rawArrayInstantiator.apply(getNumPairs(arrayIndexMapping.size()));
       forEachUniquePair(rawMapOfMaps.keySet(), (key1, key2) -> {
         int rawIndex = getOptionalFlatIndex(arrayIndexMapping, key1, key2).getAsInt();
         rawFlatArray[rawIndex] = rawMapOfMaps.getOrThrow(key1).getOrThrow(key2);
@@ -229,9 +253,8 @@ public class RBSymmetricUnequalPairMap<K, V> {
           keys.size() > 1,
           "We must have 2 or more keys in order to store pairs of those keys; we had %s",
           keys);
-      int rawFlatArraySize = keys.size() * (keys.size() - 1) / 2;
       return new RBSymmetricUnequalPairMapStaticBuilder<>(
-          simpleArrayIndexMapping(keys), rawArrayInstantiator.apply(rawFlatArraySize));
+          simpleArrayIndexMapping(keys), rawArrayInstantiator.apply(getNumPairs(keys.size())));
     }
 
     public RBSymmetricUnequalPairMapStaticBuilder<K, V> putAssumingAbsent(K key1, K key2, V value) {
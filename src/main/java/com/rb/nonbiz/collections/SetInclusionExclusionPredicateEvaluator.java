@@ -1,16 +1,26 @@
 package com.rb.nonbiz.collections;
 
+import com.rb.biz.types.asset.InstrumentId;
 import com.rb.nonbiz.collections.SetInclusionExclusionPredicateEvaluator.SetInclusionExclusionInstructions.BehaviorForRest;
+import com.rb.nonbiz.text.Strings;
 import com.rb.nonbiz.util.RBBuilder;
 import com.rb.nonbiz.util.RBPreconditions;
+import gnu.trove.set.hash.TLongHashSet;
 
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 
+import static com.rb.nonbiz.collections.IidSetSimpleConstructors.emptyIidSet;
+import static com.rb.nonbiz.collections.IidSetSimpleConstructors.newIidSet;
+import static com.rb.nonbiz.collections.MutableIidSet.newMutableIidSetWithExpectedSize;
 import static com.rb.nonbiz.collections.RBSet.emptyRBSet;
+import static com.rb.nonbiz.collections.RBSet.rbSet;
 import static com.rb.nonbiz.collections.RBSets.noSharedItems;
 import static com.rb.nonbiz.collections.SetInclusionExclusionPredicateEvaluator.SetInclusionExclusionInstructions.BehaviorForRest.EXCLUDE;
 import static com.rb.nonbiz.collections.SetInclusionExclusionPredicateEvaluator.SetInclusionExclusionInstructions.BehaviorForRest.INCLUDE;
 import static com.rb.nonbiz.collections.SetInclusionExclusionPredicateEvaluator.SetInclusionExclusionInstructions.BehaviorForRest.USE_RULES;
+import static com.rb.nonbiz.collections.SetInclusionExclusionPredicateEvaluator.SetInclusionExclusionSplit.setInclusionExclusionSplit;
 import static com.rb.nonbiz.text.SmartFormatter.smartFormat;
 
 /**
@@ -18,6 +28,9 @@ import static com.rb.nonbiz.text.SmartFormatter.smartFormat;
  * Optional.of(true)  {@code =>}  include
  * Optional.of(false) {@code =>}  exclude
  * Optional.empty()   {@code =>}  there isn't enough information to decide.
+ *
+ * <p> If you need to do this for many items at once (e.g. the entire universe of instruments), use #splitByInclusion
+ * instead, which does it with a few set operations instead of three lookups per item. </p>
  */
 public class SetInclusionExclusionPredicateEvaluator {
 
@@ -45,6 +58,136 @@ public class SetInclusionExclusionPredicateEvaluator {
     }
   }
 
+  /**
+   * Same as calling #mustBeIncluded for every item, except that it returns the items split into three disjoint sets:
+   * included, excluded, and 'needs rules' (i.e. the ones where #mustBeIncluded would return Optional.empty()).
+   *
+   * <p> Every item that is not in one of the instruction sets goes to the same bucket (as per
+   * {@link SetInclusionExclusionInstructions#getBehaviorForRest()}). So we start with all the items in that bucket,
+   * and only move out the ones in the (typically small) instruction sets that point to the other two buckets.
+   * If those are empty, we don't even copy the items. </p>
+   */
+  public <T> SetInclusionExclusionSplit<RBSet<T>> splitByInclusion(
+      RBSet<T> items, SetInclusionExclusionInstructions<T> instructions) {
+    BehaviorForRest behaviorForRest = instructions.getBehaviorForRest();
+    RBSet<T> alwaysInclude  = behaviorForRest == INCLUDE   ? emptyRBSet() : instructions.getAlwaysInclude();
+    RBSet<T> alwaysExclude  = behaviorForRest == EXCLUDE   ? emptyRBSet() : instructions.getAlwaysExclude();
+    RBSet<T> alwaysUseRules = behaviorForRest == USE_RULES ? emptyRBSet() : instructions.getAlwaysUseRules();
+    if (alwaysInclude.isEmpty() && alwaysExclude.isEmpty() && alwaysUseRules.isEmpty()) {
+      return splitWithRest(items, emptyRBSet(), emptyRBSet(), emptyRBSet(), behaviorForRest);
+    }
+    Set<T> rest = new HashSet<>(items.asSet());
+    RBSet<T> included   = moveFromRest(rest, alwaysInclude);
+    RBSet<T> excluded   = moveFromRest(rest, alwaysExclude);
+    RBSet<T> needsRules = moveFromRest(rest, alwaysUseRules);
+    return splitWithRest(rbSet(rest), included, excluded, needsRules, behaviorForRest);
+  }
+
+  /**
+   * Same as the RBSet overload, except that it works on the raw primitive long sets of the {@link IidSet}.
+   */
+  public SetInclusionExclusionSplit<IidSet> splitByInclusion(
+      IidSet items, SetInclusionExclusionInstructions<InstrumentId> instructions) {
+    BehaviorForRest behaviorForRest = instructions.getBehaviorForRest();
+    RBSet<InstrumentId> alwaysInclude  = behaviorForRest == INCLUDE   ? emptyRBSet() : instructions.getAlwaysInclude();
+    RBSet<InstrumentId> alwaysExclude  = behaviorForRest == EXCLUDE   ? emptyRBSet() : instructions.getAlwaysExclude();
+    RBSet<InstrumentId> alwaysUseRules = behaviorForRest == USE_RULES ? emptyRBSet() : instructions.getAlwaysUseRules();
+    if (alwaysInclude.isEmpty() && alwaysExclude.isEmpty() && alwaysUseRules.isEmpty()) {
+      IidSet empty = emptyIidSet();
+      return splitWithRest(items, empty, empty, empty, behaviorForRest);
+    }
+    TLongHashSet rest = new TLongHashSet(items.getRawSetUnsafe());
+    IidSet included   = moveFromRest(rest, alwaysInclude);
+    IidSet excluded   = moveFromRest(rest, alwaysExclude);
+    IidSet needsRules = moveFromRest(rest, alwaysUseRules);
+    return splitWithRest(new IidSet(rest), included, excluded, needsRules, behaviorForRest);
+  }
+
+  private <T> RBSet<T> moveFromRest(Set<T> rest, RBSet<T> instructionSet) {
+    if (instructionSet.isEmpty()) {
+      return emptyRBSet();
+    }
+    Set<T> moved = new HashSet<>();
+    for (T item : instructionSet) {
+      if (rest.remove(item)) {
+        moved.add(item);
+      }
+    }
+    return rbSet(moved);
+  }
+
+  private IidSet moveFromRest(TLongHashSet rest, RBSet<InstrumentId> instructionSet) {
+    if (instructionSet.isEmpty()) {
+      return emptyIidSet();
+    }
+    MutableIidSet moved = newMutableIidSetWithExpectedSize(instructionSet.size());
+    for (InstrumentId instrumentId : instructionSet) {
+      if (rest.remove(instrumentId.asLong())) {
+        moved.addAssumingAbsent(instrumentId);
+      }
+    }
+    return newIidSet(moved);
+  }
+
+  /**
+   * The argument for the bucket that the 'rest' items go to gets ignored; we never move its items out of 'rest'.
+   */
+  private <S> SetInclusionExclusionSplit<S> splitWithRest(
+      S rest, S included, S excluded, S needsRules, BehaviorForRest behaviorForRest) {
+    switch (behaviorForRest) {
+      case INCLUDE:
+        return setInclusionExclusionSplit(rest, excluded, needsRules);
+      case EXCLUDE:
+        return setInclusionExclusionSplit(included, rest, needsRules);
+      case USE_RULES:
+        return setInclusionExclusionSplit(included, excluded, rest);
+      default:
+        throw new IllegalArgumentException(smartFormat("enum value %s not handled", behaviorForRest));
+    }
+  }
+
+  /**
+   * The result of #splitByInclusion: three disjoint sets (of type S, e.g. {@link IidSet} or {@link RBSet})
+   * whose union is the original set of items.
+   */
+  public static class SetInclusionExclusionSplit<S> {
+
+    private final S included;
+    private final S excluded;
+    private final S needsRules;
+
+    private SetInclusionExclusionSplit(S included, S excluded, S needsRules) {
+      this.included = included;
+      this.excluded = excluded;
+      this.needsRules = needsRules;
+    }
+
+    public static <S> SetInclusionExclusionSplit<S> setInclusionExclusionSplit(S included, S excluded, S needsRules) {
+      return new SetInclusionExclusionSplit<>(included, excluded, needsRules);
+    }
+
+    public S getIncluded() {
+      return included;
+    }
+
+    public S getExcluded() {
+      return excluded;
+    }
+
+    /**
+     * The items where there isn't enough information to decide, i.e. where #mustBeIncluded returns Optional.empty().
+     */
+    public S getNeedsRules() {
+      return needsRules;
+    }
+
+    @Override
+    public String toString() {
+      return Strings.format("[SIES included: %s ; excluded: %s ; needsRules: %s SIES]", included, excluded, needsRules);
+    }
+
+  }
+
   /**
    * Often (e.g. with selecting which instruments will participate in a backtest)
    * we need to have rules such as
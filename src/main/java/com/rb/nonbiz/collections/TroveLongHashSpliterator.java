@@ -0,0 +1,100 @@
+package com.rb.nonbiz.collections;
+
+import gnu.trove.impl.hash.TLongHash;
+import gnu.trove.impl.hash.TPrimitiveHash;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * A {@link Spliterator.OfLong} that walks the raw open-addressing table of a GNU Trove {@link TLongHash}
+ * (i.e. the keys of a TLongObjectHashMap, or the items of a TLongHashSet) in place.
+ *
+ * <p> Trove's own {@code keys()} / {@code toArray()} copy all the keys into a new array before we can stream them,
+ * and its iterators can't be split. This walks the underlying slot array directly, so it allocates nothing
+ * per item, and it splits the range of slots in half, so that a parallel stream can process each half
+ * on a different thread. </p>
+ *
+ * <p> The top-level spliterator knows the exact number of items, so it reports {@link #SIZED}. Like
+ * the {@link java.util.HashMap} spliterators, after a split we only know the approximate number of items in each half
+ * (we assume the items are spread uniformly across the slots), so the halves no longer report {@link #SIZED}. </p>
+ *
+ * <p> This must only be used for Trove hashes that will not be modified while the spliterator is in use,
+ * which is the case for the raw maps / sets inside our immutable {@link HasLongMap} and {@link HasLongSet}. </p>
+ */
+public class TroveLongHashSpliterator implements Spliterator.OfLong {
+
+  private final long[] slots;
+  private final byte[] slotStates;
+  private int currentSlot;
+  private final int endSlotExclusive;
+  private long estimatedSize;
+  private boolean isExactlySized;
+
+  private TroveLongHashSpliterator(
+      long[] slots, byte[] slotStates, int startSlot, int endSlotExclusive, long estimatedSize, boolean isExactlySized) {
+    this.slots = slots;
+    this.slotStates = slotStates;
+    this.currentSlot = startSlot;
+    this.endSlotExclusive = endSlotExclusive;
+    this.estimatedSize = estimatedSize;
+    this.isExactlySized = isExactlySized;
+  }
+
+  public static TroveLongHashSpliterator troveLongHashSpliterator(TLongHash rawTroveHash) {
+    return new TroveLongHashSpliterator(
+        rawTroveHash._set, rawTroveHash._states, 0, rawTroveHash._states.length, rawTroveHash.size(), true);
+  }
+
+  @Override
+  public boolean tryAdvance(LongConsumer action) {
+    while (currentSlot < endSlotExclusive) {
+      int slot = currentSlot++;
+      if (slotStates[slot] == TPrimitiveHash.FULL) {
+        action.accept(slots[slot]);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void forEachRemaining(LongConsumer action) {
+    // Copying the fields into locals lets the JIT keep them in registers for the tight loop below.
+    long[] slots = this.slots;
+    byte[] slotStates = this.slotStates;
+    int endSlotExclusive = this.endSlotExclusive;
+    for (int slot = currentSlot; slot < endSlotExclusive; slot++) {
+      if (slotStates[slot] == TPrimitiveHash.FULL) {
+        action.accept(slots[slot]);
+      }
+    }
+    currentSlot = endSlotExclusive;
+  }
+
+  @Override
+  public TroveLongHashSpliterator trySplit() {
+    int startSlot = currentSlot;
+    int midSlot = (startSlot + endSlotExclusive) >>> 1;
+    if (startSlot >= midSlot) {
+      return null;
+    }
+    // This spliterator keeps the upper half of the slots; the new one gets the lower half.
+    currentSlot = midSlot;
+    estimatedSize >>>= 1;
+    isExactlySized = false;
+    return new TroveLongHashSpliterator(slots, slotStates, startSlot, midSlot, estimatedSize, false);
+  }
+
+  @Override
+  public long estimateSize() {
+    return estimatedSize;
+  }
+
+  @Override
+  public int characteristics() {
+    int characteristics = DISTINCT | NONNULL | IMMUTABLE;
+    return isExactlySized ? characteristics | SIZED : characteristics;
+  }
+
+}
@@ -120,8 +120,14 @@ public class GeometricCollaredRBNumericFunctionBuilder<X extends Number, Y exten
 
   @Override
   public RBNumericFunction<X, Y> buildWithoutPreconditions() {
-    double dxTotal = maxX.doubleValue() - minX.doubleValue();
-    double valuesRatio = maxY.doubleValue() / minY.doubleValue();
+    // As in LinearCollaredRBNumericFunctionBuilder, the range and the ratio of the endpoints get computed here,
+    // not on every evaluation.
+    double minXValue = minX.doubleValue();
+    double maxXValue = maxX.doubleValue();
+    double minYValue = minY.doubleValue();
+    double maxYValue = maxY.doubleValue();
+    double dxTotal = maxXValue - minXValue;
+    double valuesRatio = maxYValue / minYValue;
 
     // Example 1: general example, where Y in the midpoint of minX and maxX is not E.g. say X is in [1, 9] and Y is in [1/7, 3].
     // We want a function that will give
@@ -142,9 +148,9 @@ public class GeometricCollaredRBNumericFunctionBuilder<X extends Number, Y exten
     return rbNumericFunction(
         label,
         x ->
-            x <= minX.doubleValue() ? minY.doubleValue() :
-            x >= maxX.doubleValue() ? maxY.doubleValue() :
-                 minY.doubleValue() * Math.pow(valuesRatio, (x - minX.doubleValue()) / dxTotal),
+            x <= minXValue ? minYValue :
+            x >= maxXValue ? maxYValue :
+                 minYValue * Math.pow(valuesRatio, (x - minXValue) / dxTotal),
         instantiator);
   }
 
@@ -163,15 +163,19 @@ public class LinearCollaredRBNumericFunctionBuilder<X extends Number, Y extends
 
   @Override
   public RBNumericFunction<X, Y> buildWithoutPreconditions() {
-    // minor performance improvement: we compute the slope only once
-    double slope = (maxY.doubleValue() - minY.doubleValue())
-        / (maxX.doubleValue() - minX.doubleValue());
+    // We unbox everything here, once, so that each evaluation only uses primitive doubles.
+    // This also means that we compute the slope only once.
+    double minXValue = minX.doubleValue();
+    double maxXValue = maxX.doubleValue();
+    double minYValue = minY.doubleValue();
+    double maxYValue = maxY.doubleValue();
+    double slope = (maxYValue - minYValue) / (maxXValue - minXValue);
     return rbNumericFunction(
         label,
         x ->
-            x <= minX.doubleValue() ? minY.doubleValue() :
-                x >= maxX.doubleValue() ? maxY.doubleValue() :
-                    minY.doubleValue() + slope * (x - minX.doubleValue()),
+            x <= minXValue ? minYValue :
+                x >= maxXValue ? maxYValue :
+                    minYValue + slope * (x - minXValue),
         instantiator);
   }
 
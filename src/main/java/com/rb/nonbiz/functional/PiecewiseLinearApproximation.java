@@ -0,0 +1,115 @@
+package com.rb.nonbiz.functional;
+
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Approximates an (expensive) double function in a range [minX, maxX] by linear interpolation between its values
+ * on a grid of equally spaced points, which are computed once, up front. Evaluating a point inside the range then
+ * costs one multiplication to find the grid interval, plus one linear interpolation, regardless of how expensive
+ * the original function is. Outside the range, we just evaluate the original function.
+ *
+ * <p> We start with a coarse grid and keep doubling the number of points, until the approximation is within
+ * half of maxAbsoluteError of the original function at several points between each pair of grid points. The extra
+ * margin is for any kinks (e.g. from a collar) that fall between the points we check. This is a sampled
+ * check, not a proof; it is fine for continuous functions without very sharp features, which is what this is for.
+ * For discontinuous functions (e.g. a step function), no grid would be fine enough, so this will throw. </p>
+ *
+ * @see RBNumericFunction#withPiecewiseLinearApproximation
+ */
+public class PiecewiseLinearApproximation implements DoubleUnaryOperator {
+
+  private static final int INITIAL_NUM_INTERVALS = 16;
+  private static final int MAX_NUM_INTERVALS = 1 << 16;
+
+  private final DoubleUnaryOperator originalFunction;
+  private final double minX;
+  private final double maxX;
+  private final double inverseStep;
+  private final double[] gridValues;
+
+  private PiecewiseLinearApproximation(
+      DoubleUnaryOperator originalFunction, double minX, double maxX, double[] gridValues) {
+    this.originalFunction = originalFunction;
+    this.minX = minX;
+    this.maxX = maxX;
+    this.inverseStep = (gridValues.length - 1) / (maxX - minX);
+    this.gridValues = gridValues;
+  }
+
+  public static PiecewiseLinearApproximation piecewiseLinearApproximation(
+      DoubleUnaryOperator originalFunction, double minX, double maxX, double maxAbsoluteError) {
+    RBPreconditions.checkArgument(
+        Double.isFinite(minX) && Double.isFinite(maxX) && minX < maxX,
+        "We need a finite range with minX < maxX, but had [ %s , %s ]",
+        minX, maxX);
+    RBPreconditions.checkArgument(
+        maxAbsoluteError > 0,
+        "The maximum error must be positive, but was %s",
+        maxAbsoluteError);
+    for (int numIntervals = INITIAL_NUM_INTERVALS; numIntervals <= MAX_NUM_INTERVALS; numIntervals *= 2) {
+      PiecewiseLinearApproximation approximation = new PiecewiseLinearApproximation(
+          originalFunction, minX, maxX, makeGridValues(originalFunction, minX, maxX, numIntervals));
+      if (approximation.calculateMaxSampledError() <= 0.5 * maxAbsoluteError) {
+        return approximation;
+      }
+    }
+    throw new IllegalArgumentException(Strings.format(
+        "Could not approximate function to within %s in [ %s , %s ] with %s grid intervals; is it discontinuous?",
+        maxAbsoluteError, minX, maxX, MAX_NUM_INTERVALS));
+  }
+
+  private static double[] makeGridValues(
+      DoubleUnaryOperator originalFunction, double minX, double maxX, int numIntervals) {
+    double step = (maxX - minX) / numIntervals;
+    double[] gridValues = new double[numIntervals + 1];
+    for (int i = 0; i < numIntervals; i++) {
+      gridValues[i] = originalFunction.applyAsDouble(minX + i * step);
+    }
+    // Avoid any rounding error in minX + numIntervals * step
+    gridValues[numIntervals] = originalFunction.applyAsDouble(maxX);
+    return gridValues;
+  }
+
+  // Checks the error at 1/8, 2/8, ... 7/8 of the way between each pair of grid points.
+  private double calculateMaxSampledError() {
+    double step = (maxX - minX) / getNumIntervals();
+    double maxError = 0;
+    for (int i = 0; i < getNumIntervals(); i++) {
+      for (int eighth = 1; eighth <= 7; eighth++) {
+        double x = minX + (i + eighth * 0.125) * step;
+        double error = Math.abs(applyAsDouble(x) - originalFunction.applyAsDouble(x));
+        // The negated comparison also catches NaN
+        if (!(error <= maxError)) {
+          maxError = Double.isNaN(error) ? Double.POSITIVE_INFINITY : error;
+        }
+      }
+    }
+    return maxError;
+  }
+
+  @Override
+  public double applyAsDouble(double x) {
+    // The negated comparison sends NaN to the original function as well.
+    if (!(x >= minX && x <= maxX)) {
+      return originalFunction.applyAsDouble(x);
+    }
+    double position = (x - minX) * inverseStep;
+    // The min is for x = maxX, and for any rounding that would put us past the last interval.
+    int i = Math.min((int) position, gridValues.length - 2);
+    double fraction = position - i;
+    return gridValues[i] + fraction * (gridValues[i + 1] - gridValues[i]);
+  }
+
+  public int getNumIntervals() {
+    return gridValues.length - 1;
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[PLA [ %s , %s ] with %s intervals PLA]", minX, maxX, getNumIntervals());
+  }
+
+}
@@ -5,11 +5,13 @@ import com.rb.nonbiz.text.HasHumanReadableLabel;
 import com.rb.nonbiz.text.HumanReadableLabel;
 import com.rb.nonbiz.text.Strings;
 import com.rb.nonbiz.types.RBNumeric;
+import com.rb.nonbiz.util.RBPreconditions;
 
 import java.util.function.DoubleFunction;
 import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 
+import static com.rb.nonbiz.functional.PiecewiseLinearApproximation.piecewiseLinearApproximation;
 import static com.rb.nonbiz.text.SimpleHumanReadableLabel.label;
 
 /**
@@ -74,6 +76,56 @@ public class RBNumericFunction<X extends Number, Y extends RBNumeric<? super Y>>
     return instantiator.apply(rawFunction.applyAsDouble(x.doubleValue()));
   }
 
+  /**
+   * Like {@link #apply(Number)}, but without boxing the input or instantiating the {@link RBNumeric} output.
+   */
+  public double applyAsDouble(double x) {
+    return rawFunction.applyAsDouble(x);
+  }
+
+  /**
+   * Evaluates the function at every input, without any boxing, which matters when e.g. we score every instrument
+   * on every day. 'in' and 'out' must have the same length, but they can be the same array.
+   */
+  public void applyToArray(double[] in, double[] out) {
+    RBPreconditions.checkArgument(
+        in.length == out.length,
+        "%s : input and output arrays must have the same length, but were %s and %s",
+        label, in.length, out.length);
+    for (int i = 0; i < in.length; i++) {
+      out[i] = rawFunction.applyAsDouble(in[i]);
+    }
+  }
+
+  /**
+   * Returns the function x -> next(this(x)). Unlike {@link #andThen(Function)}, this does not instantiate
+   * the intermediate {@link RBNumeric}; the two underlying double functions get chained directly.
+   */
+  public <Z extends RBNumeric<? super Z>> RBNumericFunction<X, Z> thenApply(RBNumericFunction<? super Y, Z> next) {
+    DoubleUnaryOperator thisFunction = rawFunction;
+    DoubleUnaryOperator nextFunction = next.rawFunction;
+    return rbNumericFunction(
+        label(Strings.format("%s , then %s", label.getLabelText(), next.label.getLabelText())),
+        x -> nextFunction.applyAsDouble(thisFunction.applyAsDouble(x)),
+        next.instantiator);
+  }
+
+  /**
+   * Returns a function that uses a pre-computed {@link PiecewiseLinearApproximation} of this function in [minX, maxX],
+   * and this function itself outside that range.
+   *
+   * <p> This only makes sense if this function is expensive to evaluate (e.g. it uses logs or powers), and will be
+   * evaluated many times. See {@link PiecewiseLinearApproximation} for the meaning of maxAbsoluteError. </p>
+   */
+  public RBNumericFunction<X, Y> withPiecewiseLinearApproximation(
+      double minX, double maxX, double maxAbsoluteError) {
+    return rbNumericFunction(
+        label(Strings.format("%s (approximated in [%s, %s] to within %s)",
+            label.getLabelText(), minX, maxX, maxAbsoluteError)),
+        piecewiseLinearApproximation(rawFunction, minX, maxX, maxAbsoluteError),
+        instantiator);
+  }
+
   @VisibleForTesting // do not use this method; it is here to help the test matcher
   DoubleUnaryOperator getRawFunction() {
     return rawFunction;
@@ -167,10 +167,15 @@ public class SimpleStepFunctionRBNumericFunctionBuilder<X extends Number, Y exte
 
   @Override
   public RBNumericFunction<X, Y> buildWithoutPreconditions() {
+    // Evaluating is then just one or two comparisons against x0; there is nothing to unbox per call.
+    double x0Value = x0.doubleValue();
+    double y0Value = y0.doubleValue();
+    double y1Value = y1.doubleValue();
+    double yForXEqualsX0Value = yForXEqualsX0.doubleValue();
     return rbNumericFunction(
         label,
-        x -> x < x0.doubleValue() ? y0.doubleValue()
-            : (x > x0.doubleValue() ? y1.doubleValue() : yForXEqualsX0.doubleValue()),
+        x -> x < x0Value ? y0Value
+            : (x > x0Value ? y1Value : yForXEqualsX0Value),
         instantiator);
   }
 
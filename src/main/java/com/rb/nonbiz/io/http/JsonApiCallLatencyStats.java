@@ -0,0 +1,93 @@
+package com.rb.nonbiz.io.http;
+
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * A snapshot of how many HTTP calls a {@link PooledJsonApiCallerUsingPost} has made so far, and how long they took.
+ *
+ * <p> The latency of a call is measured from right before sending the request until the JSON response has been fully
+ * parsed, so it includes any time spent waiting for a pooled connection, but not any time spent waiting for a free
+ * slot to run an asynchronous call. Failed calls (e.g. I/O errors, or a non-200 HTTP status) count towards the
+ * latency totals as well, since they also tie up a connection. </p>
+ */
+public class JsonApiCallLatencyStats {
+
+  private final long numSuccessfulCalls;
+  private final long numFailedCalls;
+  private final Duration totalLatency;
+  private final Duration maxLatency;
+
+  private JsonApiCallLatencyStats(
+      long numSuccessfulCalls, long numFailedCalls, Duration totalLatency, Duration maxLatency) {
+    this.numSuccessfulCalls = numSuccessfulCalls;
+    this.numFailedCalls = numFailedCalls;
+    this.totalLatency = totalLatency;
+    this.maxLatency = maxLatency;
+  }
+
+  public static JsonApiCallLatencyStats jsonApiCallLatencyStats(
+      long numSuccessfulCalls, long numFailedCalls, Duration totalLatency, Duration maxLatency) {
+    RBPreconditions.checkArgument(
+        numSuccessfulCalls >= 0 && numFailedCalls >= 0,
+        "Number of calls cannot be negative: %s successful, %s failed",
+        numSuccessfulCalls, numFailedCalls);
+    RBPreconditions.checkArgument(
+        !totalLatency.isNegative() && !maxLatency.isNegative(),
+        "Latencies cannot be negative: total %s max %s",
+        totalLatency, maxLatency);
+    RBPreconditions.checkArgument(
+        maxLatency.compareTo(totalLatency) <= 0,
+        "Max latency %s cannot exceed total latency %s",
+        maxLatency, totalLatency);
+    RBPreconditions.checkArgument(
+        numSuccessfulCalls + numFailedCalls > 0 || totalLatency.isZero(),
+        "If there were no calls, total latency must be 0, not %s",
+        totalLatency);
+    return new JsonApiCallLatencyStats(numSuccessfulCalls, numFailedCalls, totalLatency, maxLatency);
+  }
+
+  public static JsonApiCallLatencyStats noJsonApiCallsYet() {
+    return jsonApiCallLatencyStats(0, 0, Duration.ZERO, Duration.ZERO);
+  }
+
+  public long getNumSuccessfulCalls() {
+    return numSuccessfulCalls;
+  }
+
+  public long getNumFailedCalls() {
+    return numFailedCalls;
+  }
+
+  public long getNumCalls() {
+    return numSuccessfulCalls + numFailedCalls;
+  }
+
+  public Duration getTotalLatency() {
+    return totalLatency;
+  }
+
+  public Duration getMaxLatency() {
+    return maxLatency;
+  }
+
+  /**
+   * Returns empty if there have been no calls yet.
+   */
+  public Optional<Duration> getOptionalMeanLatency() {
+    long numCalls = getNumCalls();
+    return numCalls == 0
+        ? Optional.empty()
+        : Optional.of(totalLatency.dividedBy(numCalls));
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[JACLS %s ok ; %s failed ; total %s ; max %s JACLS]",
+        numSuccessfulCalls, numFailedCalls, totalLatency, maxLatency);
+  }
+
+}
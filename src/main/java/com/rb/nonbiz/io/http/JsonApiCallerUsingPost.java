@@ -17,6 +17,8 @@ import java.net.URI;
  * Makes an HTTP POST request to the specified URI, passing in the specified {@link JsonObject} in the POST request
  * contents. You can do this using by passing in a {@link CloseableHttpClient}, which we will not auto-close
  * (to allow for reuse).
+ *
+ * <p> If you need to make many calls to the same service, use {@link PooledJsonApiCallerUsingPost} instead. </p>
  */
 public class JsonApiCallerUsingPost {
 
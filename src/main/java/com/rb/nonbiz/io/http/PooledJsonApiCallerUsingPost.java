@@ -0,0 +1,290 @@
+package com.rb.nonbiz.io.http;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBBuilder;
+import com.rb.nonbiz.util.RBPreconditions;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.GzipCompressingEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.EntityTemplate;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.rb.nonbiz.io.http.JsonApiCallLatencyStats.jsonApiCallLatencyStats;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Like {@link JsonApiCallerUsingPost}, but meant for making many calls to the same service, e.g. hundreds of calls
+ * to an optimizer service during a single rebalance.
+ *
+ * <p> Unlike {@link JsonApiCallerUsingPost#makeCall(URI, JsonObject)}, which creates (and closes) a new HTTP client
+ * per call, this holds on to a single client with a pool of keep-alive connections, so consecutive calls to the same
+ * host do not need to open a new connection each time. Also: </p>
+ * <ul>
+ *   <li> The request JSON is written directly to the connection, and the response JSON is parsed directly
+ *     from it, without first converting either of them to a (possibly very large) String. </li>
+ *   <li> Responses that the server sends gzipped are decompressed transparently. Requests can optionally be
+ *     gzipped as well; only turn that on if the server understands a 'Content-Encoding: gzip' request. </li>
+ *   <li> {@link #makeCallAsync(URI, JsonObject)} runs calls in the background, but never runs more than
+ *     a fixed number of them at the same time; the rest wait in line. </li>
+ *   <li> It keeps track of how many calls it made and how long they took; see {@link #getLatencyStats()}. </li>
+ * </ul>
+ *
+ * <p> This is thread-safe. Since it holds on to connections and threads, you must close it once you are done. </p>
+ */
+public class PooledJsonApiCallerUsingPost implements Closeable {
+
+  // Writes the same JSON as JsonObject#toString, which is what JsonApiCallerUsingPost sends.
+  private static final Gson GSON = new GsonBuilder()
+      .serializeNulls()
+      .disableHtmlEscaping()
+      .create();
+
+  private final CloseableHttpClient client;
+  private final ExecutorService executorService;
+  private final boolean gzipRequests;
+
+  private final LongAdder numSuccessfulCalls = new LongAdder();
+  private final LongAdder numFailedCalls = new LongAdder();
+  private final LongAdder totalLatencyInNanos = new LongAdder();
+  private final AtomicLong maxLatencyInNanos = new AtomicLong(0);
+
+  private PooledJsonApiCallerUsingPost(
+      CloseableHttpClient client, ExecutorService executorService, boolean gzipRequests) {
+    this.client = client;
+    this.executorService = executorService;
+    this.gzipRequests = gzipRequests;
+  }
+
+  /**
+   * Makes the call in the current thread, and returns the response once it's available.
+   */
+  public JsonObject makeCall(URI uri, JsonObject jsonInputs) {
+    long startTime = System.nanoTime();
+    boolean succeeded = false;
+    try {
+      JsonObject result = makeCallWithoutStats(uri, jsonInputs);
+      succeeded = true;
+      return result;
+    } catch (IOException e) {
+      throw new UncheckedIOException(
+          Strings.format("HTTP POST to %s failed: %s", uri, e.getMessage()), e);
+    } finally {
+      recordCall(System.nanoTime() - startTime, succeeded);
+    }
+  }
+
+  /**
+   * Returns immediately; the call will run once one of the (fixed number of) slots for running calls frees up.
+   * If the call fails, the future completes exceptionally, with the same exception that
+   * {@link #makeCall(URI, JsonObject)} would throw.
+   */
+  public CompletableFuture<JsonObject> makeCallAsync(URI uri, JsonObject jsonInputs) {
+    return CompletableFuture.supplyAsync(() -> makeCall(uri, jsonInputs), executorService);
+  }
+
+  public JsonApiCallLatencyStats getLatencyStats() {
+    // The individual counters may be a bit out of sync with each other if calls complete while we read them.
+    // That's fine for stats, but we must not violate the preconditions of JsonApiCallLatencyStats.
+    long totalNanos = totalLatencyInNanos.sum();
+    long maxNanos = Math.min(maxLatencyInNanos.get(), totalNanos);
+    return jsonApiCallLatencyStats(
+        numSuccessfulCalls.sum(),
+        numFailedCalls.sum(),
+        Duration.ofNanos(totalNanos),
+        Duration.ofNanos(maxNanos));
+  }
+
+  private JsonObject makeCallWithoutStats(URI uri, JsonObject jsonInputs) throws IOException {
+    HttpPost httpPost = new HttpPost(uri);
+    httpPost.setEntity(makeRequestEntity(jsonInputs));
+    httpPost.setHeader("Accept", "application/json");
+
+    try (CloseableHttpResponse response = client.execute(httpPost)) {
+      int statusCode = response.getStatusLine().getStatusCode();
+      HttpEntity responseEntity = response.getEntity();
+      if (statusCode != 200) {
+        // Read the rest of the response, so that the connection can go back to the pool.
+        EntityUtils.consume(responseEntity);
+        throw new IllegalArgumentException(Strings.format(
+            "Bad HTTP POST response status of %s from %s ; expected 200", statusCode, uri));
+      }
+      RBPreconditions.checkArgument(
+          responseEntity != null,
+          "HTTP POST response from %s has no contents",
+          uri);
+      Charset charset = ContentType.getOrDefault(responseEntity).getCharset();
+      try (Reader reader = new InputStreamReader(responseEntity.getContent(), charset == null ? UTF_8 : charset)) {
+        return JsonParser.parseReader(reader).getAsJsonObject();
+      }
+    }
+  }
+
+  private HttpEntity makeRequestEntity(JsonObject jsonInputs) {
+    EntityTemplate entity = new EntityTemplate(outputStream -> {
+      // Not closing the writer, because that would close the stream, which belongs to the HTTP client.
+      Writer writer = new OutputStreamWriter(outputStream, UTF_8);
+      GSON.toJson(jsonInputs, writer);
+      writer.flush();
+    });
+    entity.setContentType(ContentType.APPLICATION_JSON.toString());
+    return gzipRequests ? new GzipCompressingEntity(entity) : entity;
+  }
+
+  private void recordCall(long latencyInNanos, boolean succeeded) {
+    (succeeded ? numSuccessfulCalls : numFailedCalls).increment();
+    totalLatencyInNanos.add(latencyInNanos);
+    maxLatencyInNanos.accumulateAndGet(latencyInNanos, Math::max);
+  }
+
+  /**
+   * Stops accepting new asynchronous calls, waits a bit for any that are in flight, and closes all connections.
+   */
+  @Override
+  public void close() throws IOException {
+    executorService.shutdown();
+    try {
+      executorService.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    client.close();
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[PJACUP gzipRequests= %s ; %s PJACUP]", gzipRequests, getLatencyStats());
+  }
+
+
+  /**
+   * Use this to create a {@link PooledJsonApiCallerUsingPost}.
+   */
+  public static class PooledJsonApiCallerUsingPostBuilder implements RBBuilder<PooledJsonApiCallerUsingPost> {
+
+    private Integer maxConnections;
+    private Integer maxConcurrentAsyncCalls;
+    private Duration timeout;
+    private Boolean gzipRequests;
+
+    private PooledJsonApiCallerUsingPostBuilder() {}
+
+    public static PooledJsonApiCallerUsingPostBuilder pooledJsonApiCallerUsingPostBuilder() {
+      return new PooledJsonApiCallerUsingPostBuilder();
+    }
+
+    /**
+     * The maximum number of open connections. Since we normally call a single service, this is also the
+     * maximum number of connections per host.
+     */
+    public PooledJsonApiCallerUsingPostBuilder setMaxConnections(int maxConnections) {
+      this.maxConnections = checkNotAlreadySet(this.maxConnections, maxConnections);
+      return this;
+    }
+
+    /**
+     * The maximum number of calls made via {@link PooledJsonApiCallerUsingPost#makeCallAsync} that will run
+     * at the same time. It normally does not make sense for this to exceed the maximum number of connections,
+     * since the extra calls would just be waiting for a connection.
+     */
+    public PooledJsonApiCallerUsingPostBuilder setMaxConcurrentAsyncCalls(int maxConcurrentAsyncCalls) {
+      this.maxConcurrentAsyncCalls = checkNotAlreadySet(this.maxConcurrentAsyncCalls, maxConcurrentAsyncCalls);
+      return this;
+    }
+
+    /**
+     * Used for connecting, for getting a connection from the pool, and for waiting for data from the server.
+     */
+    public PooledJsonApiCallerUsingPostBuilder setTimeout(Duration timeout) {
+      this.timeout = checkNotAlreadySet(this.timeout, timeout);
+      return this;
+    }
+
+    public PooledJsonApiCallerUsingPostBuilder setGzipRequests(boolean gzipRequests) {
+      this.gzipRequests = checkNotAlreadySet(this.gzipRequests, gzipRequests);
+      return this;
+    }
+
+    @Override
+    public void sanityCheckContents() {
+      RBPreconditions.checkNotNull(maxConnections);
+      RBPreconditions.checkNotNull(maxConcurrentAsyncCalls);
+      RBPreconditions.checkNotNull(timeout);
+      RBPreconditions.checkNotNull(gzipRequests);
+
+      RBPreconditions.checkArgument(
+          maxConnections >= 1,
+          "Must allow at least 1 connection; got %s",
+          maxConnections);
+      RBPreconditions.checkArgument(
+          1 <= maxConcurrentAsyncCalls && maxConcurrentAsyncCalls <= maxConnections,
+          "Max concurrent async calls must be between 1 and the max connections (%s); got %s",
+          maxConnections, maxConcurrentAsyncCalls);
+      RBPreconditions.checkArgument(
+          !timeout.isNegative() && !timeout.isZero() && timeout.toMillis() <= Integer.MAX_VALUE,
+          "Timeout must be positive (and not huge): %s",
+          timeout);
+    }
+
+    @Override
+    public PooledJsonApiCallerUsingPost buildWithoutPreconditions() {
+      PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+      connectionManager.setMaxTotal(maxConnections);
+      connectionManager.setDefaultMaxPerRoute(maxConnections);
+
+      int timeoutInMillis = (int) timeout.toMillis();
+      CloseableHttpClient client = HttpClients.custom()
+          .setConnectionManager(connectionManager)
+          // Uses the server's Keep-Alive header if there is one; otherwise keeps connections open indefinitely.
+          .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+          .evictIdleConnections(1, TimeUnit.MINUTES)
+          .setDefaultRequestConfig(RequestConfig.custom()
+              .setConnectTimeout(timeoutInMillis)
+              .setConnectionRequestTimeout(timeoutInMillis)
+              .setSocketTimeout(timeoutInMillis)
+              // Sends 'Accept-Encoding: gzip,deflate' and transparently decompresses responses.
+              .setContentCompressionEnabled(true)
+              .build())
+          .build();
+
+      ExecutorService executorService = Executors.newFixedThreadPool(
+          maxConcurrentAsyncCalls,
+          new ThreadFactoryBuilder()
+              .setNameFormat("PooledJsonApiCallerUsingPost-%d")
+              // So that a caller that forgets to close this does not keep the JVM from exiting.
+              .setDaemon(true)
+              .build());
+      return new PooledJsonApiCallerUsingPost(client, executorService, gzipRequests);
+    }
+
+  }
+
+}
@@ -18,6 +18,7 @@ import static com.rb.nonbiz.collections.RBSet.newRBSet;
 import static com.rb.nonbiz.collections.RBSets.unionOfPlainSets;
 import static com.rb.nonbiz.json.JsonApiPropertyDescriptor.SimpleClassJsonApiPropertyDescriptor.simpleClassJsonApiPropertyDescriptor;
 import static com.rb.nonbiz.json.JsonValidationInstructions.JsonValidationInstructionsBuilder.jsonValidationInstructionsBuilder;
+import static com.rb.nonbiz.json.JsonValidationPlan.compileJsonValidationPlan;
 
 /**
  * Holds schema information about required and optional top-level properties for a JSON object.
@@ -73,12 +74,14 @@ public class JsonValidationInstructions {
 
   private final RBMap<String, JsonApiPropertyDescriptor> requiredProperties;
   private final RBMap<String, JsonApiPropertyDescriptor> optionalProperties;
+  private final JsonValidationPlan jsonValidationPlan;
 
   private JsonValidationInstructions(
       RBMap<String, JsonApiPropertyDescriptor> requiredProperties,
       RBMap<String, JsonApiPropertyDescriptor> optionalProperties) {
     this.requiredProperties = requiredProperties;
     this.optionalProperties = optionalProperties;
+    this.jsonValidationPlan = compileJsonValidationPlan(requiredProperties, optionalProperties);
   }
 
   public static JsonValidationInstructions emptyJsonValidationInstructions() {
@@ -110,6 +113,15 @@ public class JsonValidationInstructions {
         optionalProperties.keySet());
   }
 
+  /**
+   * The form of these instructions that {@link JsonValidator} uses. It gets built once, when these instructions
+   * get built, since most {@link JsonValidationInstructions} are static constants that get used to validate
+   * lots of JSON objects.
+   */
+  public JsonValidationPlan getJsonValidationPlan() {
+    return jsonValidationPlan;
+  }
+
   public boolean isEmpty() {
     return requiredProperties.isEmpty() && optionalProperties.isEmpty();
   }
@@ -0,0 +1,247 @@
+package com.rb.nonbiz.json;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.rb.nonbiz.collections.RBMap;
+import com.rb.nonbiz.json.JsonApiPropertyDescriptor.CollectionJsonApiPropertyDescriptor;
+import com.rb.nonbiz.json.JsonApiPropertyDescriptor.IidMapJsonApiPropertyDescriptor;
+import com.rb.nonbiz.json.JsonApiPropertyDescriptor.JavaGenericJsonApiPropertyDescriptor;
+import com.rb.nonbiz.json.JsonApiPropertyDescriptor.PseudoEnumJsonApiPropertyDescriptor;
+import com.rb.nonbiz.json.JsonApiPropertyDescriptor.RBMapJsonApiPropertyDescriptor;
+import com.rb.nonbiz.json.JsonApiPropertyDescriptor.SimpleClassJsonApiPropertyDescriptor;
+import com.rb.nonbiz.text.Strings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static com.rb.nonbiz.text.SmartFormatter.smartFormat;
+
+/**
+ * A 'compiled' form of {@link JsonValidationInstructions}, which {@link JsonValidator} uses to check
+ * the top-level properties of a {@link JsonObject}.
+ *
+ * <p> The instructions are immutable, and most of them are static constants in the various JSON API converters,
+ * so there's no need to build sets of the required and optional property names every time we validate an object.
+ * Instead, we build this once per {@link JsonValidationInstructions}: a sorted array of all property names,
+ * with a flag for the ones that are required. Validating an object is then a single pass over its keys,
+ * with a binary search for each key. Since JSON object keys are unique, counting how many of the keys
+ * are required properties is enough to tell if any required property is missing. Nothing is allocated
+ * unless the validation fails, in which case we take the time to build a detailed error message. </p>
+ */
+public class JsonValidationPlan {
+
+  private final String[] sortedPropertyNames;
+  private final boolean[] isRequired;
+  private final JsonApiPropertyDescriptor[] propertyDescriptors;
+  private final int numRequiredProperties;
+
+  private JsonValidationPlan(
+      String[] sortedPropertyNames,
+      boolean[] isRequired,
+      JsonApiPropertyDescriptor[] propertyDescriptors,
+      int numRequiredProperties) {
+    this.sortedPropertyNames = sortedPropertyNames;
+    this.isRequired = isRequired;
+    this.propertyDescriptors = propertyDescriptors;
+    this.numRequiredProperties = numRequiredProperties;
+  }
+
+  /**
+   * You normally don't need to call this; {@link JsonValidationInstructions#getJsonValidationPlan()} returns a plan that
+   * has already been compiled, once, when the instructions were built.
+   */
+  public static JsonValidationPlan compileJsonValidationPlan(JsonValidationInstructions jsonValidationInstructions) {
+    return compileJsonValidationPlan(
+        jsonValidationInstructions.getRequiredProperties(),
+        jsonValidationInstructions.getOptionalProperties());
+  }
+
+  // JsonValidationInstructions calls this from its constructor, so it can't pass itself in.
+  static JsonValidationPlan compileJsonValidationPlan(
+      RBMap<String, JsonApiPropertyDescriptor> requiredProperties,
+      RBMap<String, JsonApiPropertyDescriptor> optionalProperties) {
+    int numProperties = requiredProperties.size() + optionalProperties.size();
+    String[] sortedPropertyNames = new String[numProperties];
+    int i = 0;
+    for (String property : requiredProperties.keySet()) {
+      sortedPropertyNames[i++] = property;
+    }
+    for (String property : optionalProperties.keySet()) {
+      sortedPropertyNames[i++] = property;
+    }
+    Arrays.sort(sortedPropertyNames);
+
+    boolean[] isRequired = new boolean[numProperties];
+    JsonApiPropertyDescriptor[] propertyDescriptors = new JsonApiPropertyDescriptor[numProperties];
+    for (int j = 0; j < numProperties; j++) {
+      String property = sortedPropertyNames[j];
+      Optional<JsonApiPropertyDescriptor> requiredDescriptor = requiredProperties.getOptional(property);
+      isRequired[j] = requiredDescriptor.isPresent();
+      propertyDescriptors[j] = requiredDescriptor.isPresent()
+          ? requiredDescriptor.get()
+          : optionalProperties.getOrThrow(property);
+    }
+    return new JsonValidationPlan(sortedPropertyNames, isRequired, propertyDescriptors, requiredProperties.size());
+  }
+
+  /**
+   * Checks that every top-level property of the {@link JsonObject} is either required or optional,
+   * and that every required property is present. Throws an {@link IllegalArgumentException} otherwise.
+   */
+  public JsonObject validate(JsonObject jsonObject) {
+    int numRequiredPropertiesFound = 0;
+    for (Map.Entry<String, JsonElement> entry : jsonObject.entrySet()) {
+      int index = indexOfProperty(entry.getKey());
+      if (index < 0) {
+        throw new IllegalArgumentException(smartFormat(
+            "property '%s' not in %s required properties (%s) or in %s optional properties (%s)",
+            entry.getKey(), numRequiredProperties, getPropertyNames(true),
+            sortedPropertyNames.length - numRequiredProperties, getPropertyNames(false)));
+      }
+      if (isRequired[index]) {
+        numRequiredPropertiesFound++;
+      }
+    }
+    if (numRequiredPropertiesFound < numRequiredProperties) {
+      List<String> missingRequiredProperties = new ArrayList<>();
+      for (int i = 0; i < sortedPropertyNames.length; i++) {
+        if (isRequired[i] && !jsonObject.has(sortedPropertyNames[i])) {
+          missingRequiredProperties.add(sortedPropertyNames[i]);
+        }
+      }
+      throw new IllegalArgumentException(smartFormat(
+          "required properties %s are not found in %s json properties: %s",
+          missingRequiredProperties, jsonObject.size(), jsonObject.keySet()));
+    }
+    return jsonObject;
+  }
+
+  /**
+   * Like {@link #validate(JsonObject)}, but also validates the values of the properties that are themselves
+   * JSON objects (or arrays / maps of JSON objects), by using the property's {@link JsonApiPropertyDescriptor}
+   * to figure out its class, and then 'planForClass' to find the plan for that class.
+   *
+   * <p> Classes for which 'planForClass' returns empty (e.g. ones that serialize to a JSON primitive)
+   * will not be checked further. </p>
+   */
+  public JsonObject validateRecursively(
+      JsonObject jsonObject, Function<Class<?>, Optional<JsonValidationPlan>> planForClass) {
+    validate(jsonObject);
+    for (Map.Entry<String, JsonElement> entry : jsonObject.entrySet()) {
+      validateValue(propertyDescriptors[indexOfProperty(entry.getKey())], entry.getValue(), planForClass);
+    }
+    return jsonObject;
+  }
+
+  private static void validateValue(
+      JsonApiPropertyDescriptor propertyDescriptor,
+      JsonElement value,
+      Function<Class<?>, Optional<JsonValidationPlan>> planForClass) {
+    propertyDescriptor.visit(new JsonApiPropertyDescriptor.Visitor<Void>() {
+      @Override
+      public Void visitSimpleClassJsonApiPropertyDescriptor(
+          SimpleClassJsonApiPropertyDescriptor simpleClassJsonApiPropertyDescriptor) {
+        validateIfObjectOfKnownClass(simpleClassJsonApiPropertyDescriptor.getClassBeingDescribed());
+        return null;
+      }
+
+      @Override
+      public Void visitIidMapJsonApiPropertyDescriptor(
+          IidMapJsonApiPropertyDescriptor iidMapJsonApiPropertyDescriptor) {
+        validateMapValues(iidMapJsonApiPropertyDescriptor.getValueClassDescriptor());
+        return null;
+      }
+
+      @Override
+      public Void visitRBMapJsonApiPropertyDescriptor(
+          RBMapJsonApiPropertyDescriptor rbMapJsonApiPropertyDescriptor) {
+        validateMapValues(rbMapJsonApiPropertyDescriptor.getValueClassDescriptor());
+        return null;
+      }
+
+      @Override
+      public Void visitCollectionJsonApiPropertyDescriptor(
+          CollectionJsonApiPropertyDescriptor collectionJsonApiPropertyDescriptor) {
+        if (value.isJsonArray()) {
+          JsonArray jsonArray = value.getAsJsonArray();
+          for (JsonElement item : jsonArray) {
+            validateValue(collectionJsonApiPropertyDescriptor.getCollectionValueClassDescriptor(), item, planForClass);
+          }
+        }
+        return null;
+      }
+
+      @Override
+      public Void visitJavaGenericJsonApiPropertyDescriptor(
+          JavaGenericJsonApiPropertyDescriptor javaGenericJsonApiPropertyDescriptor) {
+        // The outer class determines the properties; e.g. a UniqueId<NamedFactor> serializes like any UniqueId.
+        validateIfObjectOfKnownClass(javaGenericJsonApiPropertyDescriptor.getOuterClass());
+        return null;
+      }
+
+      @Override
+      public Void visitPseudoEnumJsonApiPropertyDescriptor(
+          PseudoEnumJsonApiPropertyDescriptor pseudoEnumJsonApiPropertyDescriptor) {
+        return null; // pseudo-enums are strings; there's nothing nested to validate
+      }
+
+      private void validateIfObjectOfKnownClass(Class<?> clazz) {
+        if (value.isJsonObject()) {
+          planForClass.apply(clazz).ifPresent(plan -> plan.validateRecursively(value.getAsJsonObject(), planForClass));
+        }
+      }
+
+      private void validateMapValues(JsonApiPropertyDescriptor valueDescriptor) {
+        if (value.isJsonObject()) {
+          for (Map.Entry<String, JsonElement> mapEntry : value.getAsJsonObject().entrySet()) {
+            validateValue(valueDescriptor, mapEntry.getValue(), planForClass);
+          }
+        }
+      }
+    });
+  }
+
+  public int getNumProperties() {
+    return sortedPropertyNames.length;
+  }
+
+  public int getNumRequiredProperties() {
+    return numRequiredProperties;
+  }
+
+  public boolean hasProperty(String property) {
+    return indexOfProperty(property) >= 0;
+  }
+
+  public boolean isRequiredProperty(String property) {
+    int index = indexOfProperty(property);
+    return index >= 0 && isRequired[index];
+  }
+
+  private int indexOfProperty(String property) {
+    return Arrays.binarySearch(sortedPropertyNames, property);
+  }
+
+  private List<String> getPropertyNames(boolean required) {
+    List<String> propertyNames = new ArrayList<>();
+    for (int i = 0; i < sortedPropertyNames.length; i++) {
+      if (isRequired[i] == required) {
+        propertyNames.add(sortedPropertyNames[i]);
+      }
+    }
+    return propertyNames;
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[JVP %s required: %s ; %s optional: %s JVP]",
+        numRequiredProperties, getPropertyNames(true),
+        sortedPropertyNames.length - numRequiredProperties, getPropertyNames(false));
+  }
+
+}
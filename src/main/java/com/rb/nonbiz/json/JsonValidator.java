@@ -1,11 +1,6 @@
 package com.rb.nonbiz.json;
 
 import com.google.gson.JsonObject;
-import com.rb.nonbiz.collections.RBSet;
-import com.rb.nonbiz.util.RBPreconditions;
-
-import static com.rb.nonbiz.collections.RBSet.newRBSet;
-import static com.rb.nonbiz.collections.RBSet.rbSet;
 
 /**
  * Performs some very basic schema validation checks on a {@link JsonObject}.
@@ -34,34 +29,14 @@ public class JsonValidator {
 
   /**
    * The static version of validating a JsonObject according to supplied {@link JsonValidationInstructions}.
+   *
+   * <p> This uses the {@link JsonValidationPlan} that was compiled when the instructions were built,
+   * so it does not need to build any sets of property names on every call. </p>
    */
   public static JsonObject staticValidate(
       JsonObject jsonObject,
       JsonValidationInstructions jsonValidationInstructions) {
-    RBSet<String> requiredProperties = newRBSet(jsonValidationInstructions.getRequiredProperties().keySet());
-    RBSet<String> optionalProperties = newRBSet(jsonValidationInstructions.getOptionalProperties().keySet());
-    RBSet<String> jsonKeys = rbSet(jsonObject.keySet());
-
-    // Check each (top-level) JSON property to make sure it is found in either
-    // the required or optional properties.
-    for (String key : jsonKeys) {
-      RBPreconditions.checkArgument (
-          requiredProperties.contains(key) || optionalProperties.contains(key),
-          "property '%s' not in %s required properties (%s) or in %s optional properties (%s)",
-          key, requiredProperties.size(), requiredProperties,
-          optionalProperties.size(), optionalProperties);
-    }
-
-    // Check that every required property is present.
-    for (String requiredProperty : requiredProperties) {
-      RBPreconditions.checkArgument(
-          jsonKeys.contains(requiredProperty),
-          "required property %s is not found in %s json properties: %s",
-          requiredProperty, jsonKeys.size(), jsonKeys);
-    }
-
-    // no failures; return the original JSON object
-    return jsonObject;
+    return jsonValidationInstructions.getJsonValidationPlan().validate(jsonObject);
   }
 
 }
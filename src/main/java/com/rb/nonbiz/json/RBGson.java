@@ -107,7 +107,11 @@ public class RBGson {
     return jsonString(yyyyMMdd(date));
   }
 
-  private static double roundTo8digits(double value) {
+  /**
+   * This is the rounding that e.g. {@link #jsonDouble(double)} and {@link #jsonBigDecimal(BigDecimal)} use.
+   * It's public for code that writes JSON directly (e.g. via a JsonWriter), without creating a {@link JsonPrimitive}.
+   */
+  public static double roundTo8digits(double value) {
     return Math.round(value * 100_000_000d) / 100_000_000d;
   }
 
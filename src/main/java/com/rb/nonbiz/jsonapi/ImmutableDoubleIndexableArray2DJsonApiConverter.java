@@ -7,7 +7,6 @@ import com.google.gson.JsonObject;
 import com.google.inject.Inject;
 import com.rb.nonbiz.collections.ArrayIndexMapping;
 import com.rb.nonbiz.collections.ImmutableDoubleIndexableArray2D;
-import com.rb.nonbiz.collections.MutableDoubleIndexableArray2D;
 import com.rb.nonbiz.json.JsonValidationInstructions;
 import com.rb.nonbiz.json.JsonValidator;
 
@@ -16,7 +15,7 @@ import java.util.function.Function;
 import java.util.stream.IntStream;
 
 import static com.rb.nonbiz.collections.ImmutableDoubleIndexableArray2D.immutableDoubleIndexableArray2D;
-import static com.rb.nonbiz.collections.MutableDoubleIndexableArray2D.mutableDoubleIndexableArray2D;
+import static com.rb.nonbiz.collections.MutableDoubleIndexableArray2D.mutableDoubleIndexableArray2DFromRowMajorArray;
 import static com.rb.nonbiz.collections.SimpleArrayIndexMapping.simpleArrayIndexMapping;
 import static com.rb.nonbiz.json.JsonValidationInstructions.JsonValidationInstructionsBuilder.jsonValidationInstructionsBuilder;
 import static com.rb.nonbiz.json.RBGson.jsonDouble;
@@ -87,19 +86,19 @@ public class ImmutableDoubleIndexableArray2DJsonApiConverter implements HasJsonA
             jsonObject.getAsJsonArray("columnKeys").iterator(),
             jsonElement -> columnKeyDeserializer.apply(jsonElement.getAsString())));
 
-    double[][] rawArray = new double[rowKeysMapping.size()][columnKeysMapping.size()];
-    MutableDoubleIndexableArray2D<R, C> mutableArray2D = mutableDoubleIndexableArray2D(
-        rawArray,
-        rowKeysMapping,
-        columnKeysMapping);
+    int numColumns = columnKeysMapping.size();
+    double[] rowMajorArray = new double[rowKeysMapping.size() * numColumns];
     Iterator<JsonElement> rowIterator = jsonObject.getAsJsonArray("data").iterator();
     for (int r = 0; r < rowKeysMapping.size(); r++) {
       JsonArray row = rowIterator.next().getAsJsonArray();
-      for (int c = 0; c < columnKeysMapping.size(); c++) {
-        rawArray[r][c] = row.get(c).getAsDouble();
+      for (int c = 0; c < numColumns; c++) {
+        rowMajorArray[r * numColumns + c] = row.get(c).getAsDouble();
       }
     }
-    return immutableDoubleIndexableArray2D(mutableArray2D);
+    return immutableDoubleIndexableArray2D(mutableDoubleIndexableArray2DFromRowMajorArray(
+        rowMajorArray,
+        rowKeysMapping,
+        columnKeysMapping));
   }
 
   @Override
@@ -2,23 +2,28 @@ package com.rb.nonbiz.jsonapi;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import com.google.inject.Inject;
 import com.rb.biz.jsonapi.JsonTicker;
 import com.rb.biz.jsonapi.JsonTickerMap;
+import com.rb.biz.jsonapi.JsonTickerMapImpl;
 import com.rb.biz.types.asset.InstrumentId;
 import com.rb.nonbiz.collections.IidMap;
 import com.rb.nonbiz.collections.MutableIidMap;
 import com.rb.nonbiz.types.PreciseValue;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.Optional;
 import java.util.function.Function;
 
-import static com.rb.biz.jsonapi.JsonTicker.jsonTicker;
 import static com.rb.nonbiz.collections.IidMapSimpleConstructors.newIidMap;
+import static com.rb.nonbiz.collections.MutableIidMap.newMutableIidMap;
 import static com.rb.nonbiz.collections.MutableIidMap.newMutableIidMapWithExpectedSize;
 import static com.rb.nonbiz.json.RBGson.jsonBigDecimal;
+import static com.rb.nonbiz.json.RBGson.roundTo8digits;
 import static com.rb.nonbiz.json.RBJsonObjectAdders.addToJsonObject;
-import static java.util.Comparator.comparing;
 
 /**
  * Converts an {@link IidMap} of {@link PreciseValue}s. That is, a map from {@link InstrumentId}
@@ -48,6 +53,12 @@ import static java.util.Comparator.comparing;
  *
  * <p>... where 111 and 222 are the numeric values for the instrument IDs that are the
  * keys in the iid map. </p>
+ *
+ * <p> Holdings, targets etc. can have many thousands of instruments, so besides converting to and from a
+ * {@link JsonObject}, this can also write and read such a map directly with a Gson {@link JsonWriter} /
+ * {@link JsonReader}, without building a {@link JsonObject} (and a {@link JsonElement} per value) first.
+ * Both ways use the lookups that a {@link JsonTickerMap} can precompute (see {@link JsonTickerMapImpl}), i.e. we
+ * never need to create a {@link JsonTicker} per key, or compare ticker strings when sorting. </p>
  */
 public class PreciseValueIidMapJsonConverter {
 
@@ -55,30 +66,74 @@ public class PreciseValueIidMapJsonConverter {
 
   public <V extends PreciseValue<? super V>> JsonObject toJsonObject(IidMap<V> map, JsonTickerMap jsonTickerMap) {
     JsonObject jsonObject = new JsonObject();
-    // Using forEachIidSortedEntry instead of forEachEntryInKeyOrder because JsonObject seems to be printing out key-value pairs
+    // Adding in ticker order, because JsonObject seems to be printing out key-value pairs
     // in the order they got added. This makes the serialization of pretty JSON deterministic,
-    // so it's easier to read the JSON files, which will use increasing InstrumentId order wherever applicable.
-    map.forEachKeySortedEntry( (iid, value) ->
-            // #addToJsonObject will throw on duplicate keys; no need to check for duplicates here
-            addToJsonObject(
-                jsonObject,
-                jsonTickerMap.getJsonTickerOrThrow(iid).getFreeFormString(),
-                jsonBigDecimal(value)),
-        comparing(iid -> jsonTickerMap.getJsonTickerOrThrow(iid).toString()));
+    // so it's easier to read the JSON files.
+    for (InstrumentId instrumentId : jsonTickerMap.getKeysInTickerOrder(map)) {
+      // #addToJsonObject will throw on duplicate keys; no need to check for duplicates here
+      addToJsonObject(
+          jsonObject,
+          jsonTickerMap.getJsonTickerOrThrow(instrumentId).getFreeFormString(),
+          jsonBigDecimal(map.getOrThrow(instrumentId)));
+    }
     return jsonObject;
   }
 
   public <V extends PreciseValue<? super V>> IidMap<V> fromJsonObject(
       JsonObject jsonObject, JsonTickerMap jsonTickerMap, Function<BigDecimal, V> bigDecimalConverter) {
-    MutableIidMap<V> mutableMap = newMutableIidMapWithExpectedSize(jsonObject.entrySet().size());
-    jsonObject.entrySet().forEach(entry -> {
-      JsonTicker jsonTicker = jsonTicker(entry.getKey());
-      JsonElement valueAsJsonElement = entry.getValue();
-      V preciseValue = preciseValueJsonApiConverter.fromJsonBigDecimal(
-          valueAsJsonElement, jsonTicker, jsonTickerMap, bigDecimalConverter);
-      mutableMap.putAssumingAbsent(jsonTickerMap.getInstrumentIdOrThrow(jsonTicker), preciseValue);
-    });
+    MutableIidMap<V> mutableMap = newMutableIidMapWithExpectedSize(jsonObject.size());
+    jsonObject.entrySet().forEach(entry ->
+        putFromBigDecimal(
+            mutableMap, entry.getKey(), entry.getValue().getAsBigDecimal(), jsonTickerMap, bigDecimalConverter));
+    return newIidMap(mutableMap);
+  }
+
+  /**
+   * Writes the same JSON object that {@link #toJsonObject} would create (same keys, same order, same rounding),
+   * but directly to the writer.
+   */
+  public <V extends PreciseValue<? super V>> void writeJsonObject(
+      JsonWriter jsonWriter, IidMap<V> map, JsonTickerMap jsonTickerMap) throws IOException {
+    jsonWriter.beginObject();
+    for (InstrumentId instrumentId : jsonTickerMap.getKeysInTickerOrder(map)) {
+      jsonWriter
+          .name(jsonTickerMap.getJsonTickerOrThrow(instrumentId).getFreeFormString())
+          .value(roundTo8digits(map.getOrThrow(instrumentId).doubleValue()));
+    }
+    jsonWriter.endObject();
+  }
+
+  /**
+   * Reads a JSON object that maps tickers to numbers, as written by {@link #writeJsonObject} (or {@link #toJsonObject}),
+   * and returns the same {@link IidMap} that {@link #fromJsonObject} would. The reader must be positioned right
+   * before the start of the object; afterwards, it will be right after the end of the object.
+   *
+   * <p> The numbers are read exactly as they appear in the JSON text, without going through a double. </p>
+   */
+  public <V extends PreciseValue<? super V>> IidMap<V> readJsonObject(
+      JsonReader jsonReader, JsonTickerMap jsonTickerMap, Function<BigDecimal, V> bigDecimalConverter) throws IOException {
+    MutableIidMap<V> mutableMap = newMutableIidMap();
+    jsonReader.beginObject();
+    while (jsonReader.hasNext()) {
+      String freeFormTicker = jsonReader.nextName();
+      // nextString() also works for numbers, and returns the number exactly as it appears in the JSON.
+      putFromBigDecimal(
+          mutableMap, freeFormTicker, new BigDecimal(jsonReader.nextString()), jsonTickerMap, bigDecimalConverter);
+    }
+    jsonReader.endObject();
     return newIidMap(mutableMap);
   }
 
+  private <V extends PreciseValue<? super V>> void putFromBigDecimal(
+      MutableIidMap<V> mutableMap,
+      String freeFormTicker,
+      BigDecimal value,
+      JsonTickerMap jsonTickerMap,
+      Function<BigDecimal, V> bigDecimalConverter) {
+    Optional<InstrumentId> instrumentId = jsonTickerMap.getOptionalInstrumentId(freeFormTicker);
+    V preciseValue = preciseValueJsonApiConverter.fromBigDecimal(
+        value, freeFormTicker, instrumentId, bigDecimalConverter);
+    mutableMap.putAssumingAbsent(instrumentId.get(), preciseValue);
+  }
+
 }
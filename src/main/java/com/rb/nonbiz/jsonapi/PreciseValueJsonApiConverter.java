@@ -28,18 +28,32 @@ public class PreciseValueJsonApiConverter {
       JsonTicker jsonTicker,
       JsonTickerMap jsonTickerMap,
       Function<BigDecimal, V> converter) {
-    Optional<InstrumentId> instrumentId = jsonTickerMap.getOptionalInstrumentId(jsonTicker);
-    BigDecimal value = valueAsJsonElementDouble.getAsBigDecimal();
+    return fromBigDecimal(
+        valueAsJsonElementDouble.getAsBigDecimal(),
+        jsonTicker.getFreeFormString(),
+        jsonTickerMap.getOptionalInstrumentId(jsonTicker),
+        converter);
+  }
+
+  /**
+   * Like {@link #fromJsonBigDecimal(JsonElement, JsonTicker, JsonTickerMap, Function)}, but for callers that have
+   * already parsed the number and looked up the instrument, e.g. when reading JSON in a streaming fashion.
+   */
+  public <V extends PreciseValue<? super V>> V fromBigDecimal(
+      BigDecimal value,
+      String freeFormTicker,
+      Optional<InstrumentId> instrumentId,
+      Function<BigDecimal, V> converter) {
     if (!instrumentId.isPresent()) {
       throw new IllegalArgumentException(smartFormat("Error converting unknown ticker %s (value= %s )",
-              jsonTicker, value));
+              freeFormTicker, value));
     }
     try {
       return converter.apply(value);
     } catch (Exception e) {
       throw new IllegalArgumentException(smartFormat(
           "Error converting known ticker %s (instrumentId %s ): %s",
-              jsonTicker, instrumentId.get().asLong(), e.getMessage()));
+              freeFormTicker, instrumentId.get().asLong(), e.getMessage()));
     }
   }
 
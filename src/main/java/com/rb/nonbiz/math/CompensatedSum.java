@@ -0,0 +1,152 @@
+package com.rb.nonbiz.math;
+
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.util.stream.IntStream;
+
+/**
+ * A running sum of doubles that keeps track of the rounding error of each addition (Neumaier's variant of Kahan
+ * summation), so the total is accurate to about 1 ulp regardless of how many values get added, and in what order.
+ * A plain {@code sum += value} loop can lose several digits over millions of values of different magnitudes.
+ *
+ * <p> This is what we use when we want double-precision results over large arrays (weighted averages, standard
+ * deviations), without paying for a {@link java.math.BigDecimal} per element. </p>
+ *
+ * <p> The static methods work on whole arrays, and split large arrays into chunks that get summed in parallel;
+ * each chunk has its own {@link CompensatedSum}, and the chunks' sums get combined at the end. The loops over each
+ * chunk are plain indexed loops over the arrays. </p>
+ *
+ * <p> This is mutable and not thread-safe. </p>
+ */
+public class CompensatedSum {
+
+  /**
+   * Arrays at least this big get summed in parallel; below this, the overhead of splitting the work
+   * is larger than the savings.
+   */
+  public static final int MIN_SIZE_FOR_PARALLEL_SUM = 1 << 16;
+
+  private static final int CHUNK_SIZE = 1 << 14;
+
+  private double sum;
+  private double compensation;
+
+  private CompensatedSum() {
+    this.sum = 0;
+    this.compensation = 0;
+  }
+
+  public static CompensatedSum emptyCompensatedSum() {
+    return new CompensatedSum();
+  }
+
+  public CompensatedSum add(double value) {
+    double newSum = sum + value;
+    // Whichever of the two is bigger in magnitude loses the low-order bits of the other one; recover them.
+    if (Math.abs(sum) >= Math.abs(value)) {
+      compensation += (sum - newSum) + value;
+    } else {
+      compensation += (value - newSum) + sum;
+    }
+    sum = newSum;
+    return this;
+  }
+
+  public CompensatedSum merge(CompensatedSum other) {
+    add(other.sum);
+    compensation += other.compensation;
+    return this;
+  }
+
+  public double getSum() {
+    return sum + compensation;
+  }
+
+  /**
+   * Returns the sum of all values in the array.
+   */
+  public static double compensatedSum(double[] values) {
+    return reduceInChunks(values.length, (from, to) -> {
+      CompensatedSum chunkSum = emptyCompensatedSum();
+      for (int i = from; i < to; i++) {
+        chunkSum.add(values[i]);
+      }
+      return chunkSum;
+    });
+  }
+
+  /**
+   * Returns the sum of values[i] * weights[i], i.e. the dot product of the two arrays.
+   */
+  public static double compensatedSumOfProducts(double[] values, double[] weights) {
+    checkSameLength(values, weights);
+    return reduceInChunks(values.length, (from, to) -> {
+      CompensatedSum chunkSum = emptyCompensatedSum();
+      for (int i = from; i < to; i++) {
+        chunkSum.add(values[i] * weights[i]);
+      }
+      return chunkSum;
+    });
+  }
+
+  /**
+   * Returns the sum of (values[i] - center) ^ 2.
+   */
+  public static double compensatedSumOfSquaredDeviations(double[] values, double center) {
+    return reduceInChunks(values.length, (from, to) -> {
+      CompensatedSum chunkSum = emptyCompensatedSum();
+      for (int i = from; i < to; i++) {
+        double deviation = values[i] - center;
+        chunkSum.add(deviation * deviation);
+      }
+      return chunkSum;
+    });
+  }
+
+  /**
+   * Returns the sum of weights[i] * (values[i] - center) ^ 2.
+   */
+  public static double compensatedSumOfWeightedSquaredDeviations(double[] values, double[] weights, double center) {
+    checkSameLength(values, weights);
+    return reduceInChunks(values.length, (from, to) -> {
+      CompensatedSum chunkSum = emptyCompensatedSum();
+      for (int i = from; i < to; i++) {
+        double deviation = values[i] - center;
+        chunkSum.add(weights[i] * deviation * deviation);
+      }
+      return chunkSum;
+    });
+  }
+
+  private interface ChunkSummer {
+
+    CompensatedSum sumChunk(int fromInclusive, int toExclusive);
+
+  }
+
+  private static double reduceInChunks(int length, ChunkSummer chunkSummer) {
+    if (length < MIN_SIZE_FOR_PARALLEL_SUM) {
+      return chunkSummer.sumChunk(0, length).getSum();
+    }
+    int numChunks = (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    return IntStream.range(0, numChunks)
+        .parallel()
+        .mapToObj(chunk -> chunkSummer.sumChunk(chunk * CHUNK_SIZE, Math.min(length, (chunk + 1) * CHUNK_SIZE)))
+        .reduce(emptyCompensatedSum(), (sum1, sum2) -> emptyCompensatedSum().merge(sum1).merge(sum2))
+        .getSum();
+  }
+
+  private static void checkSameLength(double[] values, double[] weights) {
+    RBPreconditions.checkArgument(
+        values.length == weights.length,
+        "There were %s values but %s weights",
+        values.length, weights.length);
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[CS %s CS]", getSum());
+  }
+
+}
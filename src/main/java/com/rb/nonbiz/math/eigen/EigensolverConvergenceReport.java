@@ -0,0 +1,68 @@
+package com.rb.nonbiz.math.eigen;
+
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.util.Arrays;
+
+/**
+ * How an iterative eigensolver (see {@link TruncatedSymmetricEigensolver}) did: how many iterations it took,
+ * and how far each eigenpair (λ, x) is from being exact, as the residual |Ax - λx| divided by the largest eigenvalue.
+ *
+ * <p> If the solver ran out of iterations, it still returns its best guess, but {@link #hasConverged()} will be false;
+ * it is up to the caller to decide if the residuals are good enough. </p>
+ */
+public class EigensolverConvergenceReport {
+
+  private final int numIterations;
+  private final double[] relativeResiduals;
+  private final boolean hasConverged;
+
+  private EigensolverConvergenceReport(int numIterations, double[] relativeResiduals, boolean hasConverged) {
+    this.numIterations = numIterations;
+    this.relativeResiduals = relativeResiduals;
+    this.hasConverged = hasConverged;
+  }
+
+  public static EigensolverConvergenceReport eigensolverConvergenceReport(
+      int numIterations, double[] relativeResiduals, boolean hasConverged) {
+    RBPreconditions.checkArgument(
+        numIterations > 0,
+        "There must be at least one iteration, but there were %s",
+        numIterations);
+    RBPreconditions.checkArgument(
+        relativeResiduals.length > 0,
+        "There must be at least one eigenpair");
+    RBPreconditions.checkArgument(
+        Arrays.stream(relativeResiduals).allMatch(v -> v >= 0 && Double.isFinite(v)),
+        "Residuals must be finite and non-negative: %s",
+        Arrays.toString(relativeResiduals));
+    return new EigensolverConvergenceReport(numIterations, relativeResiduals, hasConverged);
+  }
+
+  public int getNumIterations() {
+    return numIterations;
+  }
+
+  /**
+   * One item per eigenpair, in the same order as the eigenvalues (i.e. from the largest eigenvalue down).
+   */
+  public double[] getRelativeResiduals() {
+    return relativeResiduals;
+  }
+
+  public double getMaxRelativeResidual() {
+    return Arrays.stream(relativeResiduals).max().getAsDouble();
+  }
+
+  public boolean hasConverged() {
+    return hasConverged;
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[ECR %s after %s iterations ; residuals %s ECR]",
+        hasConverged ? "converged" : "did not converge", numIterations, Arrays.toString(relativeResiduals));
+  }
+
+}
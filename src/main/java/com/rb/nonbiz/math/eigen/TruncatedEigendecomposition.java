@@ -0,0 +1,101 @@
+package com.rb.nonbiz.math.eigen;
+
+import com.rb.nonbiz.math.vectorspaces.RBVector;
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBOrderingPreconditions;
+import com.rb.nonbiz.util.RBPreconditions;
+import com.rb.nonbiz.util.RBSimilarityPreconditions;
+
+import java.util.List;
+
+import static com.rb.nonbiz.math.eigen.DecreasingPositiveDoubles.decreasingPositiveDoubles;
+import static com.rb.nonbiz.types.Epsilon.epsilon;
+
+/**
+ * The leading eigenvalues (largest first) and corresponding unit eigenvectors of a symmetric matrix,
+ * as computed by {@link TruncatedSymmetricEigensolver}, plus a report on how well the solver converged.
+ *
+ * <p> Unlike {@link com.rb.nonbiz.math.vectorspaces.RBMatrix.RBEigenvalueDecomposition}, this only has the first
+ * few eigenpairs, which is all that e.g. a risk model needs out of a large covariance matrix. </p>
+ *
+ * <p> The eigenvectors can be passed back to {@link TruncatedSymmetricEigensolver} as a warm start, e.g.
+ * for the covariance matrix of the next day, which is usually very close to today's. </p>
+ */
+public class TruncatedEigendecomposition {
+
+  private final RBVector eigenvaluesDescending;
+  private final List<RBVector> eigenvectors;
+  private final EigensolverConvergenceReport convergenceReport;
+
+  private TruncatedEigendecomposition(
+      RBVector eigenvaluesDescending,
+      List<RBVector> eigenvectors,
+      EigensolverConvergenceReport convergenceReport) {
+    this.eigenvaluesDescending = eigenvaluesDescending;
+    this.eigenvectors = eigenvectors;
+    this.convergenceReport = convergenceReport;
+  }
+
+  public static TruncatedEigendecomposition truncatedEigendecomposition(
+      RBVector eigenvaluesDescending,
+      List<RBVector> eigenvectors,
+      EigensolverConvergenceReport convergenceReport) {
+    int numEigenpairs = RBSimilarityPreconditions.checkBothSame(
+        eigenvaluesDescending.size(),
+        eigenvectors.size(),
+        "We have %s eigenvalues but %s eigenvectors",
+        eigenvaluesDescending.size(), eigenvectors.size());
+    RBSimilarityPreconditions.checkBothSame(
+        numEigenpairs,
+        convergenceReport.getRelativeResiduals().length,
+        "We have %s eigenpairs but %s residuals",
+        numEigenpairs, convergenceReport.getRelativeResiduals().length);
+    RBOrderingPreconditions.checkNotIncreasing(
+        eigenvaluesDescending.asList(),
+        "Eigenvalues must be in decreasing order: %s",
+        eigenvaluesDescending);
+    RBSimilarityPreconditions.checkAllSame(
+        eigenvectors,
+        RBVector::size,
+        "All eigenvectors must have the same dimension");
+    eigenvectors.forEach(eigenvector -> RBPreconditions.checkArgument(
+        eigenvector.isAlmostUnitVector(epsilon(1e-6)),
+        "Eigenvectors must be unit vectors: %s",
+        eigenvector));
+    return new TruncatedEigendecomposition(eigenvaluesDescending, eigenvectors, convergenceReport);
+  }
+
+  public int getNumEigenpairs() {
+    return eigenvaluesDescending.size();
+  }
+
+  public RBVector getEigenvaluesDescending() {
+    return eigenvaluesDescending;
+  }
+
+  /**
+   * Throws if any eigenvalue is not positive; this is fine e.g. for a covariance matrix with more observations
+   * than variables.
+   */
+  public DecreasingPositiveDoubles getEigenvaluesAsDecreasingPositiveDoubles() {
+    return decreasingPositiveDoubles(eigenvaluesDescending.asList());
+  }
+
+  /**
+   * In the same order as the eigenvalues, i.e. largest eigenvalue first.
+   */
+  public List<RBVector> getEigenvectors() {
+    return eigenvectors;
+  }
+
+  public EigensolverConvergenceReport getConvergenceReport() {
+    return convergenceReport;
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[TED eigenvalues %s ; %s ; eigenvectors %s TED]",
+        eigenvaluesDescending, convergenceReport, eigenvectors);
+  }
+
+}
@@ -0,0 +1,68 @@
+package com.rb.nonbiz.math.eigen;
+
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+
+/**
+ * Tells {@link TruncatedSymmetricEigensolver} how many eigenpairs we want, and when to stop iterating.
+ *
+ * <p> The solver stops once every eigenpair (λ, x) we asked for has a residual |Ax - λx| of at most
+ * relativeTolerance times the largest eigenvalue, or once it has run maxIterations iterations, whichever
+ * comes first. Note that the error in the eigenvalues is much smaller than the residual (roughly its square,
+ * divided by the gap to the next eigenvalue). </p>
+ */
+public class TruncatedEigensolverSettings {
+
+  private static final double DEFAULT_RELATIVE_TOLERANCE = 1e-8;
+  private static final int DEFAULT_MAX_ITERATIONS = 500;
+
+  private final int numEigenpairs;
+  private final double relativeTolerance;
+  private final int maxIterations;
+
+  private TruncatedEigensolverSettings(int numEigenpairs, double relativeTolerance, int maxIterations) {
+    this.numEigenpairs = numEigenpairs;
+    this.relativeTolerance = relativeTolerance;
+    this.maxIterations = maxIterations;
+  }
+
+  public static TruncatedEigensolverSettings truncatedEigensolverSettings(
+      int numEigenpairs, double relativeTolerance, int maxIterations) {
+    RBPreconditions.checkArgument(
+        numEigenpairs > 0,
+        "We must ask for at least one eigenpair, but asked for %s",
+        numEigenpairs);
+    RBPreconditions.checkArgument(
+        relativeTolerance > 0 && relativeTolerance < 1,
+        "The relative tolerance must be in (0, 1), but was %s",
+        relativeTolerance);
+    RBPreconditions.checkArgument(
+        maxIterations > 0,
+        "We must allow at least one iteration, but maxIterations was %s",
+        maxIterations);
+    return new TruncatedEigensolverSettings(numEigenpairs, relativeTolerance, maxIterations);
+  }
+
+  public static TruncatedEigensolverSettings truncatedEigensolverSettingsWithDefaults(int numEigenpairs) {
+    return truncatedEigensolverSettings(numEigenpairs, DEFAULT_RELATIVE_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+  }
+
+  public int getNumEigenpairs() {
+    return numEigenpairs;
+  }
+
+  public double getRelativeTolerance() {
+    return relativeTolerance;
+  }
+
+  public int getMaxIterations() {
+    return maxIterations;
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[TES %s eigenpairs ; tolerance %s ; max %s iterations TES]",
+        numEigenpairs, relativeTolerance, maxIterations);
+  }
+
+}
@@ -0,0 +1,317 @@
+package com.rb.nonbiz.math.eigen;
+
+import cern.colt.matrix.DoubleMatrix2D;
+import cern.colt.matrix.impl.DenseDoubleMatrix2D;
+import cern.colt.matrix.linalg.EigenvalueDecomposition;
+import com.rb.nonbiz.math.vectorspaces.RBSquareMatrix;
+import com.rb.nonbiz.math.vectorspaces.RBVector;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static com.rb.nonbiz.math.eigen.EigensolverConvergenceReport.eigensolverConvergenceReport;
+import static com.rb.nonbiz.math.eigen.TruncatedEigendecomposition.truncatedEigendecomposition;
+import static com.rb.nonbiz.math.vectorspaces.RBVector.rbVector;
+
+/**
+ * Calculates only the top few eigenvalues (and their eigenvectors) of a large symmetric matrix,
+ * such as a covariance matrix in a risk model, where we only care about the first few dozen eigenpairs of a
+ * 5,000 x 5,000 matrix. {@link com.rb.nonbiz.math.vectorspaces.RBMatrix#calculateEigendecomposition()}
+ * computes all of them, which is O(n^3); this is O(n^2 * k) per iteration, for k eigenpairs.
+ *
+ * <p> This uses block subspace iteration with a Rayleigh-Ritz step: we start with a block of a few more vectors
+ * than the k we need (random ones, unless we are given a warm start), and repeatedly multiply them by the matrix
+ * and re-orthonormalize them. Each iteration, we solve the small eigenproblem of the matrix restricted to the
+ * block, and stop once all k resulting eigenpairs have small enough residuals. </p>
+ *
+ * <p> Subspace iteration finds the eigenvalues that are largest in absolute value. This is what we want for
+ * positive semidefinite matrices such as covariance matrices, which is what this is meant for; for a matrix with
+ * large negative eigenvalues, you would get those as well. </p>
+ *
+ * <p> When we compute eigendecompositions for a sequence of days, the covariance matrix changes very little from
+ * one day to the next, so passing the previous day's eigenvectors to
+ * {@link #calculateWithWarmStart(RBSquareMatrix, TruncatedEigensolverSettings, List)} usually
+ * cuts the number of iterations by a lot. </p>
+ *
+ * <p> The random starting vectors use a fixed seed, so the results are deterministic. </p>
+ */
+public class TruncatedSymmetricEigensolver {
+
+  // Adding a few extra vectors to the block makes convergence depend on the gap between eigenvalue k and
+  // eigenvalue (k + oversampling), instead of eigenvalue (k + 1), which may be tiny.
+  private static final int OVERSAMPLING = 10;
+  // Below this many cells, the matrix-block product is too cheap to be worth splitting across threads.
+  private static final int MIN_CELLS_FOR_PARALLEL_PRODUCT = 1 << 16;
+  // Columns whose norm shrinks by more than this during orthonormalization are (numerically) in the span
+  // of the previous columns, so we replace them with random ones.
+  private static final double MIN_RELATIVE_NORM_AFTER_ORTHOGONALIZATION = 1e-10;
+  private static final long RANDOM_SEED = 12345L;
+
+  public TruncatedEigendecomposition calculate(RBSquareMatrix matrix, TruncatedEigensolverSettings settings) {
+    return calculateWithWarmStart(matrix, settings, Collections.emptyList());
+  }
+
+  /**
+   * Like {@link #calculate(RBSquareMatrix, TruncatedEigensolverSettings)}, but starts from some vectors
+   * that are expected to be close to the eigenvectors, typically the ones from
+   * {@link TruncatedEigendecomposition#getEigenvectors()} for the previous day's matrix.
+   *
+   * <p> The initial guesses do not have to be unit vectors, or orthogonal, and there can be fewer or more of them
+   * than the number of eigenpairs we want. </p>
+   *
+   * <p> The signs of the resulting eigenvectors are set to agree with the respective initial guesses, so that
+   * e.g. the eigenvectors will not flip signs from one day to the next. </p>
+   */
+  public TruncatedEigendecomposition calculateWithWarmStart(
+      RBSquareMatrix matrix, TruncatedEigensolverSettings settings, List<RBVector> initialGuesses) {
+    int n = matrix.getNumRowsOrColumns();
+    int k = settings.getNumEigenpairs();
+    RBPreconditions.checkArgument(
+        k <= n,
+        "Cannot ask for %s eigenpairs of a %s x %s matrix",
+        k, n, n);
+    initialGuesses.forEach(guess -> RBPreconditions.checkArgument(
+        guess.size() == n,
+        "Initial guess has dimension %s but the matrix is %s x %s",
+        guess.size(), n, n));
+    // The results are only meaningful for a symmetric matrix, so this always runs, even though it is O(n^2).
+    checkSymmetric(matrix);
+
+    int blockSize = Math.min(n, k + OVERSAMPLING);
+    Random random = new Random(RANDOM_SEED);
+
+    // All n x blockSize blocks are stored row-major in a flat array, so that row i is at [i * blockSize, (i + 1) * blockSize).
+    double[] block = new double[n * blockSize];
+    int numGuessesUsed = Math.min(blockSize, initialGuesses.size());
+    for (int j = 0; j < blockSize; j++) {
+      if (j < numGuessesUsed) {
+        RBVector guess = initialGuesses.get(j);
+        for (int i = 0; i < n; i++) {
+          block[i * blockSize + j] = guess.getQuick(i);
+        }
+      } else {
+        fillColumnWithRandomValues(block, n, blockSize, j, random);
+      }
+    }
+    orthonormalizeColumns(block, n, blockSize, random);
+
+    double[] ritzValues = null;
+    double[] ritzVectors = null;
+    double[] relativeResiduals = new double[k];
+    boolean hasConverged = false;
+    int iteration = 0;
+    while (iteration < settings.getMaxIterations()) {
+      iteration++;
+      double[] matrixTimesBlock = multiply(matrix, block, blockSize);
+
+      // Rayleigh-Ritz: the eigenpairs of block^T * matrix * block give the best approximations to the
+      // eigenpairs of the matrix that lie in the span of the block.
+      DoubleMatrix2D projected = new DenseDoubleMatrix2D(blockSize, blockSize);
+      for (int a = 0; a < blockSize; a++) {
+        for (int b = a; b < blockSize; b++) {
+          double sum = 0;
+          for (int i = 0; i < n; i++) {
+            sum += block[i * blockSize + a] * matrixTimesBlock[i * blockSize + b];
+          }
+          // Symmetrize, to get rid of rounding errors that would otherwise give Colt a non-symmetric matrix.
+          projected.setQuick(a, b, sum);
+          projected.setQuick(b, a, sum);
+        }
+      }
+      EigenvalueDecomposition smallDecomposition = new EigenvalueDecomposition(projected);
+      // Colt returns eigenvalues in increasing order; we want the largest first.
+      double[] smallEigenvaluesAscending = smallDecomposition.getRealEigenvalues().toArray();
+      DoubleMatrix2D smallEigenvectors = smallDecomposition.getV();
+      double[] smallEigenvectorsDescending = new double[blockSize * blockSize];
+      ritzValues = new double[blockSize];
+      for (int j = 0; j < blockSize; j++) {
+        int ascendingIndex = blockSize - 1 - j;
+        ritzValues[j] = smallEigenvaluesAscending[ascendingIndex];
+        for (int a = 0; a < blockSize; a++) {
+          smallEigenvectorsDescending[a * blockSize + j] = smallEigenvectors.getQuick(a, ascendingIndex);
+        }
+      }
+      ritzVectors = multiplySmall(block, n, blockSize, smallEigenvectorsDescending);
+      double[] matrixTimesRitzVectors = multiplySmall(matrixTimesBlock, n, blockSize, smallEigenvectorsDescending);
+
+      double scale = Math.max(Math.abs(ritzValues[0]), Double.MIN_NORMAL);
+      hasConverged = true;
+      for (int j = 0; j < k; j++) {
+        double sumOfSquares = 0;
+        for (int i = 0; i < n; i++) {
+          double residual = matrixTimesRitzVectors[i * blockSize + j] - ritzValues[j] * ritzVectors[i * blockSize + j];
+          sumOfSquares += residual * residual;
+        }
+        relativeResiduals[j] = Math.sqrt(sumOfSquares) / scale;
+        if (relativeResiduals[j] > settings.getRelativeTolerance()) {
+          hasConverged = false;
+        }
+      }
+      if (hasConverged) {
+        break;
+      }
+      // The next block spans matrix * (current Ritz vectors); ordering the columns by Ritz value means that
+      // the leading eigenvectors stay in the leading columns.
+      block = matrixTimesRitzVectors;
+      orthonormalizeColumns(block, n, blockSize, random);
+    }
+
+    List<RBVector> eigenvectors = new ArrayList<>(k);
+    double[] eigenvalues = new double[k];
+    for (int j = 0; j < k; j++) {
+      double[] eigenvector = new double[n];
+      for (int i = 0; i < n; i++) {
+        eigenvector[i] = ritzVectors[i * blockSize + j];
+      }
+      if (shouldFlipSign(eigenvector, j < initialGuesses.size() ? initialGuesses.get(j) : null)) {
+        for (int i = 0; i < n; i++) {
+          eigenvector[i] = -eigenvector[i];
+        }
+      }
+      eigenvectors.add(rbVector(eigenvector));
+      eigenvalues[j] = ritzValues[j];
+    }
+    return truncatedEigendecomposition(
+        rbVector(eigenvalues),
+        eigenvectors,
+        eigensolverConvergenceReport(iteration, relativeResiduals, hasConverged));
+  }
+
+  private void checkSymmetric(RBSquareMatrix matrix) {
+    int n = matrix.getNumRowsOrColumns();
+    for (int i = 0; i < n; i++) {
+      for (int j = i + 1; j < n; j++) {
+        double aij = matrix.getQuick(i, j);
+        double aji = matrix.getQuick(j, i);
+        RBPreconditions.checkArgumentWithoutAllocating(
+            Math.abs(aij - aji) <= 1e-8 * Math.max(1, Math.max(Math.abs(aij), Math.abs(aji))),
+            "Matrix must be symmetric, but the item at [%s][%s] differs from the one at the transposed position",
+            i, j);
+      }
+    }
+  }
+
+  /**
+   * Returns matrix * block, where block is n x blockSize (row-major). Each row of the result only depends on
+   * the same row of the matrix, so we can compute the rows in parallel.
+   */
+  private double[] multiply(RBSquareMatrix matrix, double[] block, int blockSize) {
+    int n = matrix.getNumRowsOrColumns();
+    double[] result = new double[n * blockSize];
+    IntStream rows = IntStream.range(0, n);
+    if ((long) n * n >= MIN_CELLS_FOR_PARALLEL_PRODUCT) {
+      rows = rows.parallel();
+    }
+    rows.forEach(i -> {
+      int resultOffset = i * blockSize;
+      for (int l = 0; l < n; l++) {
+        double matrixValue = matrix.getQuick(i, l);
+        if (matrixValue == 0) {
+          continue;
+        }
+        int blockOffset = l * blockSize;
+        for (int j = 0; j < blockSize; j++) {
+          result[resultOffset + j] += matrixValue * block[blockOffset + j];
+        }
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Returns left * right, where left is n x blockSize and right is blockSize x blockSize, both row-major.
+   */
+  private double[] multiplySmall(double[] left, int n, int blockSize, double[] right) {
+    double[] result = new double[n * blockSize];
+    for (int i = 0; i < n; i++) {
+      int rowOffset = i * blockSize;
+      for (int a = 0; a < blockSize; a++) {
+        double leftValue = left[rowOffset + a];
+        int rightOffset = a * blockSize;
+        for (int j = 0; j < blockSize; j++) {
+          result[rowOffset + j] += leftValue * right[rightOffset + j];
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Modified Gram-Schmidt, done twice ('twice is enough'), so that the columns stay orthonormal to machine precision
+   * even when they start out nearly parallel, which is exactly what repeated multiplication by the matrix does.
+   */
+  private void orthonormalizeColumns(double[] block, int n, int blockSize, Random random) {
+    for (int j = 0; j < blockSize; j++) {
+      // Make sure we do not loop forever if we keep getting unlucky with random replacement columns.
+      for (int attempt = 0; ; attempt++) {
+        double originalNorm = columnNorm(block, n, blockSize, j);
+        for (int pass = 0; pass < 2; pass++) {
+          for (int previous = 0; previous < j; previous++) {
+            double dotProduct = 0;
+            for (int i = 0; i < n; i++) {
+              dotProduct += block[i * blockSize + previous] * block[i * blockSize + j];
+            }
+            for (int i = 0; i < n; i++) {
+              block[i * blockSize + j] -= dotProduct * block[i * blockSize + previous];
+            }
+          }
+        }
+        double norm = columnNorm(block, n, blockSize, j);
+        if (norm > MIN_RELATIVE_NORM_AFTER_ORTHOGONALIZATION * originalNorm && norm > 0) {
+          for (int i = 0; i < n; i++) {
+            block[i * blockSize + j] /= norm;
+          }
+          break;
+        }
+        RBPreconditions.checkArgument(
+            attempt < 10,
+            "Could not find a column orthogonal to the previous %s columns; this should never happen",
+            j);
+        fillColumnWithRandomValues(block, n, blockSize, j, random);
+      }
+    }
+  }
+
+  private double columnNorm(double[] block, int n, int blockSize, int column) {
+    double sumOfSquares = 0;
+    for (int i = 0; i < n; i++) {
+      double value = block[i * blockSize + column];
+      sumOfSquares += value * value;
+    }
+    return Math.sqrt(sumOfSquares);
+  }
+
+  private void fillColumnWithRandomValues(double[] block, int n, int blockSize, int column, Random random) {
+    for (int i = 0; i < n; i++) {
+      block[i * blockSize + column] = random.nextGaussian();
+    }
+  }
+
+  /**
+   * Eigenvectors are only unique up to sign. If we have an initial guess, we make the eigenvector point the same way;
+   * otherwise, we make its component with the largest absolute value positive.
+   */
+  private boolean shouldFlipSign(double[] eigenvector, RBVector initialGuessOrNull) {
+    if (initialGuessOrNull != null) {
+      double dotProduct = 0;
+      for (int i = 0; i < eigenvector.length; i++) {
+        dotProduct += eigenvector[i] * initialGuessOrNull.getQuick(i);
+      }
+      if (dotProduct != 0) {
+        return dotProduct < 0;
+      }
+    }
+    int indexOfLargest = 0;
+    for (int i = 1; i < eigenvector.length; i++) {
+      if (Math.abs(eigenvector[i]) > Math.abs(eigenvector[indexOfLargest])) {
+        indexOfLargest = i;
+      }
+    }
+    return eigenvector[indexOfLargest] < 0;
+  }
+
+}
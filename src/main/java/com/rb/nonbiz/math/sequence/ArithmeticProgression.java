@@ -2,6 +2,8 @@ package com.rb.nonbiz.math.sequence;
 
 import com.rb.nonbiz.text.Strings;
 
+import java.util.Optional;
+import java.util.function.IntFunction;
 import java.util.function.UnaryOperator;
 
 /**
@@ -25,28 +27,33 @@ public class ArithmeticProgression<T> extends SimpleSequence<T> {
 
   private final double commonDifference;
 
-  private ArithmeticProgression(T initialValue, double commonDifference, UnaryOperator<T> nextItemGenerator) {
-    super(initialValue, nextItemGenerator);
+  private ArithmeticProgression(
+      T initialValue, double commonDifference, UnaryOperator<T> nextItemGenerator,
+      Optional<IntFunction<T>> closedForm) {
+    super(initialValue, nextItemGenerator, closedForm);
     this.commonDifference = commonDifference;
   }
 
   public static <T> ArithmeticProgression<T> arithmeticProgression(
       T initialValue, double commonDifference, UnaryOperator<T> nextItemGenerator) {
-    return new ArithmeticProgression<>(initialValue, commonDifference, nextItemGenerator);
+    return new ArithmeticProgression<>(initialValue, commonDifference, nextItemGenerator, Optional.empty());
   }
 
   public static ArithmeticProgression<Double> doubleArithmeticProgression(
       double initialValue, double commonDifference) {
-    return new ArithmeticProgression<>(initialValue, commonDifference, v -> v + commonDifference);
+    // The closed form gives us O(1) random access, and avoids accumulating floating point error.
+    return new ArithmeticProgression<>(
+        initialValue, commonDifference, v -> v + commonDifference, Optional.of(n -> initialValue + n * commonDifference));
   }
 
   public static <T> ArithmeticProgression<T> constantValueArithmeticProgression(T initialValue) {
-    return arithmeticProgression(
+    return new ArithmeticProgression<>(
         initialValue,
         0.0,
         // This trick allows us to keep this constructor's method signature simple; we know that it's always going
         // to be the same value, so we can just use the identity function, and not force the user to specify one.
-        v -> initialValue);
+        v -> initialValue,
+        Optional.of(n -> initialValue));
   }
 
   public double getCommonDifference() {
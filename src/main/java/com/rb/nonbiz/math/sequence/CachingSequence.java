@@ -0,0 +1,77 @@
+package com.rb.nonbiz.math.sequence;
+
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A {@link Sequence} that remembers every item it has generated so far, so that {@link #get(int)} only needs to
+ * generate the items past the furthest position asked for so far, instead of starting from the initial value
+ * every time.
+ *
+ * <p> This is only useful for sequences with an arbitrary next-item generator. If the underlying sequence has
+ * a closed form (see {@link Sequence#hasConstantTimeRandomAccess()}), just use it directly. </p>
+ *
+ * <p> The cache grows up to the furthest position asked for, and never shrinks. This is thread-safe. </p>
+ */
+public class CachingSequence<T> extends Sequence<T> {
+
+  private final List<T> cachedItems;
+
+  private CachingSequence(Sequence<T> underlyingSequence) {
+    super(underlyingSequence.getInitialValue(), underlyingSequence.getNextItemGenerator());
+    this.cachedItems = new ArrayList<>();
+    this.cachedItems.add(underlyingSequence.getInitialValue());
+  }
+
+  public static <T> CachingSequence<T> cachingSequence(Sequence<T> underlyingSequence) {
+    return new CachingSequence<>(underlyingSequence);
+  }
+
+  @Override
+  public synchronized T get(int n) {
+    RBPreconditions.checkArgument(
+        n >= 0,
+        "Sequence position must be non-negative, but was %s",
+        n);
+    while (cachedItems.size() <= n) {
+      cachedItems.add(getNextItemGenerator().apply(cachedItems.get(cachedItems.size() - 1)));
+    }
+    return cachedItems.get(n);
+  }
+
+  /**
+   * Unlike the default iterator, this goes through the cache, so iterating twice only generates each item once.
+   */
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<T>() {
+
+      private int nextPosition = 0;
+
+      @Override
+      public boolean hasNext() {
+        // a Sequence is infinite
+        return true;
+      }
+
+      @Override
+      public T next() {
+        return get(nextPosition++);
+      }
+    };
+  }
+
+  public synchronized int getNumCachedItems() {
+    return cachedItems.size();
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[CSEQ init= %s ; %s cached CSEQ]", getInitialValue(), getNumCachedItems());
+  }
+
+}
@@ -3,6 +3,8 @@ package com.rb.nonbiz.math.sequence;
 import com.google.common.annotations.VisibleForTesting;
 import com.rb.nonbiz.text.Strings;
 
+import java.util.Optional;
+
 /**
  * A {@link Sequence} (function of non-negative integer to T) where each value of the function is always the same.
  *
@@ -12,7 +14,7 @@ import com.rb.nonbiz.text.Strings;
 public class ConstantSequence<T> extends SimpleSequence<T> {
 
   private ConstantSequence(T constantValue) {
-    super(constantValue, v -> constantValue);
+    super(constantValue, v -> constantValue, Optional.of(n -> constantValue));
   }
 
   public static <T> ConstantSequence<T> constantSequence(T constantValue) {
@@ -3,6 +3,8 @@ package com.rb.nonbiz.math.sequence;
 import com.rb.nonbiz.text.Strings;
 import com.rb.nonbiz.types.PositiveMultiplier;
 
+import java.util.Optional;
+import java.util.function.IntFunction;
 import java.util.function.UnaryOperator;
 
 import static com.rb.nonbiz.types.PositiveMultiplier.POSITIVE_MULTIPLIER_1;
@@ -35,28 +37,34 @@ public class GeometricProgression<T> extends SimpleSequence<T> {
 
   private final PositiveMultiplier commonRatio;
 
-  private GeometricProgression(T initialValue, PositiveMultiplier commonRatio, UnaryOperator<T> nextItemGenerator) {
-    super(initialValue, nextItemGenerator);
+  private GeometricProgression(
+      T initialValue, PositiveMultiplier commonRatio, UnaryOperator<T> nextItemGenerator,
+      Optional<IntFunction<T>> closedForm) {
+    super(initialValue, nextItemGenerator, closedForm);
     this.commonRatio = commonRatio;
   }
 
   public static <T> GeometricProgression<T> geometricProgression(
       T initialValue, PositiveMultiplier commonRatio, UnaryOperator<T> nextItemGenerator) {
-    return new GeometricProgression<>(initialValue, commonRatio, nextItemGenerator);
+    return new GeometricProgression<>(initialValue, commonRatio, nextItemGenerator, Optional.empty());
   }
 
   public static GeometricProgression<Double> doubleGeometricProgression(
       double initialValue, PositiveMultiplier commonRatio) {
-    return new GeometricProgression<>(initialValue, commonRatio, v -> v * commonRatio.doubleValue());
+    double ratio = commonRatio.doubleValue();
+    // The closed form gives us O(1) random access, and avoids accumulating floating point error.
+    return new GeometricProgression<>(
+        initialValue, commonRatio, v -> v * ratio, Optional.of(n -> initialValue * Math.pow(ratio, n)));
   }
 
   public static <T> GeometricProgression<T> constantValueGeometricProgression(T initialValue) {
-    return geometricProgression(
+    return new GeometricProgression<>(
         initialValue,
         POSITIVE_MULTIPLIER_1,
         // This trick allows us to keep this constructor's method signature simple; we know that it's always going
         // to be the same value, so we can just use the identity function, and not force the user to specify one.
-        v -> initialValue);
+        v -> initialValue,
+        Optional.of(n -> initialValue));
   }
 
   public PositiveMultiplier getCommonRatio() {
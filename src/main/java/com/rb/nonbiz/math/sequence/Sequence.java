@@ -1,7 +1,18 @@
 package com.rb.nonbiz.math.sequence;
 
+import com.rb.nonbiz.util.RBPreconditions;
+
 import java.util.Iterator;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.IntFunction;
 import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.google.common.collect.Iterators.advance;
+import static com.google.common.collect.Iterators.limit;
 
 /**
  * A functional representation of a sequence (the mathematical class of functions).
@@ -10,8 +21,10 @@ import java.util.function.UnaryOperator;
  * <p> Note that the generic item T does not itself have to be numeric. For example, we could have an
  * arithmetic progression of the first numeric item in a pair class: ("a", 10), ("a", 12), ("a", 14), etc. </p>
  *
- * <p> In practice, this class identical to {@link Iterable}, except the semantics are clearer.
- * So it's a sequence, but without random access. </p>
+ * <p> In practice, this class is similar to {@link Iterable}, except the semantics are clearer.
+ * You can also ask for the item at any position with {@link #get(int)}. If a subclass knows a closed-form formula for
+ * the n-th item (e.g. a double arithmetic progression), this takes O(1) time, and avoids the floating point drift
+ * of applying the next-item generator n times; otherwise, it takes O(n) time. </p>
  *
  * @param <T>
  */
@@ -19,16 +32,106 @@ public abstract class Sequence<T> implements Iterable<T> {
 
   private final T initialValue;
   private final UnaryOperator<T> nextItemGenerator;
+  private final Optional<IntFunction<T>> closedForm;
 
   protected Sequence(T initialValue, UnaryOperator<T> nextItemGenerator) {
+    this(initialValue, nextItemGenerator, Optional.empty());
+  }
+
+  /**
+   * The closed form, if present, must return the same items as repeatedly applying the next-item generator,
+   * other than for floating point drift. We can't check that here.
+   */
+  protected Sequence(T initialValue, UnaryOperator<T> nextItemGenerator, Optional<IntFunction<T>> closedForm) {
     this.initialValue = initialValue;
     this.nextItemGenerator = nextItemGenerator;
+    this.closedForm = closedForm;
   }
 
   public T getInitialValue() {
     return initialValue;
   }
 
+  UnaryOperator<T> getNextItemGenerator() {
+    return nextItemGenerator;
+  }
+
+  /**
+   * Returns the item at position n >= 0, where position 0 is the initial value.
+   */
+  public T get(int n) {
+    RBPreconditions.checkArgument(
+        n >= 0,
+        "Sequence position must be non-negative, but was %s",
+        n);
+    if (closedForm.isPresent()) {
+      return closedForm.get().apply(n);
+    }
+    Iterator<T> iterator = iterator();
+    advance(iterator, n);
+    return iterator.next();
+  }
+
+  /**
+   * True if {@link #get(int)} takes O(1) time, instead of O(n).
+   */
+  public boolean hasConstantTimeRandomAccess() {
+    return closedForm.isPresent();
+  }
+
+  /**
+   * Returns the items in positions [fromPosition, toPositionExclusive).
+   *
+   * <p> If we have a closed-form formula for each item, this stream splits evenly by position, so it works well in
+   * parallel. Otherwise, each item depends on the previous one, so it is sequential at heart, although you can still
+   * call .parallel() on it. </p>
+   */
+  public Stream<T> stream(int fromPosition, int toPositionExclusive) {
+    RBPreconditions.checkArgument(
+        0 <= fromPosition && fromPosition <= toPositionExclusive,
+        "Invalid range of sequence positions: [ %s , %s )",
+        fromPosition, toPositionExclusive);
+    if (closedForm.isPresent()) {
+      return IntStream.range(fromPosition, toPositionExclusive).mapToObj(closedForm.get());
+    }
+    Iterator<T> iterator = iterator();
+    advance(iterator, fromPosition);
+    Iterable<T> items = () -> limit(iterator, toPositionExclusive - fromPosition);
+    return StreamSupport.stream(items.spliterator(), false);
+  }
+
+  /**
+   * See {@link #stream(int, int)}.
+   */
+  public Spliterator<T> spliterator(int fromPosition, int toPositionExclusive) {
+    return stream(fromPosition, toPositionExclusive).spliterator();
+  }
+
+  /**
+   * Puts the items in positions [fromPosition, toPositionExclusive) into the first (toPositionExclusive - fromPosition)
+   * slots of the array. This uses the closed-form formula, if there is one; otherwise, it goes over the sequence
+   * only once, unlike calling {@link #get(int)} for each position.
+   */
+  public static void fillDoubles(
+      Sequence<? extends Number> sequence, double[] out, int fromPosition, int toPositionExclusive) {
+    RBPreconditions.checkArgument(
+        0 <= fromPosition && fromPosition <= toPositionExclusive
+            && toPositionExclusive - fromPosition <= out.length,
+        "Cannot put sequence positions [ %s , %s ) into an array of size %s",
+        fromPosition, toPositionExclusive, out.length);
+    if (sequence.hasConstantTimeRandomAccess()) {
+      for (int i = fromPosition; i < toPositionExclusive; i++) {
+        out[i - fromPosition] = sequence.get(i).doubleValue();
+      }
+      return;
+    }
+    Iterator<? extends Number> iterator = sequence.iterator();
+    advance(iterator, fromPosition);
+    for (int i = fromPosition; i < toPositionExclusive; i++) {
+      out[i - fromPosition] = iterator.next().doubleValue();
+    }
+  }
+
   @Override
   public Iterator<T> iterator() {
     return new Iterator<T>() {
@@ -1,5 +1,7 @@
 package com.rb.nonbiz.math.sequence;
 
+import java.util.Optional;
+import java.util.function.IntFunction;
 import java.util.function.UnaryOperator;
 
 /**
@@ -14,6 +16,10 @@ public abstract class SimpleSequence<T> extends Sequence<T> {
     super(initialValue, nextItemGenerator);
   }
 
+  protected SimpleSequence(T initialValue, UnaryOperator<T> nextItemGenerator, Optional<IntFunction<T>> closedForm) {
+    super(initialValue, nextItemGenerator, closedForm);
+  }
+
   public interface Visitor<T, T2> {
 
     T2 visitConstantSequence(ConstantSequence<T> constantSequence);
@@ -0,0 +1,306 @@
+package com.rb.nonbiz.math.stats;
+
+import com.rb.nonbiz.types.UnitFraction;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+
+import static com.rb.nonbiz.text.SmartFormatter.smartFormat;
+
+/**
+ * Calculates percentiles of an array of doubles, without sorting it.
+ *
+ * <p> Unlike {@link PercentilesCalculator}, the values do not have to be sorted. We find all the order statistics
+ * (i.e. the k-th smallest values) that the requested percentiles need in a single 'multi-quickselect' pass: we
+ * partition the array around a pivot like quicksort does, but then only keep working on the parts of the array that
+ * contain a position we need. With only a few percentiles, this takes expected O(n) time, vs O(n log n) for a full
+ * sort. If partitioning goes badly (which should only happen with adversarial inputs), we fall back to sorting the
+ * remaining range, so the worst case is still O(n log n). </p>
+ *
+ * <p> The results are in the same order as the percentiles passed in. See {@link PercentileInterpolation} for what
+ * happens when a percentile falls between two values. NaN values are not allowed, since they cannot be ordered. </p>
+ */
+public class DoublesPercentilesCalculator {
+
+  // Below this size, sorting is faster than partitioning further.
+  private static final int SORT_THRESHOLD = 32;
+  // Below this size, splitting into parallel tasks is not worth the overhead.
+  private static final int MIN_SIZE_FOR_PARALLEL_TASK = 1 << 15;
+
+  /**
+   * Does not modify 'values'.
+   */
+  public double[] calculatePercentiles(
+      double[] values, List<UnitFraction> percentiles, PercentileInterpolation interpolation) {
+    return calculatePercentilesInPlace(values.clone(), percentiles, interpolation);
+  }
+
+  /**
+   * Same as {@link #calculatePercentiles(double[], List, PercentileInterpolation)}, but reorders the values in the
+   * array passed in, instead of copying it first. Use this when you have a scratch array that you don't need
+   * afterwards, e.g. one that you refill every day.
+   */
+  public double[] calculatePercentilesInPlace(
+      double[] values, List<UnitFraction> percentiles, PercentileInterpolation interpolation) {
+    OrderStatisticPositions positions = calculatePositions(values, percentiles, interpolation);
+    multiSelect(values, 0, values.length - 1, positions.ranks, 0, positions.ranks.length, maxDepth(values.length));
+    return positions.interpolate(values);
+  }
+
+  /**
+   * Returns the percentiles of the values that 'keyExtractor' returns for each item.
+   * This avoids creating a sorted list of items (or of boxed Doubles) just to get some percentiles.
+   */
+  public <T> double[] calculatePercentiles(
+      Collection<T> items,
+      ToDoubleFunction<T> keyExtractor,
+      List<UnitFraction> percentiles,
+      PercentileInterpolation interpolation) {
+    double[] values = new double[items.size()];
+    int i = 0;
+    for (T item : items) {
+      values[i++] = keyExtractor.applyAsDouble(item);
+    }
+    return calculatePercentilesInPlace(values, percentiles, interpolation);
+  }
+
+  /**
+   * Same as {@link #calculatePercentiles(double[], List, PercentileInterpolation)}, but large arrays get processed
+   * in parallel: after each partitioning step, the two sides (if they both contain positions we need) are handled
+   * by separate tasks in the common fork-join pool. The results are the same as for the sequential version.
+   */
+  public double[] calculatePercentilesInParallel(
+      double[] values, List<UnitFraction> percentiles, PercentileInterpolation interpolation) {
+    double[] copy = values.clone();
+    OrderStatisticPositions positions = calculatePositions(copy, percentiles, interpolation);
+    ForkJoinPool.commonPool().invoke(new MultiSelectTask(
+        copy, 0, copy.length - 1, positions.ranks, 0, positions.ranks.length, maxDepth(copy.length)));
+    return positions.interpolate(copy);
+  }
+
+  private OrderStatisticPositions calculatePositions(
+      double[] values, List<UnitFraction> percentiles, PercentileInterpolation interpolation) {
+    RBPreconditions.checkArgument(
+        values.length > 0,
+        "You cannot get percentiles for an empty array");
+    RBPreconditions.checkArgument(
+        !percentiles.isEmpty(),
+        "Chances are you don't want NO percentiles (percentiles list is empty)");
+    for (double value : values) {
+      RBPreconditions.checkArgumentWithoutAllocating(
+          !Double.isNaN(value), "Cannot calculate percentiles when there are NaN values");
+    }
+
+    int n = values.length;
+    int numPercentiles = percentiles.size();
+    int[] lowerRanks = new int[numPercentiles];
+    int[] higherRanks = new int[numPercentiles];
+    double[] fractionsOfTheWay = new double[numPercentiles];
+    for (int i = 0; i < numPercentiles; i++) {
+      double fraction = percentiles.get(i).doubleValue();
+      double h = (n - 1) * fraction;
+      int lower;
+      int higher;
+      switch (interpolation) {
+        case FLOOR_OF_FRACTION_TIMES_SIZE:
+          lower = Math.min(n - 1, (int) Math.floor(fraction * n));
+          higher = lower;
+          break;
+        case LOWER:
+          lower = (int) Math.floor(h);
+          higher = lower;
+          break;
+        case HIGHER:
+          lower = (int) Math.ceil(h);
+          higher = lower;
+          break;
+        case NEAREST:
+          lower = (int) Math.floor(h + 0.5);
+          higher = lower;
+          break;
+        case LINEAR:
+          lower = (int) Math.floor(h);
+          higher = Math.min(n - 1, lower + 1);
+          fractionsOfTheWay[i] = h - lower;
+          break;
+        default:
+          throw new IllegalArgumentException(smartFormat("Unsupported interpolation %s", interpolation));
+      }
+      lowerRanks[i] = lower;
+      higherRanks[i] = higher;
+    }
+
+    int[] allRanks = new int[2 * numPercentiles];
+    System.arraycopy(lowerRanks, 0, allRanks, 0, numPercentiles);
+    System.arraycopy(higherRanks, 0, allRanks, numPercentiles, numPercentiles);
+    Arrays.sort(allRanks);
+    int numDistinct = 0;
+    for (int i = 0; i < allRanks.length; i++) {
+      if (i == 0 || allRanks[i] != allRanks[i - 1]) {
+        allRanks[numDistinct++] = allRanks[i];
+      }
+    }
+    return new OrderStatisticPositions(
+        Arrays.copyOf(allRanks, numDistinct), lowerRanks, higherRanks, fractionsOfTheWay);
+  }
+
+  private static class OrderStatisticPositions {
+
+    // Sorted and distinct; these are the positions that must hold their final (sorted-order) values.
+    private final int[] ranks;
+    // These 3 are in the order of the percentiles that were passed in.
+    private final int[] lowerRanks;
+    private final int[] higherRanks;
+    private final double[] fractionsOfTheWay;
+
+    private OrderStatisticPositions(
+        int[] ranks, int[] lowerRanks, int[] higherRanks, double[] fractionsOfTheWay) {
+      this.ranks = ranks;
+      this.lowerRanks = lowerRanks;
+      this.higherRanks = higherRanks;
+      this.fractionsOfTheWay = fractionsOfTheWay;
+    }
+
+    private double[] interpolate(double[] selected) {
+      double[] result = new double[lowerRanks.length];
+      for (int i = 0; i < result.length; i++) {
+        double lower = selected[lowerRanks[i]];
+        result[i] = fractionsOfTheWay[i] == 0
+            ? lower
+            : lower + (selected[higherRanks[i]] - lower) * fractionsOfTheWay[i];
+      }
+      return result;
+    }
+
+  }
+
+  // Beyond this many partitioning steps, we assume we keep picking bad pivots, and just sort.
+  private static int maxDepth(int size) {
+    return 2 * (32 - Integer.numberOfLeadingZeros(size)) + 4;
+  }
+
+  /**
+   * Rearranges a[lo..hi] (inclusive) so that, for every rank in ranks[rFrom..rTo), a[rank] holds the value
+   * it would have if a[lo..hi] were sorted.
+   */
+  private static void multiSelect(double[] a, int lo, int hi, int[] ranks, int rFrom, int rTo, int depthLimit) {
+    int[] bounds = new int[2];
+    while (rFrom < rTo) {
+      if (hi - lo < SORT_THRESHOLD || depthLimit == 0) {
+        Arrays.sort(a, lo, hi + 1);
+        return;
+      }
+      depthLimit--;
+      partition(a, lo, hi, bounds);
+      int lessThanEnd = bounds[0];
+      int greaterThanStart = bounds[1];
+      int leftRanksEnd = firstIndexAtLeast(ranks, rFrom, rTo, lessThanEnd);
+      int rightRanksStart = firstIndexAtLeast(ranks, leftRanksEnd, rTo, greaterThanStart);
+      // Recurse into the smaller side, and loop on the larger one, so the stack stays O(log n).
+      if (lessThanEnd - lo < hi - greaterThanStart) {
+        multiSelect(a, lo, lessThanEnd - 1, ranks, rFrom, leftRanksEnd, depthLimit);
+        lo = greaterThanStart;
+        rFrom = rightRanksStart;
+      } else {
+        multiSelect(a, greaterThanStart, hi, ranks, rightRanksStart, rTo, depthLimit);
+        hi = lessThanEnd - 1;
+        rTo = leftRanksEnd;
+      }
+    }
+  }
+
+  private static class MultiSelectTask extends RecursiveAction {
+
+    private final double[] a;
+    private final int lo;
+    private final int hi;
+    private final int[] ranks;
+    private final int rFrom;
+    private final int rTo;
+    private final int depthLimit;
+
+    private MultiSelectTask(double[] a, int lo, int hi, int[] ranks, int rFrom, int rTo, int depthLimit) {
+      this.a = a;
+      this.lo = lo;
+      this.hi = hi;
+      this.ranks = ranks;
+      this.rFrom = rFrom;
+      this.rTo = rTo;
+      this.depthLimit = depthLimit;
+    }
+
+    @Override
+    protected void compute() {
+      if (rFrom >= rTo) {
+        return;
+      }
+      if (hi - lo < MIN_SIZE_FOR_PARALLEL_TASK || depthLimit == 0) {
+        multiSelect(a, lo, hi, ranks, rFrom, rTo, depthLimit);
+        return;
+      }
+      int[] bounds = new int[2];
+      partition(a, lo, hi, bounds);
+      int leftRanksEnd = firstIndexAtLeast(ranks, rFrom, rTo, bounds[0]);
+      int rightRanksStart = firstIndexAtLeast(ranks, leftRanksEnd, rTo, bounds[1]);
+      invokeAll(
+          new MultiSelectTask(a, lo, bounds[0] - 1, ranks, rFrom, leftRanksEnd, depthLimit - 1),
+          new MultiSelectTask(a, bounds[1], hi, ranks, rightRanksStart, rTo, depthLimit - 1));
+    }
+
+  }
+
+  /**
+   * 3-way partition of a[lo..hi] around a median-of-3 pivot. Afterwards, a[lo, bounds[0]) < pivot,
+   * a[bounds[0], bounds[1]) == pivot, and a[bounds[1], hi] > pivot.
+   * Grouping the values equal to the pivot means that many duplicates (which are common, e.g. lots of zeros)
+   * do not slow this down.
+   */
+  private static void partition(double[] a, int lo, int hi, int[] bounds) {
+    double pivot = medianOf3(a[lo], a[(lo + hi) >>> 1], a[hi]);
+    int lessThanEnd = lo;
+    int i = lo;
+    int greaterThanStart = hi + 1;
+    while (i < greaterThanStart) {
+      double value = a[i];
+      if (value < pivot) {
+        a[i++] = a[lessThanEnd];
+        a[lessThanEnd++] = value;
+      } else if (value > pivot) {
+        greaterThanStart--;
+        a[i] = a[greaterThanStart];
+        a[greaterThanStart] = value;
+      } else {
+        i++;
+      }
+    }
+    bounds[0] = lessThanEnd;
+    bounds[1] = greaterThanStart;
+  }
+
+  private static double medianOf3(double x, double y, double z) {
+    return x < y
+        ? (y < z ? y : Math.max(x, z))
+        : (x < z ? x : Math.max(y, z));
+  }
+
+  // Returns the first index in sorted[from, to) whose value is >= target, or 'to' if there is none.
+  private static int firstIndexAtLeast(int[] sorted, int from, int to, int target) {
+    int low = from;
+    int high = to;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sorted[mid] < target) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+}
@@ -4,9 +4,12 @@ import com.rb.nonbiz.types.RBNumeric;
 import com.rb.nonbiz.util.RBPreconditions;
 
 import java.util.List;
+import java.util.SplittableRandom;
 import java.util.function.DoubleFunction;
+import java.util.stream.IntStream;
 
 import static com.google.common.collect.Lists.newArrayListWithExpectedSize;
+import static com.rb.nonbiz.math.stats.LogNormalDiffusionPaths.logNormalDiffusionPaths;
 
 /**
  * Generates a list of log-normally distributed cumulatively multiplied values for the specified size,
@@ -21,34 +24,125 @@ import static com.google.common.collect.Lists.newArrayListWithExpectedSize;
  * Intuitively, it's like saying that a stock is just as likely to double as it is to halve.
  * You might say "then why not just buy the stock and make instant profits, since on average it will gain?".
  * But that's a long discussion. </p>
+ *
+ * <p> For large simulations, use {@link #generatePaths}, which generates many paths at once (in parallel)
+ * into a single double array, and does not create any T objects unless you ask for them. </p>
  */
 public class LogNormalDiffusionGenerator {
 
+  // Below this many values in total, generating the paths in parallel is not worth the overhead.
+  private static final int MIN_VALUES_FOR_PARALLEL_GENERATION = 1 << 14;
+
   public <T extends RBNumeric<T>> List<T> generate(
       DoubleFunction<T> instantiator,
       T initialValue,
       MutableNormalDistributionGenerator mutableNormalDistributionGenerator,
       int size) {
+    double[] doubles = generateAsDoubles(initialValue.doubleValue(), mutableNormalDistributionGenerator, size);
+
+    List<T> values = newArrayListWithExpectedSize(size);
+    values.add(initialValue);
+    // Starting at i = 1 because i = 0 is covered already by 'initialValue'.
+    for (int i = 1; i < size; i++) {
+      values.add(instantiator.apply(doubles[i]));
+    }
+    return values;
+  }
+
+  /**
+   * Same as {@link #generate}, but without creating any T objects. For the same generator state,
+   * this returns the same numbers as {@link #generate}.
+   */
+  public double[] generateAsDoubles(
+      double initialValue,
+      MutableNormalDistributionGenerator mutableNormalDistributionGenerator,
+      int size) {
     RBPreconditions.checkArgument(
         size > 0,
         "Size must be positive; was %s",
         size);
 
-    List<T> values = newArrayListWithExpectedSize(size);
-    values.add(initialValue);
+    double[] values = new double[size];
+    // Fill in the normal movements first, and then turn them into cumulative log-normal movements in place.
+    mutableNormalDistributionGenerator.fill(values, 1, size);
+    values[0] = initialValue;
 
-    double cumulativeMultiplier = initialValue.doubleValue();
-
-    // Starting at i = 1 because i = 0 is covered already by 'initialValue'.
+    double cumulativeMultiplier = initialValue;
     for (int i = 1; i < size; i++) {
       // Generating a log normal distribution out of a normal distribution.
-      double normalMovement = mutableNormalDistributionGenerator.nextDouble();
-      double logNormalMovement = Math.exp(normalMovement);
-      cumulativeMultiplier *= logNormalMovement;
-      values.add(instantiator.apply(cumulativeMultiplier));
+      cumulativeMultiplier *= Math.exp(values[i]);
+      values[i] = cumulativeMultiplier;
     }
-
     return values;
   }
 
+  /**
+   * Generates paths [firstPathIndex, firstPathIndex + numPaths), each of which starts at 'initialValue' and
+   * then moves by a log-normal multiplier at each step, where the log of each multiplier comes from
+   * 'normalMovementDistribution'.
+   *
+   * <p> Each path uses its own random number generator from 'randomStreams', which only depends on the path
+   * index. Therefore, generating paths 0 to 999 in one call gives the same paths as generating 0 to 499 and
+   * 500 to 999 in two calls, and the result does not depend on how many threads we use. </p>
+   */
+  public LogNormalDiffusionPaths generatePaths(
+      double initialValue,
+      NormalDistribution normalMovementDistribution,
+      ParallelRandomStreams randomStreams,
+      int firstPathIndex,
+      int numPaths,
+      int pathLength) {
+    RBPreconditions.checkArgument(
+        firstPathIndex >= 0 && numPaths > 0 && pathLength > 0,
+        "Need a non-negative first path index (was %s), and a positive number of paths (was %s) and path length (was %s)",
+        firstPathIndex, numPaths, pathLength);
+    long numValues = (long) numPaths * pathLength;
+    RBPreconditions.checkArgument(
+        numValues <= Integer.MAX_VALUE - 8,
+        "%s paths of length %s are too many to fit in one array; generate them in smaller blocks",
+        numPaths, pathLength);
+
+    double[] values = new double[(int) numValues];
+    IntStream pathIndices = IntStream.range(0, numPaths);
+    if (numValues >= MIN_VALUES_FOR_PARALLEL_GENERATION) {
+      pathIndices = pathIndices.parallel();
+    }
+    pathIndices.forEach(p -> fillPath(
+        randomStreams.makeRandomForStream(firstPathIndex + (long) p),
+        normalMovementDistribution,
+        initialValue,
+        values,
+        p * pathLength,
+        pathLength));
+    return logNormalDiffusionPaths(firstPathIndex, numPaths, pathLength, values);
+  }
+
+  public LogNormalDiffusionPaths generatePaths(
+      double initialValue,
+      NormalDistribution normalMovementDistribution,
+      ParallelRandomStreams randomStreams,
+      int numPaths,
+      int pathLength) {
+    return generatePaths(initialValue, normalMovementDistribution, randomStreams, 0, numPaths, pathLength);
+  }
+
+  private void fillPath(
+      SplittableRandom random,
+      NormalDistribution normalMovementDistribution,
+      double initialValue,
+      double[] values,
+      int offset,
+      int pathLength) {
+    int end = offset + pathLength;
+    ZigguratNormalSampler.fill(random, normalMovementDistribution, values, offset + 1, end);
+    values[offset] = initialValue;
+    // Same as multiplying by exp(movement) at every step, but adding logs does not accumulate
+    // rounding error from repeated multiplications.
+    double cumulativeLog = 0;
+    for (int i = offset + 1; i < end; i++) {
+      cumulativeLog += values[i];
+      values[i] = initialValue * Math.exp(cumulativeLog);
+    }
+  }
+
 }
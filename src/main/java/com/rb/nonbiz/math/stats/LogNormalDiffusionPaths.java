@@ -0,0 +1,155 @@
+package com.rb.nonbiz.math.stats;
+
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.types.RBNumeric;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.DoubleFunction;
+
+import static com.rb.nonbiz.text.SmartFormatter.smartFormat;
+
+/**
+ * A block of log-normal diffusion paths (e.g. synthetic price series for a Monte Carlo simulation),
+ * as generated by {@link LogNormalDiffusionGenerator#generatePaths}.
+ *
+ * <p> All paths have the same length, and are stored one after the other in a single double array.
+ * With millions of paths, this uses a fraction of the memory of a {@code List<List<Price>>}; typed values
+ * (e.g. {@link com.rb.biz.types.Price}) only get created when you ask for them with {@link #getPath(int, DoubleFunction)},
+ * and only for the items you actually read. </p>
+ *
+ * <p> 'path index' here is the index within this block; if the block was generated starting at some
+ * path other than 0, then {@link #getFirstPathIndex()} tells you which one. </p>
+ */
+public class LogNormalDiffusionPaths {
+
+  private final int firstPathIndex;
+  private final int numPaths;
+  private final int pathLength;
+  // Row-major: the value at step s of path p is at index p * pathLength + s.
+  private final double[] values;
+
+  private LogNormalDiffusionPaths(int firstPathIndex, int numPaths, int pathLength, double[] values) {
+    this.firstPathIndex = firstPathIndex;
+    this.numPaths = numPaths;
+    this.pathLength = pathLength;
+    this.values = values;
+  }
+
+  /**
+   * This does not copy the array, for performance, so the caller should not modify it afterwards.
+   */
+  public static LogNormalDiffusionPaths logNormalDiffusionPaths(
+      int firstPathIndex, int numPaths, int pathLength, double[] valuesInPathOrder) {
+    RBPreconditions.checkArgument(
+        firstPathIndex >= 0,
+        "First path index must be non-negative; was %s",
+        firstPathIndex);
+    RBPreconditions.checkArgument(
+        numPaths > 0 && pathLength > 0,
+        "Need a positive number of paths (was %s) and a positive path length (was %s)",
+        numPaths, pathLength);
+    RBPreconditions.checkArgument(
+        (long) numPaths * pathLength == valuesInPathOrder.length,
+        "%s paths of length %s need %s values, but there were %s",
+        numPaths, pathLength, (long) numPaths * pathLength, valuesInPathOrder.length);
+    return new LogNormalDiffusionPaths(firstPathIndex, numPaths, pathLength, valuesInPathOrder);
+  }
+
+  public int getFirstPathIndex() {
+    return firstPathIndex;
+  }
+
+  public int getNumPaths() {
+    return numPaths;
+  }
+
+  public int getPathLength() {
+    return pathLength;
+  }
+
+  public double getValue(int pathIndex, int step) {
+    RBPreconditions.checkArgumentWithoutAllocating(
+        pathIndex >= 0 && pathIndex < numPaths,
+        "Path %s is out of bounds for %s paths", pathIndex, numPaths);
+    RBPreconditions.checkArgumentWithoutAllocating(
+        step >= 0 && step < pathLength,
+        "Step %s is out of bounds for paths of length %s", step, pathLength);
+    return values[pathIndex * pathLength + step];
+  }
+
+  public double[] copyPath(int pathIndex) {
+    int offset = getPathOffset(pathIndex);
+    return Arrays.copyOfRange(values, offset, offset + pathLength);
+  }
+
+  /**
+   * Copies the path into 'destination', starting at 'destinationOffset'. Use this instead of {@link #copyPath(int)}
+   * to reuse the same buffer for many paths.
+   */
+  public void copyPathInto(int pathIndex, double[] destination, int destinationOffset) {
+    System.arraycopy(values, getPathOffset(pathIndex), destination, destinationOffset, pathLength);
+  }
+
+  /**
+   * Returns a read-only view of a path, which creates each T when you access it (and every time you access it).
+   * If you will read each item several times, copy the list first, e.g. with {@code new ArrayList<>(...)}.
+   */
+  public <T extends RBNumeric<T>> List<T> getPath(int pathIndex, DoubleFunction<T> instantiator) {
+    int offset = getPathOffset(pathIndex);
+    return new LazyPathView<>(offset, instantiator);
+  }
+
+  /**
+   * Returns the last value of every path, in path order. This is often all that a Monte Carlo simulation needs.
+   */
+  public double[] getFinalValues() {
+    double[] finalValues = new double[numPaths];
+    for (int p = 0; p < numPaths; p++) {
+      finalValues[p] = values[p * pathLength + pathLength - 1];
+    }
+    return finalValues;
+  }
+
+  private int getPathOffset(int pathIndex) {
+    RBPreconditions.checkArgument(
+        0 <= pathIndex && pathIndex < numPaths,
+        "Path index %s is out of bounds; there are %s paths",
+        pathIndex, numPaths);
+    return pathIndex * pathLength;
+  }
+
+  private class LazyPathView<T> extends AbstractList<T> implements RandomAccess {
+
+    private final int offset;
+    private final DoubleFunction<T> instantiator;
+
+    private LazyPathView(int offset, DoubleFunction<T> instantiator) {
+      this.offset = offset;
+      this.instantiator = instantiator;
+    }
+
+    @Override
+    public T get(int step) {
+      if (step < 0 || step >= pathLength) {
+        throw new IndexOutOfBoundsException(smartFormat("Step %s is out of bounds for path length %s", step, pathLength));
+      }
+      return instantiator.apply(values[offset + step]);
+    }
+
+    @Override
+    public int size() {
+      return pathLength;
+    }
+
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[LNDP %s paths starting at %s ; length %s LNDP]", numPaths, firstPathIndex, pathLength);
+  }
+
+}
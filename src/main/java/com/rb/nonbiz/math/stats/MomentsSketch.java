@@ -0,0 +1,200 @@
+package com.rb.nonbiz.math.stats;
+
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+import org.apache.commons.math3.stat.descriptive.StatisticalSummary;
+
+import java.util.stream.DoubleStream;
+
+import static com.rb.nonbiz.math.stats.StatisticalSummaryImpl.StatisticalSummaryImplBuilder.statisticalSummaryImplBuilder;
+
+/**
+ * A fixed-size accumulator of count, mean, variance, min, max, and sum, which - unlike Apache's
+ * {@code SummaryStatistics} - can be merged with another one. It can also be wrapped in an
+ * {@link RBStatisticalSummary}, since it implements Apache's {@link StatisticalSummary}.
+ *
+ * <p> This is useful when we collect statistics in pieces, e.g. one per thread, or one per day in a backtest, and
+ * need the statistics of all the pieces combined; {@link StatisticalSummaryOfStatisticalSummariesCalculator} can't do
+ * that, because a {@link StatisticalSummary} alone does not have enough information to combine the variances. </p>
+ *
+ * <p> Values are added with Welford's algorithm, which is more numerically stable than keeping a sum of squares,
+ * and merging uses Chan et al's pairwise formula. Both are exact (other than rounding), so merging sketches gives
+ * the same statistics as adding all the values to a single sketch. </p>
+ *
+ * <p> Like Apache's {@code SummaryStatistics}, the variance is the sample (bias-corrected) variance, i.e. we divide by
+ * n - 1, and it's 0 for a single value. The mean, min, and max are NaN if there are no values. </p>
+ *
+ * <p> This is mutable and not thread-safe; use one per thread, and merge them at the end. </p>
+ */
+public class MomentsSketch implements StatisticalSummary {
+
+  private long n;
+  private double mean;
+  // Sum of squared differences from the (current) mean
+  private double m2;
+  private double min;
+  private double max;
+  private double sum;
+
+  private MomentsSketch() {
+    this.n = 0;
+    this.mean = 0;
+    this.m2 = 0;
+    this.min = Double.NaN;
+    this.max = Double.NaN;
+    this.sum = 0;
+  }
+
+  public static MomentsSketch emptyMomentsSketch() {
+    return new MomentsSketch();
+  }
+
+  /**
+   * This also works for parallel streams; each thread fills its own sketch, and the sketches get merged at the end.
+   */
+  public static MomentsSketch momentsSketch(DoubleStream values) {
+    return values.collect(
+        () -> emptyMomentsSketch(),
+        (sketch, value) -> sketch.add(value),
+        (sketch1, sketch2) -> sketch1.merge(sketch2));
+  }
+
+  public static MomentsSketch momentsSketch(double ... values) {
+    MomentsSketch sketch = emptyMomentsSketch();
+    for (double value : values) {
+      sketch.add(value);
+    }
+    return sketch;
+  }
+
+  public MomentsSketch add(double value) {
+    RBPreconditions.checkArgumentWithoutAllocating(
+        Double.isFinite(value), "Cannot add a non-finite value %s to a MomentsSketch", value);
+    n++;
+    double delta = value - mean;
+    mean += delta / n;
+    m2 += delta * (value - mean);
+    if (n == 1) {
+      min = value;
+      max = value;
+    } else {
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    sum += value;
+    return this;
+  }
+
+  /**
+   * Adds all the values in the other sketch to this one. The other sketch is not modified.
+   */
+  public MomentsSketch merge(MomentsSketch other) {
+    if (other.n == 0) {
+      return this;
+    }
+    if (n == 0) {
+      copyFrom(other);
+      return this;
+    }
+    long combinedN = n + other.n;
+    double delta = other.mean - mean;
+    // Using doubles for the counts, so that the products don't overflow.
+    double thisWeight = (double) n;
+    double otherWeight = (double) other.n;
+    mean += delta * otherWeight / combinedN;
+    m2 += other.m2 + delta * delta * thisWeight * otherWeight / combinedN;
+    n = combinedN;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+    sum += other.sum;
+    return this;
+  }
+
+  public MomentsSketch copy() {
+    MomentsSketch copy = emptyMomentsSketch();
+    copy.copyFrom(this);
+    return copy;
+  }
+
+  private void copyFrom(MomentsSketch other) {
+    n = other.n;
+    mean = other.mean;
+    m2 = other.m2;
+    min = other.min;
+    max = other.max;
+    sum = other.sum;
+  }
+
+  public boolean isEmpty() {
+    return n == 0;
+  }
+
+  @Override
+  public long getN() {
+    return n;
+  }
+
+  @Override
+  public double getMean() {
+    return n == 0 ? Double.NaN : mean;
+  }
+
+  @Override
+  public double getVariance() {
+    return n == 0 ? Double.NaN
+        : n == 1 ? 0
+        : Math.max(0, m2 / (n - 1)); // guard against tiny negative values from rounding
+  }
+
+  /**
+   * Unlike {@link #getVariance()}, this divides by n, not n - 1.
+   */
+  public double getPopulationVariance() {
+    return n == 0 ? Double.NaN : Math.max(0, m2 / n);
+  }
+
+  @Override
+  public double getStandardDeviation() {
+    return Math.sqrt(getVariance());
+  }
+
+  @Override
+  public double getMin() {
+    return min;
+  }
+
+  @Override
+  public double getMax() {
+    return max;
+  }
+
+  @Override
+  public double getSum() {
+    return sum;
+  }
+
+  /**
+   * Returns an immutable copy of the current statistics. Throws if there are no values, since
+   * {@link StatisticalSummaryImpl} requires at least one.
+   */
+  public StatisticalSummaryImpl toStatisticalSummaryImpl() {
+    RBPreconditions.checkArgument(
+        n >= 1,
+        "Cannot create a StatisticalSummaryImpl from an empty MomentsSketch");
+    return statisticalSummaryImplBuilder()
+        .setN(n)
+        // With values that are very close, rounding could otherwise put the mean a hair outside [min, max].
+        .setMean(Math.min(max, Math.max(min, mean)))
+        .setMin(min)
+        .setMax(max)
+        .setStandardDeviation(getStandardDeviation())
+        .build();
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[MS n= %s ; mean= %s ; min= %s ; max= %s ; stdDev= %s ; sum= %s MS]",
+        n, getMean(), min, max, getStandardDeviation(), sum);
+  }
+
+}
@@ -4,6 +4,7 @@ import cern.jet.random.Normal;
 import cern.jet.random.engine.MersenneTwister;
 import cern.jet.random.engine.RandomEngine;
 import com.rb.nonbiz.types.RandomNumberGeneratorSeed;
+import com.rb.nonbiz.util.RBPreconditions;
 
 import java.util.Optional;
 
@@ -17,6 +18,10 @@ import static com.rb.nonbiz.collections.RBOptionalTransformers.transformOptional
  * Therefore, every time we ask it to generate a new number, its state will change. </p>
  *
  * <p> It's more like a stateful verb class instead of a mutable data class. </p>
+ *
+ * <p> For generating large numbers of values in parallel (e.g. Monte Carlo paths), see
+ * {@link ZigguratNormalSampler} and {@link ParallelRandomStreams}, which are faster, and whose results do not depend
+ * on the order in which threads ask for numbers. </p>
  */
 public class MutableNormalDistributionGenerator {
 
@@ -77,4 +82,28 @@ public class MutableNormalDistributionGenerator {
     return normal.nextDouble();
   }
 
+  /**
+   * Fills positions [fromInclusive, toExclusive) of the array with random numbers. This gives the same numbers
+   * as calling {@link #nextDouble()} repeatedly, but without boxing or a per-number call from the caller's loop.
+   */
+  public void fill(double[] array, int fromInclusive, int toExclusive) {
+    RBPreconditions.checkArgument(
+        0 <= fromInclusive && fromInclusive <= toExclusive && toExclusive <= array.length,
+        "Invalid range [%s, %s) for an array of length %s",
+        fromInclusive, toExclusive, array.length);
+    for (int i = fromInclusive; i < toExclusive; i++) {
+      array[i] = normal.nextDouble();
+    }
+  }
+
+  public double[] nextDoubles(int count) {
+    RBPreconditions.checkArgument(
+        count >= 0,
+        "Count must be non-negative; was %s",
+        count);
+    double[] array = new double[count];
+    fill(array, 0, count);
+    return array;
+  }
+
 }
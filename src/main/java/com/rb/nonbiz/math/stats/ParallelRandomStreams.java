@@ -0,0 +1,63 @@
+package com.rb.nonbiz.math.stats;
+
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.types.RandomNumberGeneratorSeed;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.util.SplittableRandom;
+
+/**
+ * Gives out independent random number generators, one per 'stream index' (e.g. one per Monte Carlo path),
+ * all derived from a single {@link RandomNumberGeneratorSeed}.
+ *
+ * <p> The generator for a stream only depends on the seed and the stream index, not on which thread asks for it
+ * or in what order. So we can generate paths in parallel, or in several smaller batches, and still get exactly
+ * the same numbers as if we had generated all of them one after the other. That is not the case if several threads
+ * share a single (synchronized) generator. </p>
+ *
+ * <p> Each stream index is scrambled with the seed using a 64-bit mixing function, so nearby stream indices and
+ * nearby seeds result in unrelated generators. </p>
+ */
+public class ParallelRandomStreams {
+
+  private final RandomNumberGeneratorSeed seed;
+  private final long scrambledSeed;
+
+  private ParallelRandomStreams(RandomNumberGeneratorSeed seed) {
+    this.seed = seed;
+    this.scrambledSeed = mix64(seed.intValue() + 0x9E3779B97F4A7C15L);
+  }
+
+  public static ParallelRandomStreams parallelRandomStreams(RandomNumberGeneratorSeed seed) {
+    return new ParallelRandomStreams(seed);
+  }
+
+  /**
+   * Returns a new generator, so each caller gets its own, and the returned object can be used without
+   * synchronization (but only by one thread).
+   */
+  public SplittableRandom makeRandomForStream(long streamIndex) {
+    RBPreconditions.checkArgument(
+        streamIndex >= 0,
+        "Stream index must be non-negative; was %s",
+        streamIndex);
+    return new SplittableRandom(mix64(scrambledSeed ^ mix64(streamIndex)));
+  }
+
+  public RandomNumberGeneratorSeed getSeed() {
+    return seed;
+  }
+
+  // Stafford's 'variant 13' of the MurmurHash3 finalizer; this is also what SplittableRandom uses internally.
+  private static long mix64(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[PRS %s PRS]", seed);
+  }
+
+}
@@ -0,0 +1,38 @@
+package com.rb.nonbiz.math.stats;
+
+/**
+ * When a percentile falls between two items (in sorted order), this determines which value we use.
+ *
+ * <p> For n sorted values v[0] ... v[n - 1] and a percentile p (between 0 and 1), all modes other than
+ * {@link #FLOOR_OF_FRACTION_TIMES_SIZE} look at the position h = (n - 1) * p, so that p = 0 gives the min
+ * and p = 1 gives the max. </p>
+ */
+public enum PercentileInterpolation {
+
+  /**
+   * v[floor(n * p)] (or the max, for p = 1). This is what {@link PercentilesCalculator} uses.
+   */
+  FLOOR_OF_FRACTION_TIMES_SIZE,
+
+  /**
+   * v[floor(h)]
+   */
+  LOWER,
+
+  /**
+   * v[ceil(h)]
+   */
+  HIGHER,
+
+  /**
+   * v[round(h)], with ties going to the higher one.
+   */
+  NEAREST,
+
+  /**
+   * Linear interpolation between v[floor(h)] and v[ceil(h)]. This is the most common definition, and the default
+   * in e.g. Excel's PERCENTILE.INC and numpy.
+   */
+  LINEAR
+
+}
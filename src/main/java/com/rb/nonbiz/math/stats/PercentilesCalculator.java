@@ -8,6 +8,9 @@ import java.util.stream.Collectors;
 
 /**
  * For a list of sorted items, calculates percentiles per the list specified (e.g. 5th, 10th, 50th, 90th, 95th).
+ *
+ * <p> If you have doubles (or can extract a double from each item), {@link DoublesPercentilesCalculator} does not
+ * need the items to be sorted, and is faster than sorting them first. </p>
  */
 public class PercentilesCalculator {
 
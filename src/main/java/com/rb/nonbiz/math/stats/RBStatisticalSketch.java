@@ -0,0 +1,128 @@
+package com.rb.nonbiz.math.stats;
+
+import com.rb.nonbiz.types.UnitFraction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleFunction;
+import java.util.function.ToDoubleFunction;
+
+import static com.rb.nonbiz.math.stats.MomentsSketch.emptyMomentsSketch;
+import static com.rb.nonbiz.math.stats.RBStatisticalSummary.rbStatisticalSummary;
+import static com.rb.nonbiz.math.stats.TDigestQuantileSketch.emptyTDigestQuantileSketch;
+
+/**
+ * An {@link RBStatisticalSummary} that you can keep adding values to, and which can be merged with other ones,
+ * using only a fixed amount of memory, regardless of how many values get added. On top of the usual statistics,
+ * it can also give approximate percentiles.
+ *
+ * <p> This is useful for e.g. per-day, per-account metrics across large backtests: each thread (or day) can fill
+ * its own sketch, and then we merge them into one. It's a combination of a {@link MomentsSketch} (for the count,
+ * mean, variance, min, max, and sum, all exact) and a {@link TDigestQuantileSketch} (for the percentiles,
+ * which are approximate). </p>
+ *
+ * <p> Since this is mutable, the {@link RBStatisticalSummary} getters always reflect the values added so far.
+ * Use {@link #toRBStatisticalSummary()} to get an immutable snapshot. </p>
+ *
+ * <p> This is not thread-safe; use one per thread, and merge them at the end. </p>
+ */
+public class RBStatisticalSketch<T extends Comparable<? super T>> extends RBStatisticalSummary<T> {
+
+  private final MomentsSketch momentsSketch;
+  private final TDigestQuantileSketch quantileSketch;
+  private final ToDoubleFunction<T> toDouble;
+  private final DoubleFunction<T> instantiator;
+
+  private RBStatisticalSketch(
+      MomentsSketch momentsSketch,
+      TDigestQuantileSketch quantileSketch,
+      ToDoubleFunction<T> toDouble,
+      DoubleFunction<T> instantiator) {
+    super(momentsSketch, instantiator);
+    this.momentsSketch = momentsSketch;
+    this.quantileSketch = quantileSketch;
+    this.toDouble = toDouble;
+    this.instantiator = instantiator;
+  }
+
+  /**
+   * 'toDouble' and 'instantiator' should be inverses of each other, e.g. {@code v -> v.doubleValue()}
+   * and {@code v -> money(v)}.
+   */
+  public static <T extends Comparable<? super T>> RBStatisticalSketch<T> emptyRBStatisticalSketch(
+      ToDoubleFunction<T> toDouble, DoubleFunction<T> instantiator, double compression) {
+    return new RBStatisticalSketch<>(
+        emptyMomentsSketch(), emptyTDigestQuantileSketch(compression), toDouble, instantiator);
+  }
+
+  public static <T extends Comparable<? super T>> RBStatisticalSketch<T> emptyRBStatisticalSketch(
+      ToDoubleFunction<T> toDouble, DoubleFunction<T> instantiator) {
+    return emptyRBStatisticalSketch(toDouble, instantiator, TDigestQuantileSketch.DEFAULT_COMPRESSION);
+  }
+
+  public static RBStatisticalSketch<Double> emptyDoubleStatisticalSketch() {
+    return emptyRBStatisticalSketch(v -> v, v -> v);
+  }
+
+  public RBStatisticalSketch<T> add(T value) {
+    return addDouble(toDouble.applyAsDouble(value));
+  }
+
+  /**
+   * Avoids creating a T when you already have the double value.
+   */
+  public RBStatisticalSketch<T> addDouble(double value) {
+    momentsSketch.add(value);
+    quantileSketch.add(value);
+    return this;
+  }
+
+  /**
+   * Adds all the values in the other sketch to this one. The other sketch is not modified.
+   */
+  public RBStatisticalSketch<T> merge(RBStatisticalSketch<T> other) {
+    momentsSketch.merge(other.momentsSketch);
+    quantileSketch.merge(other.quantileSketch);
+    return this;
+  }
+
+  public boolean isEmpty() {
+    return momentsSketch.isEmpty();
+  }
+
+  public MomentsSketch getMomentsSketch() {
+    return momentsSketch;
+  }
+
+  public TDigestQuantileSketch getQuantileSketch() {
+    return quantileSketch;
+  }
+
+  public T getApproximatePercentile(UnitFraction percentile) {
+    return instantiator.apply(quantileSketch.getQuantile(percentile));
+  }
+
+  /**
+   * Like {@link PercentilesCalculator#getApproximatePercentiles}, but without needing all the values
+   * (sorted) in memory. Returns the values in the same order as the percentiles passed in.
+   */
+  public List<T> getApproximatePercentiles(List<UnitFraction> percentiles) {
+    List<T> result = new ArrayList<>(percentiles.size());
+    for (UnitFraction percentile : percentiles) {
+      result.add(getApproximatePercentile(percentile));
+    }
+    return result;
+  }
+
+  public StatisticalSummaryImpl toStatisticalSummaryImpl() {
+    return momentsSketch.toStatisticalSummaryImpl();
+  }
+
+  /**
+   * Returns an immutable snapshot of the statistics so far (other than the percentiles).
+   */
+  public RBStatisticalSummary<T> toRBStatisticalSummary() {
+    return rbStatisticalSummary(toStatisticalSummaryImpl(), instantiator);
+  }
+
+}
@@ -9,8 +9,14 @@ import com.rb.nonbiz.util.RBPreconditions;
 import java.math.BigDecimal;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.DoubleStream;
 
 import static com.rb.nonbiz.collections.RBStreams.sumNonNegativePreciseValuesToDouble;
+import static com.rb.nonbiz.math.CompensatedSum.compensatedSum;
+import static com.rb.nonbiz.math.CompensatedSum.compensatedSumOfProducts;
+import static com.rb.nonbiz.math.CompensatedSum.compensatedSumOfSquaredDeviations;
+import static com.rb.nonbiz.math.CompensatedSum.compensatedSumOfWeightedSquaredDeviations;
+import static com.rb.nonbiz.math.stats.MomentsSketch.momentsSketch;
 import static java.math.MathContext.DECIMAL128;
 
 /**
@@ -23,6 +29,11 @@ import static java.math.MathContext.DECIMAL128;
  *
  * <p> Another example: if we have several {@link PositiveMultiplier}s with the exact same value, the standard
  * deviation would be 0, but it is not possible to express 0 using a {@link PositiveMultiplier}. </p>
+ *
+ * <p> The methods that take {@link PreciseValue}s use {@link BigDecimal} arithmetic. The ones that take
+ * double arrays or streams are much faster for large inputs, and use compensated summation
+ * (see {@link com.rb.nonbiz.math.CompensatedSum}) so that they stay accurate to roughly double precision.
+ * Large arrays are processed in parallel. </p>
  */
 public class StdDevCalculator {
 
@@ -93,4 +104,55 @@ public class StdDevCalculator {
     return variance.doubleValue() < 0 ? 0 : Math.sqrt(variance.doubleValue());
   }
 
+  /**
+   * Same as the {@link PreciseValue} version, but using doubles.
+   */
+  public double calculateWeightedStandardDeviationForPopulation(double[] values, double[] weights) {
+    RBPreconditions.checkArgument(
+        values.length == weights.length,
+        "There were %s values but %s weights",
+        values.length, weights.length);
+    RBPreconditions.checkArgument(
+        values.length > 1,
+        "There were %s values but need at least 2",
+        values.length);
+    double sumOfWeights = compensatedSum(weights);
+    RBPreconditions.checkArgument(
+        sumOfWeights > 0,
+        "It's OK for some individual weights to be 0, but sum of weights must be >0 and was %s",
+        sumOfWeights);
+
+    // first pass; get the weighted average
+    double average = compensatedSumOfProducts(values, weights) / sumOfWeights;
+
+    // second pass; sum squares of deviation from the average
+    double variance = compensatedSumOfWeightedSquaredDeviations(values, weights, average) / sumOfWeights;
+    return variance < 0 ? 0.0 : Math.sqrt(variance);
+  }
+
+  /**
+   * Two-pass algorithm, using doubles.
+   */
+  public double calculateStandardDeviationForPopulation(double[] values) {
+    RBPreconditions.checkArgument(
+        values.length > 0,
+        "Cannot calculate the standard deviation of 0 values");
+    double average = compensatedSum(values) / values.length;
+    double variance = compensatedSumOfSquaredDeviations(values, average) / values.length;
+    return variance < 0 ? 0.0 : Math.sqrt(variance);
+  }
+
+  /**
+   * One-pass (Welford) algorithm, using doubles. This can be used with parallel streams; each thread accumulates
+   * its own statistics, which get combined at the end. Unlike the double[] overload, this does not need to keep
+   * all the values in memory.
+   */
+  public double calculateStandardDeviationForPopulationWithOnePass(DoubleStream values) {
+    MomentsSketch sketch = momentsSketch(values);
+    RBPreconditions.checkArgument(
+        !sketch.isEmpty(),
+        "Cannot calculate the standard deviation of 0 values");
+    return Math.sqrt(sketch.getPopulationVariance());
+  }
+
 }
@@ -0,0 +1,345 @@
+package com.rb.nonbiz.math.stats;
+
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.types.UnitFraction;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.DoubleStream;
+
+
+/**
+ * A fixed-memory, mergeable sketch of a distribution of doubles, which can return approximate quantiles
+ * (percentiles) without having to keep and sort all the values, unlike {@link PercentilesCalculator}.
+ *
+ * <p> This is a 'merging t-digest' (Dunning and Ertl). The values are summarized by a sorted list of centroids
+ * (a mean and a weight = number of values), where centroids near the two tails are kept small,
+ * and centroids near the median can get large. This means that extreme quantiles (e.g. 1st or 99th percentile)
+ * are much more accurate than what the number of centroids alone would suggest. The number of centroids is
+ * roughly proportional to the 'compression' parameter, regardless of how many values get added. </p>
+ *
+ * <p> New values (and centroids from merged sketches) go into a buffer first, which gets sorted and merged into the
+ * centroids when it fills up, or when we need a quantile. So reading a quantile may change the internal
+ * representation, but not the values it summarizes. </p>
+ *
+ * <p> This is mutable and not thread-safe; use one per thread, and merge them at the end. </p>
+ */
+public class TDigestQuantileSketch {
+
+  /**
+   * A good default. The quantile error is typically well under 1% of the data range in the middle of the distribution,
+   * and much smaller at the tails.
+   */
+  public static final double DEFAULT_COMPRESSION = 100;
+
+  private final double compression;
+
+  // Sorted by mean
+  private double[] centroidMeans;
+  private double[] centroidWeights;
+  private int numCentroids;
+
+  // Not sorted
+  private final double[] bufferMeans;
+  private final double[] bufferWeights;
+  private int bufferSize;
+
+  private double totalWeight;
+  private double min;
+  private double max;
+
+  private TDigestQuantileSketch(double compression) {
+    this.compression = compression;
+    this.centroidMeans = new double[0];
+    this.centroidWeights = new double[0];
+    this.numCentroids = 0;
+    int bufferCapacity = (int) Math.ceil(5 * compression);
+    this.bufferMeans = new double[bufferCapacity];
+    this.bufferWeights = new double[bufferCapacity];
+    this.bufferSize = 0;
+    this.totalWeight = 0;
+    this.min = Double.NaN;
+    this.max = Double.NaN;
+  }
+
+  public static TDigestQuantileSketch emptyTDigestQuantileSketch(double compression) {
+    RBPreconditions.checkArgument(
+        10 <= compression && compression <= 10_000,
+        "Compression should be between 10 and 10,000; got %s",
+        compression);
+    return new TDigestQuantileSketch(compression);
+  }
+
+  public static TDigestQuantileSketch emptyTDigestQuantileSketch() {
+    return emptyTDigestQuantileSketch(DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * This also works for parallel streams; each thread fills its own sketch, and the sketches get merged at the end.
+   */
+  public static TDigestQuantileSketch tDigestQuantileSketch(DoubleStream values) {
+    return values.collect(
+        () -> emptyTDigestQuantileSketch(),
+        (sketch, value) -> sketch.add(value),
+        (sketch1, sketch2) -> sketch1.merge(sketch2));
+  }
+
+  public TDigestQuantileSketch add(double value) {
+    RBPreconditions.checkArgumentWithoutAllocating(
+        Double.isFinite(value),
+        "Cannot add a non-finite value %s to a TDigestQuantileSketch", value);
+    addWeighted(value, 1);
+    return this;
+  }
+
+  /**
+   * Adds all the values summarized by the other sketch to this one. The other sketch is not modified.
+   * The two sketches do not need to have the same compression.
+   */
+  public TDigestQuantileSketch merge(TDigestQuantileSketch other) {
+    if (other == this) {
+      return merge(other.copy());
+    }
+    for (int i = 0; i < other.numCentroids; i++) {
+      addWeighted(other.centroidMeans[i], other.centroidWeights[i]);
+    }
+    for (int i = 0; i < other.bufferSize; i++) {
+      addWeighted(other.bufferMeans[i], other.bufferWeights[i]);
+    }
+    // The centroids' means are never below the min of the values they summarize, or above the max;
+    // but the other sketch's actual min/max may be beyond its centroid means.
+    if (!other.isEmpty()) {
+      min = Math.min(min, other.min);
+      max = Math.max(max, other.max);
+    }
+    return this;
+  }
+
+  public TDigestQuantileSketch copy() {
+    TDigestQuantileSketch copy = new TDigestQuantileSketch(compression);
+    copy.centroidMeans = centroidMeans.clone();
+    copy.centroidWeights = centroidWeights.clone();
+    copy.numCentroids = numCentroids;
+    System.arraycopy(bufferMeans, 0, copy.bufferMeans, 0, bufferSize);
+    System.arraycopy(bufferWeights, 0, copy.bufferWeights, 0, bufferSize);
+    copy.bufferSize = bufferSize;
+    copy.totalWeight = totalWeight;
+    copy.min = min;
+    copy.max = max;
+    return copy;
+  }
+
+  private void addWeighted(double value, double weight) {
+    if (bufferSize == bufferMeans.length) {
+      compress();
+    }
+    bufferMeans[bufferSize] = value;
+    bufferWeights[bufferSize] = weight;
+    bufferSize++;
+    if (totalWeight == 0) {
+      min = value;
+      max = value;
+    } else {
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    totalWeight += weight;
+  }
+
+  /**
+   * Merges the buffer into the centroids, and merges adjacent centroids as long as they stay within the size
+   * limit that the scale function allows at their position in the distribution.
+   */
+  private void compress() {
+    if (bufferSize == 0) {
+      return;
+    }
+    sortByMean(bufferMeans, bufferWeights, 0, bufferSize - 1);
+
+    int numItems = numCentroids + bufferSize;
+    double[] newMeans = new double[numItems];
+    double[] newWeights = new double[numItems];
+    int numNew = 0;
+    double weightBeforeCurrent = 0;
+
+    // Walk the (sorted) centroids and the (now sorted) buffer together, like in a merge sort.
+    int i = 0;
+    int j = 0;
+    while (i < numCentroids || j < bufferSize) {
+      boolean takeCentroid = j >= bufferSize || (i < numCentroids && centroidMeans[i] <= bufferMeans[j]);
+      double itemMean = takeCentroid ? centroidMeans[i] : bufferMeans[j];
+      double itemWeight = takeCentroid ? centroidWeights[i++] : bufferWeights[j++];
+
+      if (numNew == 0) {
+        newMeans[0] = itemMean;
+        newWeights[0] = itemWeight;
+        numNew = 1;
+        continue;
+      }
+      int current = numNew - 1;
+      double proposedWeight = newWeights[current] + itemWeight;
+      double qLeft = weightBeforeCurrent / totalWeight;
+      double qRight = (weightBeforeCurrent + proposedWeight) / totalWeight;
+      if (scale(qRight) - scale(qLeft) <= 1) {
+        newWeights[current] = proposedWeight;
+        newMeans[current] += (itemMean - newMeans[current]) * itemWeight / proposedWeight;
+      } else {
+        weightBeforeCurrent += newWeights[current];
+        newMeans[numNew] = itemMean;
+        newWeights[numNew] = itemWeight;
+        numNew++;
+      }
+    }
+
+    // Trim, so that we use memory proportional to the number of centroids, not to the size of the last buffer.
+    centroidMeans = new double[numNew];
+    centroidWeights = new double[numNew];
+    System.arraycopy(newMeans, 0, centroidMeans, 0, numNew);
+    System.arraycopy(newWeights, 0, centroidWeights, 0, numNew);
+    numCentroids = numNew;
+    bufferSize = 0;
+  }
+
+  // The 'k1' scale function. Centroids can span at most 1 unit of this, which is small near q = 0 and q = 1.
+  private double scale(double q) {
+    return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, Math.max(0, q)) - 1);
+  }
+
+  /**
+   * Returns the approximate value below which a fraction 'quantile' of the values fall.
+   * Quantile 0 gives the exact min, and 1 gives the exact max.
+   */
+  public double getQuantile(double quantile) {
+    RBPreconditions.checkArgument(
+        0 <= quantile && quantile <= 1,
+        "Quantile must be between 0 and 1, but was %s",
+        quantile);
+    RBPreconditions.checkArgument(
+        !isEmpty(),
+        "Cannot get a quantile from an empty TDigestQuantileSketch");
+    compress();
+    if (quantile == 0) {
+      return min;
+    }
+    if (quantile == 1) {
+      return max;
+    }
+    double target = quantile * totalWeight;
+
+    // We treat each centroid's weight as centered at its mean, and interpolate linearly between those centers;
+    // below the first center, we interpolate from the min, and above the last one, towards the max.
+    double firstCenter = centroidWeights[0] / 2;
+    if (target <= firstCenter) {
+      return interpolate(0, min, firstCenter, centroidMeans[0], target);
+    }
+    double weightSoFar = 0;
+    for (int i = 0; i < numCentroids - 1; i++) {
+      double center = weightSoFar + centroidWeights[i] / 2;
+      double nextCenter = weightSoFar + centroidWeights[i] + centroidWeights[i + 1] / 2;
+      if (target <= nextCenter) {
+        return interpolate(center, centroidMeans[i], nextCenter, centroidMeans[i + 1], target);
+      }
+      weightSoFar += centroidWeights[i];
+    }
+    double lastCenter = totalWeight - centroidWeights[numCentroids - 1] / 2;
+    return interpolate(lastCenter, centroidMeans[numCentroids - 1], totalWeight, max, target);
+  }
+
+  public double getQuantile(UnitFraction quantile) {
+    return getQuantile(quantile.doubleValue());
+  }
+
+  /**
+   * Like {@link PercentilesCalculator#getApproximatePercentiles}, but without needing all the values
+   * (sorted) in memory. Returns the values in the same order as the percentiles passed in.
+   */
+  public List<Double> getApproximatePercentiles(List<UnitFraction> percentiles) {
+    List<Double> result = new ArrayList<>(percentiles.size());
+    for (UnitFraction percentile : percentiles) {
+      result.add(getQuantile(percentile));
+    }
+    return result;
+  }
+
+  private static double interpolate(double x0, double y0, double x1, double y1, double x) {
+    return x1 <= x0
+        ? y0
+        : y0 + (y1 - y0) * (x - x0) / (x1 - x0);
+  }
+
+  public boolean isEmpty() {
+    return totalWeight == 0;
+  }
+
+  /**
+   * The number of values added (including the ones in merged sketches).
+   */
+  public long getN() {
+    return Math.round(totalWeight);
+  }
+
+  public double getMin() {
+    return min;
+  }
+
+  public double getMax() {
+    return max;
+  }
+
+  public double getCompression() {
+    return compression;
+  }
+
+  /**
+   * This is mostly useful for tests; it's an implementation detail.
+   */
+  public int getNumCentroids() {
+    compress();
+    return numCentroids;
+  }
+
+  // A simple in-place quicksort that keeps the weights together with the means.
+  private static void sortByMean(double[] means, double[] weights, int from, int to) {
+    while (from < to) {
+      double pivot = means[(from + to) >>> 1];
+      int i = from;
+      int j = to;
+      while (i <= j) {
+        while (means[i] < pivot) {
+          i++;
+        }
+        while (means[j] > pivot) {
+          j--;
+        }
+        if (i <= j) {
+          swap(means, i, j);
+          swap(weights, i, j);
+          i++;
+          j--;
+        }
+      }
+      // Recurse into the smaller part, and loop on the larger one, so the stack stays O(log n).
+      if (j - from < to - i) {
+        sortByMean(means, weights, from, j);
+        from = i;
+      } else {
+        sortByMean(means, weights, i, to);
+        to = j;
+      }
+    }
+  }
+
+  private static void swap(double[] array, int i, int j) {
+    double temp = array[i];
+    array[i] = array[j];
+    array[j] = temp;
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[TDQS n= %s ; min= %s ; max= %s ; compression= %s ; %s centroids + %s buffered TDQS]",
+        getN(), min, max, compression, numCentroids, bufferSize);
+  }
+
+}
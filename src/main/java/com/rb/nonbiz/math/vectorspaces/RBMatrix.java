@@ -4,6 +4,7 @@ import cern.colt.matrix.DoubleFactory1D;
 import cern.colt.matrix.DoubleFactory2D;
 import cern.colt.matrix.DoubleMatrix2D;
 import cern.colt.matrix.doublealgo.Statistic;
+import cern.colt.matrix.impl.DenseDoubleMatrix2D;
 import cern.colt.matrix.linalg.Algebra;
 import cern.colt.matrix.linalg.EigenvalueDecomposition;
 import cern.colt.matrix.linalg.SingularValueDecomposition;
@@ -172,6 +173,35 @@ public class RBMatrix {
     return rbMatrix(DoubleFactory2D.dense.make(values));
   }
 
+  /**
+   * Creates an {@link RBMatrix} that uses the passed-in flat, row-major array as its storage, without copying it.
+   * That is, item (row, column) is at position row * numColumns + column.
+   *
+   * <p> This is for cases where we already have the data in this layout (e.g. inside an
+   * {@link com.rb.nonbiz.collections.ImmutableDoubleIndexableArray2D}) and the matrix is large enough that
+   * the copy in {@link #rbMatrix(double[][])} would matter. The caller must not modify the array afterwards,
+   * because {@link RBMatrix} is supposed to be immutable. </p>
+   */
+  public static RBMatrix rbMatrixSharingRowMajorArray(int numRows, int numColumns, double[] rowMajorValues) {
+    RBPreconditions.checkArgument(
+        numRows >= 0 && numColumns >= 0 && (long) numRows * numColumns == rowMajorValues.length,
+        "A %s x %s matrix cannot be backed by an array of length %s",
+        numRows, numColumns, rowMajorValues.length);
+    return rbMatrix(new RowMajorDenseDoubleMatrix2D(numRows, numColumns, rowMajorValues));
+  }
+
+  /**
+   * Colt's {@link DenseDoubleMatrix2D} already stores its values in a flat row-major array, but the constructor
+   * that lets us pass in such an array (instead of having Colt copy a double[][]) is protected.
+   */
+  private static class RowMajorDenseDoubleMatrix2D extends DenseDoubleMatrix2D {
+
+    private RowMajorDenseDoubleMatrix2D(int numRows, int numColumns, double[] rowMajorValues) {
+      super(numRows, numColumns, rowMajorValues, 0, 0, numColumns, 1);
+    }
+
+  }
+
   private static RBMatrix rbMatrix(DoubleMatrix2D rawMatrix) {
     RBPreconditions.checkArgument(
         rawMatrix.size() > 0,
@@ -242,6 +272,17 @@ public class RBMatrix {
     return rawMatrix.get(matrixRowIndex.intValue(), matrixColumnIndex.intValue());
   }
 
+  /**
+   * Like {@link #get(MatrixRowIndex, MatrixColumnIndex)}, but without any bounds checks or index wrapper objects.
+   * This is only for tight numerical loops (e.g. a matrix-vector product) where the caller already
+   * knows that the indices are valid; otherwise the result is undefined.
+   *
+   * <p> This breaks the abstraction of the Colt library a bit, but since Colt offers this, let's expose it. </p>
+   */
+  public double getQuick(int row, int column) {
+    return rawMatrix.getQuick(row, column);
+  }
+
   /**
    * Apply an arbitrary transform for every element based on its position in the matrix (row and column),
    * and return a copy of this matrix.
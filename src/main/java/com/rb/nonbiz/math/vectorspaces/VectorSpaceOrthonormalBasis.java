@@ -5,6 +5,7 @@ import com.rb.nonbiz.util.RBPreconditions;
 
 import static com.rb.nonbiz.math.vectorspaces.MatrixColumnIndex.matrixColumnIndex;
 import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
+import static com.rb.nonbiz.util.TieredPreconditions.checkTiered;
 
 /**
  * An orthonormal basis for a vector space of size n, i.e. a set of n unit vectors that are mutually orthogonal.
@@ -36,17 +37,20 @@ public class VectorSpaceOrthonormalBasis {
             "Not all basis vectors in VectorSpaceOrthonormalBasis were unit vectors: %s",
             vectorSpaceBasis));
 
-    for (int i = 0; i < vectorSpaceBasis.getNumDimensions(); i++) {
-      for (int j = i + 1; j < vectorSpaceBasis.getNumDimensions(); j++) {
-        RBVector vector1 = vectorSpaceBasis.getBasisVector(matrixColumnIndex(i));
-        RBVector vector2 = vectorSpaceBasis.getBasisVector(matrixColumnIndex(j));
-        double dotProduct = vector1.dotProduct(vector2);
-        RBPreconditions.checkArgument(
-            Math.abs(dotProduct) < 1e-8,
-            "Vector space basis was not orthonormal: vectors # %s and # %s have a dot product of (almost) zero= %s : %s %s",
-            i, j, dotProduct, vector1, vector2);
+    // This is O(n^2) dot products, so it can be sampled; see TieredPreconditions.
+    checkTiered(VectorSpaceOrthonormalBasis.class, () -> {
+      for (int i = 0; i < vectorSpaceBasis.getNumDimensions(); i++) {
+        for (int j = i + 1; j < vectorSpaceBasis.getNumDimensions(); j++) {
+          RBVector vector1 = vectorSpaceBasis.getBasisVector(matrixColumnIndex(i));
+          RBVector vector2 = vectorSpaceBasis.getBasisVector(matrixColumnIndex(j));
+          double dotProduct = vector1.dotProduct(vector2);
+          RBPreconditions.checkArgument(
+              Math.abs(dotProduct) < 1e-8,
+              "Vector space basis was not orthonormal: vectors # %s and # %s have a dot product of (almost) zero= %s : %s %s",
+              i, j, dotProduct, vector1, vector2);
+        }
       }
-    }
+    });
     return new VectorSpaceOrthonormalBasis(vectorSpaceBasis);
   }
 
@@ -5,6 +5,7 @@ import com.rb.nonbiz.collections.RBSet;
 import java.util.Arrays;
 
 import static com.rb.nonbiz.collections.RBSet.newRBSet;
+import static com.rb.nonbiz.collections.RBSet.newRBSetFromPossibleDuplicates;
 
 /**
  * Returns a set of classes that implement one or more of the specified interfaces.
@@ -20,4 +21,18 @@ public class AllClassesThatImplementInterfacesRetriever {
             .anyMatch(implemented -> retrieveImplementersOfTheseInterfaces.contains(implemented))));
   }
 
+  /**
+   * Same result as the other overload (if the index covers the same classes), but it only loads the classes
+   * that implement the interfaces, instead of requiring all classes to be loaded first.
+   */
+  public RBSet<Class<?>> retrieve(
+      RbClassMetadataIndex rbClassMetadataIndex,
+      RBSet<Class<?>> retrieveImplementersOfTheseInterfaces) {
+    // A class may implement more than one of the interfaces.
+    return newRBSetFromPossibleDuplicates(retrieveImplementersOfTheseInterfaces
+        .stream()
+        .flatMap(implemented -> rbClassMetadataIndex.getDirectImplementerNames(implemented.getName()).stream())
+        .map(className -> rbClassMetadataIndex.loadClass(className)));
+  }
+
 }
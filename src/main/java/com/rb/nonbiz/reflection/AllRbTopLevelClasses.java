@@ -7,9 +7,8 @@ import com.rb.nonbiz.util.RBPreconditions;
  * A typesafe wrapper representing all top-level (non-inner classes) in the com.rb package in the rb module,
  * including test ones when this is run from test.
  *
- * <p> Ideally we'd use something smarter, where we do some pre-indexing. There are libraries that do this. However,
- * I used a Google library that does this stuff in a simple fashion. If this code ever becomes time-critical,
- * we can upgrade this. </p>
+ * <p> This requires loading every class. If you only need a few of them, see {@link RbClassMetadataIndex},
+ * which stores class / interface / field type names, and only loads the classes you ask for. </p>
  */
 public class AllRbTopLevelClasses {
 
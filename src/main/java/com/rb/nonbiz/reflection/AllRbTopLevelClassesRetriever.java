@@ -1,8 +1,7 @@
 package com.rb.nonbiz.reflection;
 
-import com.google.common.reflect.ClassPath;
-
-import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static com.rb.nonbiz.collections.RBSet.newRBSet;
 import static com.rb.nonbiz.reflection.AllRbTopLevelClasses.allRbTopLevelClasses;
@@ -10,21 +9,33 @@ import static com.rb.nonbiz.reflection.AllRbTopLevelClasses.allRbTopLevelClasses
 /**
  * Retrieves all top-level (non-inner classes) in the com.rb package in the rb module, including test ones.
  *
+ * <p> This has to load every class, which is slow. If you only need some of the classes (e.g. the ones that
+ * implement some interface), use the {@link RbClassMetadataIndex} directly, which will only load the classes
+ * you ask for. </p>
+ *
  * @see AllRbTopLevelClasses
  */
 public class AllRbTopLevelClassesRetriever {
 
-  @SuppressWarnings("UnstableApiUsage")
+  public static final String RB_PACKAGE_PREFIX = "com.rb";
+
+  private final RbClassMetadataIndexRetriever rbClassMetadataIndexRetriever = new RbClassMetadataIndexRetriever();
+
+  /**
+   * The classpath gets scanned only the first time this is called in the JVM; after that, this reuses the same
+   * {@link RbClassMetadataIndex}, whose classes are already loaded.
+   */
   public AllRbTopLevelClasses retrieve() {
-    try {
-      ClassPath classPath = ClassPath.from(Thread.currentThread().getContextClassLoader());
-      return allRbTopLevelClasses(newRBSet(classPath.getTopLevelClassesRecursive("com.rb")
-          .stream()
-          .map(classInfo -> classInfo.load())));
-    } catch (IOException e) {
-      e.printStackTrace();
-      throw new RuntimeException(e);
-    }
+    return retrieve(rbClassMetadataIndexRetriever.retrieve(RB_PACKAGE_PREFIX));
+  }
+
+  public AllRbTopLevelClasses retrieve(RbClassMetadataIndex rbClassMetadataIndex) {
+    // Loading classes is thread-safe, and slow enough that it's worth doing in parallel.
+    List<Class<?>> classes = rbClassMetadataIndex.getSortedClassNames()
+        .parallelStream()
+        .<Class<?>>map(className -> rbClassMetadataIndex.loadClass(className))
+        .collect(Collectors.toList());
+    return allRbTopLevelClasses(newRBSet(classes));
   }
 
 }
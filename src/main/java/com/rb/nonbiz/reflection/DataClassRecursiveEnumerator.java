@@ -3,6 +3,7 @@ package com.rb.nonbiz.reflection;
 import com.rb.nonbiz.collections.MutableRBSet;
 import com.rb.nonbiz.collections.RBSet;
 
+import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -18,9 +19,25 @@ import static com.rb.nonbiz.reflection.UniqueClassesWithDepth.uniqueClassesWithD
  *
  * <p> Note that there is no hard distinction between data classes and verb classes; it is just a
  * strong convention. </p>
+ *
+ * <p> We often enumerate the same classes many times (e.g. when generating documentation for many JSON API classes
+ * that share fields), so the field types of each class are only looked up (reflectively) once, and then cached. </p>
  */
 public class DataClassRecursiveEnumerator {
 
+  // A ClassValue is thread-safe, and does not keep the classes from getting unloaded.
+  private static final ClassValue<Class<?>[]> DECLARED_FIELD_TYPES = new ClassValue<Class<?>[]>() {
+    @Override
+    protected Class<?>[] computeValue(Class<?> clazz) {
+      Field[] fields = clazz.getDeclaredFields();
+      Class<?>[] fieldTypes = new Class<?>[fields.length];
+      for (int i = 0; i < fields.length; i++) {
+        fieldTypes[i] = fields[i].getType();
+      }
+      return fieldTypes;
+    }
+  };
+
   public UniqueClassesWithDepth enumerateRecursively(Class<?> rootClass, RBSet<Class<?>> ignoreThese) {
     MutableRBSet<Class<?>> encountered = newMutableRBSetWithExpectedSize(100); // best guess
     // Technically, the set of classes to include is not the same as 'encountered' in the search,
@@ -58,9 +75,9 @@ public class DataClassRecursiveEnumerator {
         : uniqueClassesWithDepth(
         Stream.concat(
             Stream.of(classWithDepth(rootClass, depth)),
-            Arrays.stream(rootClass.getDeclaredFields())
-                .flatMap(field ->
-                    enumerateHelper(field.getType(), depth + 1, recursively, encountered).getRawList().stream()))
+            Arrays.stream(DECLARED_FIELD_TYPES.get(rootClass))
+                .flatMap(fieldType ->
+                    enumerateHelper(fieldType, depth + 1, recursively, encountered).getRawList().stream()))
             .collect(Collectors.toList()));
   }
 
@@ -0,0 +1,98 @@
+package com.rb.nonbiz.reflection;
+
+import com.google.common.collect.ImmutableList;
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * The reflection information about a single class that {@link RbClassMetadataIndex} keeps,
+ * stored as class / type names, so that it can be saved to a file and read back without loading the class.
+ *
+ * <p> The field lists have one item per declared field (in declaration order), just like
+ * {@link Class#getDeclaredFields()}. For a field {@code RBMap<String, Double> foo}, the field type name is
+ * {@code com.rb.nonbiz.collections.RBMap}, and the generic field type name is
+ * {@code com.rb.nonbiz.collections.RBMap<java.lang.String, java.lang.Double>}. </p>
+ */
+public class RbClassMetadata {
+
+  private final String className;
+  private final List<String> interfaceNames;
+  private final List<String> fieldTypeNames;
+  private final List<String> genericFieldTypeNames;
+
+  private RbClassMetadata(
+      String className,
+      List<String> interfaceNames,
+      List<String> fieldTypeNames,
+      List<String> genericFieldTypeNames) {
+    this.className = className;
+    this.interfaceNames = interfaceNames;
+    this.fieldTypeNames = fieldTypeNames;
+    this.genericFieldTypeNames = genericFieldTypeNames;
+  }
+
+  public static RbClassMetadata rbClassMetadata(
+      String className,
+      List<String> interfaceNames,
+      List<String> fieldTypeNames,
+      List<String> genericFieldTypeNames) {
+    RBPreconditions.checkArgument(
+        !className.isEmpty(),
+        "Class name cannot be empty");
+    RBPreconditions.checkArgument(
+        fieldTypeNames.size() == genericFieldTypeNames.size(),
+        "Class %s : there are %s field types but %s generic field types",
+        className, fieldTypeNames.size(), genericFieldTypeNames.size());
+    return new RbClassMetadata(
+        className,
+        ImmutableList.copyOf(interfaceNames),
+        ImmutableList.copyOf(fieldTypeNames),
+        ImmutableList.copyOf(genericFieldTypeNames));
+  }
+
+  public static RbClassMetadata rbClassMetadata(Class<?> clazz) {
+    Class<?>[] interfaces = clazz.getInterfaces();
+    ImmutableList.Builder<String> interfaceNames = ImmutableList.builderWithExpectedSize(interfaces.length);
+    for (Class<?> implemented : interfaces) {
+      interfaceNames.add(implemented.getName());
+    }
+    Field[] fields = clazz.getDeclaredFields();
+    ImmutableList.Builder<String> fieldTypeNames = ImmutableList.builderWithExpectedSize(fields.length);
+    ImmutableList.Builder<String> genericFieldTypeNames = ImmutableList.builderWithExpectedSize(fields.length);
+    for (Field field : fields) {
+      fieldTypeNames.add(field.getType().getName());
+      genericFieldTypeNames.add(field.getGenericType().getTypeName());
+    }
+    return new RbClassMetadata(
+        clazz.getName(), interfaceNames.build(), fieldTypeNames.build(), genericFieldTypeNames.build());
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  /**
+   * The interfaces that the class directly implements, just like {@link Class#getInterfaces()}.
+   */
+  public List<String> getInterfaceNames() {
+    return interfaceNames;
+  }
+
+  public List<String> getFieldTypeNames() {
+    return fieldTypeNames;
+  }
+
+  public List<String> getGenericFieldTypeNames() {
+    return genericFieldTypeNames;
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[RCM %s interfaces: %s ; fields: %s RCM]",
+        className, interfaceNames, genericFieldTypeNames);
+  }
+
+}
@@ -0,0 +1,151 @@
+package com.rb.nonbiz.reflection;
+
+import com.google.common.collect.ImmutableList;
+import com.rb.nonbiz.collections.RBMap;
+import com.rb.nonbiz.text.Strings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.rb.nonbiz.collections.RBMapConstructors.rbMapFromCollection;
+import static com.rb.nonbiz.text.SmartFormatter.smartFormat;
+
+/**
+ * An index of reflection information (interfaces, field types) about a set of classes - typically
+ * all top-level classes under com.rb - keyed by class name.
+ *
+ * <p> Scanning the classpath and loading thousands of classes is slow. This index only stores names, so it
+ * can be saved to a file and read back on the next run (see {@link RbClassMetadataIndexRetriever}) without loading
+ * any classes. Callers can then load only the classes they actually need, via {@link #loadClass(String)}.
+ * For example, finding the implementers of an interface only loads the implementers. </p>
+ *
+ * <p> The index itself is immutable; the only mutable state is a cache of the classes loaded so far,
+ * which is thread-safe. </p>
+ *
+ * <p> Classes get loaded through the class loader that the index was created with, not the context class loader
+ * of whichever thread calls {@link #loadClass(String)}. That matters when we load classes from a parallel stream,
+ * whose worker threads (in the common fork-join pool) may have a different context class loader, or none. </p>
+ */
+public class RbClassMetadataIndex {
+
+  private final String classPathKey;
+  private final RBMap<String, RbClassMetadata> metadataByClassName;
+  private final List<String> sortedClassNames;
+  // Interface name -> names of classes in this index that directly implement it
+  private final Map<String, List<String>> implementerNamesByInterfaceName;
+  private final ClassLoader classLoader;
+  private final ConcurrentHashMap<String, Class<?>> loadedClasses;
+
+  private RbClassMetadataIndex(
+      String classPathKey,
+      RBMap<String, RbClassMetadata> metadataByClassName,
+      List<String> sortedClassNames,
+      Map<String, List<String>> implementerNamesByInterfaceName,
+      ClassLoader classLoader) {
+    this.classPathKey = classPathKey;
+    this.metadataByClassName = metadataByClassName;
+    this.sortedClassNames = sortedClassNames;
+    this.implementerNamesByInterfaceName = implementerNamesByInterfaceName;
+    this.classLoader = classLoader;
+    this.loadedClasses = new ConcurrentHashMap<>(sortedClassNames.size());
+  }
+
+  /**
+   * The classPathKey identifies the classpath that the index was built from, so that we can tell whether a saved
+   * index is stale. It can be anything; {@link RbClassMetadataIndexRetriever} uses a hash of the classpath.
+   *
+   * <p> The index will load classes using the context class loader of the thread that calls this. </p>
+   */
+  public static RbClassMetadataIndex rbClassMetadataIndex(String classPathKey, List<RbClassMetadata> metadataList) {
+    return rbClassMetadataIndex(classPathKey, metadataList, Thread.currentThread().getContextClassLoader());
+  }
+
+  public static RbClassMetadataIndex rbClassMetadataIndex(
+      String classPathKey, List<RbClassMetadata> metadataList, ClassLoader classLoader) {
+    RBMap<String, RbClassMetadata> metadataByClassName = rbMapFromCollection(metadataList, v -> v.getClassName());
+
+    List<String> sortedClassNames = new ArrayList<>(metadataByClassName.keySet());
+    Collections.sort(sortedClassNames);
+
+    Map<String, List<String>> implementerNames = new HashMap<>();
+    for (String className : sortedClassNames) {
+      for (String interfaceName : metadataByClassName.getOrThrow(className).getInterfaceNames()) {
+        implementerNames.computeIfAbsent(interfaceName, ignored -> new ArrayList<>()).add(className);
+      }
+    }
+    Map<String, List<String>> implementerNamesByInterfaceName = new HashMap<>(implementerNames.size());
+    implementerNames.forEach( (interfaceName, classNames) ->
+        implementerNamesByInterfaceName.put(interfaceName, ImmutableList.copyOf(classNames)));
+
+    return new RbClassMetadataIndex(
+        classPathKey, metadataByClassName, ImmutableList.copyOf(sortedClassNames), implementerNamesByInterfaceName,
+        classLoader);
+  }
+
+  public String getClassPathKey() {
+    return classPathKey;
+  }
+
+  public List<String> getSortedClassNames() {
+    return sortedClassNames;
+  }
+
+  public int size() {
+    return sortedClassNames.size();
+  }
+
+  public Optional<RbClassMetadata> getOptionalMetadata(String className) {
+    return metadataByClassName.getOptional(className);
+  }
+
+  public RbClassMetadata getMetadataOrThrow(String className) {
+    return metadataByClassName.getOrThrow(className);
+  }
+
+  public RBMap<String, RbClassMetadata> getMetadataByClassName() {
+    return metadataByClassName;
+  }
+
+  /**
+   * Returns the names of the classes in this index that directly implement the interface, in class name order.
+   * Like {@link Class#getInterfaces()}, this does not include classes that only implement it via a superclass
+   * or a sub-interface.
+   */
+  public List<String> getDirectImplementerNames(String interfaceName) {
+    return implementerNamesByInterfaceName.getOrDefault(interfaceName, Collections.emptyList());
+  }
+
+  /**
+   * Loads the class (without running its static initializers), or returns it if it has already been loaded
+   * through this index. The class must be in the index.
+   */
+  public Class<?> loadClass(String className) {
+    if (!metadataByClassName.containsKey(className)) {
+      throw new IllegalArgumentException(smartFormat(
+          "Class %s is not one of the %s classes in the index", className, size()));
+    }
+    return loadedClasses.computeIfAbsent(className, name -> loadClassWithoutInitializing(name, classLoader));
+  }
+
+  static Class<?> loadClassWithoutInitializing(String className, ClassLoader classLoader) {
+    try {
+      return Class.forName(className, false, classLoader);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalArgumentException(smartFormat(
+          "Class %s is in the index, but could not be loaded; maybe the index is stale? %s",
+          className, e.getMessage()), e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[RCMI %s classes ; %s interfaces implemented ; key %s RCMI]",
+        size(), implementerNamesByInterfaceName.size(), classPathKey);
+  }
+
+}
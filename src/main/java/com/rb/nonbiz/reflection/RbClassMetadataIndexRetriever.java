@@ -0,0 +1,234 @@
+package com.rb.nonbiz.reflection;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.MapMaker;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.reflect.ClassPath;
+import com.rb.nonbiz.util.RBPreconditions;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.rb.nonbiz.reflection.RbClassMetadata.rbClassMetadata;
+import static com.rb.nonbiz.reflection.RbClassMetadataIndex.loadClassWithoutInitializing;
+import static com.rb.nonbiz.reflection.RbClassMetadataIndex.rbClassMetadataIndex;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Creates an {@link RbClassMetadataIndex} for all top-level classes under a package (normally com.rb).
+ *
+ * <p> There are 3 ways to get an index, from slowest to fastest: </p>
+ * <ul>
+ *   <li> {@link #buildFromClassPath(String)} scans the classpath, and then loads the classes (in parallel,
+ *     and without running their static initializers) to look at their interfaces and fields. </li>
+ *   <li> {@link #retrieveUsingCacheFile(String, Path)} reads the index from a file if the file was written for the
+ *     same classpath; otherwise, it builds the index from the classpath and (re)writes the file.
+ *     Reading the file does not load any classes. </li>
+ *   <li> {@link #retrieve(String)} only builds the index the first time it's called for a package (and context class
+ *     loader) in this JVM. The classpath does not change while the JVM is running, so there's no reason to scan it
+ *     more than once. </li>
+ * </ul>
+ *
+ * <p> The classpath 'key' that we save in the file is a hash of the classpath entries, together with the size and
+ * last modification time of each jar, and of each file under each directory. That means that checking whether the
+ * file is stale still has to list the files in the directories on the classpath (e.g. target/classes), but that's
+ * much faster than loading the classes in them. </p>
+ */
+public class RbClassMetadataIndexRetriever {
+
+  private static final String FILE_HEADER = "RBCMI";
+  private static final int FILE_FORMAT_VERSION = 1;
+  private static final char COLUMN_SEPARATOR = '\t';
+  // This can't appear in a Java type name, unlike commas (e.g. RBMap<String, Double>)
+  private static final char LIST_SEPARATOR = '|';
+  // For indices that we only keep in memory, there's no need to spend time listing the files on the classpath.
+  // This can never match a real key, which is a hash in hex.
+  private static final String IN_MEMORY_ONLY_CLASS_PATH_KEY = "in-memory-only";
+
+  // Keyed by class loader first, because two class loaders (e.g. in an app server, or a test runner that isolates
+  // tests) can see different classes under the same package. The keys are weak, so that we don't keep a class loader
+  // (and all its classes) alive after it's no longer used.
+  private static final ConcurrentMap<ClassLoader, ConcurrentMap<String, RbClassMetadataIndex>> INDEX_CACHE =
+      new MapMaker().weakKeys().makeMap();
+
+  /**
+   * Returns the index for the package, building it only the first time this is called (for that package, and
+   * for the context class loader of the calling thread) in the current JVM.
+   */
+  public RbClassMetadataIndex retrieve(String packagePrefix) {
+    ClassLoader classLoader = RBPreconditions.checkNotNull(
+        Thread.currentThread().getContextClassLoader(),
+        "Cannot retrieve the classes under %s from a thread without a context class loader",
+        packagePrefix);
+    return INDEX_CACHE
+        .computeIfAbsent(classLoader, ignored -> new ConcurrentHashMap<>())
+        .computeIfAbsent(packagePrefix, ignored -> buildFromClassPath(packagePrefix, IN_MEMORY_ONLY_CLASS_PATH_KEY));
+  }
+
+  /**
+   * Reads the index from the file if it's there and was written for the current classpath; otherwise, builds it
+   * and saves it to the file, so that the next run (e.g. the next time we run the tests) can use it.
+   * A missing, unreadable, or stale file is not an error; we just rebuild the index.
+   */
+  public RbClassMetadataIndex retrieveUsingCacheFile(String packagePrefix, Path cacheFile) {
+    String classPathKey = calculateClassPathKey(packagePrefix);
+    Optional<RbClassMetadataIndex> fromFile = readIfUpToDate(cacheFile, classPathKey);
+    if (fromFile.isPresent()) {
+      return fromFile.get();
+    }
+    RbClassMetadataIndex index = buildFromClassPath(packagePrefix, classPathKey);
+    write(index, cacheFile);
+    return index;
+  }
+
+  /**
+   * Builds the index, including the classpath key, so that the result can be passed to
+   * {@link #write(RbClassMetadataIndex, Path)}.
+   */
+  public RbClassMetadataIndex buildFromClassPath(String packagePrefix) {
+    return buildFromClassPath(packagePrefix, calculateClassPathKey(packagePrefix));
+  }
+
+  @SuppressWarnings("UnstableApiUsage")
+  private RbClassMetadataIndex buildFromClassPath(String packagePrefix, String classPathKey) {
+    // We get this here, on the calling thread, because the threads of the parallel stream below
+    // may have a different context class loader.
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    ClassPath classPath;
+    try {
+      classPath = ClassPath.from(classLoader);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    // Loading a class is the slow part, and it's thread-safe, so we do it in parallel.
+    List<RbClassMetadata> metadataList = classPath.getTopLevelClassesRecursive(packagePrefix)
+        .parallelStream()
+        .map(classInfo -> rbClassMetadata(loadClassWithoutInitializing(classInfo.getName(), classLoader)))
+        .collect(Collectors.toList());
+    return rbClassMetadataIndex(classPathKey, metadataList, classLoader);
+  }
+
+  /**
+   * Saves the index in a compact, line-based text format. We first write to a temporary file and then move it,
+   * so that e.g. two test JVMs running at the same time will never see a half-written file.
+   */
+  public void write(RbClassMetadataIndex index, Path file) {
+    try {
+      Path parent = file.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      Path tempFile = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+      try (BufferedWriter writer = Files.newBufferedWriter(tempFile, UTF_8)) {
+        writer.write(Joiner.on(COLUMN_SEPARATOR).join(FILE_HEADER, FILE_FORMAT_VERSION, index.getClassPathKey()));
+        writer.newLine();
+        Joiner listJoiner = Joiner.on(LIST_SEPARATOR);
+        for (String className : index.getSortedClassNames()) {
+          RbClassMetadata metadata = index.getMetadataOrThrow(className);
+          writer.write(Joiner.on(COLUMN_SEPARATOR).join(
+              className,
+              listJoiner.join(metadata.getInterfaceNames()),
+              listJoiner.join(metadata.getFieldTypeNames()),
+              listJoiner.join(metadata.getGenericFieldTypeNames())));
+          writer.newLine();
+        }
+      }
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns empty if the file does not exist, cannot be read, is in an older format, or was written for a
+   * different classpath.
+   */
+  public Optional<RbClassMetadataIndex> readIfUpToDate(Path file, String expectedClassPathKey) {
+    if (!Files.isRegularFile(file)) {
+      return Optional.empty();
+    }
+    try (BufferedReader reader = Files.newBufferedReader(file, UTF_8)) {
+      Splitter columnSplitter = Splitter.on(COLUMN_SEPARATOR);
+      String header = reader.readLine();
+      if (header == null
+          || !header.equals(Joiner.on(COLUMN_SEPARATOR).join(FILE_HEADER, FILE_FORMAT_VERSION, expectedClassPathKey))) {
+        return Optional.empty();
+      }
+      List<RbClassMetadata> metadataList = new ArrayList<>();
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        List<String> columns = columnSplitter.splitToList(line);
+        RBPreconditions.checkArgument(
+            columns.size() == 4,
+            "Malformed line in class metadata file %s : %s",
+            file, line);
+        metadataList.add(rbClassMetadata(
+            columns.get(0), splitList(columns.get(1)), splitList(columns.get(2)), splitList(columns.get(3))));
+      }
+      return Optional.of(rbClassMetadataIndex(
+          expectedClassPathKey, metadataList, Thread.currentThread().getContextClassLoader()));
+    } catch (IOException | IllegalArgumentException e) {
+      // Treat a bad file the same as a missing one; the caller will rebuild it.
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Identifies the current classpath, and the contents of its entries (as far as file sizes and modification times
+   * can tell), so that we can tell whether a saved index is stale.
+   */
+  public String calculateClassPathKey(String packagePrefix) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(packagePrefix, UTF_8);
+    for (String entry : Splitter.on(File.pathSeparatorChar).omitEmptyStrings()
+        .split(System.getProperty("java.class.path", ""))) {
+      hasher.putString(entry, UTF_8);
+      File file = new File(entry);
+      if (file.isDirectory()) {
+        for (Path path : listFilesSorted(file.toPath())) {
+          File inDirectory = path.toFile();
+          hasher
+              .putString(path.toString(), UTF_8)
+              .putLong(inDirectory.length())
+              .putLong(inDirectory.lastModified());
+        }
+      } else {
+        hasher
+            .putLong(file.length())
+            .putLong(file.lastModified());
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  private static List<Path> listFilesSorted(Path directory) {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      List<Path> files = paths.filter(path -> Files.isRegularFile(path)).collect(Collectors.toList());
+      Collections.sort(files);
+      return files;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static List<String> splitList(String column) {
+    return column.isEmpty()
+        ? ImmutableList.of()
+        : Splitter.on(LIST_SEPARATOR).splitToList(column);
+  }
+
+}
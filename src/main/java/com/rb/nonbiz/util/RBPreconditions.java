@@ -194,6 +194,65 @@ public class RBPreconditions {
     }
   }
 
+  /**
+   * Like {@link #checkArgument(boolean, String, Object...)}, but for checks in hot code paths (e.g. bounds checks on
+   * every array access). The varargs overload allocates an array for the arguments (and boxes any primitives in it)
+   * every time it gets called, even if the check succeeds. These fixed-arity overloads only box their arguments
+   * if the check fails.
+   *
+   * <p> These use a different name (vs. overloading checkArgument, like guava's Preconditions does) so that they
+   * do not change which method existing calls resolve to. There is a separate char overload, because a char would
+   * otherwise silently widen to the int overload, and print as a number. </p>
+   */
+  public static void checkArgumentWithoutAllocating(boolean expression, String message) {
+    if (!expression) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  public static void checkArgumentWithoutAllocating(boolean expression, String format, int arg1) {
+    if (!expression) {
+      throw new IllegalArgumentException(smartFormat(format, arg1));
+    }
+  }
+
+  public static void checkArgumentWithoutAllocating(boolean expression, String format, int arg1, int arg2) {
+    if (!expression) {
+      throw new IllegalArgumentException(smartFormat(format, arg1, arg2));
+    }
+  }
+
+  public static void checkArgumentWithoutAllocating(
+      boolean expression, String format, int arg1, int arg2, int arg3) {
+    if (!expression) {
+      throw new IllegalArgumentException(smartFormat(format, arg1, arg2, arg3));
+    }
+  }
+
+  public static void checkArgumentWithoutAllocating(boolean expression, String format, char arg1) {
+    if (!expression) {
+      throw new IllegalArgumentException(smartFormat(format, arg1));
+    }
+  }
+
+  public static void checkArgumentWithoutAllocating(boolean expression, String format, long arg1) {
+    if (!expression) {
+      throw new IllegalArgumentException(smartFormat(format, arg1));
+    }
+  }
+
+  public static void checkArgumentWithoutAllocating(boolean expression, String format, double arg1) {
+    if (!expression) {
+      throw new IllegalArgumentException(smartFormat(format, arg1));
+    }
+  }
+
+  public static void checkArgumentWithoutAllocating(boolean expression, String format, Object arg1) {
+    if (!expression) {
+      throw new IllegalArgumentException(smartFormat(format, arg1));
+    }
+  }
+
   // copied from guava Preconditions
   public static <T> T checkNotNull(T reference) {
     if (reference == null) {
@@ -0,0 +1,128 @@
+package com.rb.nonbiz.util;
+
+import com.rb.nonbiz.collections.RBMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.rb.nonbiz.collections.RBMapSimpleConstructors.newRBMap;
+import static com.rb.nonbiz.util.ValidationTier.ALWAYS_VALIDATE;
+import static com.rb.nonbiz.util.ValidationTimingStats.validationTimingStats;
+
+/**
+ * Lets us turn down how often we run expensive precondition checks, e.g. the O(n) sum check in
+ * {@link com.rb.nonbiz.collections.Partition} or the O(n^2) dot products in
+ * {@link com.rb.nonbiz.math.vectorspaces.VectorSpaceOrthonormalBasis}.
+ *
+ * <p> Each such check belongs to a category, which is the class that runs it (e.g. Partition.class).
+ * The {@link ValidationTier} of a category is the one set for the longest matching package prefix of that class,
+ * e.g. a tier for "com.rb.nonbiz.collections" overrides one for "com.rb.nonbiz". The default is
+ * {@link ValidationTier#ALWAYS_VALIDATE}, so nothing changes unless you configure this; tests should leave this alone,
+ * so that they always run all the checks. </p>
+ *
+ * <p> We also count the checks run and skipped per category, and how long the checks that ran took, so that we can
+ * tell which ones are worth sampling. The counting adds a couple of calls to System.nanoTime per check, which is
+ * negligible for the O(n) checks that should use this. </p>
+ *
+ * <p> This is global, static state, just like the other RB*Preconditions; it should only be configured once,
+ * at startup, but it is thread-safe. </p>
+ */
+public class TieredPreconditions {
+
+  private static class CategoryCounters {
+
+    private final LongAdder numChecksRun = new LongAdder();
+    private final LongAdder numChecksSkipped = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+  }
+
+  private static final Map<String, ValidationTier> TIERS_BY_PACKAGE_PREFIX = new ConcurrentHashMap<>();
+  // So we only need to look up the package prefixes the first time we see a category.
+  private static final Map<Class<?>, ValidationTier> RESOLVED_TIERS = new ConcurrentHashMap<>();
+  private static final Map<Class<?>, CategoryCounters> COUNTERS = new ConcurrentHashMap<>();
+  private static volatile boolean debugMode = false;
+
+  private TieredPreconditions() {}
+
+  /**
+   * Runs the check, unless the {@link ValidationTier} for this category says to skip it this time.
+   * The check should throw if it fails, typically using {@link RBPreconditions}.
+   */
+  public static void checkTiered(Class<?> category, Runnable check) {
+    CategoryCounters counters = COUNTERS.computeIfAbsent(category, ignored -> new CategoryCounters());
+    if (!getValidationTier(category).shouldValidate(debugMode)) {
+      counters.numChecksSkipped.increment();
+      return;
+    }
+    long startNanos = System.nanoTime();
+    try {
+      check.run();
+    } finally {
+      counters.totalNanos.add(System.nanoTime() - startNanos);
+      counters.numChecksRun.increment();
+    }
+  }
+
+  public static ValidationTier getValidationTier(Class<?> category) {
+    return RESOLVED_TIERS.computeIfAbsent(category, TieredPreconditions::resolveValidationTier);
+  }
+
+  private static ValidationTier resolveValidationTier(Class<?> category) {
+    String prefix = category.getPackage() == null ? "" : category.getPackage().getName();
+    while (!prefix.isEmpty()) {
+      ValidationTier tier = TIERS_BY_PACKAGE_PREFIX.get(prefix);
+      if (tier != null) {
+        return tier;
+      }
+      int lastDot = prefix.lastIndexOf('.');
+      prefix = lastDot < 0 ? "" : prefix.substring(0, lastDot);
+    }
+    return TIERS_BY_PACKAGE_PREFIX.getOrDefault("", ALWAYS_VALIDATE);
+  }
+
+  /**
+   * Use an empty package prefix to set the tier for all packages that do not have a more specific one.
+   */
+  public static synchronized void setValidationTier(String packagePrefix, ValidationTier validationTier) {
+    TIERS_BY_PACKAGE_PREFIX.put(packagePrefix, validationTier);
+    RESOLVED_TIERS.clear();
+  }
+
+  /**
+   * In debug mode, every check runs, regardless of its {@link ValidationTier}.
+   */
+  public static void setDebugMode(boolean newDebugMode) {
+    debugMode = newDebugMode;
+  }
+
+  /**
+   * Goes back to always running every check, and clears the counters.
+   */
+  public static synchronized void resetToDefaults() {
+    TIERS_BY_PACKAGE_PREFIX.clear();
+    RESOLVED_TIERS.clear();
+    COUNTERS.clear();
+    debugMode = false;
+  }
+
+  /**
+   * A snapshot of the counters for every category that has been checked at least once.
+   * If checks are running at the same time, a category's counts may be slightly out of sync with each other.
+   */
+  public static RBMap<Class<?>, ValidationTimingStats> getValidationTimingStats() {
+    Map<Class<?>, ValidationTimingStats> stats = new HashMap<>();
+    COUNTERS.forEach( (category, counters) -> {
+      long numChecksRun = counters.numChecksRun.sum();
+      stats.put(category, validationTimingStats(
+          numChecksRun,
+          counters.numChecksSkipped.sum(),
+          // Avoids a precondition failure if we read this in the middle of a check that has not finished yet.
+          numChecksRun == 0 ? 0 : counters.totalNanos.sum()));
+    });
+    return newRBMap(stats);
+  }
+
+}
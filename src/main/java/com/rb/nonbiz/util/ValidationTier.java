@@ -0,0 +1,64 @@
+package com.rb.nonbiz.util;
+
+import com.rb.nonbiz.text.Strings;
+import com.rb.nonbiz.types.UnitFraction;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Says how often we should run an expensive (e.g. O(n) or O(n^2)) precondition check: always, on a random sample of
+ * the calls, or only when debug mode is on. See {@link TieredPreconditions}.
+ *
+ * <p> Cheap invariant checks (e.g. that two lists have the same size) should not use this; they should just always run,
+ * as usual. </p>
+ */
+public class ValidationTier {
+
+  public static final ValidationTier ALWAYS_VALIDATE = new ValidationTier(ValidationTierType.ALWAYS, 1.0);
+  public static final ValidationTier VALIDATE_ONLY_IN_DEBUG_MODE = new ValidationTier(ValidationTierType.DEBUG_ONLY, 0.0);
+
+  private enum ValidationTierType {
+    ALWAYS,
+    SAMPLED,
+    DEBUG_ONLY
+  }
+
+  private final ValidationTierType type;
+  private final double samplingRate;
+
+  private ValidationTier(ValidationTierType type, double samplingRate) {
+    this.type = type;
+    this.samplingRate = samplingRate;
+  }
+
+  /**
+   * Runs each check with this probability. In debug mode, checks always run.
+   */
+  public static ValidationTier sampledValidation(UnitFraction samplingRate) {
+    return new ValidationTier(ValidationTierType.SAMPLED, samplingRate.doubleValue());
+  }
+
+  /**
+   * Decides whether to run a single check.
+   */
+  boolean shouldValidate(boolean debugMode) {
+    switch (type) {
+      case ALWAYS:
+        return true;
+      case DEBUG_ONLY:
+        return debugMode;
+      case SAMPLED:
+        return debugMode || ThreadLocalRandom.current().nextDouble() < samplingRate;
+      default:
+        throw new IllegalArgumentException(Strings.format("Internal error; unknown validation tier type %s", type));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return type == ValidationTierType.SAMPLED
+        ? Strings.format("[VT %s %s VT]", type, samplingRate)
+        : Strings.format("[VT %s VT]", type);
+  }
+
+}
@@ -0,0 +1,51 @@
+package com.rb.nonbiz.util;
+
+import com.rb.nonbiz.text.Strings;
+
+/**
+ * How many times a category of expensive precondition checks ran (or got skipped), and how long the checks took
+ * in total. See {@link TieredPreconditions#getValidationTimingStats()}.
+ */
+public class ValidationTimingStats {
+
+  private final long numChecksRun;
+  private final long numChecksSkipped;
+  private final long totalNanos;
+
+  private ValidationTimingStats(long numChecksRun, long numChecksSkipped, long totalNanos) {
+    this.numChecksRun = numChecksRun;
+    this.numChecksSkipped = numChecksSkipped;
+    this.totalNanos = totalNanos;
+  }
+
+  public static ValidationTimingStats validationTimingStats(long numChecksRun, long numChecksSkipped, long totalNanos) {
+    RBPreconditions.checkArgument(
+        numChecksRun >= 0 && numChecksSkipped >= 0 && totalNanos >= 0,
+        "Validation counts ( %s run ; %s skipped ) and total time ( %s ns ) cannot be negative",
+        numChecksRun, numChecksSkipped, totalNanos);
+    RBPreconditions.checkArgument(
+        numChecksRun > 0 || totalNanos == 0,
+        "No checks ran, so they cannot have taken %s ns",
+        totalNanos);
+    return new ValidationTimingStats(numChecksRun, numChecksSkipped, totalNanos);
+  }
+
+  public long getNumChecksRun() {
+    return numChecksRun;
+  }
+
+  public long getNumChecksSkipped() {
+    return numChecksSkipped;
+  }
+
+  public long getTotalNanos() {
+    return totalNanos;
+  }
+
+  @Override
+  public String toString() {
+    return Strings.format("[VTS %s run ; %s skipped ; %s ms VTS]",
+        numChecksRun, numChecksSkipped, totalNanos / 1_000_000.0);
+  }
+
+}
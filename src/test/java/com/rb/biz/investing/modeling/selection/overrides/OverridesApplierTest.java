@@ -2,21 +2,39 @@ package com.rb.biz.investing.modeling.selection.overrides;
 
 import com.rb.biz.investing.modeling.selection.overrides.Overrides.OverridesBuilder;
 import com.rb.biz.types.asset.InstrumentId;
+import com.rb.nonbiz.collections.IidMap;
+import com.rb.nonbiz.collections.RBMap;
 import com.rb.nonbiz.testutils.RBTest;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.LongStream;
 
+import static com.rb.biz.investing.modeling.selection.overrides.BehaviorWithValueAndOverride.AlwaysUseExistingValueAndIgnoreOverride.alwaysUseExistingValueAndIgnoreOverride;
 import static com.rb.biz.investing.modeling.selection.overrides.BehaviorWithValueAndOverride.AlwaysUseOverrideAndIgnoreExistingValue.alwaysUseOverrideAndIgnoreExistingValue;
 import static com.rb.biz.investing.modeling.selection.overrides.BehaviorWithValueAndOverride.OnlyUseOverrideToFurtherReduceExistingValue.onlyUseOverrideToFurtherReduceExistingValue;
 import static com.rb.biz.investing.modeling.selection.overrides.BehaviorWithValueButNoOverride.UseExistingValueWhenOverrideMissing.useExistingValueWhenOverrideMissing;
 import static com.rb.biz.investing.modeling.selection.overrides.BehaviorWithValueButNoOverride.UseFixedValueWhenOverrideMissing.useFixedValueWhenOverrideMissing;
+import static com.rb.biz.investing.modeling.selection.overrides.Overrides.noOverrides;
 import static com.rb.biz.marketdata.FakeInstruments.STOCK_A;
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_B;
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_C;
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_D;
+import static com.rb.biz.types.asset.InstrumentId.instrumentId;
+import static com.rb.nonbiz.collections.IidMapConstructors.iidMapFromSet;
+import static com.rb.nonbiz.collections.IidMapSimpleConstructors.iidMapOf;
+import static com.rb.nonbiz.collections.IidMapTest.iidMapEqualityMatcher;
+import static com.rb.nonbiz.collections.IidSetSimpleConstructors.newIidSet;
 import static com.rb.nonbiz.collections.RBMapSimpleConstructors.emptyRBMap;
+import static com.rb.nonbiz.collections.RBMapSimpleConstructors.rbMapOf;
 import static com.rb.nonbiz.collections.RBMapSimpleConstructors.singletonRBMap;
 import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class OverridesApplierTest extends RBTest<OverridesApplier> {
 
@@ -138,6 +156,119 @@ public class OverridesApplierTest extends RBTest<OverridesApplier> {
     assertIllegalArgumentException( () -> makeTestObject().getValue(STOCK_A, emptyRBMap(), overridesWithoutDefault));
   }
 
+  @Test
+  public void bulkApplyOverrides_matchesSingleItemVersion() {
+    // A and B only have values; C has both a value and an override; D only has an override.
+    IidMap<Double> originalMap = iidMapOf(
+        STOCK_A, 1.0,
+        STOCK_B, 2.0,
+        STOCK_C, 3.0);
+    RBMap<InstrumentId, Double> overridesMap = rbMapOf(
+        STOCK_C, 2.5,
+        STOCK_D, 4.0);
+
+    for (BehaviorWithValueAndOverride<Double> withValueAndOverride : allBehaviorsWithValueAndOverride()) {
+      for (BehaviorWithValueButNoOverride<Double> withValueButNoOverride : allBehaviorsWithValueButNoOverride()) {
+        Overrides<InstrumentId, Double> overrides = OverridesBuilder.<InstrumentId, Double>overridesBuilder()
+            .setOverridesMap(overridesMap)
+            .setBehaviorWithValueAndOverride(withValueAndOverride)
+            .setBehaviorWithValueButNoOverride(withValueButNoOverride)
+            .throwWhenNoValueAndNoOverride()
+            .build();
+        IidMap<Double> expected = iidMapOf(
+            STOCK_A, makeTestObject().getValue(STOCK_A, originalMap, overrides),
+            STOCK_B, makeTestObject().getValue(STOCK_B, originalMap, overrides),
+            STOCK_C, makeTestObject().getValue(STOCK_C, originalMap, overrides),
+            STOCK_D, makeTestObject().getValue(STOCK_D, originalMap, overrides));
+        assertThat(
+            makeTestObject().applyOverrides(originalMap, overrides),
+            iidMapEqualityMatcher(expected));
+        assertThat(
+            makeTestObject().parallelApplyOverrides(originalMap, overrides),
+            iidMapEqualityMatcher(expected));
+        assertEquals(
+            expected.toRBMap().asMap(),
+            makeTestObject().applyOverrides(originalMap.toRBMap(), overrides).asMap());
+      }
+    }
+  }
+
+  @Test
+  public void bulkApplyOverrides_spotChecks() {
+    IidMap<Double> originalMap = iidMapOf(
+        STOCK_A, 1.0,
+        STOCK_B, 2.0);
+    Overrides<InstrumentId, Double> overrides = OverridesBuilder.<InstrumentId, Double>overridesBuilder()
+        .setOverridesMap(rbMapOf(
+            STOCK_B, 1.5,
+            STOCK_C, 7.0))
+        .setBehaviorWithValueAndOverride(onlyUseOverrideToFurtherReduceExistingValue())
+        .setBehaviorWithValueButNoOverride(useFixedValueWhenOverrideMissing(0.5))
+        .throwWhenNoValueAndNoOverride()
+        .build();
+    IidMap<Double> expected = iidMapOf(
+        STOCK_A, 0.5,  // fixed value, since there is no override
+        STOCK_B, 1.5,  // override is smaller than 2.0
+        STOCK_C, 7.0); // no value, so use the override
+    assertThat(
+        makeTestObject().applyOverrides(originalMap, overrides),
+        iidMapEqualityMatcher(expected));
+    assertThat(
+        makeTestObject().parallelApplyOverrides(originalMap, overrides),
+        iidMapEqualityMatcher(expected));
+  }
+
+  @Test
+  public void bulkApplyOverrides_noOverrides_returnsSameMap() {
+    IidMap<Double> originalMap = iidMapOf(
+        STOCK_A, 1.0,
+        STOCK_B, 2.0);
+    RBMap<String, Double> originalRBMap = rbMapOf(
+        "a", 1.0,
+        "b", 2.0);
+    assertSame(originalMap, makeTestObject().applyOverrides(originalMap, noOverrides()));
+    assertSame(originalMap, makeTestObject().parallelApplyOverrides(originalMap, noOverrides()));
+    assertSame(originalRBMap, makeTestObject().applyOverrides(originalRBMap, noOverrides()));
+  }
+
+  @Test
+  public void parallelApplyOverrides_largeMap_sameAsSequential() {
+    IidMap<Double> originalMap = iidMapFromSet(
+        newIidSet(LongStream.range(1, 30_001).mapToObj(v -> instrumentId(v)).iterator(), 30_000),
+        instrumentId -> (double) (instrumentId.asLong() % 100));
+    Overrides<InstrumentId, Double> overrides = OverridesBuilder.<InstrumentId, Double>overridesBuilder()
+        .setOverridesMap(iidMapFromSet(
+            newIidSet(LongStream.range(29_001, 31_001).mapToObj(v -> instrumentId(v)).iterator(), 2_000),
+            ignoredInstrumentId -> 50.0)
+            .toRBMap())
+        .setBehaviorWithValueAndOverride(onlyUseOverrideToFurtherReduceExistingValue())
+        .setBehaviorWithValueButNoOverride(useExistingValueWhenOverrideMissing())
+        .throwWhenNoValueAndNoOverride()
+        .build();
+    IidMap<Double> sequential = makeTestObject().applyOverrides(originalMap, overrides);
+    assertEquals(31_000, sequential.size());
+    assertEquals(49.0, sequential.getOrThrow(instrumentId(29_049)), 1e-8);
+    assertEquals(50.0, sequential.getOrThrow(instrumentId(29_099)), 1e-8);
+    assertEquals(99.0, sequential.getOrThrow(instrumentId(99)), 1e-8);
+    assertEquals(50.0, sequential.getOrThrow(instrumentId(31_000)), 1e-8);
+    assertThat(
+        makeTestObject().parallelApplyOverrides(originalMap, overrides),
+        iidMapEqualityMatcher(sequential));
+  }
+
+  private List<BehaviorWithValueAndOverride<Double>> allBehaviorsWithValueAndOverride() {
+    return asList(
+        alwaysUseOverrideAndIgnoreExistingValue(),
+        alwaysUseExistingValueAndIgnoreOverride(),
+        onlyUseOverrideToFurtherReduceExistingValue());
+  }
+
+  private List<BehaviorWithValueButNoOverride<Double>> allBehaviorsWithValueButNoOverride() {
+    return asList(
+        useExistingValueWhenOverrideMissing(),
+        useFixedValueWhenOverrideMissing(9.9));
+  }
+
   @Override
   protected OverridesApplier makeTestObject() {
     return new OverridesApplier();
@@ -1,11 +1,16 @@
 package com.rb.biz.jsonapi;
 
+import com.google.common.collect.ImmutableList;
+import com.rb.biz.marketdata.instrumentmaster.InstrumentMaster;
 import com.rb.biz.types.asset.InstrumentId;
 import com.rb.nonbiz.collections.IidMap;
 import com.rb.nonbiz.testutils.RBTestMatcher;
 import org.hamcrest.TypeSafeMatcher;
 import org.junit.Test;
 
+import java.time.LocalDate;
+import java.util.Optional;
+
 import static com.rb.biz.jsonapi.JsonTicker.jsonTicker;
 import static com.rb.biz.jsonapi.JsonTickerTest.jsonTickerMatcher;
 import static com.rb.biz.marketdata.FakeInstruments.STOCK_A;
@@ -22,7 +27,9 @@ import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
 import static com.rb.nonbiz.testutils.Asserters.assertOptionalEmpty;
 import static com.rb.nonbiz.testutils.Asserters.assertOptionalEquals;
 import static com.rb.nonbiz.testutils.Asserters.assertOptionalNonEmpty;
+import static com.rb.nonbiz.testutils.RBCommonsTestConstants.DUMMY_STRING;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class JsonTickerMapImplTest extends RBTestMatcher<JsonTickerMapImpl> {
@@ -69,6 +76,80 @@ public class JsonTickerMapImplTest extends RBTestMatcher<JsonTickerMapImpl> {
         instrumentId71,
         jsonTickerMap.getOptionalInstrumentId(jsonTickerEq1));
     assertOptionalEmpty(jsonTickerMap.getOptionalInstrumentId(missingJsonTicker));
+
+    assertOptionalEquals(instrumentId71, jsonTickerMap.getOptionalInstrumentId("eq1"));
+    assertOptionalEmpty(jsonTickerMap.getOptionalInstrumentId("missing"));
+  }
+
+  @Test
+  public void testTickerOrder() {
+    // Instrument ids are deliberately not in the same order as the tickers
+    JsonTickerMapImpl jsonTickerMap = jsonTickerMap(iidMapOf(
+        instrumentId(1), "C",
+        instrumentId(2), "A",
+        instrumentId(3), "B"));
+
+    assertEquals(0, jsonTickerMap.getTickerOrderOrThrow(instrumentId(2)));
+    assertEquals(1, jsonTickerMap.getTickerOrderOrThrow(instrumentId(3)));
+    assertEquals(2, jsonTickerMap.getTickerOrderOrThrow(instrumentId(1)));
+    assertIllegalArgumentException( () -> jsonTickerMap.getTickerOrderOrThrow(instrumentId(999)));
+
+    assertEquals(instrumentId(2), jsonTickerMap.getInstrumentIdInTickerOrder(0));
+    assertEquals(instrumentId(3), jsonTickerMap.getInstrumentIdInTickerOrder(1));
+    assertEquals(instrumentId(1), jsonTickerMap.getInstrumentIdInTickerOrder(2));
+  }
+
+  @Test
+  public void overriddenMethods_sameAsDefaultImplementations() {
+    JsonTickerMapImpl jsonTickerMap = jsonTickerMap(iidMapOf(
+        instrumentId(1), "C",
+        instrumentId(2), "A",
+        instrumentId(3), "B",
+        instrumentId(4), "D"));
+    JsonTickerMap usingDefaults = new JsonTickerMap() {
+      @Override
+      public InstrumentId getInstrumentIdOrThrow(JsonTicker ticker) {
+        return jsonTickerMap.getInstrumentIdOrThrow(ticker);
+      }
+
+      @Override
+      public Optional<InstrumentId> getOptionalInstrumentId(JsonTicker ticker) {
+        return jsonTickerMap.getOptionalInstrumentId(ticker);
+      }
+
+      @Override
+      public JsonTicker getJsonTickerOrThrow(InstrumentId instrumentId) {
+        return jsonTickerMap.getJsonTickerOrThrow(instrumentId);
+      }
+
+      @Override
+      public Optional<JsonTicker> getOptionalJsonTicker(InstrumentId instrumentId) {
+        return jsonTickerMap.getOptionalJsonTicker(instrumentId);
+      }
+
+      @Override
+      public String toString(InstrumentMaster instrumentMaster, LocalDate date) {
+        return jsonTickerMap.toString(instrumentMaster, date);
+      }
+    };
+
+    IidMap<String> map = iidMapOf(
+        instrumentId(1), DUMMY_STRING,
+        instrumentId(3), DUMMY_STRING,
+        instrumentId(2), DUMMY_STRING);
+    InstrumentId[] expected = new InstrumentId[] { instrumentId(2), instrumentId(3), instrumentId(1) };
+    assertArrayEquals(expected, jsonTickerMap.getKeysInTickerOrder(map));
+    assertArrayEquals(expected, usingDefaults.getKeysInTickerOrder(map));
+    IidMap<String> hasMissingKey = iidMapOf(
+        instrumentId(1), DUMMY_STRING,
+        instrumentId(999), DUMMY_STRING);
+    assertIllegalArgumentException( () -> jsonTickerMap.getKeysInTickerOrder(hasMissingKey));
+    assertIllegalArgumentException( () -> usingDefaults.getKeysInTickerOrder(hasMissingKey));
+
+    for (JsonTickerMap tickerMap : ImmutableList.of(jsonTickerMap, usingDefaults)) {
+      assertOptionalEquals(instrumentId(2), tickerMap.getOptionalInstrumentId("A"));
+      assertOptionalEmpty(tickerMap.getOptionalInstrumentId("E"));
+    }
   }
 
   @Override
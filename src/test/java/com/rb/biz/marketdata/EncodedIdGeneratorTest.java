@@ -10,9 +10,14 @@ import com.rb.nonbiz.util.RBPreconditions;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.List;
 
+import static com.rb.biz.marketdata.EncodedIdGenerator.ENCODED_ID_GENERATOR;
 import static com.rb.biz.types.Symbol.symbol;
 import static com.rb.biz.types.asset.InstrumentId.instrumentId;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.testutils.Asserters.assertThrowsWithMessage;
+import static java.util.Collections.emptyList;
 import static org.junit.Assert.assertEquals;
 
 public class EncodedIdGeneratorTest extends RBTest<EncodedIdGenerator> {
@@ -77,6 +82,66 @@ public class EncodedIdGeneratorTest extends RBTest<EncodedIdGenerator> {
     }
   }
 
+  @Test
+  public void roundTrip_longestSymbol() {
+    EncodedIdGenerator generator = makeTestObject();
+    assertEquals(symbol("ZZZZ////"), generator.getBestGuessSymbol(instrumentId(
+        generator.generateLongId(symbol("ZZZZ////")))));
+  }
+
+  @Test
+  public void rawTicker_sameAsSymbol() {
+    EncodedIdGenerator generator = makeTestObject();
+    for (String sym : ImmutableList.of("A", "KSU", "ibm", "BRK/A", "JW.A")) {
+      assertEquals(generator.generateLongId(symbol(sym)), generator.generateLongId(sym));
+      assertEquals(generator.generateLongId(symbol(sym)), generator.generateLongId(new StringBuilder(sym)));
+    }
+  }
+
+  @Test
+  public void unmappableCharacter_throws() {
+    EncodedIdGenerator generator = makeTestObject();
+    assertIllegalArgumentException( () -> generator.generateLongId("A-B"));
+    assertIllegalArgumentException( () -> generator.generateLongId("^DJI"));
+    assertIllegalArgumentException( () -> generator.generateLongId("\u00C9"));
+    long doesNotThrow = generator.generateLongId("A_B");
+  }
+
+  @Test
+  public void unmappableCharacter_messageShowsTheCharacter() {
+    assertThrowsWithMessage("Unmappable character: '$'", () -> makeTestObject().generateLongId("A$B"));
+  }
+
+  @Test
+  public void unmappableCode_throws() {
+    EncodedIdGenerator generator = makeTestObject();
+    // 40 would be "A" followed by code 0, which does not exist.
+    assertIllegalArgumentException( () -> generator.getBestGuessSymbol(instrumentId(40)));
+    assertEquals(symbol("A/"), generator.getBestGuessSymbol(instrumentId(79)));
+  }
+
+  @Test
+  public void batch_sameAsOneAtATime() {
+    EncodedIdGenerator generator = makeTestObject();
+    List<Symbol> symbols = ImmutableList.of(symbol("KSU"), symbol("IBM"), symbol("GE"), symbol("BRK/A"));
+    long[] longIds = generator.generateLongIds(symbols);
+    assertEquals(4, longIds.length);
+    assertEquals(18_381L, longIds[0]);
+    assertEquals(14_493L, longIds[1]);
+    assertEquals(285L, longIds[2]);
+    assertEquals(generator.generateLongId(symbol("BRK/A")), longIds[3]);
+    assertEquals(symbols, generator.getBestGuessSymbols(longIds));
+
+    assertEquals(0, generator.generateLongIds(emptyList()).length);
+    assertEquals(emptyList(), generator.getBestGuessSymbols(new long[] {}));
+  }
+
+  @Test
+  public void sharedInstance_sameResults() {
+    assertEquals(makeTestObject().generateLongId(symbol("KSU")), ENCODED_ID_GENERATOR.generateLongId(symbol("KSU")));
+    assertEquals(symbol("KSU"), ENCODED_ID_GENERATOR.getBestGuessSymbol(instrumentId(18_381L)));
+  }
+
   /**
    * This sort of is a test, in that we confirm that nothing breaks when we construct instrument IDs out of
    * real tickers - but we're mostly doing it to print a mini-report of the instrument IDs we should be using.
@@ -0,0 +1,153 @@
+package com.rb.biz.marketdata.instrumentmaster;
+
+import com.rb.biz.types.Symbol;
+import com.rb.biz.types.asset.InstrumentId;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_A;
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_B;
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_C;
+import static com.rb.biz.marketdata.instrumentmaster.CachingInstrumentMaster.cachingInstrumentMaster;
+import static com.rb.biz.marketdata.instrumentmaster.HardCodedAllowingEmptyInstrumentMaster.hardCodedAllowingEmptyInstrumentMaster;
+import static com.rb.biz.types.Symbol.symbol;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalEmpty;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalEquals;
+import static com.rb.nonbiz.types.UnitFraction.unitFraction;
+import static org.junit.Assert.assertEquals;
+
+public class CachingInstrumentMasterTest {
+
+  private final LocalDate DAY1 = LocalDate.of(2014, 4, 4);
+  private final LocalDate DAY2 = DAY1.plusDays(1);
+
+  /**
+   * Counts the calls to the underlying {@link InstrumentMaster}, so we can tell if the cache was used.
+   */
+  private static class CountingInstrumentMaster implements InstrumentMaster {
+
+    private final InstrumentMaster underlying;
+    private int numCalls = 0;
+
+    private CountingInstrumentMaster(InstrumentMaster underlying) {
+      this.underlying = underlying;
+    }
+
+    @Override
+    public Optional<InstrumentId> getInstrumentId(Symbol symbol, LocalDate effectiveDate) {
+      numCalls++;
+      return underlying.getInstrumentId(symbol, effectiveDate);
+    }
+
+    @Override
+    public Optional<Symbol> getSymbol(InstrumentId instrumentId, LocalDate effectiveDate) {
+      numCalls++;
+      return underlying.getSymbol(instrumentId, effectiveDate);
+    }
+
+    @Override
+    public Optional<Symbol> getLatestValidSymbol(InstrumentId instrumentId, LocalDate effectiveDate) {
+      numCalls++;
+      return underlying.getLatestValidSymbol(instrumentId, effectiveDate);
+    }
+
+  }
+
+  private final CountingInstrumentMaster countingInstrumentMaster = new CountingInstrumentMaster(
+      hardCodedAllowingEmptyInstrumentMaster(
+          STOCK_A, "A",
+          STOCK_B, "B"));
+
+  @Test
+  public void nonPositiveSize_throws() {
+    assertIllegalArgumentException( () -> cachingInstrumentMaster(countingInstrumentMaster, -1));
+    assertIllegalArgumentException( () -> cachingInstrumentMaster(countingInstrumentMaster, 0));
+    CachingInstrumentMaster doesNotThrow = cachingInstrumentMaster(countingInstrumentMaster, 1);
+  }
+
+  @Test
+  public void repeatedLookups_onlyCallUnderlyingOnce_includingMisses() {
+    CachingInstrumentMaster cachingInstrumentMaster = cachingInstrumentMaster(countingInstrumentMaster, 100);
+    for (int i = 0; i < 3; i++) {
+      assertOptionalEquals(symbol("A"), cachingInstrumentMaster.getSymbol(STOCK_A, DAY1));
+      assertOptionalEquals(symbol("A"), cachingInstrumentMaster.getLatestValidSymbol(STOCK_A, DAY1));
+      assertOptionalEquals(STOCK_B, cachingInstrumentMaster.getInstrumentId(symbol("B"), DAY1));
+      assertOptionalEmpty(cachingInstrumentMaster.getSymbol(STOCK_C, DAY1));
+      assertOptionalEmpty(cachingInstrumentMaster.getInstrumentId(symbol("C"), DAY1));
+    }
+    assertEquals(5, countingInstrumentMaster.numCalls);
+    assertEquals(10, cachingInstrumentMaster.getCacheStats().getNumHits());
+    assertEquals(5, cachingInstrumentMaster.getCacheStats().getNumMisses());
+    assertOptionalEquals(unitFraction(2, 3), cachingInstrumentMaster.getCacheStats().getOptionalHitRate());
+
+    // A different date is a different cache key
+    assertOptionalEquals(symbol("A"), cachingInstrumentMaster.getSymbol(STOCK_A, DAY2));
+    assertEquals(6, countingInstrumentMaster.numCalls);
+  }
+
+  @Test
+  public void lookupTypesAreCachedSeparately() {
+    CachingInstrumentMaster cachingInstrumentMaster = cachingInstrumentMaster(countingInstrumentMaster, 100);
+    assertOptionalEquals(symbol("A"), cachingInstrumentMaster.getSymbol(STOCK_A, DAY1));
+    assertOptionalEquals(symbol("A"), cachingInstrumentMaster.getLatestValidSymbol(STOCK_A, DAY1));
+    assertEquals(2, countingInstrumentMaster.numCalls);
+  }
+
+  @Test
+  public void cacheIsBounded() {
+    CachingInstrumentMaster cachingInstrumentMaster = cachingInstrumentMaster(countingInstrumentMaster, 10);
+    for (int i = 0; i < 1_000; i++) {
+      assertOptionalEquals(symbol("A"), cachingInstrumentMaster.getSymbol(STOCK_A, DAY1.plusDays(i)));
+    }
+    assertEquals(1_000, countingInstrumentMaster.numCalls);
+    // The earliest dates must have been evicted by now.
+    assertOptionalEquals(symbol("A"), cachingInstrumentMaster.getSymbol(STOCK_A, DAY1));
+    assertEquals(1_001, countingInstrumentMaster.numCalls);
+  }
+
+  @Test
+  public void pinnedDate_usesSeparateCache() {
+    CachingInstrumentMaster cachingInstrumentMaster = cachingInstrumentMaster(countingInstrumentMaster, 1);
+    assertOptionalEmpty(cachingInstrumentMaster.getPinnedDate());
+    cachingInstrumentMaster.pinToDate(DAY1);
+    assertOptionalEquals(DAY1, cachingInstrumentMaster.getPinnedDate());
+
+    // The bounded cache only holds 1 item per lookup type, but the pinned date's cache is unbounded.
+    for (int i = 0; i < 3; i++) {
+      assertOptionalEquals(symbol("A"), cachingInstrumentMaster.getSymbol(STOCK_A, DAY1));
+      assertOptionalEquals(symbol("B"), cachingInstrumentMaster.getSymbol(STOCK_B, DAY1));
+      assertOptionalEmpty(cachingInstrumentMaster.getSymbol(STOCK_C, DAY1));
+      assertOptionalEquals(symbol("A"), cachingInstrumentMaster.getLatestValidSymbol(STOCK_A, DAY1));
+      assertOptionalEquals(STOCK_A, cachingInstrumentMaster.getInstrumentId(symbol("A"), DAY1));
+      assertOptionalEquals(STOCK_B, cachingInstrumentMaster.getInstrumentId(symbol("B"), DAY1));
+    }
+    assertEquals(6, countingInstrumentMaster.numCalls);
+
+    // Re-pinning the same date keeps the cached values
+    cachingInstrumentMaster.pinToDate(DAY1);
+    assertOptionalEquals(symbol("B"), cachingInstrumentMaster.getSymbol(STOCK_B, DAY1));
+    assertEquals(6, countingInstrumentMaster.numCalls);
+
+    // Pinning a different date drops them
+    cachingInstrumentMaster.pinToDate(DAY2);
+    assertOptionalEquals(symbol("B"), cachingInstrumentMaster.getSymbol(STOCK_B, DAY1));
+    assertEquals(7, countingInstrumentMaster.numCalls);
+
+    cachingInstrumentMaster.unpin();
+    assertOptionalEmpty(cachingInstrumentMaster.getPinnedDate());
+    assertOptionalEquals(symbol("B"), cachingInstrumentMaster.getSymbol(STOCK_B, DAY2));
+    assertOptionalEquals(symbol("B"), cachingInstrumentMaster.getSymbol(STOCK_B, DAY2));
+    assertEquals(8, countingInstrumentMaster.numCalls);
+  }
+
+  @Test
+  public void noLookupsYet_noHitRate() {
+    CachingInstrumentMaster cachingInstrumentMaster = cachingInstrumentMaster(countingInstrumentMaster, 10);
+    assertEquals(0, cachingInstrumentMaster.getCacheStats().getNumLookups());
+    assertOptionalEmpty(cachingInstrumentMaster.getCacheStats().getOptionalHitRate());
+  }
+
+}
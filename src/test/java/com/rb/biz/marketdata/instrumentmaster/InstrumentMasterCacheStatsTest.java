@@ -0,0 +1,38 @@
+package com.rb.biz.marketdata.instrumentmaster;
+
+import org.junit.Test;
+
+import static com.rb.biz.marketdata.instrumentmaster.InstrumentMasterCacheStats.instrumentMasterCacheStats;
+import static com.rb.biz.marketdata.instrumentmaster.InstrumentMasterCacheStats.noInstrumentMasterLookupsYet;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalEmpty;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalEquals;
+import static com.rb.nonbiz.types.UnitFraction.UNIT_FRACTION_0;
+import static com.rb.nonbiz.types.UnitFraction.UNIT_FRACTION_1;
+import static com.rb.nonbiz.types.UnitFraction.unitFraction;
+import static org.junit.Assert.assertEquals;
+
+public class InstrumentMasterCacheStatsTest {
+
+  @Test
+  public void negativeCounts_throws() {
+    assertIllegalArgumentException( () -> instrumentMasterCacheStats(-1, 0));
+    assertIllegalArgumentException( () -> instrumentMasterCacheStats(0, -1));
+    InstrumentMasterCacheStats doesNotThrow = instrumentMasterCacheStats(0, 0);
+  }
+
+  @Test
+  public void testGetters() {
+    InstrumentMasterCacheStats stats = instrumentMasterCacheStats(3, 1);
+    assertEquals(3, stats.getNumHits());
+    assertEquals(1, stats.getNumMisses());
+    assertEquals(4, stats.getNumLookups());
+    assertOptionalEquals(unitFraction(3, 4), stats.getOptionalHitRate());
+
+    assertOptionalEquals(UNIT_FRACTION_0, instrumentMasterCacheStats(0, 5).getOptionalHitRate());
+    assertOptionalEquals(UNIT_FRACTION_1, instrumentMasterCacheStats(5, 0).getOptionalHitRate());
+    assertOptionalEmpty(noInstrumentMasterLookupsYet().getOptionalHitRate());
+    assertEquals(0, noInstrumentMasterLookupsYet().getNumLookups());
+  }
+
+}
@@ -0,0 +1,98 @@
+package com.rb.biz.marketdata.instrumentmaster;
+
+import com.google.common.collect.ImmutableList;
+import com.rb.nonbiz.testutils.RBTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_A;
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_B;
+import static com.rb.biz.marketdata.instrumentmaster.SymbolValidityInterval.symbolValidityIntervalWithEnd;
+import static com.rb.biz.marketdata.instrumentmaster.SymbolValidityInterval.symbolValidityIntervalWithNoEnd;
+import static com.rb.biz.marketdata.instrumentmaster.SymbolValidityIntervalTest.symbolValidityIntervalMatcher;
+import static com.rb.biz.types.Symbol.symbol;
+import static com.rb.nonbiz.testmatchers.RBCollectionMatchers.orderedListMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalEquals;
+import static com.rb.nonbiz.testutils.Asserters.assertThrowsWithMessage;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class IntervalIndexedInstrumentMasterLoaderTest extends RBTest<IntervalIndexedInstrumentMasterLoader> {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final List<SymbolValidityInterval> INTERVALS = ImmutableList.of(
+      symbolValidityIntervalWithEnd(STOCK_A, symbol("FB"), LocalDate.of(2010, 1, 1), LocalDate.of(2021, 10, 27)),
+      symbolValidityIntervalWithNoEnd(STOCK_A, symbol("META"), LocalDate.of(2021, 10, 28)),
+      symbolValidityIntervalWithEnd(STOCK_B, symbol("META"), LocalDate.of(2000, 1, 1), LocalDate.of(2009, 12, 31)));
+
+  @Test
+  public void writeThenRead_roundTrips() throws IOException {
+    Path file = temporaryFolder.getRoot().toPath().resolve("subdirectory").resolve("instrumentMaster.txt");
+    makeTestObject().write(INTERVALS, file);
+    assertThat(
+        makeTestObject().readIntervals(file),
+        orderedListMatcher(INTERVALS, f -> symbolValidityIntervalMatcher(f)));
+
+    IntervalIndexedInstrumentMaster instrumentMaster = makeTestObject().load(file);
+    assertOptionalEquals(STOCK_A, instrumentMaster.getInstrumentId(symbol("META"), LocalDate.of(2022, 1, 1)));
+    assertOptionalEquals(STOCK_B, instrumentMaster.getInstrumentId(symbol("META"), LocalDate.of(2005, 1, 1)));
+  }
+
+  @Test
+  public void fileFormat() throws IOException {
+    StringWriter stringWriter = new StringWriter();
+    try (BufferedWriter writer = new BufferedWriter(stringWriter)) {
+      makeTestObject().writeIntervals(INTERVALS.subList(0, 2), writer);
+    }
+    String nl = System.lineSeparator();
+    assertEquals(
+        "RBIIIM\t1" + nl
+            + "79910611121\tFB\t14610\t18927" + nl
+            + "79910611121\tMETA\t18928\t" + nl,
+        stringWriter.toString());
+  }
+
+  @Test
+  public void badContents_throws() {
+    assertIllegalArgumentException( () -> read("RBIIIM\t2\n"));
+    assertIllegalArgumentException( () -> read("79910611121\tFB\t14610\t18927\n"));
+    assertIllegalArgumentException( () -> read("RBIIIM\t1\n79910611121\tFB\t14610\n"));
+    assertIllegalArgumentException( () -> read("RBIIIM\t1\n79910611121\tlowercase\t14610\t\n"));
+  }
+
+  @Test
+  public void badNumbers_throwIllegalArgumentExceptionWithTheLine() {
+    assertThrowsWithMessage(
+        "'x14610' is not a valid number in this line of the instrument master file: 79910611121\tFB\tx14610\t",
+        () -> read("RBIIIM\t1\n79910611121\tFB\tx14610\t\n"));
+    assertIllegalArgumentException( () -> read("RBIIIM\t1\nABC\tFB\t14610\t\n"));
+    assertIllegalArgumentException( () -> read("RBIIIM\t1\n79910611121\tFB\t14610\t1.5\n"));
+  }
+
+  private List<SymbolValidityInterval> read(String contents) {
+    try {
+      return makeTestObject().readIntervals(new BufferedReader(new StringReader(contents)));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  protected IntervalIndexedInstrumentMasterLoader makeTestObject() {
+    return new IntervalIndexedInstrumentMasterLoader();
+  }
+
+}
@@ -0,0 +1,184 @@
+package com.rb.biz.marketdata.instrumentmaster;
+
+import com.google.common.collect.ImmutableList;
+import com.rb.biz.types.Symbol;
+import com.rb.biz.types.asset.InstrumentId;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_A;
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_B;
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_C;
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_D;
+import static com.rb.biz.marketdata.instrumentmaster.IntervalIndexedInstrumentMaster.intervalIndexedInstrumentMaster;
+import static com.rb.biz.marketdata.instrumentmaster.SymbolValidityInterval.symbolValidityIntervalWithEnd;
+import static com.rb.biz.marketdata.instrumentmaster.SymbolValidityInterval.symbolValidityIntervalWithNoEnd;
+import static com.rb.biz.types.Symbol.symbol;
+import static com.rb.nonbiz.collections.IidMapSimpleConstructors.iidMapOf;
+import static com.rb.nonbiz.collections.IidMapSimpleConstructors.singletonIidMap;
+import static com.rb.nonbiz.collections.IidMapTest.iidMapEqualityMatcher;
+import static com.rb.nonbiz.collections.IidSetSimpleConstructors.iidSetOf;
+import static com.rb.nonbiz.collections.RBMapSimpleConstructors.rbMapOf;
+import static com.rb.nonbiz.collections.RBSet.rbSetOf;
+import static com.rb.nonbiz.testmatchers.RBMapMatchers.rbMapEqualityMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalEmpty;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalEquals;
+import static com.rb.nonbiz.util.TieredPreconditions.resetToDefaults;
+import static com.rb.nonbiz.util.TieredPreconditions.setValidationTier;
+import static com.rb.nonbiz.util.ValidationTier.VALIDATE_ONLY_IN_DEBUG_MODE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class IntervalIndexedInstrumentMasterTest {
+
+  private final LocalDate TICKER_CHANGE_DATE = LocalDate.of(2021, 10, 28);
+
+  // STOCK_A traded as FB and then META. STOCK_B traded as META earlier (symbols can get reused), and then delisted.
+  // STOCK_C started trading later. STOCK_D is not in the instrument master.
+  private final List<SymbolValidityInterval> INTERVALS = ImmutableList.of(
+      symbolValidityIntervalWithNoEnd(STOCK_A, symbol("META"), TICKER_CHANGE_DATE),
+      symbolValidityIntervalWithEnd(STOCK_A, symbol("FB"), LocalDate.of(2010, 1, 1), TICKER_CHANGE_DATE.minusDays(1)),
+      symbolValidityIntervalWithEnd(STOCK_B, symbol("META"), LocalDate.of(2000, 1, 1), LocalDate.of(2009, 12, 31)),
+      symbolValidityIntervalWithNoEnd(STOCK_C, symbol("C"), LocalDate.of(2015, 1, 1)));
+
+  @Test
+  public void pointInTimeLookups() {
+    IntervalIndexedInstrumentMaster instrumentMaster = intervalIndexedInstrumentMaster(INTERVALS);
+    LocalDate before = LocalDate.of(2005, 6, 1);
+    LocalDate middle = LocalDate.of(2012, 6, 1);
+    LocalDate after = LocalDate.of(2022, 6, 1);
+
+    assertOptionalEquals(STOCK_B, instrumentMaster.getInstrumentId(symbol("META"), before));
+    assertOptionalEmpty(instrumentMaster.getInstrumentId(symbol("META"), middle));
+    assertOptionalEquals(STOCK_A, instrumentMaster.getInstrumentId(symbol("META"), after));
+    assertOptionalEquals(STOCK_A, instrumentMaster.getInstrumentId(symbol("META"), TICKER_CHANGE_DATE));
+    assertOptionalEquals(STOCK_A, instrumentMaster.getInstrumentId(symbol("FB"), TICKER_CHANGE_DATE.minusDays(1)));
+    assertOptionalEmpty(instrumentMaster.getInstrumentId(symbol("FB"), TICKER_CHANGE_DATE));
+    assertOptionalEmpty(instrumentMaster.getInstrumentId(symbol("XYZ"), after));
+
+    assertOptionalEmpty(instrumentMaster.getSymbol(STOCK_A, before));
+    assertOptionalEquals(symbol("FB"), instrumentMaster.getSymbol(STOCK_A, middle));
+    assertOptionalEquals(symbol("META"), instrumentMaster.getSymbol(STOCK_A, after));
+    assertOptionalEmpty(instrumentMaster.getSymbol(STOCK_B, after));
+    assertOptionalEmpty(instrumentMaster.getSymbol(STOCK_D, after));
+
+    assertOptionalEmpty(instrumentMaster.getLatestValidSymbol(STOCK_A, before));
+    assertOptionalEquals(symbol("META"), instrumentMaster.getLatestValidSymbol(STOCK_A, after));
+    // STOCK_B stopped trading, but we still know what its last symbol was.
+    assertOptionalEquals(symbol("META"), instrumentMaster.getLatestValidSymbol(STOCK_B, after));
+    assertOptionalEmpty(instrumentMaster.getLatestValidSymbol(STOCK_D, after));
+    assertEquals(symbol("META"), instrumentMaster.getLatestValidSymbolOrInstrumentIdAsSymbol(STOCK_B, after));
+
+    assertEquals(3, instrumentMaster.getNumInstruments());
+    assertEquals(3, instrumentMaster.getNumSymbols());
+  }
+
+  @Test
+  public void overlappingIntervals_throws() {
+    LocalDate day1 = LocalDate.of(2020, 1, 1);
+    // Same instrument, 2 symbols at the same time
+    assertIllegalArgumentException( () -> intervalIndexedInstrumentMaster(ImmutableList.of(
+        symbolValidityIntervalWithEnd(STOCK_A, symbol("X"), day1, day1.plusDays(10)),
+        symbolValidityIntervalWithNoEnd(STOCK_A, symbol("Y"), day1.plusDays(10)))));
+    // Same symbol, 2 instruments at the same time
+    assertIllegalArgumentException( () -> intervalIndexedInstrumentMaster(ImmutableList.of(
+        symbolValidityIntervalWithNoEnd(STOCK_A, symbol("X"), day1),
+        symbolValidityIntervalWithNoEnd(STOCK_B, symbol("X"), day1.plusDays(100)))));
+    // An open-ended interval that's not the last one
+    assertIllegalArgumentException( () -> intervalIndexedInstrumentMaster(ImmutableList.of(
+        symbolValidityIntervalWithNoEnd(STOCK_A, symbol("X"), day1),
+        symbolValidityIntervalWithEnd(STOCK_A, symbol("Y"), day1.plusDays(100), day1.plusDays(200)))));
+
+    IntervalIndexedInstrumentMaster doesNotThrow = intervalIndexedInstrumentMaster(ImmutableList.of(
+        symbolValidityIntervalWithEnd(STOCK_A, symbol("X"), day1, day1.plusDays(9)),
+        symbolValidityIntervalWithNoEnd(STOCK_A, symbol("Y"), day1.plusDays(10))));
+  }
+
+  @Test
+  public void overlappingIntervals_throwsEvenIfExpensiveChecksAreTurnedOff() {
+    LocalDate day1 = LocalDate.of(2020, 1, 1);
+    // e.g. a vendor file where a ticker change got recorded twice, with slightly different dates
+    List<SymbolValidityInterval> overlapping = ImmutableList.of(
+        symbolValidityIntervalWithEnd(STOCK_A, symbol("FB"), day1, day1.plusDays(20)),
+        symbolValidityIntervalWithEnd(STOCK_A, symbol("META"), day1.plusDays(15), day1.plusDays(30)),
+        symbolValidityIntervalWithNoEnd(STOCK_A, symbol("META2"), day1.plusDays(31)));
+    setValidationTier("", VALIDATE_ONLY_IN_DEBUG_MODE);
+    try {
+      assertIllegalArgumentException( () -> intervalIndexedInstrumentMaster(overlapping));
+    } finally {
+      resetToDefaults();
+    }
+  }
+
+  @Test
+  public void bulkLookups() {
+    IntervalIndexedInstrumentMaster instrumentMaster = intervalIndexedInstrumentMaster(INTERVALS);
+    LocalDate date = LocalDate.of(2016, 6, 1);
+    assertThat(
+        instrumentMaster.getSymbols(iidSetOf(STOCK_A, STOCK_B, STOCK_C, STOCK_D), date),
+        iidMapEqualityMatcher(iidMapOf(
+            STOCK_A, symbol("FB"),
+            STOCK_C, symbol("C"))));
+    assertThat(
+        instrumentMaster.getLatestValidSymbols(iidSetOf(STOCK_A, STOCK_B, STOCK_C, STOCK_D), date),
+        iidMapEqualityMatcher(iidMapOf(
+            STOCK_A, symbol("FB"),
+            STOCK_B, symbol("META"),
+            STOCK_C, symbol("C"))));
+    assertThat(
+        instrumentMaster.getSymbols(iidSetOf(STOCK_A, STOCK_B), LocalDate.of(2005, 1, 1)),
+        iidMapEqualityMatcher(singletonIidMap(STOCK_B, symbol("META"))));
+    assertThat(
+        instrumentMaster.getInstrumentIds(rbSetOf(symbol("META"), symbol("FB"), symbol("C"), symbol("XYZ")), date),
+        rbMapEqualityMatcher(rbMapOf(
+            symbol("FB"), STOCK_A,
+            symbol("C"), STOCK_C)));
+  }
+
+  @Test
+  public void dailySnapshot_sameAnswersAsInstrumentMaster() {
+    IntervalIndexedInstrumentMaster instrumentMaster = intervalIndexedInstrumentMaster(INTERVALS);
+    List<LocalDate> dates = ImmutableList.of(
+        LocalDate.of(2005, 6, 1), LocalDate.of(2012, 6, 1), TICKER_CHANGE_DATE, LocalDate.of(2022, 6, 1));
+    List<InstrumentId> instrumentIds = ImmutableList.of(STOCK_A, STOCK_B, STOCK_C, STOCK_D);
+    List<Symbol> symbols = ImmutableList.of(symbol("META"), symbol("FB"), symbol("C"), symbol("XYZ"));
+    for (LocalDate snapshotDate : dates) {
+      InstrumentMasterDailySnapshot snapshot = instrumentMaster.getDailySnapshot(snapshotDate);
+      assertEquals(snapshotDate, snapshot.getDate());
+      // Also check other dates, which the snapshot passes on to the instrument master.
+      for (LocalDate date : dates) {
+        for (InstrumentId instrumentId : instrumentIds) {
+          assertEquals(instrumentMaster.getSymbol(instrumentId, date), snapshot.getSymbol(instrumentId, date));
+          assertEquals(
+              instrumentMaster.getLatestValidSymbol(instrumentId, date),
+              snapshot.getLatestValidSymbol(instrumentId, date));
+        }
+        for (Symbol symbol : symbols) {
+          assertEquals(instrumentMaster.getInstrumentId(symbol, date), snapshot.getInstrumentId(symbol, date));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void dailySnapshot_isReusedForSameDate() {
+    IntervalIndexedInstrumentMaster instrumentMaster = intervalIndexedInstrumentMaster(INTERVALS);
+    LocalDate day1 = LocalDate.of(2016, 6, 1);
+    LocalDate day2 = day1.plusDays(1);
+    InstrumentMasterDailySnapshot snapshot1 = instrumentMaster.getDailySnapshot(day1);
+    assertSame(snapshot1, instrumentMaster.getDailySnapshot(day1));
+    InstrumentMasterDailySnapshot snapshot2 = instrumentMaster.getDailySnapshot(day2);
+    assertEquals(day2, snapshot2.getDate());
+    assertSame(snapshot2, instrumentMaster.getDailySnapshot(day2));
+    assertThat(
+        snapshot2.getValidSymbols(),
+        iidMapEqualityMatcher(iidMapOf(
+            STOCK_A, symbol("FB"),
+            STOCK_C, symbol("C"))));
+  }
+
+}
@@ -0,0 +1,67 @@
+package com.rb.biz.marketdata.instrumentmaster;
+
+import com.google.common.collect.Range;
+import com.rb.nonbiz.testutils.RBTestMatcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_A;
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_B;
+import static com.rb.biz.marketdata.instrumentmaster.SymbolValidityInterval.symbolValidityInterval;
+import static com.rb.biz.marketdata.instrumentmaster.SymbolValidityInterval.symbolValidityIntervalWithEnd;
+import static com.rb.biz.marketdata.instrumentmaster.SymbolValidityInterval.symbolValidityIntervalWithNoEnd;
+import static com.rb.biz.types.Symbol.symbol;
+import static com.rb.nonbiz.testmatchers.Match.match;
+import static com.rb.nonbiz.testmatchers.Match.matchUsingEquals;
+import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
+import static com.rb.nonbiz.testmatchers.RBRangeMatchers.rangeEqualityMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+
+public class SymbolValidityIntervalTest extends RBTestMatcher<SymbolValidityInterval> {
+
+  @Test
+  public void rangeMustBeClosedOrAtLeast() {
+    LocalDate day1 = LocalDate.of(2020, 1, 1);
+    LocalDate day2 = LocalDate.of(2020, 12, 31);
+    assertIllegalArgumentException( () -> symbolValidityInterval(STOCK_A, symbol("A"), Range.closedOpen(day1, day2)));
+    assertIllegalArgumentException( () -> symbolValidityInterval(STOCK_A, symbol("A"), Range.atMost(day2)));
+    assertIllegalArgumentException( () -> symbolValidityInterval(STOCK_A, symbol("A"), Range.greaterThan(day1)));
+    assertIllegalArgumentException( () -> symbolValidityInterval(STOCK_A, symbol("A"), Range.all()));
+    SymbolValidityInterval doesNotThrow;
+    doesNotThrow = symbolValidityInterval(STOCK_A, symbol("A"), Range.closed(day1, day2));
+    doesNotThrow = symbolValidityInterval(STOCK_A, symbol("A"), Range.singleton(day1));
+    doesNotThrow = symbolValidityInterval(STOCK_A, symbol("A"), Range.atLeast(day1));
+  }
+
+  @Override
+  public SymbolValidityInterval makeTrivialObject() {
+    return symbolValidityIntervalWithNoEnd(STOCK_A, symbol("A"), LocalDate.of(2000, 1, 1));
+  }
+
+  @Override
+  public SymbolValidityInterval makeNontrivialObject() {
+    return symbolValidityIntervalWithEnd(STOCK_B, symbol("B.X"), LocalDate.of(2010, 3, 4), LocalDate.of(2015, 6, 7));
+  }
+
+  @Override
+  public SymbolValidityInterval makeMatchingNontrivialObject() {
+    // Nothing to tweak here
+    return symbolValidityIntervalWithEnd(STOCK_B, symbol("B.X"), LocalDate.of(2010, 3, 4), LocalDate.of(2015, 6, 7));
+  }
+
+  @Override
+  protected boolean willMatch(SymbolValidityInterval expected, SymbolValidityInterval actual) {
+    return symbolValidityIntervalMatcher(expected).matches(actual);
+  }
+
+  public static TypeSafeMatcher<SymbolValidityInterval> symbolValidityIntervalMatcher(
+      SymbolValidityInterval expected) {
+    return makeMatcher(expected,
+        matchUsingEquals(v -> v.getInstrumentId()),
+        matchUsingEquals(v -> v.getSymbol()),
+        match(v -> v.getValidDates(), f -> rangeEqualityMatcher(f)));
+  }
+
+}
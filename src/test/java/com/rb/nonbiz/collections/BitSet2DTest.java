@@ -4,9 +4,15 @@ import com.rb.nonbiz.testutils.RBTestMatcher;
 import org.hamcrest.TypeSafeMatcher;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
 import static com.rb.nonbiz.collections.BitSet2D.bitSet2D;
 import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
 import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -83,6 +89,118 @@ public class BitSet2DTest extends RBTestMatcher<BitSet2D> {
     assertIllegalArgumentException( () -> bitSet2D.get(0, 3));
   }
 
+  @Test
+  public void rowsSpanningMultipleWords() {
+    // 130 columns means 3 words per row, with the last one only partially used.
+    BitSet2D bitSet2D = bitSet2D(3, 130);
+    IntStream.of(0, 63, 64, 127, 128, 129).forEach(column -> bitSet2D.set(1, column));
+    bitSet2D.set(0, 64);
+    bitSet2D.set(2, 129);
+
+    assertEquals(6, bitSet2D.rowCardinality(1));
+    assertEquals(1, bitSet2D.rowCardinality(0));
+    assertEquals(2, bitSet2D.columnCardinality(64));
+    assertEquals(2, bitSet2D.columnCardinality(129));
+    assertEquals(0, bitSet2D.columnCardinality(65));
+    assertEquals(8, bitSet2D.cardinality());
+
+    assertEquals(0,   bitSet2D.nextSetBitInRow(1, 0));
+    assertEquals(63,  bitSet2D.nextSetBitInRow(1, 1));
+    assertEquals(64,  bitSet2D.nextSetBitInRow(1, 64));
+    assertEquals(127, bitSet2D.nextSetBitInRow(1, 65));
+    assertEquals(129, bitSet2D.nextSetBitInRow(1, 129));
+    assertEquals(-1,  bitSet2D.nextSetBitInRow(1, 130));
+    assertEquals(-1,  bitSet2D.nextSetBitInRow(0, 65));
+    assertIllegalArgumentException( () -> bitSet2D.nextSetBitInRow(1, -1));
+    assertIllegalArgumentException( () -> bitSet2D.nextSetBitInRow(3, 0));
+
+    assertArrayEquals(new int[] { 0, 63, 64, 127, 128, 129 }, bitSet2D.setBitsInRowStream(1).toArray());
+    IntStream.Builder builder = IntStream.builder();
+    bitSet2D.forEachSetBitInRow(1, builder);
+    assertArrayEquals(new int[] { 0, 63, 64, 127, 128, 129 }, builder.build().toArray());
+    assertEquals(bitSet(64), bitSet2D.getRow(0));
+  }
+
+  @Test
+  public void testAndOfRowsAndOrOfRows() {
+    BitSet2D bitSet2D = bitSet2D(3, 70);
+    IntStream.of(1, 2, 69).forEach(column -> bitSet2D.set(0, column));
+    IntStream.of(2, 3, 69).forEach(column -> bitSet2D.set(1, column));
+    IntStream.of(2, 4).forEach(column -> bitSet2D.set(2, column));
+
+    assertEquals(bitSet(1, 2, 69),       bitSet2D.andOfRows(0, 1));
+    assertEquals(bitSet(2, 69),          bitSet2D.andOfRows(0, 2));
+    assertEquals(bitSet(2),              bitSet2D.andOfRows(0, 3));
+    assertEquals(bitSet(2),              bitSet2D.andOfRows(1, 3));
+    assertEquals(bitSet(1, 2, 3, 69),    bitSet2D.orOfRows(0, 2));
+    assertEquals(bitSet(1, 2, 3, 4, 69), bitSet2D.orOfRows(0, 3));
+    assertIllegalArgumentException( () -> bitSet2D.andOfRows(0, 0));
+    assertIllegalArgumentException( () -> bitSet2D.andOfRows(0, 4));
+    assertIllegalArgumentException( () -> bitSet2D.orOfRows(-1, 1));
+  }
+
+  @Test
+  public void testAndRowAndOrRow() {
+    BitSet2D bitSet2D = bitSet2D(2, 70);
+    IntStream.of(1, 2, 69).forEach(column -> bitSet2D.set(0, column));
+    bitSet2D.andRow(0, bitSet(2, 3, 69));
+    assertEquals(bitSet(2, 69), bitSet2D.getRow(0));
+    bitSet2D.andRow(0, bitSet(2));
+    assertEquals(bitSet(2), bitSet2D.getRow(0));
+
+    bitSet2D.orRow(0, bitSet(5, 68));
+    assertEquals(bitSet(2, 5, 68), bitSet2D.getRow(0));
+    assertEquals(new BitSet(), bitSet2D.getRow(1));
+    assertIllegalArgumentException( () -> bitSet2D.orRow(0, bitSet(70)));
+  }
+
+  @Test
+  public void testTranspose() {
+    BitSet2D bitSet2D = bitSet2D(2, 3);
+    bitSet2D.set(0, 1);
+    bitSet2D.set(1, 0);
+    bitSet2D.set(1, 2);
+    BitSet2D expected = bitSet2D(3, 2);
+    expected.set(1, 0);
+    expected.set(0, 1);
+    expected.set(2, 1);
+    assertThat(bitSet2D.transpose(), bitSet2DMatcher(expected));
+    assertThat(bitSet2D.transpose().transpose(), bitSet2DMatcher(bitSet2D));
+  }
+
+  @Test
+  public void testConstructorFromFlatBitSet() {
+    BitSet2D expected = bitSet2D(2, 3);
+    expected.set(0, 2);
+    expected.set(1, 1);
+    assertThat(
+        new BitSet2D(bitSet(2, 4), 2, 3),
+        bitSet2DMatcher(expected));
+    BitSet2D doesNotThrow = new BitSet2D(bitSet(5), 2, 3);
+    doesNotThrow = new BitSet2D(new BitSet(), 2, 3);
+
+    assertIllegalArgumentException( () -> new BitSet2D(bitSet(6), 2, 3));
+    assertIllegalArgumentException( () -> new BitSet2D(bitSet(0), 2, 0));
+    assertIllegalArgumentException( () -> new BitSet2D(bitSet(0), 0, 3));
+    assertIllegalArgumentException( () -> new BitSet2D(new BitSet(), -1, 3));
+    assertIllegalArgumentException( () -> new BitSet2D(new BitSet(), 2, -1));
+  }
+
+  @Test
+  public void constructorFromFlatBitSet_copiesTheBits() {
+    BitSet flatBitSet = bitSet(1);
+    BitSet2D bitSet2D = new BitSet2D(flatBitSet, 2, 3);
+    flatBitSet.set(4);
+    assertTrue(bitSet2D.get(0, 1));
+    assertFalse(bitSet2D.get(1, 1));
+  }
+
+  private BitSet bitSet(int ... bitsOn) {
+    BitSet bitSet = new BitSet();
+    IntStream.of(bitsOn).forEach(bit -> bitSet.set(bit));
+    return bitSet;
+  }
+
   @Override
   public BitSet2D makeTrivialObject() {
     return bitSet2D(1, 1);
@@ -115,7 +233,7 @@ public class BitSet2DTest extends RBTestMatcher<BitSet2D> {
     return makeMatcher(expected, actual ->
         expected.getNumRows() == actual.getNumRows()
         && expected.getNumColumns() == actual.getNumColumns()
-        && expected.getFlatBitSet().equals(actual.getFlatBitSet()));
+        && Arrays.equals(expected.getRawWords(), actual.getRawWords()));
   }
 
 }
@@ -1,11 +1,15 @@
 package com.rb.nonbiz.collections;
 
 import com.google.common.collect.ImmutableSet;
+import com.rb.nonbiz.collections.Counter.ConcurrentCounterBuilder;
 import com.rb.nonbiz.collections.Counter.CounterBuilder;
 import com.rb.nonbiz.testutils.RBTestMatcher;
 import org.hamcrest.TypeSafeMatcher;
 import org.junit.Test;
 
+import java.util.stream.IntStream;
+
+import static com.rb.nonbiz.collections.Counter.ConcurrentCounterBuilder.concurrentCounterBuilder;
 import static com.rb.nonbiz.collections.Counter.CounterBuilder.counterBuilder;
 import static com.rb.nonbiz.collections.RBMapSimpleConstructors.rbMapOf;
 import static com.rb.nonbiz.testmatchers.Match.matchUsingEquals;
@@ -166,6 +170,31 @@ public class CounterTest extends RBTestMatcher<Counter<String>> {
             f -> typeSafeEqualTo(f)));
   }
 
+  @Test
+  public void testConcurrentCounterBuilder() {
+    assertThat(
+        ConcurrentCounterBuilder.<String>concurrentCounterBuilder().build(),
+        counterMatcher(emptyCounter()));
+
+    // Every thread increments the same few keys, so this would lose counts if the builder weren't thread-safe.
+    ConcurrentCounterBuilder<String> concurrentBuilder = concurrentCounterBuilder();
+    IntStream.range(0, 10_000)
+        .parallel()
+        .forEach(i -> concurrentBuilder.increment(i % 3 == 0 ? "A" : "B"));
+    Counter<String> counter = concurrentBuilder
+        .add("C", 0)
+        .build();
+    assertThat(
+        counter,
+        counterMatcher(counterFromMap(rbMapOf(
+            "A", 3_334,
+            "B", 6_666,
+            "C", 0))));
+    assertEquals(10_000, counter.getSumOfCounts());
+
+    assertIllegalArgumentException( () -> ConcurrentCounterBuilder.<String>concurrentCounterBuilder().add("A", -1));
+  }
+
   @Override
   public Counter<String> makeTrivialObject() {
     return CounterBuilder.<String>counterBuilder().build();
@@ -0,0 +1,199 @@
+package com.rb.nonbiz.collections;
+
+import com.rb.nonbiz.collections.DateIndexedMap.DateIndexedMapBuilder;
+import com.rb.nonbiz.testmatchers.RBMatchers.MatcherGenerator;
+import com.rb.nonbiz.testutils.RBTestMatcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static com.rb.nonbiz.collections.ClosedRange.closedRange;
+import static com.rb.nonbiz.collections.DateIndexedMap.DateIndexedMapBuilder.dateIndexedMapBuilder;
+import static com.rb.nonbiz.collections.DateIndexedMap.dateIndexedMap;
+import static com.rb.nonbiz.collections.DateIndexedMap.emptyDateIndexedMap;
+import static com.rb.nonbiz.collections.MutableRBMap.newMutableRBMap;
+import static com.rb.nonbiz.collections.NearbyDatesMap.nearbyDatesMap;
+import static com.rb.nonbiz.collections.RBMapSimpleConstructors.emptyRBMap;
+import static com.rb.nonbiz.collections.RBMapSimpleConstructors.newRBMap;
+import static com.rb.nonbiz.collections.RBMapSimpleConstructors.rbMapOf;
+import static com.rb.nonbiz.testmatchers.Match.matchRBMap;
+import static com.rb.nonbiz.testmatchers.RBMapMatchers.rbMapMatcher;
+import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
+import static com.rb.nonbiz.testmatchers.RBValueMatchers.doubleAlmostEqualsMatcher;
+import static com.rb.nonbiz.testmatchers.RBValueMatchers.typeSafeEqualTo;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalEmpty;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalEquals;
+import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DateIndexedMapTest extends RBTestMatcher<DateIndexedMap<Double>> {
+
+  private final LocalDate day1 = LocalDate.of(1974, 4, 1);
+  private final LocalDate day4 = LocalDate.of(1974, 4, 4);
+  private final LocalDate day6 = LocalDate.of(1974, 4, 6);
+  private final LocalDate day9 = LocalDate.of(1974, 4, 9);
+
+  @Test
+  public void builder_cannotPutSameDateTwice() {
+    assertIllegalArgumentException( () -> dateIndexedMapBuilder()
+        .putAssumingAbsent(day4, 0.4)
+        .putAssumingAbsent(day4, 0.4)
+        .build());
+  }
+
+  @Test
+  public void testGet() {
+    DateIndexedMap<Double> map = makeNontrivialObject();
+    assertEquals(3, map.size());
+    assertFalse(map.isEmpty());
+    assertOptionalEmpty(map.getOptional(day1.minusDays(1)));
+    assertOptionalEquals(0.1, map.getOptional(day1));
+    assertOptionalEmpty(map.getOptional(day1.plusDays(1)));
+    assertOptionalEquals(0.4, map.getOptional(day4));
+    assertOptionalEquals(0.9, map.getOptional(day9));
+    assertOptionalEmpty(map.getOptional(day9.plusDays(1)));
+    assertOptionalEquals(0.4, map.getOptionalByEpochDay((int) day4.toEpochDay()));
+
+    assertEquals(0.4, map.getOrThrow(day4), 1e-8);
+    assertIllegalArgumentException( () -> map.getOrThrow(day6));
+    assertTrue(map.containsDate(day4));
+    assertFalse(map.containsDate(day6));
+
+    assertOptionalEquals(day1, map.getOptionalFirstDate());
+    assertOptionalEquals(day9, map.getOptionalLastDate());
+  }
+
+  @Test
+  public void testNearestOnOrBeforeAndOnOrAfter() {
+    DateIndexedMap<Double> map = makeNontrivialObject();
+
+    assertOptionalEmpty(map.getOptionalDateOnOrBefore(day1.minusDays(99)));
+    assertOptionalEmpty(map.getOptionalDateOnOrBefore(day1.minusDays(1)));
+    assertOptionalEquals(day1, map.getOptionalDateOnOrBefore(day1));
+    assertOptionalEquals(day1, map.getOptionalDateOnOrBefore(day4.minusDays(1)));
+    assertOptionalEquals(day4, map.getOptionalDateOnOrBefore(day6));
+    assertOptionalEquals(day9, map.getOptionalDateOnOrBefore(day9));
+    assertOptionalEquals(day9, map.getOptionalDateOnOrBefore(day9.plusDays(99)));
+    assertOptionalEquals(0.4, map.getOptionalValueOnOrBefore(day6));
+    assertOptionalEmpty(map.getOptionalValueOnOrBefore(day1.minusDays(1)));
+
+    assertOptionalEquals(day1, map.getOptionalDateOnOrAfter(day1.minusDays(99)));
+    assertOptionalEquals(day1, map.getOptionalDateOnOrAfter(day1));
+    assertOptionalEquals(day4, map.getOptionalDateOnOrAfter(day1.plusDays(1)));
+    assertOptionalEquals(day9, map.getOptionalDateOnOrAfter(day6));
+    assertOptionalEquals(day9, map.getOptionalDateOnOrAfter(day9));
+    assertOptionalEmpty(map.getOptionalDateOnOrAfter(day9.plusDays(1)));
+    assertOptionalEquals(0.9, map.getOptionalValueOnOrAfter(day6));
+    assertOptionalEmpty(map.getOptionalValueOnOrAfter(day9.plusDays(1)));
+
+    // Dates so far away from the first date that subtracting epoch days would overflow an int
+    assertOptionalEmpty(map.getOptionalDateOnOrBefore(LocalDate.ofEpochDay(Integer.MIN_VALUE)));
+    assertOptionalEquals(day1, map.getOptionalDateOnOrAfter(LocalDate.ofEpochDay(Integer.MIN_VALUE)));
+    assertOptionalEquals(day9, map.getOptionalDateOnOrBefore(LocalDate.ofEpochDay(Integer.MAX_VALUE)));
+    assertOptionalEmpty(map.getOptionalDateOnOrAfter(LocalDate.ofEpochDay(Integer.MAX_VALUE)));
+    assertOptionalEmpty(map.getOptional(LocalDate.ofEpochDay(Integer.MIN_VALUE)));
+    assertOptionalEmpty(map.getOptional(LocalDate.ofEpochDay(Integer.MAX_VALUE)));
+  }
+
+  @Test
+  public void testForEachEntryInWindow() {
+    DateIndexedMap<Double> map = makeNontrivialObject();
+    MutableRBMap<LocalDate, Double> visited = newMutableRBMap();
+
+    map.forEachEntryInWindow(closedRange(day4, day9), (date, value) -> visited.putAssumingAbsent(date, value));
+    assertThat(
+        newRBMap(visited),
+        rbMapMatcher(rbMapOf(day4, 0.4, day9, 0.9), f -> typeSafeEqualTo(f)));
+
+    // windows that extend past the dates in the map
+    MutableRBMap<LocalDate, Double> visited2 = newMutableRBMap();
+    map.forEachEntryInWindow(closedRange(day1.minusDays(9), day6), (date, value) -> visited2.putAssumingAbsent(date, value));
+    assertThat(
+        newRBMap(visited2),
+        rbMapMatcher(rbMapOf(day1, 0.1, day4, 0.4), f -> typeSafeEqualTo(f)));
+
+    map.forEachEntryInWindow(
+        closedRange(day9.plusDays(1), day9.plusDays(9)),
+        (date, value) -> { throw new IllegalStateException("should not be called"); });
+
+    // A window so wide that subtracting epoch days would overflow an int
+    MutableRBMap<LocalDate, Double> visited3 = newMutableRBMap();
+    map.forEachEntryInWindow(
+        closedRange(LocalDate.ofEpochDay(Integer.MIN_VALUE), LocalDate.ofEpochDay(Integer.MAX_VALUE)),
+        (date, value) -> visited3.putAssumingAbsent(date, value));
+    assertThat(
+        newRBMap(visited3),
+        rbMapMatcher(rbMapOf(day1, 0.1, day4, 0.4, day9, 0.9), f -> typeSafeEqualTo(f)));
+  }
+
+  @Test
+  public void emptyMap() {
+    DateIndexedMap<Double> map = emptyDateIndexedMap();
+    assertTrue(map.isEmpty());
+    assertOptionalEmpty(map.getOptional(day1));
+    assertOptionalEmpty(map.getOptionalDateOnOrBefore(day1));
+    assertOptionalEmpty(map.getOptionalDateOnOrAfter(day1));
+    assertOptionalEmpty(map.getOptionalFirstDate());
+
+    // Dates before 1970 have negative epoch days, which used to index into the (empty) arrays.
+    LocalDate preEpochDate = LocalDate.of(1969, 12, 31);
+    assertOptionalEmpty(map.getOptional(preEpochDate));
+    assertOptionalEmpty(map.getOptionalDateOnOrBefore(preEpochDate));
+    assertOptionalEmpty(map.getOptionalDateOnOrAfter(preEpochDate));
+    assertOptionalEmpty(map.getOptionalValueOnOrAfter(preEpochDate));
+    assertThat(
+        dateIndexedMap(emptyRBMap()),
+        dateIndexedMapMatcher(map, f -> typeSafeEqualTo(f)));
+  }
+
+  @Test
+  public void testConversions() {
+    DateIndexedMap<Double> map = makeNontrivialObject();
+    assertThat(
+        map.toRBMap(),
+        rbMapMatcher(rbMapOf(day1, 0.1, day4, 0.4, day9, 0.9), f -> typeSafeEqualTo(f)));
+    assertThat(
+        dateIndexedMap(nearbyDatesMap(rbMapOf(day1, 0.1, day4, 0.4, day9, 0.9), 10)),
+        dateIndexedMapMatcher(map, f -> typeSafeEqualTo(f)));
+  }
+
+  @Override
+  public DateIndexedMap<Double> makeTrivialObject() {
+    return emptyDateIndexedMap();
+  }
+
+  @Override
+  public DateIndexedMap<Double> makeNontrivialObject() {
+    return DateIndexedMapBuilder.<Double>dateIndexedMapBuilder()
+        .putAssumingAbsent(day4, 0.4)
+        .putAssumingAbsent(day9, 0.9)
+        .putAssumingAbsent(day1, 0.1)
+        .build();
+  }
+
+  @Override
+  public DateIndexedMap<Double> makeMatchingNontrivialObject() {
+    double e = 1e-9; // epsilon
+    return dateIndexedMap(rbMapOf(
+        day1, 0.1 + e,
+        day4, 0.4 + e,
+        day9, 0.9 + e));
+  }
+
+  @Override
+  protected boolean willMatch(DateIndexedMap<Double> expected, DateIndexedMap<Double> actual) {
+    return dateIndexedMapMatcher(expected, f -> doubleAlmostEqualsMatcher(f, DEFAULT_EPSILON_1e_8)).matches(actual);
+  }
+
+  public static <V> TypeSafeMatcher<DateIndexedMap<V>> dateIndexedMapMatcher(
+      DateIndexedMap<V> expected, MatcherGenerator<V> matcherGenerator) {
+    return makeMatcher(expected,
+        matchRBMap(v -> v.toRBMap(), matcherGenerator));
+  }
+
+}
@@ -0,0 +1,60 @@
+package com.rb.nonbiz.collections;
+
+import org.junit.Test;
+
+import static com.rb.nonbiz.collections.DoubleArraySliceView.doubleArraySliceView;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.doubleArrayMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DoubleArraySliceViewTest {
+
+  private static final double[] RAW_ARRAY = { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 };
+
+  @Test
+  public void sliceMustFitInArray() {
+    DoubleArraySliceView doesNotThrow;
+    doesNotThrow = doubleArraySliceView(RAW_ARRAY, 0, 1, 10);
+    doesNotThrow = doubleArraySliceView(RAW_ARRAY, 9, 1, 1);
+    doesNotThrow = doubleArraySliceView(RAW_ARRAY, 1, 4, 3); // 1, 5, 9
+    doesNotThrow = doubleArraySliceView(RAW_ARRAY, 10, 1, 0);
+
+    assertIllegalArgumentException( () -> doubleArraySliceView(RAW_ARRAY, 0, 1, 11));
+    assertIllegalArgumentException( () -> doubleArraySliceView(RAW_ARRAY, 2, 4, 3)); // 2, 6, 10
+    assertIllegalArgumentException( () -> doubleArraySliceView(RAW_ARRAY, -1, 1, 1));
+    assertIllegalArgumentException( () -> doubleArraySliceView(RAW_ARRAY, 0, 0, 1));
+    assertIllegalArgumentException( () -> doubleArraySliceView(RAW_ARRAY, 0, 1, -1));
+  }
+
+  @Test
+  public void testGetAndReductions() {
+    DoubleArraySliceView slice = doubleArraySliceView(RAW_ARRAY, 1, 3, 3); // 1, 4, 7
+    assertEquals(3, slice.size());
+    assertEquals(1, slice.get(0), 1e-8);
+    assertEquals(4, slice.get(1), 1e-8);
+    assertEquals(7, slice.get(2), 1e-8);
+    assertIllegalArgumentException( () -> slice.get(-1));
+    assertIllegalArgumentException( () -> slice.get(3));
+
+    assertEquals(12, slice.sum(), 1e-8);
+    assertEquals(1, slice.min(), 1e-8);
+    assertEquals(7, slice.max(), 1e-8);
+    assertEquals(4, slice.mean(), 1e-8);
+    assertThat(slice.toDoubleArray(), doubleArrayMatcher(new double[] { 1, 4, 7 }, DEFAULT_EPSILON_1e_8));
+    assertEquals(12, slice.doubleStream().sum(), 1e-8);
+  }
+
+  @Test
+  public void emptySlice() {
+    DoubleArraySliceView slice = doubleArraySliceView(RAW_ARRAY, 0, 1, 0);
+    assertTrue(slice.isEmpty());
+    assertEquals(0, slice.sum(), 1e-8);
+    assertIllegalArgumentException( () -> slice.min());
+    assertIllegalArgumentException( () -> slice.max());
+    assertIllegalArgumentException( () -> slice.mean());
+  }
+
+}
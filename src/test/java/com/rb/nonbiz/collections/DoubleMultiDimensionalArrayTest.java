@@ -0,0 +1,199 @@
+package com.rb.nonbiz.collections;
+
+import com.rb.nonbiz.testutils.RBTestMatcher;
+import com.rb.nonbiz.types.Epsilon;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
+
+import java.util.stream.IntStream;
+
+import static com.rb.nonbiz.collections.Coordinates.coordinates;
+import static com.rb.nonbiz.collections.DoubleMultiDimensionalArray.doubleMultiDimensionalArrayFromBoxed;
+import static com.rb.nonbiz.collections.DoubleMultiDimensionalArray.newDoubleMultiDimensionalArray;
+import static com.rb.nonbiz.collections.MultiDimensionalArrayTest.multiDimensionalArrayMatcher;
+import static com.rb.nonbiz.collections.MultiDimensionalArrays.getSliceOfMultiDimensionalArray;
+import static com.rb.nonbiz.collections.MutableDoubleMultiDimensionalArray.mutableDoubleMultiDimensionalArray;
+import static com.rb.nonbiz.collections.MutableDoubleMultiDimensionalArray.mutableDoubleMultiDimensionalArrayFromFlatValues;
+import static com.rb.nonbiz.collections.MutableDoubleMultiDimensionalArrayTest.mutableDoubleMultiDimensionalArrayMatcher;
+import static com.rb.nonbiz.testmatchers.Match.match;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.intArrayMatcher;
+import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
+import static com.rb.nonbiz.testmatchers.RBValueMatchers.doubleAlmostEqualsMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class DoubleMultiDimensionalArrayTest extends RBTestMatcher<DoubleMultiDimensionalArray> {
+
+  // 2 x 3 x 4; the value is 100 * x + 10 * y + z, so it's easy to tell what the coordinates were.
+  private static final DoubleMultiDimensionalArray ARRAY_2x3x4 = makeArray(2, 3, 4);
+
+  @Test
+  public void testGetSlice() {
+    assertThat(
+        ARRAY_2x3x4.getSlice(1, 2),
+        doubleMultiDimensionalArrayMatcher(newDoubleMultiDimensionalArray(mutableDoubleMultiDimensionalArrayFromFlatValues(
+            new double[] {
+                20, 21, 22, 23,
+                120, 121, 122, 123 },
+            2, 1, 4))));
+    assertThat(
+        ARRAY_2x3x4.getSlice(2, 3),
+        doubleMultiDimensionalArrayMatcher(newDoubleMultiDimensionalArray(mutableDoubleMultiDimensionalArrayFromFlatValues(
+            new double[] {
+                3, 13, 23,
+                103, 113, 123 },
+            2, 3, 1))));
+    assertThat(
+        ARRAY_2x3x4.getSlice(0, 1),
+        doubleMultiDimensionalArrayMatcher(newDoubleMultiDimensionalArray(mutableDoubleMultiDimensionalArrayFromFlatValues(
+            IntStream.range(0, 12).mapToDouble(i -> 100 + 10 * (i / 4) + i % 4).toArray(),
+            1, 3, 4))));
+
+    assertIllegalArgumentException( () -> ARRAY_2x3x4.getSlice(-1, 0));
+    assertIllegalArgumentException( () -> ARRAY_2x3x4.getSlice(3, 0));
+    assertIllegalArgumentException( () -> ARRAY_2x3x4.getSlice(0, 2));
+    assertIllegalArgumentException( () -> ARRAY_2x3x4.getSlice(2, -1));
+  }
+
+  @Test
+  public void sliceMatchesGenericSlice() {
+    MultiDimensionalArray<Double> boxed = ARRAY_2x3x4.toBoxedMultiDimensionalArray();
+    for (int dimension = 0; dimension < 3; dimension++) {
+      for (int coordinate = 0; coordinate < ARRAY_2x3x4.getSize(dimension); coordinate++) {
+        assertThat(
+            ARRAY_2x3x4.getSlice(dimension, coordinate).toBoxedMultiDimensionalArray(),
+            multiDimensionalArrayMatcher(
+                getSliceOfMultiDimensionalArray(boxed, dimension, coordinate),
+                f -> doubleAlmostEqualsMatcher(f, DEFAULT_EPSILON_1e_8)));
+      }
+    }
+  }
+
+  @Test
+  public void testReductions() {
+    assertThat(
+        ARRAY_2x3x4.sumAlongDimension(1),
+        doubleMultiDimensionalArrayMatcher(newDoubleMultiDimensionalArray(mutableDoubleMultiDimensionalArrayFromFlatValues(
+            new double[] {
+                30, 33, 36, 39,
+                330, 333, 336, 339 },
+            2, 1, 4))));
+    assertThat(
+        ARRAY_2x3x4.meanAlongDimension(1),
+        doubleMultiDimensionalArrayMatcher(newDoubleMultiDimensionalArray(mutableDoubleMultiDimensionalArrayFromFlatValues(
+            new double[] {
+                10, 11, 12, 13,
+                110, 111, 112, 113 },
+            2, 1, 4))));
+    assertThat(
+        ARRAY_2x3x4.maxAlongDimension(0),
+        doubleMultiDimensionalArrayMatcher(ARRAY_2x3x4.getSlice(0, 1)));
+    assertThat(
+        ARRAY_2x3x4.minAlongDimension(2),
+        doubleMultiDimensionalArrayMatcher(ARRAY_2x3x4.getSlice(2, 0)));
+    assertThat(
+        ARRAY_2x3x4.reduceAlongDimension(2, (v1, v2) -> v1 * 1_000 + v2),
+        doubleMultiDimensionalArrayMatcher(newDoubleMultiDimensionalArray(mutableDoubleMultiDimensionalArrayFromFlatValues(
+            new double[] {
+                1_002_003, 10_011_012_013.0, 20_021_022_023.0,
+                100_101_102_103.0, 110_111_112_113.0, 120_121_122_123.0 },
+            2, 3, 1))));
+  }
+
+  @Test
+  public void testArgMax() {
+    DoubleMultiDimensionalArray array = newDoubleMultiDimensionalArray(mutableDoubleMultiDimensionalArrayFromFlatValues(
+        new double[] {
+            1, 9, 9,
+            7, 3, 2 },
+        2, 3));
+    assertThat(array.argMaxAlongDimension(0), intArrayMatcher(new int[] { 1, 0, 0 }));
+    // Ties go to the smaller coordinate
+    assertThat(array.argMaxAlongDimension(1), intArrayMatcher(new int[] { 1, 0 }));
+    assertThat(ARRAY_2x3x4.argMaxAlongDimension(2), intArrayMatcher(new int[] { 3, 3, 3, 3, 3, 3 }));
+  }
+
+  @Test
+  public void largeArray_parallelAndSequentialResultsMatch() {
+    // Large enough to get split across threads.
+    DoubleMultiDimensionalArray large = makeArray(7, 5, 6, 4, 3, 50);
+    int[] sizes = large.getSizes();
+    for (int dimension = 0; dimension < sizes.length; dimension++) {
+      DoubleMultiDimensionalArray sums = large.sumAlongDimension(dimension);
+      int[] argMax = large.argMaxAlongDimension(dimension);
+      int stride = large.getStride(dimension);
+      for (int flatIndex = 0; flatIndex < sums.getNumCells(); flatIndex++) {
+        int outer = flatIndex / stride;
+        int inner = flatIndex % stride;
+        double expectedSum = 0;
+        for (int k = 0; k < sizes[dimension]; k++) {
+          expectedSum += large.getByFlatIndex(outer * sizes[dimension] * stride + k * stride + inner);
+        }
+        assertEquals(expectedSum, sums.getByFlatIndex(flatIndex), 1e-6);
+        // The values increase along every dimension, so the maximum is always at the last coordinate.
+        assertEquals(sizes[dimension] - 1, argMax[flatIndex]);
+      }
+    }
+  }
+
+  @Test
+  public void testBoxedRoundTrip() {
+    assertThat(
+        doubleMultiDimensionalArrayFromBoxed(ARRAY_2x3x4.toBoxedMultiDimensionalArray()),
+        doubleMultiDimensionalArrayMatcher(ARRAY_2x3x4));
+    assertEquals(123, ARRAY_2x3x4.toBoxedMultiDimensionalArray().get(coordinates(1, 2, 3)), 1e-8);
+  }
+
+  private static DoubleMultiDimensionalArray makeArray(int ... sizes) {
+    MutableDoubleMultiDimensionalArray mutableArray = mutableDoubleMultiDimensionalArray(sizes);
+    for (int flatIndex = 0; flatIndex < mutableArray.getNumCells(); flatIndex++) {
+      double value = 0;
+      int remainder = flatIndex;
+      for (int dimension = 0; dimension < sizes.length; dimension++) {
+        value = value * 10 + remainder / mutableArray.getStride(dimension);
+        remainder %= mutableArray.getStride(dimension);
+      }
+      mutableArray.setByFlatIndex(value, flatIndex);
+    }
+    return newDoubleMultiDimensionalArray(mutableArray);
+  }
+
+  @Override
+  public DoubleMultiDimensionalArray makeTrivialObject() {
+    return newDoubleMultiDimensionalArray(mutableDoubleMultiDimensionalArray(1));
+  }
+
+  @Override
+  public DoubleMultiDimensionalArray makeNontrivialObject() {
+    return newDoubleMultiDimensionalArray(mutableDoubleMultiDimensionalArrayFromFlatValues(
+        new double[] { 1_000.0, 1_000.1, 1_000.2, 1_001.0, 1_001.1, 1_001.2 },
+        2, 1, 3));
+  }
+
+  @Override
+  public DoubleMultiDimensionalArray makeMatchingNontrivialObject() {
+    double e = 1e-9; // epsilon
+    return newDoubleMultiDimensionalArray(mutableDoubleMultiDimensionalArrayFromFlatValues(
+        new double[] { 1_000.0 + e, 1_000.1 + e, 1_000.2 + e, 1_001.0 + e, 1_001.1 + e, 1_001.2 + e },
+        2, 1, 3));
+  }
+
+  @Override
+  protected boolean willMatch(DoubleMultiDimensionalArray expected, DoubleMultiDimensionalArray actual) {
+    return doubleMultiDimensionalArrayMatcher(expected).matches(actual);
+  }
+
+  public static TypeSafeMatcher<DoubleMultiDimensionalArray> doubleMultiDimensionalArrayMatcher(
+      DoubleMultiDimensionalArray expected) {
+    return doubleMultiDimensionalArrayMatcher(expected, DEFAULT_EPSILON_1e_8);
+  }
+
+  public static TypeSafeMatcher<DoubleMultiDimensionalArray> doubleMultiDimensionalArrayMatcher(
+      DoubleMultiDimensionalArray expected, Epsilon epsilon) {
+    return makeMatcher(expected,
+        match(v -> v.getRawMutableArray(), f -> mutableDoubleMultiDimensionalArrayMatcher(f, epsilon)));
+  }
+
+}
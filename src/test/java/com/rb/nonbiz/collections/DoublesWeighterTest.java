@@ -5,7 +5,9 @@ import com.rb.nonbiz.testutils.RBTest;
 import com.rb.nonbiz.types.Epsilon;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.DoubleStream;
 
 import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
 import static com.rb.nonbiz.testutils.Asserters.doubleExplained;
@@ -91,6 +93,47 @@ public class DoublesWeighterTest extends RBTest<DoublesWeighter> {
     assertIllegalArgumentException( () -> assertProducesWeightedAverageValue(0.12345, singletonList(0.3), singletonList(0.0)));
   }
 
+  @Test
+  public void arrayVersions_matchIterableVersion() {
+    List<Double> values = ImmutableList.of(0.0, 0.3, 0.8);
+    List<Double> weights = ImmutableList.of(0.5, 2.0, 2.5);
+    assertEquals(
+        makeTestObject().makeWeightedAverage(values, weights),
+        makeTestObject().makeWeightedAverage(new double[] { 0.0, 0.3, 0.8 }, new double[] { 0.5, 2.0, 2.5 }),
+        1e-14);
+    assertEquals(0.3, makeTestObject().makeWeightedAverage(new double[] { 0.3 }, new double[] { 0.1 }), 0);
+    assertEquals(doubleExplained(0.2, (0.1 + 0.3) / 2), makeTestObject().makeUnweightedAverage(new double[] { 0.1, 0.3 }), 1e-14);
+    assertEquals(0.2, makeTestObject().makeUnweightedAverage(DoubleStream.of(0.1, 0.3)), 1e-14);
+  }
+
+  @Test
+  public void arrayVersions_badInputs_throw() {
+    DoublesWeighter weighter = makeTestObject();
+    assertIllegalArgumentException( () -> weighter.makeWeightedAverage(new double[] {}, new double[] {}));
+    assertIllegalArgumentException( () -> weighter.makeWeightedAverage(new double[] { 0.3 }, new double[] { 0.4, 0.6 }));
+    assertIllegalArgumentException( () -> weighter.makeWeightedAverage(new double[] { 0.3, 0.4 }, new double[] { 0.0, 0.0 }));
+    assertIllegalArgumentException( () -> weighter.makeWeightedAverage(new double[] { 0.3, 0.3 }, new double[] { -1.0, -1.0 }));
+    assertIllegalArgumentException( () -> weighter.makeUnweightedAverage(new double[] {}));
+    assertIllegalArgumentException( () -> weighter.makeUnweightedAverage(DoubleStream.empty()));
+  }
+
+  @Test
+  public void arrayVersions_largeInputWithCancellation_isAccurate() {
+    // A naive sum loses the 1s next to the 1e16s; also, this is large enough to get summed in parallel.
+    int size = 200_000;
+    double[] values = new double[size];
+    double[] weights = new double[size];
+    for (int i = 0; i < size; i += 4) {
+      values[i] = 1e16;
+      values[i + 1] = 1.0;
+      values[i + 2] = -1e16;
+      values[i + 3] = 1.0;
+    }
+    Arrays.fill(weights, 1.0);
+    assertEquals(doubleExplained(0.5, (size / 2.0) / size), makeTestObject().makeUnweightedAverage(values), 1e-14);
+    assertEquals(0.5, makeTestObject().makeWeightedAverage(values, weights), 1e-14);
+  }
+
   // This is just to make the tests more concise so it's easier to see what's going on.
   // PreciseValueWeighter is generic, but for the test I need to use some concrete classes.
   private void assertProducesWeightedAverageValue(double expected, List<Double> values, List<Double> weights) {
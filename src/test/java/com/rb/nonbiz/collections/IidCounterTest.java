@@ -2,6 +2,7 @@ package com.rb.nonbiz.collections;
 
 import com.google.common.collect.ImmutableList;
 import com.rb.biz.marketdata.FakeInstruments;
+import com.rb.nonbiz.collections.IidCounter.ConcurrentIidCounterBuilder;
 import com.rb.nonbiz.collections.IidCounter.IidCounterBuilder;
 import com.rb.nonbiz.testmatchers.RBValueMatchers;
 import com.rb.nonbiz.testutils.RBTestMatcher;
@@ -10,12 +11,15 @@ import org.hamcrest.TypeSafeMatcher;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static com.rb.biz.marketdata.FakeInstruments.STOCK_A;
 import static com.rb.biz.marketdata.FakeInstruments.STOCK_B;
 import static com.rb.biz.marketdata.FakeInstruments.STOCK_C;
 import static com.rb.biz.marketdata.FakeInstruments.STOCK_D;
 import static com.rb.biz.marketdata.FakeInstruments.STOCK_E;
+import static com.rb.biz.types.asset.InstrumentId.instrumentId;
+import static com.rb.nonbiz.collections.IidCounter.ConcurrentIidCounterBuilder.concurrentIidCounterBuilder;
 import static com.rb.nonbiz.collections.IidCounter.IidCounterBuilder.iidCounterBuilder;
 import static com.rb.nonbiz.collections.IidCounter.iidCounterFromStream;
 import static com.rb.nonbiz.collections.IidSetSimpleConstructors.emptyIidSet;
@@ -26,6 +30,7 @@ import static com.rb.nonbiz.testmatchers.Match.matchIidMap;
 import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
 import static com.rb.nonbiz.testutils.Asserters.assertIidSetEquals;
 import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -154,6 +159,41 @@ public class IidCounterTest extends RBTestMatcher<IidCounter> {
                 .build()));
   }
 
+  @Test
+  public void testConcurrentIidCounterBuilder() {
+    assertThat(
+        concurrentIidCounterBuilder().build(),
+        iidCounterMatcher(emptyIidCounter()));
+
+    // 100 instruments; instrument i gets incremented i times, and also gets 1000 added to it once,
+    // from whichever threads the parallel stream happens to use.
+    ConcurrentIidCounterBuilder concurrentBuilder = concurrentIidCounterBuilder();
+    IntStream.rangeClosed(1, 100)
+        .parallel()
+        .forEach(i -> {
+          concurrentBuilder.add(instrumentId(i), 1_000);
+          IntStream.rangeClosed(1, i).forEach(ignored -> concurrentBuilder.increment(instrumentId(i)));
+        });
+    IidCounterBuilder expectedBuilder = iidCounterBuilder();
+    IntStream.rangeClosed(1, 100).forEach(i -> expectedBuilder.add(instrumentId(i), 1_000 + i));
+    IidCounter counter = concurrentBuilder.build();
+    assertThat(
+        counter,
+        iidCounterMatcher(expectedBuilder.build()));
+    assertEquals(100 * 1_000 + 5_050, counter.getSumOfCounts());
+  }
+
+  @Test
+  public void testGetCountOrThrow() {
+    IidCounter counter = iidCounterBuilder()
+        .add(STOCK_A, 0)
+        .add(STOCK_B, 3)
+        .build();
+    assertEquals(0, counter.getCountOrThrow(STOCK_A));
+    assertEquals(3, counter.getCountOrThrow(STOCK_B));
+    assertIllegalArgumentException( () -> counter.getCountOrThrow(STOCK_C));
+  }
+
   @Override
   public IidCounter makeTrivialObject() {
     return emptyIidCounter();
@@ -371,6 +371,55 @@ public class IidMapTest extends RBTestMatcher<IidMap<Money>> {
                 STOCK_F, "_6_")));
   }
 
+  @Test
+  public void testParallelTransformValuesCopy() {
+    assertThat(
+        emptyIidMap().parallelTransformValuesCopy(intValue -> Strings.format("_%s_", intValue)),
+        iidMapEqualityMatcher(
+            emptyIidMap()));
+    assertThat(
+        iidMapOf(
+            STOCK_A, 1,
+            STOCK_F, 6,
+            STOCK_B, 2,
+            STOCK_D, 4,
+            STOCK_E, 5,
+            STOCK_C, 3)
+            .parallelTransformValuesCopy(intValue -> Strings.format("_%s_", intValue)),
+        iidMapEqualityMatcher(
+            iidMapOf(
+                STOCK_A, "_1_",
+                STOCK_B, "_2_",
+                STOCK_C, "_3_",
+                STOCK_D, "_4_",
+                STOCK_E, "_5_",
+                STOCK_F, "_6_")));
+
+    // A large map, so that the spliterator gets split, and the partial maps from different threads get merged.
+    IidMap<Long> largeMap = iidMapFromStream(
+        LongStream.rangeClosed(1, 10_000).boxed(),
+        v -> instrumentId(v),
+        v -> v);
+    assertThat(
+        largeMap.parallelTransformValuesCopy(v -> v * 10),
+        iidMapEqualityMatcher(largeMap.transformValuesCopy(v -> v * 10)));
+  }
+
+  @Test
+  public void testParallelTransformEntriesCopy() {
+    IidMap<Long> largeMap = iidMapFromStream(
+        LongStream.rangeClosed(1, 10_000).boxed(),
+        v -> instrumentId(v),
+        v -> v * 3);
+    BiFunction<InstrumentId, Long, String> transformer = (instrumentId, value) ->
+        Strings.format("%s_%s", instrumentId.asLong(), value);
+    IidMap<String> expected = largeMap.transformEntriesCopy(transformer);
+    assertThat(
+        largeMap.parallelTransformEntriesCopy(transformer),
+        iidMapEqualityMatcher(expected));
+    assertEquals("7_21", expected.getOrThrow(instrumentId(7)));
+  }
+
   @Test
   public void transformKeysAndValuesCopy() {
     assertEquals(
@@ -480,6 +529,24 @@ public class IidMapTest extends RBTestMatcher<IidMap<Money>> {
         rbSetOf("_1_", "_2_", "_3_"));
   }
 
+  @Test
+  public void testParallelToTransformedValuesStream() {
+    BiConsumer<IidMap<Integer>, RBSet<String>> asserter = (input, expectedResult) ->
+        assertThat(
+            newRBSet(input
+                .parallelToTransformedValuesStream(v -> Strings.format("_%s_", v))
+                .collect(Collectors.toSet())),
+            rbSetEqualsMatcher(expectedResult));
+
+    asserter.accept(emptyIidMap(), emptyRBSet());
+    asserter.accept(
+        iidMapOf(
+            STOCK_A, 1,
+            STOCK_B, 2,
+            STOCK_C, 3),
+        rbSetOf("_1_", "_2_", "_3_"));
+  }
+
   @Test
   public void testToTransformedEntriesStream() {
     BiConsumer<IidMap<Integer>, RBSet<String>> asserter = (input, expectedResult) ->
@@ -140,6 +140,43 @@ public class IidSetTest extends RBTestMatcher<IidSet> {
                 instrumentId(5), "_iid 5")));
   }
 
+  @Test
+  public void testParallelToIidMap() {
+    assertEmptyIidMap(emptyIidSet().parallelToIidMap(key -> "_" + key));
+    assertThat(
+        newIidSet(instrumentIdArray(1L, 2L, 3L, 4L, 5L))
+            .parallelToIidMap(key -> "_" + key),
+        iidMapEqualityMatcher(
+            iidMapOf(
+                instrumentId(1), "_iid 1",
+                instrumentId(2), "_iid 2",
+                instrumentId(3), "_iid 3",
+                instrumentId(4), "_iid 4",
+                instrumentId(5), "_iid 5")));
+
+    // A large set, so that the spliterator gets split, and the partial maps from different threads get merged.
+    IidSet largeSet = newIidSet(IntStream.rangeClosed(1, 10_000)
+        .mapToObj(i -> instrumentId(i))
+        .collect(Collectors.toList()));
+    assertThat(
+        largeSet.parallelToIidMap(instrumentId -> instrumentId.asLong() * 2),
+        iidMapEqualityMatcher(largeSet.toIidMap(instrumentId -> instrumentId.asLong() * 2)));
+  }
+
+  @Test
+  public void testParallelStream() {
+    assertEquals(0, emptyIidSet().parallelStream().count());
+    IidSet largeSet = newIidSet(IntStream.rangeClosed(1, 10_000)
+        .mapToObj(i -> instrumentId(i))
+        .collect(Collectors.toList()));
+    assertEquals(
+        IntStream.rangeClosed(1, 10_000).asLongStream().sum(),
+        largeSet.parallelStream().mapToLong(instrumentId -> instrumentId.asLong()).sum());
+    assertIidSetEquals(
+        largeSet,
+        newIidSet(largeSet.parallelStream().collect(Collectors.toList())));
+  }
+
   @Test
   public void testToIidMapWithFilteredKeys() {
     assertEmptyIidMap(emptyIidSet().toIidMapWithFilteredKeys(key -> Optional.of("_" + key)));
@@ -1,6 +1,8 @@
 package com.rb.nonbiz.collections;
 
 import com.google.common.collect.ImmutableList;
+import com.rb.nonbiz.math.vectorspaces.RBIndexableMatrix;
+import com.rb.nonbiz.math.vectorspaces.RBMatrix;
 import com.rb.nonbiz.testutils.RBTestMatcher;
 import com.rb.nonbiz.text.Strings;
 import com.rb.nonbiz.types.Epsilon;
@@ -15,15 +17,21 @@ import static com.rb.nonbiz.collections.ImmutableDoubleIndexableArray2D.emptyImm
 import static com.rb.nonbiz.collections.ImmutableDoubleIndexableArray2D.immutableDoubleIndexableArray2D;
 import static com.rb.nonbiz.collections.ImmutableIndexableArray2D.immutableIndexableArray2D;
 import static com.rb.nonbiz.collections.ImmutableIndexableArray2DTest.immutableIndexableArray2DMatcher;
+import static com.rb.nonbiz.collections.MutableDoubleIndexableArray2D.mutableDoubleIndexableArray2DCopying;
 import static com.rb.nonbiz.collections.MutableDoubleIndexableArray2DTest.mutableDoubleIndexableArray2DMatcher;
 import static com.rb.nonbiz.collections.SimpleArrayIndexMapping.simpleArrayIndexMapping;
+import static com.rb.nonbiz.math.vectorspaces.RBIndexableMatrix.rbIndexableMatrix;
+import static com.rb.nonbiz.math.vectorspaces.RBIndexableMatrixTest.rbIndexableMatrixMatcher;
+import static com.rb.nonbiz.math.vectorspaces.RBMatrix.rbMatrix;
 import static com.rb.nonbiz.testmatchers.Match.match;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.doubleArrayMatcher;
 import static com.rb.nonbiz.testmatchers.RBCollectionMatchers.doubleListMatcher;
 import static com.rb.nonbiz.testmatchers.RBIterMatchers.iteratorMatcher;
 import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
 import static com.rb.nonbiz.testmatchers.RBValueMatchers.doubleAlmostEqualsMatcher;
 import static com.rb.nonbiz.testmatchers.RBValueMatchers.typeSafeEqualTo;
 import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.testutils.Asserters.assertThrowsAnyException;
 import static com.rb.nonbiz.testutils.RBCommonsTestConstants.DUMMY_BOOLEAN;
 import static com.rb.nonbiz.testutils.RBCommonsTestConstants.DUMMY_DOUBLE;
 import static com.rb.nonbiz.testutils.RBCommonsTestConstants.DUMMY_STRING;
@@ -268,6 +276,46 @@ public class ImmutableDoubleIndexableArray2DTest extends RBTestMatcher<Immutable
     assertFalse(logicallySymmetric.isLogicallyAndPhysicallySymmetric(DEFAULT_EPSILON_1e_8));
   }
 
+  @Test
+  public void testToRBIndexableMatrix() {
+    ImmutableDoubleIndexableArray2D<String, Boolean> array = makeNontrivialObject();
+    assertThat(
+        array.toRBIndexableMatrix(),
+        rbIndexableMatrixMatcher(rbIndexableMatrix(
+            rbMatrix(new double[][] {
+                { 1.1, 2.2 },
+                { 3.3, 4.4 },
+                { 5.5, 6.6 }
+            }),
+            simpleArrayIndexMapping("a", "b", "c"),
+            simpleArrayIndexMapping(false, true))));
+    assertThrowsAnyException( () -> emptyImmutableDoubleIndexableArray2D().toRBIndexableMatrix());
+  }
+
+  @Test
+  public void toRBMatrix_doesNotChangeWhenTheWrappedArrayChanges() {
+    MutableDoubleIndexableArray2D<String, Boolean> mutableArray = mutableDoubleIndexableArray2DCopying(
+        new double[][] { { 1.1, 2.2 } },
+        simpleArrayIndexMapping("a"),
+        simpleArrayIndexMapping(false, true));
+    ImmutableDoubleIndexableArray2D<String, Boolean> immutableArray = immutableDoubleIndexableArray2D(mutableArray);
+    RBMatrix matrix = immutableArray.toRBMatrix();
+    RBIndexableMatrix<String, Boolean> indexableMatrix = immutableArray.toRBIndexableMatrix();
+    mutableArray.setByIndex(0, 0, 9.9);
+    assertEquals(9.9, immutableArray.getByIndex(0, 0), 1e-8);
+    assertEquals(1.1, matrix.getQuick(0, 0), 1e-8);
+    assertEquals(1.1, indexableMatrix.getByIndex(0, 0), 1e-8);
+  }
+
+  @Test
+  public void testViewsAndReductions() {
+    ImmutableDoubleIndexableArray2D<String, Boolean> array = makeNontrivialObject();
+    assertEquals(7.7, array.getRowView("b").sum(), 1e-8);
+    assertEquals(4.4, array.getColumnView(true).mean(), 1e-8);
+    assertEquals(3.3, array.getColumnViewByIndex(0).get(1), 1e-8);
+    assertThat(array.getColumnSums(), doubleArrayMatcher(new double[] { 9.9, 13.2 }, DEFAULT_EPSILON_1e_8));
+  }
+
   @Override
   public ImmutableDoubleIndexableArray2D<String, Boolean> makeTrivialObject() {
     return emptyImmutableDoubleIndexableArray2D();
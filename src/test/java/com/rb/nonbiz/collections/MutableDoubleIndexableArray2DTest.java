@@ -1,6 +1,7 @@
 package com.rb.nonbiz.collections;
 
 import com.google.common.collect.ImmutableList;
+import com.rb.nonbiz.math.vectorspaces.RBMatrix;
 import com.rb.nonbiz.testutils.RBTestMatcher;
 import com.rb.nonbiz.testutils.TestEnumXYZ;
 import com.rb.nonbiz.types.Epsilon;
@@ -12,10 +13,13 @@ import java.util.function.BiFunction;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.rb.nonbiz.collections.ArrayIndexMappingTest.arrayIndexMappingMatcher;
-import static com.rb.nonbiz.collections.MutableDoubleIndexableArray2D.mutableDoubleIndexableArray2D;
+import static com.rb.nonbiz.collections.MutableDoubleIndexableArray2D.mutableDoubleIndexableArray2DCopying;
+import static com.rb.nonbiz.collections.MutableDoubleIndexableArray2D.mutableDoubleIndexableArray2DFromRowMajorArray;
 import static com.rb.nonbiz.collections.SimpleArrayIndexMapping.simpleArrayIndexMapping;
+import static com.rb.nonbiz.math.vectorspaces.MatrixColumnIndex.matrixColumnIndex;
+import static com.rb.nonbiz.math.vectorspaces.MatrixRowIndex.matrixRowIndex;
 import static com.rb.nonbiz.testmatchers.Match.match;
-import static com.rb.nonbiz.testmatchers.RBArrayMatchers.doubleArray2DMatcher;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.doubleArrayMatcher;
 import static com.rb.nonbiz.testmatchers.RBCollectionMatchers.doubleListMatcher;
 import static com.rb.nonbiz.testmatchers.RBIterMatchers.iteratorMatcher;
 import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
@@ -34,7 +38,7 @@ import static org.junit.Assert.assertFalse;
 public class MutableDoubleIndexableArray2DTest extends RBTestMatcher<MutableDoubleIndexableArray2D<String, Boolean>> {
 
   public static <R, C> MutableDoubleIndexableArray2D<R, C> emptyDoubleIndexableArray2D() {
-    return mutableDoubleIndexableArray2D(
+    return mutableDoubleIndexableArray2DCopying(
         new double[][] { },
         simpleArrayIndexMapping(),
         simpleArrayIndexMapping());
@@ -45,7 +49,7 @@ public class MutableDoubleIndexableArray2DTest extends RBTestMatcher<MutableDoub
     BiFunction<
             ArrayIndexMapping<String>,
             ArrayIndexMapping<TestEnumXYZ>,
-            MutableDoubleIndexableArray2D<String, TestEnumXYZ>> maker = (rowMapping, columnMapping) -> mutableDoubleIndexableArray2D(
+            MutableDoubleIndexableArray2D<String, TestEnumXYZ>> maker = (rowMapping, columnMapping) -> mutableDoubleIndexableArray2DCopying(
         new double[][] {
             { 1.1, 2.2 },
             { 3.3, 4.4 },
@@ -68,7 +72,7 @@ public class MutableDoubleIndexableArray2DTest extends RBTestMatcher<MutableDoub
 
   @Test
   public void iteratorsFailAtCreationIfItemIsInvalid() {
-    MutableDoubleIndexableArray2D<String, Boolean> array = mutableDoubleIndexableArray2D(
+    MutableDoubleIndexableArray2D<String, Boolean> array = mutableDoubleIndexableArray2DCopying(
         new double[][] { { 1.1 } },
         simpleArrayIndexMapping("a"),
         simpleArrayIndexMapping(false));
@@ -82,7 +86,7 @@ public class MutableDoubleIndexableArray2DTest extends RBTestMatcher<MutableDoub
   @Test
   public void testSingleRowIterator() {
     Epsilon e = epsilon(1e-9);
-    MutableDoubleIndexableArray2D<String, Boolean> array = mutableDoubleIndexableArray2D(
+    MutableDoubleIndexableArray2D<String, Boolean> array = mutableDoubleIndexableArray2DCopying(
         new double[][] {
             { 1.1, 2.2 },
             { 3.3, 4.4 },
@@ -113,7 +117,7 @@ public class MutableDoubleIndexableArray2DTest extends RBTestMatcher<MutableDoub
   @Test
   public void testSingleColumnIterator() {
     double e = 1e-9; // epsilon
-    MutableDoubleIndexableArray2D<String, Boolean> array = mutableDoubleIndexableArray2D(
+    MutableDoubleIndexableArray2D<String, Boolean> array = mutableDoubleIndexableArray2DCopying(
         new double[][] {
             { 1.1, 2.2 },
             { 3.3, 4.4 },
@@ -134,6 +138,102 @@ public class MutableDoubleIndexableArray2DTest extends RBTestMatcher<MutableDoub
     assertFalse(iter.hasNext());
   }
 
+  @Test
+  public void testRowAndColumnViews_doNotCopy() {
+    MutableDoubleIndexableArray2D<String, Boolean> array = mutableDoubleIndexableArray2DCopying(
+        new double[][] {
+            { 1.1, 2.2 },
+            { 3.3, 4.4 },
+            { 5.5, 6.6 }
+        },
+        simpleArrayIndexMapping("a", "b", "c"),
+        simpleArrayIndexMapping(false, true));
+    DoubleArraySliceView rowB = array.getRowView("b");
+    DoubleArraySliceView columnTrue = array.getColumnView(true);
+    assertThat(rowB.toDoubleArray(), doubleArrayMatcher(new double[] { 3.3, 4.4 }, DEFAULT_EPSILON_1e_8));
+    assertThat(columnTrue.toDoubleArray(), doubleArrayMatcher(new double[] { 2.2, 4.4, 6.6 }, DEFAULT_EPSILON_1e_8));
+
+    array.set("b", true, 40.4);
+    assertEquals(40.4, rowB.get(1), 1e-8);
+    assertEquals(40.4, columnTrue.get(1), 1e-8);
+
+    assertIllegalArgumentException( () -> array.getRowView("x"));
+    assertIllegalArgumentException( () -> array.getRowViewByIndex(3));
+    assertIllegalArgumentException( () -> array.getColumnViewByIndex(2));
+  }
+
+  @Test
+  public void testRowAndColumnReductions() {
+    MutableDoubleIndexableArray2D<String, Boolean> array = mutableDoubleIndexableArray2DCopying(
+        new double[][] {
+            { 1.1, 2.2 },
+            { 3.3, 4.4 },
+            { 5.5, 6.6 }
+        },
+        simpleArrayIndexMapping("a", "b", "c"),
+        simpleArrayIndexMapping(false, true));
+    Epsilon e = DEFAULT_EPSILON_1e_8;
+    assertThat(array.getRowSums(),     doubleArrayMatcher(new double[] { 3.3, 7.7, 12.1 }, e));
+    assertThat(array.getColumnSums(),  doubleArrayMatcher(new double[] { 9.9, 13.2 }, e));
+    assertThat(array.getRowMeans(),    doubleArrayMatcher(new double[] { 1.65, 3.85, 6.05 }, e));
+    assertThat(array.getColumnMeans(), doubleArrayMatcher(new double[] { 3.3, 4.4 }, e));
+    assertEquals(2.2, array.getColumnView(true).min(), 1e-8);
+    assertEquals(5.5, array.getRowView("c").min(), 1e-8);
+    assertEquals(6.6, array.getRowView("c").max(), 1e-8);
+
+    MutableDoubleIndexableArray2D<String, Boolean> empty = emptyDoubleIndexableArray2D();
+    assertEquals(0, empty.getRowSums().length);
+    assertEquals(0, empty.getColumnSums().length);
+    assertIllegalArgumentException( () -> empty.getRowMeans());
+    assertIllegalArgumentException( () -> empty.getColumnMeans());
+  }
+
+  @Test
+  public void getAndSetByIndex_outOfBounds_throws() {
+    MutableDoubleIndexableArray2D<String, Boolean> array = mutableDoubleIndexableArray2DCopying(
+        new double[][] {
+            { 1.1, 2.2 },
+            { 3.3, 4.4 } },
+        simpleArrayIndexMapping("a", "b"),
+        simpleArrayIndexMapping(false, true));
+    assertEquals(3.3, array.getByIndex(1, 0), 1e-8);
+    // Without a column check, (0, 2) would silently read or write (1, 0) in the flat storage.
+    assertIllegalArgumentException( () -> array.getByIndex(0, 2));
+    assertIllegalArgumentException( () -> array.getByIndex(1, -1));
+    assertIllegalArgumentException( () -> array.getByIndex(2, 0));
+    assertIllegalArgumentException( () -> array.setByIndex(0, 2, 9.9));
+    assertIllegalArgumentException( () -> array.setByIndex(-1, 0, 9.9));
+    assertEquals(3.3, array.getByIndex(1, 0), 1e-8);
+  }
+
+  @Test
+  public void fromRowMajorArray_sharesStorage() {
+    double[] rowMajorArray = { 1.1, 2.2, 3.3, 4.4, 5.5, 6.6 };
+    MutableDoubleIndexableArray2D<String, Boolean> array = mutableDoubleIndexableArray2DFromRowMajorArray(
+        rowMajorArray,
+        simpleArrayIndexMapping("a", "b", "c"),
+        simpleArrayIndexMapping(false, true));
+    assertThat(
+        array,
+        mutableDoubleIndexableArray2DMatcher(makeNontrivialObject()));
+    rowMajorArray[3] = 40.4;
+    assertEquals(40.4, array.get("b", true), 1e-8);
+
+    assertIllegalArgumentException( () -> mutableDoubleIndexableArray2DFromRowMajorArray(
+        new double[] { 1.1, 2.2, 3.3, 4.4, 5.5 },
+        simpleArrayIndexMapping("a", "b", "c"),
+        simpleArrayIndexMapping(false, true)));
+  }
+
+  @Test
+  public void toRBMatrix_copies() {
+    MutableDoubleIndexableArray2D<String, Boolean> array = makeNontrivialObject();
+    RBMatrix rbMatrix = array.toRBMatrix();
+    array.set("a", false, 99.9);
+    assertEquals(1.1, rbMatrix.get(matrixRowIndex(0), matrixColumnIndex(0)), 1e-8);
+    assertEquals(6.6, rbMatrix.get(matrixRowIndex(2), matrixColumnIndex(1)), 1e-8);
+  }
+
   @Override
   public MutableDoubleIndexableArray2D<String, Boolean> makeTrivialObject() {
     return emptyDoubleIndexableArray2D();
@@ -141,7 +241,7 @@ public class MutableDoubleIndexableArray2DTest extends RBTestMatcher<MutableDoub
 
   @Override
   public MutableDoubleIndexableArray2D<String, Boolean> makeNontrivialObject() {
-    return mutableDoubleIndexableArray2D(
+    return mutableDoubleIndexableArray2DCopying(
         new double[][] {
             { 1.1, 2.2 },
             { 3.3, 4.4 },
@@ -154,7 +254,7 @@ public class MutableDoubleIndexableArray2DTest extends RBTestMatcher<MutableDoub
   @Override
   public MutableDoubleIndexableArray2D<String, Boolean> makeMatchingNontrivialObject() {
     double e = 1e-9; // epsilon
-    return mutableDoubleIndexableArray2D(
+    return mutableDoubleIndexableArray2DCopying(
         new double[][] {
             { 1.1 + e, 2.2 + e },
             { 3.3 + e, 4.4 + e },
@@ -178,9 +278,9 @@ public class MutableDoubleIndexableArray2DTest extends RBTestMatcher<MutableDoub
   public static <R, C> TypeSafeMatcher<MutableDoubleIndexableArray2D<R, C>> mutableDoubleIndexableArray2DMatcher(
       MutableDoubleIndexableArray2D<R, C> expected, Epsilon epsilon) {
     return makeMatcher(expected,
-        match(v -> v.getRawArray(),      f -> doubleArray2DMatcher(f, epsilon)),
-        match(v -> v.getRowMapping(),    f -> arrayIndexMappingMatcher(f, f2 -> typeSafeEqualTo(f2))),
-        match(v -> v.getColumnMapping(), f -> arrayIndexMappingMatcher(f, f2 -> typeSafeEqualTo(f2))));
+        match(v -> v.getRowMajorArrayUnsafe(), f -> doubleArrayMatcher(f, epsilon)),
+        match(v -> v.getRowMapping(),          f -> arrayIndexMappingMatcher(f, f2 -> typeSafeEqualTo(f2))),
+        match(v -> v.getColumnMapping(),       f -> arrayIndexMappingMatcher(f, f2 -> typeSafeEqualTo(f2))));
   }
 
 }
@@ -0,0 +1,106 @@
+package com.rb.nonbiz.collections;
+
+import com.rb.nonbiz.testutils.RBTestMatcher;
+import com.rb.nonbiz.types.Epsilon;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
+
+import static com.rb.nonbiz.collections.Coordinates.coordinates;
+import static com.rb.nonbiz.collections.MutableDoubleMultiDimensionalArray.mutableDoubleMultiDimensionalArray;
+import static com.rb.nonbiz.collections.MutableDoubleMultiDimensionalArray.mutableDoubleMultiDimensionalArrayFromFlatValues;
+import static com.rb.nonbiz.testmatchers.Match.match;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.doubleArrayMatcher;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.intArrayMatcher;
+import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.testutils.Asserters.assertThrowsAnyException;
+import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class MutableDoubleMultiDimensionalArrayTest extends RBTestMatcher<MutableDoubleMultiDimensionalArray> {
+
+  @Test
+  public void invalidSize_throws() {
+    MutableDoubleMultiDimensionalArray doesNotThrow = mutableDoubleMultiDimensionalArray(1, 1, 1);
+    assertIllegalArgumentException( () -> mutableDoubleMultiDimensionalArray());
+    assertIllegalArgumentException( () -> mutableDoubleMultiDimensionalArray(0, 1, 1));
+    assertIllegalArgumentException( () -> mutableDoubleMultiDimensionalArray(-1, 1, 1));
+    assertIllegalArgumentException( () -> mutableDoubleMultiDimensionalArray(1, 1, 0));
+    assertIllegalArgumentException( () -> mutableDoubleMultiDimensionalArray(100_000, 100_000));
+    assertIllegalArgumentException( () -> mutableDoubleMultiDimensionalArrayFromFlatValues(new double[5], 2, 3));
+  }
+
+  @Test
+  public void usingInvalidCoordinates_throws() {
+    MutableDoubleMultiDimensionalArray arr = mutableDoubleMultiDimensionalArray(2, 1, 3);
+    double doesNotThrow;
+    doesNotThrow = arr.get(coordinates(1, 0, 2));
+    assertIllegalArgumentException( () -> arr.get(coordinates(2, 0, 0)));
+    assertIllegalArgumentException( () -> arr.get(coordinates(0, 1, 0)));
+    assertIllegalArgumentException( () -> arr.get(coordinates(0, 0, 3)));
+    assertIllegalArgumentException( () -> arr.get(coordinates(0, 0)));
+    assertIllegalArgumentException( () -> arr.get(coordinates(0, 0, 0, 0)));
+    assertThrowsAnyException( () -> arr.set(1.1, coordinates(0, 0, 3)));
+  }
+
+  @Test
+  public void testStridesAndFlatIndices() {
+    MutableDoubleMultiDimensionalArray arr = mutableDoubleMultiDimensionalArray(2, 3, 4);
+    assertEquals(12, arr.getStride(0));
+    assertEquals(4, arr.getStride(1));
+    assertEquals(1, arr.getStride(2));
+    assertEquals(24, arr.getNumCells());
+    assertThat(arr.getSizes(), intArrayMatcher(new int[] { 2, 3, 4 }));
+
+    // Same order as MultidimensionalCounter
+    for (int flatIndex = 0; flatIndex < 24; flatIndex++) {
+      assertEquals(
+          flatIndex,
+          arr.getFlatIndex(coordinates(arr.getMultidimensionalCounter().getCounts(flatIndex))));
+    }
+
+    arr.set(7.7, coordinates(1, 2, 3));
+    assertEquals(7.7, arr.getByFlatIndex(23), 1e-8);
+    arr.setByFlatIndex(5.5, 5);
+    assertEquals(5.5, arr.get(coordinates(0, 1, 1)), 1e-8);
+  }
+
+  @Override
+  public MutableDoubleMultiDimensionalArray makeTrivialObject() {
+    return mutableDoubleMultiDimensionalArray(1);
+  }
+
+  @Override
+  public MutableDoubleMultiDimensionalArray makeNontrivialObject() {
+    return mutableDoubleMultiDimensionalArrayFromFlatValues(
+        new double[] { 1_000.0, 1_000.1, 1_000.2, 1_001.0, 1_001.1, 1_001.2 },
+        2, 1, 3);
+  }
+
+  @Override
+  public MutableDoubleMultiDimensionalArray makeMatchingNontrivialObject() {
+    double e = 1e-9; // epsilon
+    return mutableDoubleMultiDimensionalArrayFromFlatValues(
+        new double[] { 1_000.0 + e, 1_000.1 + e, 1_000.2 + e, 1_001.0 + e, 1_001.1 + e, 1_001.2 + e },
+        2, 1, 3);
+  }
+
+  @Override
+  protected boolean willMatch(MutableDoubleMultiDimensionalArray expected, MutableDoubleMultiDimensionalArray actual) {
+    return mutableDoubleMultiDimensionalArrayMatcher(expected).matches(actual);
+  }
+
+  public static TypeSafeMatcher<MutableDoubleMultiDimensionalArray> mutableDoubleMultiDimensionalArrayMatcher(
+      MutableDoubleMultiDimensionalArray expected) {
+    return mutableDoubleMultiDimensionalArrayMatcher(expected, DEFAULT_EPSILON_1e_8);
+  }
+
+  public static TypeSafeMatcher<MutableDoubleMultiDimensionalArray> mutableDoubleMultiDimensionalArrayMatcher(
+      MutableDoubleMultiDimensionalArray expected, Epsilon epsilon) {
+    return makeMatcher(expected,
+        match(v -> v.getSizes(),        f -> intArrayMatcher(f)),
+        match(v -> v.getValuesUnsafe(), f -> doubleArrayMatcher(f, epsilon)));
+  }
+
+}
@@ -164,5 +164,25 @@ public class MutableIidMapTest {
     // However, per the semantics of putAssumingNoChange, the value will not be replaced.
     checker.accept("l1", "r1");
   }
-  
+
+  @Test
+  public void testAddAllAssumingNoOverlap_leavesMapUnchangedOnOverlap() {
+    MutableIidMap<String> mutableMap = newMutableIidMap();
+    mutableMap.putAssumingAbsent(STOCK_A, "a");
+
+    MutableIidMap<String> overlapping = newMutableIidMap();
+    overlapping.putAssumingAbsent(STOCK_A, "a2");
+    overlapping.putAssumingAbsent(STOCK_B, "b");
+    assertIllegalArgumentException( () -> mutableMap.addAllAssumingNoOverlap(overlapping));
+    assertEquals(1, mutableMap.size());
+    assertEquals("a", mutableMap.getOrThrow(STOCK_A));
+
+    MutableIidMap<String> nonOverlapping = newMutableIidMap();
+    nonOverlapping.putAssumingAbsent(STOCK_B, "b");
+    mutableMap.addAllAssumingNoOverlap(nonOverlapping);
+    assertEquals(2, mutableMap.size());
+    assertEquals("a", mutableMap.getOrThrow(STOCK_A));
+    assertEquals("b", mutableMap.getOrThrow(STOCK_B));
+  }
+
 }
@@ -53,6 +53,24 @@ public class MutableIndexableBitSet2DTest extends RBTestMatcher<MutableIndexable
     cardinalityGetter.accept(4);
   }
 
+  @Test
+  public void testRowAndColumnCardinality() {
+    BitSet2D bitSet2D = bitSet2D(3, 2);
+    bitSet2D.set(0, 1);
+    bitSet2D.set(2, 0);
+    bitSet2D.set(2, 1);
+    MutableIndexableBitSet2D<String, Boolean> indexableBitSet2D = mutableIndexableBitSet2D(
+        bitSet2D,
+        simpleArrayIndexMapping("a", "b", "c"),
+        simpleArrayIndexMapping(false, true));
+    assertEquals(1, indexableBitSet2D.rowCardinality("a"));
+    assertEquals(0, indexableBitSet2D.rowCardinality("b"));
+    assertEquals(2, indexableBitSet2D.rowCardinality("c"));
+    assertEquals(1, indexableBitSet2D.columnCardinality(false));
+    assertEquals(2, indexableBitSet2D.columnCardinality(true));
+    assertIllegalArgumentException( () -> indexableBitSet2D.rowCardinality("x"));
+  }
+
   @Override
   public MutableIndexableBitSet2D<String, Boolean> makeTrivialObject() {
     return mutableIndexableBitSet2D(
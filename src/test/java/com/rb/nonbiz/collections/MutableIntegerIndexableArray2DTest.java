@@ -2,14 +2,20 @@ package com.rb.nonbiz.collections;
 
 import com.rb.nonbiz.testutils.RBTestMatcher;
 import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
 
 import static com.rb.nonbiz.collections.ArrayIndexMappingTest.arrayIndexMappingMatcher;
-import static com.rb.nonbiz.collections.MutableIntegerIndexableArray2D.mutableIntegerIndexableArray2D;
+import static com.rb.nonbiz.collections.MutableIntegerIndexableArray2D.mutableIntegerIndexableArray2DCopying;
+import static com.rb.nonbiz.collections.MutableIntegerIndexableArray2D.mutableIntegerIndexableArray2DFromRowMajorArray;
 import static com.rb.nonbiz.collections.SimpleArrayIndexMapping.simpleArrayIndexMapping;
 import static com.rb.nonbiz.testmatchers.Match.match;
-import static com.rb.nonbiz.testmatchers.RBArrayMatchers.intArray2DMatcher;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.intArrayMatcher;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.longArrayMatcher;
 import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
 import static com.rb.nonbiz.testmatchers.RBValueMatchers.typeSafeEqualTo;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
 
 /**
  * The test is generic, but the publicly exposed matcher (which gets used elsewhere) isn't, so that's good.
@@ -17,12 +23,82 @@ import static com.rb.nonbiz.testmatchers.RBValueMatchers.typeSafeEqualTo;
 public class MutableIntegerIndexableArray2DTest extends RBTestMatcher<MutableIntegerIndexableArray2D<String, Boolean>> {
 
   public static <R, C> MutableIntegerIndexableArray2D<R, C> emptyIntegerIndexableArray2D() {
-    return mutableIntegerIndexableArray2D(
-        new int[][] { {} },
+    return mutableIntegerIndexableArray2DCopying(
+        new int[][] { },
         simpleArrayIndexMapping(),
         simpleArrayIndexMapping());
   }
 
+  @Test
+  public void testRowAndColumnSums() {
+    MutableIntegerIndexableArray2D<String, Boolean> array = makeNontrivialObject();
+    assertThat(array.getRowSums(),    longArrayMatcher(new long[] { 33, 77, 121 }));
+    assertThat(array.getColumnSums(), longArrayMatcher(new long[] { 99, 132 }));
+
+    MutableIntegerIndexableArray2D<String, Boolean> large = mutableIntegerIndexableArray2DFromRowMajorArray(
+        new int[] { Integer.MAX_VALUE, Integer.MAX_VALUE },
+        simpleArrayIndexMapping("a", "b"),
+        simpleArrayIndexMapping(true));
+    assertThat(large.getColumnSums(), longArrayMatcher(new long[] { 2L * Integer.MAX_VALUE }));
+  }
+
+  @Test
+  public void fromRowMajorArray_sharesStorage() {
+    int[] rowMajorArray = { 11, 22, 33, 44, 55, 66 };
+    MutableIntegerIndexableArray2D<String, Boolean> array = mutableIntegerIndexableArray2DFromRowMajorArray(
+        rowMajorArray,
+        simpleArrayIndexMapping("a", "b", "c"),
+        simpleArrayIndexMapping(false, true));
+    assertThat(
+        array,
+        mutableIntegerIndexableArray2DMatcher(makeNontrivialObject()));
+    rowMajorArray[3] = 404;
+    assertEquals(404, array.get("b", true));
+
+    assertIllegalArgumentException( () -> mutableIntegerIndexableArray2DFromRowMajorArray(
+        new int[] { 11, 22, 33 },
+        simpleArrayIndexMapping("a", "b", "c"),
+        simpleArrayIndexMapping(false, true)));
+  }
+
+  @Test
+  public void arrayShapeMustMatchRowAndColumnMappings() {
+    assertIllegalArgumentException( () -> mutableIntegerIndexableArray2DCopying(
+        new int[][] { { 11, 22 }, { 33, 44 } },
+        simpleArrayIndexMapping("a", "b", "c"),
+        simpleArrayIndexMapping(false, true)));
+    assertIllegalArgumentException( () -> mutableIntegerIndexableArray2DCopying(
+        new int[][] { { 11, 22 }, { 33 }, { 55, 66 } },
+        simpleArrayIndexMapping("a", "b", "c"),
+        simpleArrayIndexMapping(false, true)));
+    assertIllegalArgumentException( () -> mutableIntegerIndexableArray2DCopying(
+        new int[][] { { 11, 22 }, { 33, 44, 404 }, { 55, 66 } },
+        simpleArrayIndexMapping("a", "b", "c"),
+        simpleArrayIndexMapping(false, true)));
+  }
+
+  @Test
+  public void copiesTheRawArray() {
+    int[][] rawArray = { { 11, 22 }, { 33, 44 }, { 55, 66 } };
+    MutableIntegerIndexableArray2D<String, Boolean> array = mutableIntegerIndexableArray2DCopying(
+        rawArray,
+        simpleArrayIndexMapping("a", "b", "c"),
+        simpleArrayIndexMapping(false, true));
+    rawArray[1][1] = 404;
+    assertEquals(44, array.get("b", true));
+  }
+
+  @Test
+  public void getByIndex_outOfBounds_throws() {
+    MutableIntegerIndexableArray2D<String, Boolean> array = makeNontrivialObject();
+    assertEquals(33, array.getByIndex(1, 0));
+    // Without a column check, (0, 2) would silently read (1, 0) from the flat storage.
+    assertIllegalArgumentException( () -> array.getByIndex(0, 2));
+    assertIllegalArgumentException( () -> array.getByIndex(1, -1));
+    assertIllegalArgumentException( () -> array.getByIndex(3, 0));
+    assertIllegalArgumentException( () -> array.getByIndex(-1, 0));
+  }
+
   @Override
   public MutableIntegerIndexableArray2D<String, Boolean> makeTrivialObject() {
     return emptyIntegerIndexableArray2D();
@@ -30,7 +106,7 @@ public class MutableIntegerIndexableArray2DTest extends RBTestMatcher<MutableInt
 
   @Override
   public MutableIntegerIndexableArray2D<String, Boolean> makeNontrivialObject() {
-    return mutableIntegerIndexableArray2D(
+    return mutableIntegerIndexableArray2DCopying(
         new int[][] {
             { 11, 22 },
             { 33, 44 },
@@ -42,7 +118,7 @@ public class MutableIntegerIndexableArray2DTest extends RBTestMatcher<MutableInt
 
   @Override
   public MutableIntegerIndexableArray2D<String, Boolean> makeMatchingNontrivialObject() {
-    return mutableIntegerIndexableArray2D(
+    return mutableIntegerIndexableArray2DCopying(
         new int[][] {
             { 11, 22 },
             { 33, 44 },
@@ -61,9 +137,9 @@ public class MutableIntegerIndexableArray2DTest extends RBTestMatcher<MutableInt
   public static <R, C> TypeSafeMatcher<MutableIntegerIndexableArray2D<R, C>> mutableIntegerIndexableArray2DMatcher(
       MutableIntegerIndexableArray2D<R, C> expected) {
     return makeMatcher(expected,
-        match(v -> v.getRawArrayUnsafe(), f -> intArray2DMatcher(f)),
-        match(v -> v.getRowMapping(),     f -> arrayIndexMappingMatcher(f, f2 -> typeSafeEqualTo(f2))),
-        match(v -> v.getColumnMapping(),  f -> arrayIndexMappingMatcher(f, f2 -> typeSafeEqualTo(f2))));
+        match(v -> v.getRowMajorArrayUnsafe(), f -> intArrayMatcher(f)),
+        match(v -> v.getRowMapping(),          f -> arrayIndexMappingMatcher(f, f2 -> typeSafeEqualTo(f2))),
+        match(v -> v.getColumnMapping(),       f -> arrayIndexMappingMatcher(f, f2 -> typeSafeEqualTo(f2))));
   }
 
 }
@@ -2,6 +2,8 @@ package com.rb.nonbiz.collections;
 
 import org.junit.Test;
 
+import java.util.BitSet;
+
 import static com.rb.nonbiz.collections.MutableOptionalDoubleRawArray2D.mutableOptionalDoubleRawArray2D;
 import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
 import static com.rb.nonbiz.types.UnitFraction.UNIT_FRACTION_0;
@@ -50,6 +52,35 @@ public class MutableOptionalDoubleRawArray2DTest {
     assertEquals(UNIT_FRACTION_0, array2D.getFractionPresent());
   }
 
+  @Test
+  public void testGetColumnsWithValuesPresentInAllRows() {
+    MutableOptionalDoubleRawArray2D array2D = mutableOptionalDoubleRawArray2D(3, 3);
+    //    0  1  2
+    // 0  X  X  _
+    // 1  X  _  X
+    // 2  X  X  X
+    array2D.set(0, 0, 1.0);
+    array2D.set(0, 1, 1.0);
+    array2D.set(1, 0, 1.0);
+    array2D.set(1, 2, 1.0);
+    array2D.set(2, 0, 1.0);
+    array2D.set(2, 1, 1.0);
+    array2D.set(2, 2, 1.0);
+    assertEquals(bitSetOf(0, 1),    array2D.getColumnsWithValuesPresentInAllRows(0, 1));
+    assertEquals(bitSetOf(0),       array2D.getColumnsWithValuesPresentInAllRows(0, 2));
+    assertEquals(bitSetOf(0),       array2D.getColumnsWithValuesPresentInAllRows(0, 3));
+    assertEquals(bitSetOf(0, 2),    array2D.getColumnsWithValuesPresentInAllRows(1, 3));
+    assertEquals(bitSetOf(0, 1, 2), array2D.getColumnsWithValuesPresentInAllRows(2, 3));
+  }
+
+  private BitSet bitSetOf(int ... bitsOn) {
+    BitSet bitSet = new BitSet();
+    for (int bit : bitsOn) {
+      bitSet.set(bit);
+    }
+    return bitSet;
+  }
+
   @Test
   public void setsMoreThanOnce_useSetOnlyOnceMethod_throws() {
     MutableOptionalDoubleRawArray2D array2D = mutableOptionalDoubleRawArray2D(2, 3);
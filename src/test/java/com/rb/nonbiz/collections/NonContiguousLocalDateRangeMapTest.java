@@ -0,0 +1,132 @@
+package com.rb.nonbiz.collections;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import com.rb.nonbiz.testmatchers.RBMatchers.MatcherGenerator;
+import com.rb.nonbiz.testutils.RBTestMatcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static com.rb.nonbiz.collections.NonContiguousLocalDateRangeMap.nonContiguousLocalDateRangeMap;
+import static com.rb.nonbiz.collections.NonContiguousRangeMap.nonContiguousRangeMapWithNoEnd;
+import static com.rb.nonbiz.collections.NonContiguousRangeMapTest.nonContiguousRangeMapMatcher;
+import static com.rb.nonbiz.testmatchers.Match.match;
+import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
+import static com.rb.nonbiz.testmatchers.RBValueMatchers.typeSafeEqualTo;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalEmpty;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalEquals;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This test class is not generic, but the publicly exposed static matcher is.
+ */
+public class NonContiguousLocalDateRangeMapTest extends RBTestMatcher<NonContiguousLocalDateRangeMap<String>> {
+
+  @Test
+  public void sameRequirementsAsNonContiguousRangeMap() {
+    assertIllegalArgumentException( () -> nonContiguousLocalDateRangeMap(emptyList(), emptyList()));
+    // overlapping
+    assertIllegalArgumentException( () -> nonContiguousLocalDateRangeMap(
+        ImmutableList.of(
+            Range.closed(LocalDate.of(1974, 4, 4), LocalDate.of(1975, 5, 5)),
+            Range.closed(LocalDate.of(1975, 5, 5), LocalDate.of(1976, 6, 6))),
+        ImmutableList.of("a", "b")));
+    // 'at least' is only allowed at the end
+    assertIllegalArgumentException( () -> nonContiguousLocalDateRangeMap(
+        ImmutableList.of(
+            Range.atLeast(LocalDate.of(1974, 4, 4)),
+            Range.closed(LocalDate.of(1975, 5, 5), LocalDate.of(1976, 6, 6))),
+        ImmutableList.of("a", "b")));
+  }
+
+  @Test
+  public void testLookups() {
+    NonContiguousLocalDateRangeMap<String> rangeMap = makeNontrivialObject();
+
+    assertOptionalEmpty(rangeMap.getOptional(LocalDate.of(1974, 4, 3)));
+    assertOptionalEquals("1974-75", rangeMap.getOptional(LocalDate.of(1974, 4, 4)));
+    assertOptionalEquals("1974-75", rangeMap.getOptional(LocalDate.of(1975, 5, 5)));
+    assertOptionalEmpty(rangeMap.getOptional(LocalDate.of(1975, 5, 6)));
+    assertOptionalEquals("1976-77", rangeMap.getOptional(LocalDate.of(1976, 6, 6)));
+    assertOptionalEmpty(rangeMap.getOptional(LocalDate.of(1978, 8, 7)));
+    assertOptionalEquals("1978+", rangeMap.getOptional(LocalDate.of(1978, 8, 8)));
+    assertOptionalEquals("1978+", rangeMap.getOptional(LocalDate.of(2099, 9, 9)));
+
+    assertOptionalEmpty(rangeMap.getOptionalWithHighestKeyBelow(LocalDate.of(1974, 4, 3)));
+    assertOptionalEquals("1974-75", rangeMap.getOptionalWithHighestKeyBelow(LocalDate.of(1975, 5, 6)));
+    assertOptionalEquals("1976-77", rangeMap.getOptionalWithHighestKeyBelow(LocalDate.of(1978, 8, 7)));
+    assertOptionalEquals("1978+", rangeMap.getOptionalWithHighestKeyBelow(LocalDate.of(2099, 9, 9)));
+
+    int epochDay = (int) LocalDate.of(1976, 6, 6).toEpochDay();
+    assertOptionalEquals("1976-77", rangeMap.getOptionalByEpochDay(epochDay));
+    assertOptionalEmpty(rangeMap.getOptionalByEpochDay(epochDay - 1));
+    assertOptionalEquals("1974-75", rangeMap.getOptionalWithHighestKeyBelowByEpochDay(epochDay - 1));
+
+    assertEquals("1976-77", rangeMap.getOrThrow(LocalDate.of(1976, 6, 6)));
+    assertIllegalArgumentException( () -> rangeMap.getOrThrow(LocalDate.of(1976, 6, 5)));
+  }
+
+  @Test
+  public void matchesGenericNonContiguousRangeMap_includingSweepCursor() {
+    NonContiguousRangeMap<LocalDate, String> genericMap = nonContiguousRangeMapWithNoEnd(
+        ImmutableList.of(
+            Range.closed(LocalDate.of(1974, 4, 4), LocalDate.of(1975, 5, 5)),
+            Range.closed(LocalDate.of(1975, 5, 6), LocalDate.of(1975, 5, 6)),
+            Range.closed(LocalDate.of(1975, 5, 8), LocalDate.of(1975, 5, 9)),
+            Range.atLeast(LocalDate.of(1978, 8, 8))),
+        ImmutableList.of("a", "b", "c", "d"));
+    NonContiguousLocalDateRangeMap<String> specializedMap = nonContiguousLocalDateRangeMap(genericMap);
+    NonContiguousLocalDateRangeMap<String>.SweepCursor cursor = specializedMap.newSweepCursor();
+    for (LocalDate date = LocalDate.of(1974, 1, 1); date.isBefore(LocalDate.of(1980, 1, 1)); date = date.plusDays(1)) {
+      assertEquals(genericMap.getOptional(date), specializedMap.getOptional(date));
+      assertEquals(genericMap.getOptional(date), cursor.getOptional(date));
+      assertEquals(genericMap.getOptionalWithHighestKeyBelow(date), specializedMap.getOptionalWithHighestKeyBelow(date));
+      assertEquals(genericMap.getOptionalWithHighestKeyBelow(date), cursor.getOptionalWithHighestKeyBelow(date));
+    }
+    assertOptionalEquals("a", cursor.getOptional(LocalDate.of(1974, 4, 4)));
+    assertThat(
+        specializedMap.toNonContiguousRangeMap(),
+        nonContiguousRangeMapMatcher(genericMap, f -> typeSafeEqualTo(f)));
+  }
+
+  @Override
+  public NonContiguousLocalDateRangeMap<String> makeTrivialObject() {
+    return nonContiguousLocalDateRangeMap(
+        singletonList(Range.singleton(LocalDate.of(1974, 4, 4))),
+        singletonList("abc"));
+  }
+
+  @Override
+  public NonContiguousLocalDateRangeMap<String> makeNontrivialObject() {
+    return nonContiguousLocalDateRangeMap(
+        ImmutableList.of(
+            Range.closed(LocalDate.of(1974, 4, 4), LocalDate.of(1975, 5, 5)),
+            Range.closed(LocalDate.of(1976, 6, 6), LocalDate.of(1977, 7, 7)),
+            Range.atLeast(LocalDate.of(1978, 8, 8))),
+        ImmutableList.of("1974-75", "1976-77", "1978+"));
+  }
+
+  @Override
+  public NonContiguousLocalDateRangeMap<String> makeMatchingNontrivialObject() {
+    return makeNontrivialObject();
+  }
+
+  @Override
+  protected boolean willMatch(NonContiguousLocalDateRangeMap<String> expected,
+                              NonContiguousLocalDateRangeMap<String> actual) {
+    return nonContiguousLocalDateRangeMapMatcher(expected, f -> typeSafeEqualTo(f)).matches(actual);
+  }
+
+  public static <V> TypeSafeMatcher<NonContiguousLocalDateRangeMap<V>> nonContiguousLocalDateRangeMapMatcher(
+      NonContiguousLocalDateRangeMap<V> expected, MatcherGenerator<V> matcherGenerator) {
+    return makeMatcher(expected,
+        match(v -> v.toNonContiguousRangeMap(), f -> nonContiguousRangeMapMatcher(f, matcherGenerator)));
+  }
+
+}
@@ -1,6 +1,7 @@
 package com.rb.nonbiz.collections;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Range;
 import com.rb.nonbiz.testmatchers.RBMatchers.MatcherGenerator;
 import com.rb.nonbiz.testutils.RBTestMatcher;
@@ -21,6 +22,7 @@ import static com.rb.nonbiz.testutils.Asserters.assertOptionalEmpty;
 import static com.rb.nonbiz.testutils.Asserters.assertOptionalEquals;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
 
 /**
  * This test class is not generic, but the publicly exposed static matcher is.
@@ -88,6 +90,45 @@ public class NonContiguousRangeMapTest extends RBTestMatcher<NonContiguousRangeM
     assertOptionalEmpty(rangeMap.getOptional(LocalDate.of(2011, 11, 11)));
   }
 
+  @Test
+  public void testSweepCursor_matchesDirectLookups() {
+    NonContiguousRangeMap<LocalDate, String> rangeMap = makeNontrivialObject();
+    NonContiguousRangeMap<LocalDate, String>.SweepCursor cursor = rangeMap.newSweepCursor();
+    for (LocalDate date = LocalDate.of(1974, 1, 1); date.isBefore(LocalDate.of(1980, 1, 1)); date = date.plusDays(1)) {
+      assertEquals(rangeMap.getOptional(date), cursor.getOptional(date));
+      assertEquals(rangeMap.getOptionalWithHighestKeyBelow(date), cursor.getOptionalWithHighestKeyBelow(date));
+    }
+    // Going backwards, or skipping over several ranges, should still work; it's just not as fast.
+    for (LocalDate date : ImmutableList.of(
+        LocalDate.of(1974, 4, 4),
+        LocalDate.of(1974, 4, 3),
+        LocalDate.of(1979, 9, 9),
+        LocalDate.of(1976, 6, 7),
+        LocalDate.of(1975, 5, 6))) {
+      assertEquals(rangeMap.getOptional(date), cursor.getOptional(date));
+      assertEquals(rangeMap.getOptionalWithHighestKeyBelow(date), cursor.getOptionalWithHighestKeyBelow(date));
+    }
+  }
+
+  @Test
+  public void testGetRangesAndValues() {
+    NonContiguousRangeMap<LocalDate, String> rangeMap = makeNontrivialObject();
+    assertEquals(3, rangeMap.size());
+    assertEquals(
+        ImmutableList.of(
+            Range.closed(LocalDate.of(1974, 4, 4), LocalDate.of(1975, 5, 5)),
+            Range.closed(LocalDate.of(1976, 6, 6), LocalDate.of(1977, 7, 7)),
+            Range.atLeast(LocalDate.of(1978, 8, 8))),
+        rangeMap.getRanges());
+    assertEquals(ImmutableList.of("1974-75", "1976-77", "1978+"), rangeMap.getValues());
+    assertEquals(
+        ImmutableMap.of(
+            Range.closed(LocalDate.of(1974, 4, 4), LocalDate.of(1975, 5, 5)), "1974-75",
+            Range.closed(LocalDate.of(1976, 6, 6), LocalDate.of(1977, 7, 7)), "1976-77",
+            Range.atLeast(LocalDate.of(1978, 8, 8)), "1978+"),
+        rangeMap.getRawRangeMap().asMapOfRanges());
+  }
+
   @Override
   public NonContiguousRangeMap<LocalDate, String> makeTrivialObject() {
     return nonContiguousRangeMap(
@@ -1,6 +1,7 @@
 package com.rb.nonbiz.collections;
 
 import com.google.common.collect.ImmutableList;
+import com.rb.biz.types.Money;
 import com.rb.biz.types.OnesBasedReturn;
 import com.rb.nonbiz.testutils.RBTest;
 import com.rb.nonbiz.types.Epsilon;
@@ -22,6 +23,7 @@ import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
 import static com.rb.nonbiz.types.Epsilon.ZERO_EPSILON;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
 
 public class PreciseValueWeighterTest extends RBTest<PreciseValueWeighter> {
 
@@ -49,6 +51,30 @@ public class PreciseValueWeighterTest extends RBTest<PreciseValueWeighter> {
         DEFAULT_EPSILON_1e_8);
   }
 
+  @Test
+  public void doubleVersions_matchBigDecimalVersions() {
+    List<OnesBasedReturn> returns = ImmutableList.of(
+        onesBasedReturn(0.99),
+        FLAT_RETURN,
+        onesBasedReturn(1.04));
+    List<Money> weights = ImmutableList.of(money(60), ZERO_MONEY, money(20));
+    PreciseValueWeighter weighter = makeTestObject();
+    assertEquals(
+        weighter.makeUnweightedAverage(returns).doubleValue(),
+        weighter.makeUnweightedAverageAsDouble(returns),
+        1e-14);
+    assertEquals(
+        weighter.makeWeightedAverage(returns, weights).doubleValue(),
+        weighter.makeWeightedAverageAsDouble(returns, weights),
+        1e-14);
+    assertEquals(0.99, weighter.makeWeightedAverageAsDouble(singletonList(onesBasedReturn(0.99)), singletonList(money(3))), 0);
+
+    assertIllegalArgumentException( () -> weighter.makeUnweightedAverageAsDouble(ImmutableList.<Money>of()));
+    assertIllegalArgumentException( () -> weighter.makeWeightedAverageAsDouble(returns, singletonList(money(1))));
+    assertIllegalArgumentException( () -> weighter.makeWeightedAverageAsDouble(
+        returns, ImmutableList.of(ZERO_MONEY, ZERO_MONEY, ZERO_MONEY)));
+  }
+
   @Test
   public void weightedAverage_happyPath_3valuesAndWeights_producesCorrectResults() {
     assertProducesWeightedAverageValue(doubleExplained(0.6, (0 + 1 + 0.8) / 3),
@@ -0,0 +1,271 @@
+package com.rb.nonbiz.collections;
+
+import com.google.common.collect.ImmutableList;
+import com.rb.nonbiz.collections.RBSymmetricUnequalPairMap.RBSymmetricUnequalPairMapDynamicBuilder;
+import com.rb.nonbiz.testmatchers.RBMatchers.MatcherGenerator;
+import com.rb.nonbiz.testutils.RBTestMatcher;
+import com.rb.nonbiz.types.Epsilon;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.rb.nonbiz.collections.ArrayIndexMappingTest.arrayIndexMappingMatcher;
+import static com.rb.nonbiz.collections.RBDoubleSymmetricUnequalPairMap.rbDoubleSymmetricUnequalPairMap;
+import static com.rb.nonbiz.collections.RBDoubleSymmetricUnequalPairMap.rbDoubleSymmetricUnequalPairMapInParallel;
+import static com.rb.nonbiz.testmatchers.Match.match;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.doubleArrayMatcher;
+import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
+import static com.rb.nonbiz.testmatchers.RBValueMatchers.typeSafeEqualTo;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalDoubleAlmostEquals;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalDoubleEmpty;
+import static com.rb.nonbiz.testutils.RBCommonsTestConstants.DUMMY_DOUBLE;
+import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RBDoubleSymmetricUnequalPairMapTest extends RBTestMatcher<RBDoubleSymmetricUnequalPairMap<String>> {
+
+  // The value for a pair of keys with indices i and j is 10 * max(i, j) + min(i, j), e.g. 20 for { a, c }.
+  private final RBDoubleSymmetricUnequalPairMap<String> pairMap = rbDoubleSymmetricUnequalPairMap(
+      ImmutableList.of("a", "b", "c", "d"),
+      (index1, index2) -> 10 * index1 + index2);
+
+  @Test
+  public void testGetters() {
+    assertEquals(10, pairMap.getOrThrow("a", "b"), 1e-8);
+    assertEquals(10, pairMap.getOrThrow("b", "a"), 1e-8);
+    assertEquals(20, pairMap.getOrThrow("a", "c"), 1e-8);
+    assertEquals(21, pairMap.getOrThrow("b", "c"), 1e-8);
+    assertEquals(30, pairMap.getOrThrow("a", "d"), 1e-8);
+    assertEquals(31, pairMap.getOrThrow("b", "d"), 1e-8);
+    assertEquals(32, pairMap.getOrThrow("d", "c"), 1e-8);
+
+    assertEquals(32, pairMap.getByIndex(3, 2), 1e-8);
+    assertEquals(32, pairMap.getByIndex(2, 3), 1e-8);
+    assertOptionalDoubleAlmostEquals(32, pairMap.getOptional("c", "d"), DEFAULT_EPSILON_1e_8);
+
+    assertEquals(4, pairMap.getNumKeys());
+    assertEquals("c", pairMap.getKey(2));
+    assertEquals(2, pairMap.getIndexOrThrow("c"));
+    assertTrue(pairMap.containsKey("a"));
+    assertFalse(pairMap.containsKey("X"));
+
+    assertIllegalArgumentException( () -> pairMap.getOrThrow("a", "X"));
+    assertIllegalArgumentException( () -> pairMap.getOrThrow("X", "a"));
+    assertIllegalArgumentException( () -> pairMap.getOrThrow("a", "a"));
+    assertIllegalArgumentException( () -> pairMap.getOptional("a", "a"));
+    assertIllegalArgumentException( () -> pairMap.getByIndex(1, 1));
+    assertIllegalArgumentException( () -> pairMap.getByIndex(-1, 1));
+    assertIllegalArgumentException( () -> pairMap.getByIndex(1, 4));
+    assertOptionalDoubleEmpty(pairMap.getOptional("a", "X"));
+    assertOptionalDoubleEmpty(pairMap.getOptional("X", "Y"));
+  }
+
+  @Test
+  public void sameLayoutAsGenericVersion() {
+    RBSymmetricUnequalPairMap<String, Double> genericPairMap =
+        RBSymmetricUnequalPairMapDynamicBuilder.<String, Double>rbSymmetricUnequalPairMapDynamicBuilder(Double[]::new)
+            .putAssumingAbsent("a", "b", 10.0)
+            .putAssumingAbsent("a", "c", 20.0)
+            .putAssumingAbsent("a", "d", 30.0)
+            .putAssumingAbsent("b", "c", 21.0)
+            .putAssumingAbsent("b", "d", 31.0)
+            .putAssumingAbsent("c", "d", 32.0)
+            .build();
+    assertThat(
+        rbDoubleSymmetricUnequalPairMap(genericPairMap),
+        rbDoubleSymmetricUnequalPairMapMatcher(pairMap, k -> typeSafeEqualTo(k), DEFAULT_EPSILON_1e_8));
+    assertThat(
+        pairMap.getRawFlatArray(),
+        doubleArrayMatcher(new double[] { 10, 20, 21, 30, 31, 32 }, DEFAULT_EPSILON_1e_8));
+  }
+
+  @Test
+  public void mustHaveAtLeastTwoKeys_throws() {
+    assertIllegalArgumentException( () -> rbDoubleSymmetricUnequalPairMap(
+        singletonList("a"), (index1, index2) -> DUMMY_DOUBLE));
+    assertIllegalArgumentException( () -> rbDoubleSymmetricUnequalPairMapInParallel(
+        singletonList("a"), (index1, index2) -> DUMMY_DOUBLE));
+    RBDoubleSymmetricUnequalPairMap<String> doesNotThrow = rbDoubleSymmetricUnequalPairMap(
+        ImmutableList.of("a", "b"), (index1, index2) -> DUMMY_DOUBLE);
+  }
+
+  @Test
+  public void tooManyKeysToFitInAnArray_throwsInsteadOfOverflowing() {
+    List<Integer> keys = IntStream.range(0, 70_000).boxed().collect(Collectors.toList());
+    assertIllegalArgumentException( () -> rbDoubleSymmetricUnequalPairMap(
+        keys, (index1, index2) -> DUMMY_DOUBLE));
+    assertIllegalArgumentException( () -> rbDoubleSymmetricUnequalPairMapInParallel(
+        keys, (index1, index2) -> DUMMY_DOUBLE));
+  }
+
+  @Test
+  public void duplicateKeys_throws() {
+    assertIllegalArgumentException( () -> rbDoubleSymmetricUnequalPairMap(
+        ImmutableList.of("a", "b", "a"), (index1, index2) -> DUMMY_DOUBLE));
+  }
+
+  @Test
+  public void nanValue_throws() {
+    assertIllegalArgumentException( () -> rbDoubleSymmetricUnequalPairMap(
+        ImmutableList.of("a", "b", "c"), (index1, index2) -> index1 == 2 ? Double.NaN : DUMMY_DOUBLE));
+    assertIllegalArgumentException( () -> rbDoubleSymmetricUnequalPairMapInParallel(
+        ImmutableList.of("a", "b", "c"), (index1, index2) -> index1 == 2 ? Double.NaN : DUMMY_DOUBLE));
+  }
+
+  @Test
+  public void generatorOnlyGetsCalledWithFirstIndexLarger() {
+    RBDoubleSymmetricUnequalPairMap<String> doesNotThrow = rbDoubleSymmetricUnequalPairMap(
+        ImmutableList.of("a", "b", "c", "d"),
+        (index1, index2) -> {
+          assertTrue(index1 > index2);
+          return DUMMY_DOUBLE;
+        });
+  }
+
+  @Test
+  public void parallelFill_sameAsSequential() {
+    // Large enough to actually run in parallel
+    List<String> keys = IntStream.range(0, 400).mapToObj(i -> "k" + i).collect(Collectors.toList());
+    RBDoubleSymmetricUnequalPairMap.PairValueGenerator generator = (index1, index2) -> Math.sin(index1 * 1.7 + index2);
+    assertThat(
+        rbDoubleSymmetricUnequalPairMapInParallel(keys, generator),
+        rbDoubleSymmetricUnequalPairMapMatcher(
+            rbDoubleSymmetricUnequalPairMap(keys, generator), k -> typeSafeEqualTo(k), DEFAULT_EPSILON_1e_8));
+  }
+
+  @Test
+  public void testRowView() {
+    RBDoubleSymmetricUnequalPairMap<String>.RowView rowViewB = pairMap.getRowView("b");
+    assertEquals("b", rowViewB.getRowKey());
+    assertEquals(3, rowViewB.size());
+    assertThat(
+        rowViewB.toDoubleArray(),
+        doubleArrayMatcher(new double[] { 10, 21, 31 }, DEFAULT_EPSILON_1e_8)); // ba, bc, bd
+    assertEquals(0, rowViewB.getOtherKeyIndex(0));
+    assertEquals(2, rowViewB.getOtherKeyIndex(1));
+    assertEquals(3, rowViewB.getOtherKeyIndex(2));
+    assertEquals(21, rowViewB.get(1), 1e-8);
+    assertEquals(10 + 21 + 31, rowViewB.sum(), 1e-8);
+    assertEquals((10 + 21 + 31) / 3.0, rowViewB.mean(), 1e-8);
+    assertEquals(10 + 21 + 31, rowViewB.doubleStream().sum(), 1e-8);
+    assertIllegalArgumentException( () -> rowViewB.get(-1));
+    assertIllegalArgumentException( () -> rowViewB.get(3));
+
+    // First and last rows only have one of the two parts (consecutive vs. spread out) of the flat array.
+    assertThat(
+        pairMap.getRowViewByIndex(0).toDoubleArray(),
+        doubleArrayMatcher(new double[] { 10, 20, 30 }, DEFAULT_EPSILON_1e_8));
+    assertThat(
+        pairMap.getRowView("d").toDoubleArray(),
+        doubleArrayMatcher(new double[] { 30, 31, 32 }, DEFAULT_EPSILON_1e_8));
+    assertEquals(10 + 20 + 30, pairMap.getRowViewByIndex(0).sum(), 1e-8);
+    assertEquals(30 + 31 + 32, pairMap.getRowViewByIndex(3).sum(), 1e-8);
+
+    assertIllegalArgumentException( () -> pairMap.getRowView("X"));
+    assertIllegalArgumentException( () -> pairMap.getRowViewByIndex(4));
+  }
+
+  @Test
+  public void testRowView_matchesGetByIndex_largerMap() {
+    int numKeys = 9;
+    RBDoubleSymmetricUnequalPairMap<Integer> largerPairMap = rbDoubleSymmetricUnequalPairMap(
+        IntStream.range(0, numKeys).boxed().collect(Collectors.toList()),
+        (index1, index2) -> Math.cos(index1 * 3.1 + index2 * 0.7));
+    for (int row = 0; row < numKeys; row++) {
+      RBDoubleSymmetricUnequalPairMap<Integer>.RowView rowView = largerPairMap.getRowViewByIndex(row);
+      double expectedSum = 0;
+      for (int position = 0; position < rowView.size(); position++) {
+        double expected = largerPairMap.getByIndex(row, rowView.getOtherKeyIndex(position));
+        assertEquals(expected, rowView.get(position), 1e-12);
+        expectedSum += expected;
+      }
+      assertEquals(expectedSum, rowView.sum(), 1e-12);
+    }
+  }
+
+  @Test
+  public void testTopK() {
+    // Row for c: ca = 20, cb = 21, cd = 32
+    assertEquals(ImmutableList.of("d", "b", "a"), pairMap.getKeysWithLargestValues("c", 3));
+    assertEquals(ImmutableList.of("d", "b", "a"), pairMap.getKeysWithLargestValues("c", 99));
+    assertEquals(ImmutableList.of("d", "b"),      pairMap.getKeysWithLargestValues("c", 2));
+    assertEquals(ImmutableList.of("d"),           pairMap.getKeysWithLargestValues("c", 1));
+    assertEquals(ImmutableList.of(),              pairMap.getKeysWithLargestValues("c", 0));
+    assertEquals(ImmutableList.of("a", "b", "d"), pairMap.getKeysWithSmallestValues("c", 3));
+    assertEquals(ImmutableList.of("a"),           pairMap.getKeysWithSmallestValues("c", 1));
+    assertIllegalArgumentException( () -> pairMap.getKeysWithLargestValues("c", -1));
+  }
+
+  @Test
+  public void testTopK_tiesGoToSmallerIndex() {
+    RBDoubleSymmetricUnequalPairMap<String> allEqual = rbDoubleSymmetricUnequalPairMap(
+        ImmutableList.of("a", "b", "c", "d", "e"), (index1, index2) -> 7.0);
+    assertEquals(ImmutableList.of("a", "b", "d"), allEqual.getKeysWithLargestValues("c", 3));
+    assertEquals(ImmutableList.of("a", "b", "d"), allEqual.getKeysWithSmallestValues("c", 3));
+  }
+
+  @Test
+  public void testTopK_matchesSorting() {
+    int numKeys = 50;
+    RBDoubleSymmetricUnequalPairMap<Integer> largerPairMap = rbDoubleSymmetricUnequalPairMap(
+        IntStream.range(0, numKeys).boxed().collect(Collectors.toList()),
+        (index1, index2) -> Math.sin(index1 * 12.9898 + index2 * 78.233));
+    for (int row = 0; row < numKeys; row += 7) {
+      int finalRow = row;
+      List<Integer> sortedByValueDescending = IntStream.range(0, numKeys)
+          .filter(other -> other != finalRow)
+          .boxed()
+          .sorted( (other1, other2) -> Double.compare(
+              largerPairMap.getByIndex(finalRow, other2), largerPairMap.getByIndex(finalRow, other1)))
+          .collect(Collectors.toList());
+      for (int k : new int[] { 1, 5, 17, numKeys - 1 }) {
+        assertEquals(sortedByValueDescending.subList(0, k), largerPairMap.getKeysWithLargestValues(row, k));
+      }
+    }
+  }
+
+  @Override
+  public RBDoubleSymmetricUnequalPairMap<String> makeTrivialObject() {
+    return rbDoubleSymmetricUnequalPairMap(ImmutableList.of("a", "b"), (index1, index2) -> 1.0);
+  }
+
+  @Override
+  public RBDoubleSymmetricUnequalPairMap<String> makeNontrivialObject() {
+    return rbDoubleSymmetricUnequalPairMap(
+        ImmutableList.of("a", "b", "c", "d"),
+        (index1, index2) -> 1.1 + 0.1 * (index1 + index2));
+  }
+
+  @Override
+  public RBDoubleSymmetricUnequalPairMap<String> makeMatchingNontrivialObject() {
+    double e = 1e-9; // epsilon
+    return rbDoubleSymmetricUnequalPairMap(
+        ImmutableList.of("a", "b", "c", "d"),
+        (index1, index2) -> 1.1 + 0.1 * (index1 + index2) + e);
+  }
+
+  @Override
+  protected boolean willMatch(RBDoubleSymmetricUnequalPairMap<String> expected,
+                              RBDoubleSymmetricUnequalPairMap<String> actual) {
+    return rbDoubleSymmetricUnequalPairMapMatcher(expected, k -> typeSafeEqualTo(k), DEFAULT_EPSILON_1e_8)
+        .matches(actual);
+  }
+
+  public static <K> TypeSafeMatcher<RBDoubleSymmetricUnequalPairMap<K>> rbDoubleSymmetricUnequalPairMapMatcher(
+      RBDoubleSymmetricUnequalPairMap<K> expected,
+      MatcherGenerator<K> keysMatcherGenerator,
+      Epsilon epsilon) {
+    return makeMatcher(expected,
+        match(v -> v.getArrayIndexMapping(), f -> arrayIndexMappingMatcher(f, keysMatcherGenerator)),
+        match(v -> v.getRawFlatArray(),      f -> doubleArrayMatcher(f, epsilon)));
+  }
+
+}
@@ -21,6 +21,8 @@ import java.util.function.BiPredicate;
 import java.util.function.BinaryOperator;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Lists.newArrayListWithExpectedSize;
@@ -191,6 +193,32 @@ public class RBMapTest {
         rbMapOf("a",  1, "b",  2).transformValuesCopy(intValue -> intValue + 10));
   }
 
+  @Test
+  public void parallelTransformValuesCopy() {
+    RBMap<String, Integer> emptyMap = emptyRBMap();
+    assertEquals(
+        emptyMap,
+        emptyMap.parallelTransformValuesCopy(intValue -> intValue + 10));
+    assertEquals(
+        rbMapOf("a", 11, "b", 12),
+        rbMapOf("a",  1, "b",  2).parallelTransformValuesCopy(intValue -> intValue + 10));
+
+    // A large map, so that the partial maps from different threads get merged.
+    RBMap<Integer, Integer> largeMap = newRBMap(IntStream.rangeClosed(1, 10_000)
+        .boxed()
+        .collect(Collectors.toMap(i -> i, i -> i)));
+    assertEquals(
+        largeMap.transformValuesCopy(intValue -> intValue * 2),
+        largeMap.parallelTransformValuesCopy(intValue -> intValue * 2));
+  }
+
+  @Test
+  public void parallelTransformEntriesCopy() {
+    assertEquals(
+        rbMapOf("a", "a1", "b", "b2"),
+        rbMapOf("a", 1, "b", 2).parallelTransformEntriesCopy( (key, value) -> key + value));
+  }
+
   @Test
   public void testFilterKeys() {
     RBMap<String, Integer> emptyMap = emptyRBMap();
@@ -11,6 +11,7 @@ import org.junit.Test;
 
 import java.util.Collections;
 import java.util.function.IntFunction;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static com.rb.nonbiz.collections.ArrayIndexMappingTest.arrayIndexMappingMatcher;
@@ -199,6 +200,27 @@ public class RBSymmetricUnequalPairMapTest extends RBTestMatcher<RBSymmetricUneq
     assertIllegalArgumentException( () -> rbSymmetricUnequalPairMapStaticBuilder(singletonList(DUMMY_STRING), Double[]::new));
   }
 
+  @Test
+  public void numPairsAndFlatIndex_doNotOverflowForManyKeys() {
+    assertEquals(0, RBSymmetricUnequalPairMap.getNumPairs(1));
+    assertEquals(6, RBSymmetricUnequalPairMap.getNumPairs(4));
+    // 46_342 * 46_341 does not fit in an int, but half of it does.
+    assertEquals(1_073_767_311, RBSymmetricUnequalPairMap.getNumPairs(46_342));
+    assertEquals(2_147_450_880, RBSymmetricUnequalPairMap.getNumPairs(65_536));
+    assertIllegalArgumentException( () -> RBSymmetricUnequalPairMap.getNumPairs(65_537));
+    assertIllegalArgumentException( () -> RBSymmetricUnequalPairMap.getNumPairs(100_000));
+
+    assertEquals(11, RBSymmetricUnequalPairMap.getFlatIndexUnchecked(5, 1));
+    assertEquals(1_073_767_311 + 7, RBSymmetricUnequalPairMap.getFlatIndexUnchecked(46_342, 7));
+    assertEquals(2_147_450_880 - 1, RBSymmetricUnequalPairMap.getFlatIndexUnchecked(65_535, 65_534));
+  }
+
+  @Test
+  public void staticBuilder_tooManyKeys_throws() {
+    assertIllegalArgumentException( () -> rbSymmetricUnequalPairMapStaticBuilder(
+        IntStream.range(0, 70_000).boxed().collect(Collectors.toList()), Double[]::new));
+  }
+
   @Test
   public void dynamicBuilder_putAssumingAbsent_itemsExist_throws() {
     assertIllegalArgumentException( () -> rbSymmetricUnequalPairMapDynamicBuilder(Double[]::new)
@@ -1,13 +1,38 @@
 package com.rb.nonbiz.collections;
 
+import com.rb.biz.types.asset.InstrumentId;
 import com.rb.nonbiz.collections.SetInclusionExclusionPredicateEvaluator.SetInclusionExclusionInstructions;
+import com.rb.nonbiz.collections.SetInclusionExclusionPredicateEvaluator.SetInclusionExclusionInstructionsBuilder;
+import com.rb.nonbiz.collections.SetInclusionExclusionPredicateEvaluator.SetInclusionExclusionSplit;
 import com.rb.nonbiz.testutils.RBTest;
 import org.junit.Test;
 
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_A;
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_B;
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_C;
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_D;
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_E;
+import static com.rb.biz.marketdata.FakeInstruments.STOCK_F;
+import static com.rb.nonbiz.collections.IidSetSimpleConstructors.emptyIidSet;
+import static com.rb.nonbiz.collections.IidSetSimpleConstructors.iidSetOf;
+import static com.rb.nonbiz.collections.IidSetSimpleConstructors.singletonIidSet;
+import static com.rb.nonbiz.collections.IidSetTest.iidSetMatcher;
+import static com.rb.nonbiz.collections.RBSet.emptyRBSet;
+import static com.rb.nonbiz.collections.RBSet.rbSetOf;
 import static com.rb.nonbiz.collections.RBSet.singletonRBSet;
 import static com.rb.nonbiz.collections.SetInclusionExclusionPredicateEvaluator.SetInclusionExclusionInstructions.*;
+import static com.rb.nonbiz.collections.SetInclusionExclusionPredicateEvaluator.SetInclusionExclusionInstructions.BehaviorForRest.EXCLUDE;
+import static com.rb.nonbiz.collections.SetInclusionExclusionPredicateEvaluator.SetInclusionExclusionInstructions.BehaviorForRest.INCLUDE;
+import static com.rb.nonbiz.testmatchers.RBCollectionMatchers.rbSetEqualsMatcher;
 import static com.rb.nonbiz.testutils.Asserters.assertOptionalEmpty;
 import static com.rb.nonbiz.testutils.Asserters.assertOptionalEquals;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class SetInclusionExclusionPredicateEvaluatorTest extends RBTest<SetInclusionExclusionPredicateEvaluator> {
 
@@ -72,6 +97,117 @@ public class SetInclusionExclusionPredicateEvaluatorTest extends RBTest<SetInclu
     assertOptionalEmpty(makeTestObject().mustBeIncluded('a', instructions));
   }
 
+  @Test
+  public void splitByInclusion_rbSet_matchesMustBeIncluded() {
+    // 'z' is not in any of the instruction sets; 'y' is in an instruction set, but not in the items.
+    RBSet<Character> items = rbSetOf('a', 'b', 'c', 'z');
+    Stream.<SetInclusionExclusionInstructions<Character>>of(
+        includeEverything(),
+        excludeEverything(),
+        useRulesForEverything(),
+        useRulesForTheseExcludeRest(rbSetOf('a', 'y')),
+        useRulesForTheseIncludeRest(rbSetOf('a', 'y')),
+        includeTheseExcludeRest(rbSetOf('a', 'y')),
+        includeTheseUseRulesForRest(rbSetOf('a', 'y')),
+        excludeTheseIncludeRest(rbSetOf('a', 'y')),
+        excludeTheseUseRulesForRest(rbSetOf('a', 'y')),
+        includeTheseExcludeTheseUseRulesForRest(rbSetOf('a', 'y'), singletonRBSet('b')),
+        instructionsWithAllThreeSets('a', 'b', 'c', 'y'))
+        .forEach(instructions -> {
+          SetInclusionExclusionSplit<RBSet<Character>> split = makeTestObject().splitByInclusion(items, instructions);
+          assertEquals(
+              items.size(),
+              split.getIncluded().size() + split.getExcluded().size() + split.getNeedsRules().size());
+          items.forEach(item -> {
+            Optional<Boolean> mustBeIncluded = makeTestObject().mustBeIncluded(item, instructions);
+            assertEquals(mustBeIncluded.equals(Optional.of(true)),  split.getIncluded().contains(item));
+            assertEquals(mustBeIncluded.equals(Optional.of(false)), split.getExcluded().contains(item));
+            assertEquals(!mustBeIncluded.isPresent(),               split.getNeedsRules().contains(item));
+          });
+        });
+  }
+
+  @Test
+  public void splitByInclusion_iidSet_matchesMustBeIncluded() {
+    // STOCK_F is not in any of the instruction sets; STOCK_E is in an instruction set, but not in the items.
+    IidSet items = iidSetOf(STOCK_A, STOCK_B, STOCK_C, STOCK_D, STOCK_F);
+    Stream.<SetInclusionExclusionInstructions<InstrumentId>>of(
+        includeEverything(),
+        excludeEverything(),
+        useRulesForEverything(),
+        useRulesForTheseExcludeRest(rbSetOf(STOCK_A, STOCK_E)),
+        useRulesForTheseIncludeRest(rbSetOf(STOCK_A, STOCK_E)),
+        includeTheseExcludeRest(rbSetOf(STOCK_A, STOCK_E)),
+        includeTheseUseRulesForRest(rbSetOf(STOCK_A, STOCK_E)),
+        excludeTheseIncludeRest(rbSetOf(STOCK_A, STOCK_E)),
+        excludeTheseUseRulesForRest(rbSetOf(STOCK_A, STOCK_E)),
+        includeTheseExcludeTheseUseRulesForRest(rbSetOf(STOCK_A, STOCK_E), rbSetOf(STOCK_B, STOCK_C)),
+        instructionsWithAllThreeSets(STOCK_A, STOCK_B, STOCK_C, STOCK_E))
+        .forEach(instructions -> {
+          SetInclusionExclusionSplit<IidSet> split = makeTestObject().splitByInclusion(items, instructions);
+          assertEquals(
+              items.size(),
+              split.getIncluded().size() + split.getExcluded().size() + split.getNeedsRules().size());
+          items.forEach(item -> {
+            Optional<Boolean> mustBeIncluded = makeTestObject().mustBeIncluded(item, instructions);
+            assertEquals(mustBeIncluded.equals(Optional.of(true)),  split.getIncluded().contains(item));
+            assertEquals(mustBeIncluded.equals(Optional.of(false)), split.getExcluded().contains(item));
+            assertEquals(!mustBeIncluded.isPresent(),               split.getNeedsRules().contains(item));
+          });
+        });
+  }
+
+  @Test
+  public void splitByInclusion_spotChecks() {
+    SetInclusionExclusionSplit<IidSet> split = makeTestObject().splitByInclusion(
+        iidSetOf(STOCK_A, STOCK_B, STOCK_C, STOCK_D),
+        includeTheseExcludeTheseUseRulesForRest(rbSetOf(STOCK_A, STOCK_E), singletonRBSet(STOCK_B)));
+    assertThat(split.getIncluded(),   iidSetMatcher(singletonIidSet(STOCK_A)));
+    assertThat(split.getExcluded(),   iidSetMatcher(singletonIidSet(STOCK_B)));
+    assertThat(split.getNeedsRules(), iidSetMatcher(iidSetOf(STOCK_C, STOCK_D)));
+
+    SetInclusionExclusionSplit<RBSet<Character>> rbSetSplit = makeTestObject().splitByInclusion(
+        rbSetOf('a', 'b', 'c'),
+        excludeTheseIncludeRest(singletonRBSet('c')));
+    assertThat(rbSetSplit.getIncluded(),   rbSetEqualsMatcher(rbSetOf('a', 'b')));
+    assertThat(rbSetSplit.getExcluded(),   rbSetEqualsMatcher(singletonRBSet('c')));
+    assertThat(rbSetSplit.getNeedsRules(), rbSetEqualsMatcher(emptyRBSet()));
+  }
+
+  @Test
+  public void splitByInclusion_nothingToMoveOut_doesNotCopyItems() {
+    IidSet items = iidSetOf(STOCK_A, STOCK_B);
+    RBSet<Character> rbSetItems = rbSetOf('a', 'b');
+    assertSame(items, makeTestObject().splitByInclusion(items, includeEverything()).getIncluded());
+    assertSame(items, makeTestObject().splitByInclusion(items, excludeEverything()).getExcluded());
+    assertSame(items, makeTestObject().splitByInclusion(items, useRulesForEverything()).getNeedsRules());
+    assertSame(rbSetItems, makeTestObject().splitByInclusion(rbSetItems, includeEverything()).getIncluded());
+    // The 'include' instructions point to the same bucket as the rest, so nothing needs to move out.
+    assertSame(items, makeTestObject().splitByInclusion(
+        items,
+        SetInclusionExclusionInstructionsBuilder.<InstrumentId>setInclusionExclusionInstructionsBuilder()
+            .alwaysInclude(singletonRBSet(STOCK_A))
+            .alwaysExclude(emptyRBSet())
+            .alwaysUseRules(emptyRBSet())
+            .setBehaviorForRest(INCLUDE)
+            .build())
+        .getIncluded());
+    assertTrue(makeTestObject().splitByInclusion(items, includeEverything()).getExcluded().isEmpty());
+    assertThat(
+        makeTestObject().splitByInclusion(emptyIidSet(), excludeTheseIncludeRest(singletonRBSet(STOCK_A))).getExcluded(),
+        iidSetMatcher(emptyIidSet()));
+  }
+
+  private static <T> SetInclusionExclusionInstructions<T> instructionsWithAllThreeSets(
+      T alwaysInclude, T alwaysExclude, T alwaysUseRules, T alwaysIncludeButNotInItems) {
+    return SetInclusionExclusionInstructionsBuilder.<T>setInclusionExclusionInstructionsBuilder()
+        .alwaysInclude(rbSetOf(alwaysInclude, alwaysIncludeButNotInItems))
+        .alwaysExclude(singletonRBSet(alwaysExclude))
+        .alwaysUseRules(singletonRBSet(alwaysUseRules))
+        .setBehaviorForRest(EXCLUDE)
+        .build();
+  }
+
   @Override
   protected SetInclusionExclusionPredicateEvaluator makeTestObject() {
     return new SetInclusionExclusionPredicateEvaluator();
@@ -0,0 +1,77 @@
+package com.rb.nonbiz.collections;
+
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.hash.TLongHashSet;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static com.rb.nonbiz.collections.TroveLongHashSpliterator.troveLongHashSpliterator;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.longArrayMatcher;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TroveLongHashSpliteratorTest {
+
+  @Test
+  public void emptyHash_noItems() {
+    TroveLongHashSpliterator spliterator = troveLongHashSpliterator(new TLongHashSet());
+    assertEquals(0, spliterator.estimateSize());
+    assertFalse(spliterator.tryAdvance( (long ignored) -> {}));
+  }
+
+  @Test
+  public void visitsEveryItemExactlyOnce_sequentialAndParallel() {
+    TLongHashSet rawSet = new TLongHashSet();
+    LongStream.rangeClosed(1, 5_000).forEach(v -> rawSet.add(v * 7));
+    // Removing items leaves REMOVED slots in the table, which the spliterator must skip.
+    LongStream.rangeClosed(1, 1_000).forEach(v -> rawSet.remove(v * 7));
+
+    long[] expected = LongStream.rangeClosed(1_001, 5_000).map(v -> v * 7).toArray();
+    for (boolean parallel : new boolean[] { false, true }) {
+      long[] actual = StreamSupport.longStream(troveLongHashSpliterator(rawSet), parallel).toArray();
+      Arrays.sort(actual);
+      assertThat(actual, longArrayMatcher(expected));
+    }
+  }
+
+  @Test
+  public void worksOnMapKeys() {
+    TLongObjectHashMap<String> rawMap = new TLongObjectHashMap<>();
+    rawMap.put(11, "a");
+    rawMap.put(22, "b");
+    rawMap.put(33, "c");
+    long[] actual = StreamSupport.longStream(troveLongHashSpliterator(rawMap), false).toArray();
+    Arrays.sort(actual);
+    assertThat(actual, longArrayMatcher(new long[] { 11, 22, 33 }));
+  }
+
+  @Test
+  public void topLevelIsSized_splitsAreNot() {
+    TLongHashSet rawSet = new TLongHashSet();
+    LongStream.rangeClosed(1, 100).forEach(v -> rawSet.add(v));
+    TroveLongHashSpliterator spliterator = troveLongHashSpliterator(rawSet);
+    assertEquals(100, spliterator.estimateSize());
+    assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+    assertTrue(spliterator.hasCharacteristics(Spliterator.DISTINCT));
+
+    TroveLongHashSpliterator prefix = spliterator.trySplit();
+    assertNotNull(prefix);
+    assertFalse(prefix.hasCharacteristics(Spliterator.SIZED));
+    assertFalse(spliterator.hasCharacteristics(Spliterator.SIZED));
+    assertEquals(50, prefix.estimateSize());
+    assertEquals(50, spliterator.estimateSize());
+
+    long[] total = { 0 };
+    prefix.forEachRemaining( (long v) -> total[0] += v);
+    spliterator.forEachRemaining( (long v) -> total[0] += v);
+    assertEquals(5050, total[0]);
+  }
+
+}
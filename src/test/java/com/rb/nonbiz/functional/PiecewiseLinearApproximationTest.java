@@ -0,0 +1,76 @@
+package com.rb.nonbiz.functional;
+
+import org.junit.Test;
+
+import java.util.function.DoubleUnaryOperator;
+
+import static com.rb.nonbiz.functional.PiecewiseLinearApproximation.piecewiseLinearApproximation;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PiecewiseLinearApproximationTest {
+
+  @Test
+  public void badRange_throws() {
+    DoubleUnaryOperator f = x -> x * x;
+    assertIllegalArgumentException( () -> piecewiseLinearApproximation(f, 1, 1, 1e-6));
+    assertIllegalArgumentException( () -> piecewiseLinearApproximation(f, 1, 0, 1e-6));
+    assertIllegalArgumentException( () -> piecewiseLinearApproximation(f, Double.NEGATIVE_INFINITY, 0, 1e-6));
+    assertIllegalArgumentException( () -> piecewiseLinearApproximation(f, 0, Double.NaN, 1e-6));
+    PiecewiseLinearApproximation doesNotThrow = piecewiseLinearApproximation(f, 0, 1, 1e-6);
+  }
+
+  @Test
+  public void nonPositiveError_throws() {
+    DoubleUnaryOperator f = x -> x * x;
+    assertIllegalArgumentException( () -> piecewiseLinearApproximation(f, 0, 1, -1e-6));
+    assertIllegalArgumentException( () -> piecewiseLinearApproximation(f, 0, 1, 0));
+  }
+
+  @Test
+  public void linearFunction_isExact_usesInitialGrid() {
+    PiecewiseLinearApproximation approximation = piecewiseLinearApproximation(x -> 3 * x - 1, -2, 2, 1e-12);
+    assertEquals(16, approximation.getNumIntervals());
+    for (double x = -2; x <= 2; x += 0.001) {
+      assertEquals(3 * x - 1, approximation.applyAsDouble(x), 1e-12);
+    }
+  }
+
+  @Test
+  public void smoothFunction_withinError_insideAndOutsideRange() {
+    for (double maxError : new double[] { 1e-3, 1e-4, 1e-5 }) {
+      PiecewiseLinearApproximation approximation = piecewiseLinearApproximation(x -> Math.log(x), 1, 100, maxError);
+      for (double x = 0.5; x <= 200; x += 0.0137) {
+        assertEquals(Math.log(x), approximation.applyAsDouble(x), maxError);
+      }
+      assertEquals(0, approximation.applyAsDouble(1), 1e-15);
+      assertEquals(Math.log(100), approximation.applyAsDouble(100), 1e-15);
+    }
+    // A tighter error bound needs more grid points
+    assertTrue(
+        piecewiseLinearApproximation(x -> Math.log(x), 1, 100, 1e-5).getNumIntervals()
+            > piecewiseLinearApproximation(x -> Math.log(x), 1, 100, 1e-3).getNumIntervals());
+  }
+
+  @Test
+  public void functionWithKink_canBeApproximated() {
+    // e.g. a collared function
+    DoubleUnaryOperator f = x -> x < 0.3 ? 0.3 : x > 0.7 ? 0.7 : x;
+    PiecewiseLinearApproximation approximation = piecewiseLinearApproximation(f, 0, 1, 1e-4);
+    for (double x = 0; x <= 1; x += 0.0001) {
+      assertEquals(f.applyAsDouble(x), approximation.applyAsDouble(x), 1e-4);
+    }
+  }
+
+  @Test
+  public void discontinuousFunction_throws() {
+    assertIllegalArgumentException( () -> piecewiseLinearApproximation(x -> x < 0.3333 ? 0 : 1, 0, 1, 1e-4));
+  }
+
+  @Test
+  public void nanInput_usesOriginalFunction() {
+    assertTrue(Double.isNaN(piecewiseLinearApproximation(x -> x, 0, 1, 1e-6).applyAsDouble(Double.NaN)));
+  }
+
+}
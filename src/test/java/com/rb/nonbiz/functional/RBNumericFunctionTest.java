@@ -4,17 +4,75 @@ import com.rb.biz.types.Money;
 import com.rb.nonbiz.testutils.RBTestMatcher;
 import com.rb.nonbiz.types.RBNumeric;
 import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
 
 import static com.rb.biz.types.Money.money;
 import static com.rb.nonbiz.collections.RBStreams.concatenateFirstAndRest;
 import static com.rb.nonbiz.functional.RBNumericFunction.rbIdentityNumericFunction;
 import static com.rb.nonbiz.functional.RBNumericFunction.rbNumericFunction;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.doubleArrayMatcher;
 import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
 import static com.rb.nonbiz.text.SimpleHumanReadableLabel.label;
 import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
 
 public class RBNumericFunctionTest extends RBTestMatcher<RBNumericFunction<Double, Money>> {
 
+  @Test
+  public void testApplyAsDouble() {
+    RBNumericFunction<Double, Money> function = rbNumericFunction(label("x+10"), v -> v + 10, v -> money(v));
+    assertEquals(13.3, function.applyAsDouble(3.3), 1e-12);
+  }
+
+  @Test
+  public void testApplyToArray() {
+    RBNumericFunction<Double, Money> function = rbNumericFunction(label("x*2"), v -> v * 2, v -> money(v));
+    double[] out = new double[3];
+    function.applyToArray(new double[] { -1.1, 0, 7.7 }, out);
+    assertThat(out, doubleArrayMatcher(new double[] { -2.2, 0, 15.4 }, DEFAULT_EPSILON_1e_8));
+
+    // input and output can be the same array
+    double[] inAndOut = new double[] { 1, 2 };
+    function.applyToArray(inAndOut, inAndOut);
+    assertThat(inAndOut, doubleArrayMatcher(new double[] { 2, 4 }, DEFAULT_EPSILON_1e_8));
+
+    assertIllegalArgumentException( () -> function.applyToArray(new double[2], new double[3]));
+    function.applyToArray(new double[] {}, new double[] {}); // does not throw
+  }
+
+  @Test
+  public void testThenApply() {
+    // Each function's input type must be a supertype of the other's output type (Money), so we can chain them
+    // in either order.
+    RBNumericFunction<Number, Money> plus10 = rbNumericFunction(label("x+10"), v -> v + 10, v -> money(v));
+    RBNumericFunction<Number, Money> times2 = rbNumericFunction(label("x*2"), v -> v * 2, v -> money(v));
+    assertThat(
+        plus10.thenApply(times2),
+        rbNumericFunctionUsingSamplingMatcher(
+            RBNumericFunction.<Number, Money>rbNumericFunction(label("expected"), v -> (v + 10) * 2, v -> money(v)),
+            -1.1, 3.3, 7.7));
+    assertThat(
+        times2.thenApply(plus10),
+        rbNumericFunctionUsingSamplingMatcher(
+            RBNumericFunction.<Number, Money>rbNumericFunction(label("expected"), v -> v * 2 + 10, v -> money(v)),
+            -1.1, 3.3, 7.7));
+    assertEquals(money(26), plus10.thenApply(times2).apply(3.0));
+    assertEquals("x+10 , then x*2", plus10.thenApply(times2).getHumanReadableLabel().getLabelText());
+  }
+
+  @Test
+  public void testWithPiecewiseLinearApproximation() {
+    RBNumericFunction<Double, Money> exact = rbNumericFunction(label("e^x"), v -> Math.exp(v), v -> money(v));
+    RBNumericFunction<Double, Money> approximated = exact.withPiecewiseLinearApproximation(0, 2, 1e-6);
+    for (double x = -1; x <= 3; x += 0.01) {
+      assertEquals(Math.exp(x), approximated.applyAsDouble(x), 1e-6);
+    }
+    // Outside the range, the exact function gets used
+    assertEquals(Math.exp(2.5), approximated.applyAsDouble(2.5), 1e-14);
+  }
+
   @Override
   public RBNumericFunction<Double, Money> makeTrivialObject() {
     return rbIdentityNumericFunction(v -> money(v));
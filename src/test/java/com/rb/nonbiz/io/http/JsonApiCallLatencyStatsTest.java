@@ -0,0 +1,77 @@
+package com.rb.nonbiz.io.http;
+
+import com.rb.nonbiz.testutils.RBTestMatcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static com.rb.nonbiz.io.http.JsonApiCallLatencyStats.jsonApiCallLatencyStats;
+import static com.rb.nonbiz.io.http.JsonApiCallLatencyStats.noJsonApiCallsYet;
+import static com.rb.nonbiz.testmatchers.Match.matchUsingEquals;
+import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalEmpty;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalEquals;
+import static org.junit.Assert.assertEquals;
+
+public class JsonApiCallLatencyStatsTest extends RBTestMatcher<JsonApiCallLatencyStats> {
+
+  @Test
+  public void testValidation() {
+    Duration ms1 = Duration.ofMillis(1);
+    Duration ms5 = Duration.ofMillis(5);
+    assertIllegalArgumentException( () -> jsonApiCallLatencyStats(-1, 1, ms5, ms1));
+    assertIllegalArgumentException( () -> jsonApiCallLatencyStats(1, -1, ms5, ms1));
+    assertIllegalArgumentException( () -> jsonApiCallLatencyStats(1, 1, ms5.negated(), ms1));
+    assertIllegalArgumentException( () -> jsonApiCallLatencyStats(1, 1, ms5, ms1.negated()));
+    // max > total
+    assertIllegalArgumentException( () -> jsonApiCallLatencyStats(1, 1, ms1, ms5));
+    // no calls, but non-zero latency
+    assertIllegalArgumentException( () -> jsonApiCallLatencyStats(0, 0, ms5, ms1));
+
+    JsonApiCallLatencyStats doesNotThrow;
+    doesNotThrow = jsonApiCallLatencyStats(1, 1, ms5, ms1);
+    doesNotThrow = jsonApiCallLatencyStats(0, 1, ms5, ms5);
+    doesNotThrow = jsonApiCallLatencyStats(0, 0, Duration.ZERO, Duration.ZERO);
+  }
+
+  @Test
+  public void testMeanLatency() {
+    assertOptionalEmpty(noJsonApiCallsYet().getOptionalMeanLatency());
+    JsonApiCallLatencyStats stats = jsonApiCallLatencyStats(3, 1, Duration.ofMillis(40), Duration.ofMillis(25));
+    assertEquals(4, stats.getNumCalls());
+    assertOptionalEquals(Duration.ofMillis(10), stats.getOptionalMeanLatency());
+  }
+
+  @Override
+  public JsonApiCallLatencyStats makeTrivialObject() {
+    return noJsonApiCallsYet();
+  }
+
+  @Override
+  public JsonApiCallLatencyStats makeNontrivialObject() {
+    return jsonApiCallLatencyStats(3, 1, Duration.ofMillis(40), Duration.ofMillis(25));
+  }
+
+  @Override
+  public JsonApiCallLatencyStats makeMatchingNontrivialObject() {
+    // Durations are exact, so there's no epsilon to tweak
+    return jsonApiCallLatencyStats(3, 1, Duration.ofMillis(40), Duration.ofMillis(25));
+  }
+
+  @Override
+  protected boolean willMatch(JsonApiCallLatencyStats expected, JsonApiCallLatencyStats actual) {
+    return jsonApiCallLatencyStatsMatcher(expected).matches(actual);
+  }
+
+  public static TypeSafeMatcher<JsonApiCallLatencyStats> jsonApiCallLatencyStatsMatcher(
+      JsonApiCallLatencyStats expected) {
+    return makeMatcher(expected,
+        matchUsingEquals(v -> v.getNumSuccessfulCalls()),
+        matchUsingEquals(v -> v.getNumFailedCalls()),
+        matchUsingEquals(v -> v.getTotalLatency()),
+        matchUsingEquals(v -> v.getMaxLatency()));
+  }
+
+}
@@ -0,0 +1,246 @@
+package com.rb.nonbiz.io.http;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.rb.nonbiz.io.http.PooledJsonApiCallerUsingPost.PooledJsonApiCallerUsingPostBuilder.pooledJsonApiCallerUsingPostBuilder;
+import static com.rb.nonbiz.json.RBGson.jsonDouble;
+import static com.rb.nonbiz.json.RBGson.jsonString;
+import static com.rb.nonbiz.json.RBJsonObjectSimpleConstructors.jsonObject;
+import static com.rb.nonbiz.json.RBJsonObjectSimpleConstructors.singletonJsonObject;
+import static com.rb.nonbiz.testmatchers.RBJsonMatchers.jsonObjectEpsilonMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unlike {@link JsonApiCallerUsingPostTest}, this does make real HTTP calls, but only to a small stand-in server
+ * that runs inside the test, on a local port. The server echoes back the JSON it receives, wrapped in an object
+ * under the key "echo".
+ */
+public class PooledJsonApiCallerUsingPostTest {
+
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+  private URI echoUri;
+  private URI failingUri;
+
+  // What the stand-in server saw
+  private final Set<Integer> clientPortsSeen = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger numRequestsInFlight = new AtomicInteger(0);
+  private final AtomicInteger maxNumRequestsInFlight = new AtomicInteger(0);
+  private final AtomicInteger numGzippedRequests = new AtomicInteger(0);
+
+  @Before
+  public void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/echo", exchange -> handleEcho(exchange));
+    server.createContext("/fail", exchange -> {
+      drain(exchange.getRequestBody());
+      byte[] body = "oops".getBytes(UTF_8);
+      exchange.sendResponseHeaders(500, body.length);
+      try (OutputStream outputStream = exchange.getResponseBody()) {
+        outputStream.write(body);
+      }
+    });
+    serverExecutor = Executors.newFixedThreadPool(8);
+    server.setExecutor(serverExecutor);
+    server.start();
+    int port = server.getAddress().getPort();
+    echoUri = URI.create("http://localhost:" + port + "/echo");
+    failingUri = URI.create("http://localhost:" + port + "/fail");
+  }
+
+  @After
+  public void stopServer() {
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  @Test
+  public void roundTrip() throws IOException {
+    for (boolean gzipRequests : new boolean[] { false, true }) {
+      try (PooledJsonApiCallerUsingPost caller = makeCaller(2, 2, gzipRequests)) {
+        JsonObject request = jsonObject(
+            "a", jsonDouble(1.5),
+            "b", jsonString("x <&> é"));
+        assertThat(
+            caller.makeCall(echoUri, request),
+            jsonObjectEpsilonMatcher(singletonJsonObject("echo", request)));
+      }
+    }
+    assertEquals(1, numGzippedRequests.get());
+  }
+
+  @Test
+  public void reusesConnection() throws IOException {
+    try (PooledJsonApiCallerUsingPost caller = makeCaller(2, 2, false)) {
+      for (int i = 0; i < 5; i++) {
+        caller.makeCall(echoUri, singletonJsonObject("i", jsonDouble(i)));
+      }
+    }
+    // Sequential calls should all go over the same keep-alive connection, i.e. from the same client port.
+    assertEquals(1, clientPortsSeen.size());
+  }
+
+  @Test
+  public void badStatus_throws_andConnectionIsStillReusable() throws IOException {
+    try (PooledJsonApiCallerUsingPost caller = makeCaller(1, 1, false)) {
+      assertIllegalArgumentException( () -> caller.makeCall(failingUri, singletonJsonObject("a", jsonDouble(1))));
+      // Only 1 connection is allowed, so this would time out if the failed call did not release it.
+      caller.makeCall(echoUri, singletonJsonObject("a", jsonDouble(1)));
+
+      JsonApiCallLatencyStats stats = caller.getLatencyStats();
+      assertEquals(1, stats.getNumSuccessfulCalls());
+      assertEquals(1, stats.getNumFailedCalls());
+      assertTrue(stats.getMaxLatency().compareTo(stats.getTotalLatency()) <= 0);
+    }
+  }
+
+  @Test
+  public void unreachableServer_throwsUncheckedIOException() throws IOException {
+    URI unusedUri = echoUri;
+    server.stop(0);
+    try (PooledJsonApiCallerUsingPost caller = makeCaller(1, 1, false)) {
+      try {
+        caller.makeCall(unusedUri, singletonJsonObject("a", jsonDouble(1)));
+        fail("expected an exception");
+      } catch (UncheckedIOException e) {
+        // expected
+      }
+      assertEquals(1, caller.getLatencyStats().getNumFailedCalls());
+    }
+  }
+
+  @Test
+  public void asyncCalls_respectMaxConcurrency() throws IOException, ExecutionException, InterruptedException {
+    int numCalls = 12;
+    try (PooledJsonApiCallerUsingPost caller = makeCaller(3, 2, true)) {
+      List<CompletableFuture<JsonObject>> futures = new ArrayList<>(numCalls);
+      for (int i = 0; i < numCalls; i++) {
+        futures.add(caller.makeCallAsync(echoUri, singletonJsonObject("i", jsonDouble(i))));
+      }
+      for (int i = 0; i < numCalls; i++) {
+        assertThat(
+            futures.get(i).get(),
+            jsonObjectEpsilonMatcher(singletonJsonObject("echo", singletonJsonObject("i", jsonDouble(i)))));
+      }
+      assertEquals(numCalls, caller.getLatencyStats().getNumSuccessfulCalls());
+    }
+    assertTrue(maxNumRequestsInFlight.get() <= 2);
+    assertEquals(numCalls, numGzippedRequests.get());
+  }
+
+  @Test
+  public void asyncCall_failure_completesExceptionally() throws IOException, InterruptedException {
+    try (PooledJsonApiCallerUsingPost caller = makeCaller(1, 1, false)) {
+      try {
+        caller.makeCallAsync(failingUri, singletonJsonObject("a", jsonDouble(1))).get();
+        fail("expected an exception");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+      }
+    }
+  }
+
+  @Test
+  public void builderValidation() {
+    assertIllegalArgumentException( () -> makeCaller(0, 1, false));
+    assertIllegalArgumentException( () -> makeCaller(1, 0, false));
+    assertIllegalArgumentException( () -> makeCaller(1, 2, false));
+    assertIllegalArgumentException( () -> pooledJsonApiCallerUsingPostBuilder()
+        .setMaxConnections(1)
+        .setMaxConcurrentAsyncCalls(1)
+        .setTimeout(Duration.ZERO)
+        .setGzipRequests(false)
+        .build());
+  }
+
+  private PooledJsonApiCallerUsingPost makeCaller(int maxConnections, int maxConcurrentAsyncCalls, boolean gzipRequests) {
+    return pooledJsonApiCallerUsingPostBuilder()
+        .setMaxConnections(maxConnections)
+        .setMaxConcurrentAsyncCalls(maxConcurrentAsyncCalls)
+        .setTimeout(Duration.ofSeconds(5))
+        .setGzipRequests(gzipRequests)
+        .build();
+  }
+
+  private void handleEcho(HttpExchange exchange) throws IOException {
+    int inFlight = numRequestsInFlight.incrementAndGet();
+    maxNumRequestsInFlight.accumulateAndGet(inFlight, Math::max);
+    try {
+      clientPortsSeen.add(exchange.getRemoteAddress().getPort());
+      boolean isGzipped = "gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+      if (isGzipped) {
+        numGzippedRequests.incrementAndGet();
+      }
+      InputStream requestBody = isGzipped
+          ? new GZIPInputStream(exchange.getRequestBody())
+          : exchange.getRequestBody();
+      JsonObject request;
+      try (Reader reader = new InputStreamReader(requestBody, UTF_8)) {
+        request = JsonParser.parseReader(reader).getAsJsonObject();
+      }
+      // Give concurrent requests a chance to overlap
+      Thread.sleep(10);
+
+      byte[] body = singletonJsonObject("echo", request).toString().getBytes(UTF_8);
+      String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+      if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(gzipped)) {
+          gzipOutputStream.write(body);
+        }
+        body = gzipped.toByteArray();
+        exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+      }
+      exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream outputStream = exchange.getResponseBody()) {
+        outputStream.write(body);
+      }
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    } finally {
+      numRequestsInFlight.decrementAndGet();
+    }
+  }
+
+  private static void drain(InputStream inputStream) throws IOException {
+    byte[] buffer = new byte[1024];
+    while (inputStream.read(buffer) >= 0) {
+      // keep reading
+    }
+  }
+
+}
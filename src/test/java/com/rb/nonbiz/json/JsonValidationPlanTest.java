@@ -0,0 +1,141 @@
+package com.rb.nonbiz.json;
+
+import com.google.gson.JsonObject;
+import com.rb.biz.types.Money;
+import com.rb.nonbiz.collections.ClosedRange;
+import com.rb.nonbiz.collections.RBMap;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import static com.rb.nonbiz.collections.RBMapSimpleConstructors.rbMapOf;
+import static com.rb.nonbiz.collections.RBMapSimpleConstructors.singletonRBMap;
+import static com.rb.nonbiz.json.JsonApiPropertyDescriptor.CollectionJsonApiPropertyDescriptor.collectionJsonApiPropertyDescriptor;
+import static com.rb.nonbiz.json.JsonApiPropertyDescriptor.RBMapJsonApiPropertyDescriptor.rbMapJsonApiPropertyDescriptor;
+import static com.rb.nonbiz.json.JsonApiPropertyDescriptor.SimpleClassJsonApiPropertyDescriptor.simpleClassJsonApiPropertyDescriptor;
+import static com.rb.nonbiz.json.JsonValidationInstructions.JsonValidationInstructionsBuilder.jsonValidationInstructionsBuilder;
+import static com.rb.nonbiz.json.JsonValidationPlan.compileJsonValidationPlan;
+import static com.rb.nonbiz.json.RBGson.jsonDouble;
+import static com.rb.nonbiz.json.RBGson.jsonString;
+import static com.rb.nonbiz.json.RBJsonArrays.jsonArray;
+import static com.rb.nonbiz.json.RBJsonArrays.singletonJsonArray;
+import static com.rb.nonbiz.json.RBJsonObjectSimpleConstructors.emptyJsonObject;
+import static com.rb.nonbiz.json.RBJsonObjectSimpleConstructors.jsonObject;
+import static com.rb.nonbiz.json.RBJsonObjectSimpleConstructors.singletonJsonObject;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class JsonValidationPlanTest {
+
+  private static final JsonValidationInstructions RANGE_INSTRUCTIONS = jsonValidationInstructionsBuilder()
+      .hasNoRequiredProperties()
+      .setOptionalProperties(
+          "min", Money.class,
+          "max", Money.class)
+      .build();
+
+  private static final JsonValidationInstructions OUTER_INSTRUCTIONS = jsonValidationInstructionsBuilder()
+      .setRequiredProperties(rbMapOf(
+          "name", simpleClassJsonApiPropertyDescriptor(String.class),
+          "range", simpleClassJsonApiPropertyDescriptor(ClosedRange.class)))
+      .setOptionalProperties(rbMapOf(
+          "rangeList", collectionJsonApiPropertyDescriptor(simpleClassJsonApiPropertyDescriptor(ClosedRange.class)),
+          "rangeMap", rbMapJsonApiPropertyDescriptor(
+              simpleClassJsonApiPropertyDescriptor(String.class),
+              simpleClassJsonApiPropertyDescriptor(ClosedRange.class))))
+      .build();
+
+  private static final RBMap<Class<?>, JsonValidationPlan> PLANS_BY_CLASS = singletonRBMap(
+      ClosedRange.class, RANGE_INSTRUCTIONS.getJsonValidationPlan());
+
+  private static final Function<Class<?>, Optional<JsonValidationPlan>> PLAN_FOR_CLASS = clazz -> PLANS_BY_CLASS.getOptional(clazz);
+
+  @Test
+  public void testCompiledProperties() {
+    JsonValidationPlan plan = compileJsonValidationPlan(OUTER_INSTRUCTIONS);
+    assertEquals(4, plan.getNumProperties());
+    assertEquals(2, plan.getNumRequiredProperties());
+    assertTrue(plan.isRequiredProperty("name"));
+    assertTrue(plan.isRequiredProperty("range"));
+    assertFalse(plan.isRequiredProperty("rangeList"));
+    assertTrue(plan.hasProperty("rangeList"));
+    assertFalse(plan.hasProperty("nAme"));
+    assertFalse(plan.isRequiredProperty("nAme"));
+  }
+
+  @Test
+  public void planIsOnlyCompiledOnce() {
+    assertSame(OUTER_INSTRUCTIONS.getJsonValidationPlan(), OUTER_INSTRUCTIONS.getJsonValidationPlan());
+  }
+
+  @Test
+  public void testValidate_topLevelOnly() {
+    JsonValidationPlan plan = OUTER_INSTRUCTIONS.getJsonValidationPlan();
+    JsonObject valid = jsonObject(
+        "name", jsonString("x"),
+        "range", singletonJsonObject("min", jsonDouble(1)));
+    assertSame(valid, plan.validate(valid));
+
+    // missing a required property
+    assertIllegalArgumentException( () -> plan.validate(singletonJsonObject("name", jsonString("x"))));
+    assertIllegalArgumentException( () -> plan.validate(emptyJsonObject()));
+    // typo
+    assertIllegalArgumentException( () -> plan.validate(jsonObject(
+        "name", jsonString("x"),
+        "range", emptyJsonObject(),
+        "rangeLIST", emptyJsonObject())));
+
+    // validate() does not look inside nested objects, so the typo 'mIn' is not caught
+    plan.validate(jsonObject(
+        "name", jsonString("x"),
+        "range", singletonJsonObject("mIn", jsonDouble(1))));
+  }
+
+  @Test
+  public void testValidateRecursively() {
+    JsonValidationPlan plan = OUTER_INSTRUCTIONS.getJsonValidationPlan();
+    JsonObject valid = jsonObject(
+        "name", jsonString("x"),
+        "range", singletonJsonObject("min", jsonDouble(1)),
+        "rangeList", jsonArray(
+            singletonJsonObject("max", jsonDouble(2)),
+            jsonObject("min", jsonDouble(1), "max", jsonDouble(2))),
+        "rangeMap", jsonObject(
+            "a", singletonJsonObject("min", jsonDouble(3)),
+            "b", emptyJsonObject()));
+    assertSame(valid, plan.validateRecursively(valid, PLAN_FOR_CLASS));
+
+    // typo in a nested object
+    assertIllegalArgumentException( () -> plan.validateRecursively(
+        jsonObject(
+            "name", jsonString("x"),
+            "range", singletonJsonObject("mIn", jsonDouble(1))),
+        PLAN_FOR_CLASS));
+    // typo in an object inside a collection
+    assertIllegalArgumentException( () -> plan.validateRecursively(
+        jsonObject(
+            "name", jsonString("x"),
+            "range", emptyJsonObject(),
+            "rangeList", singletonJsonArray(singletonJsonObject("mAx", jsonDouble(2)))),
+        PLAN_FOR_CLASS));
+    // typo in a value of a map
+    assertIllegalArgumentException( () -> plan.validateRecursively(
+        jsonObject(
+            "name", jsonString("x"),
+            "range", emptyJsonObject(),
+            "rangeMap", singletonJsonObject("a", singletonJsonObject("mAx", jsonDouble(2)))),
+        PLAN_FOR_CLASS));
+
+    // If we don't know the plan for the nested class, we can't check inside it.
+    plan.validateRecursively(
+        jsonObject(
+            "name", jsonString("x"),
+            "range", singletonJsonObject("mIn", jsonDouble(1))),
+        clazz -> Optional.empty());
+  }
+
+}
@@ -1,12 +1,19 @@
 package com.rb.nonbiz.jsonapi;
 
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import com.rb.biz.jsonapi.JsonTickerMap;
 import com.rb.biz.types.SignedMoney;
 import com.rb.nonbiz.collections.IidMap;
 import com.rb.nonbiz.testutils.RBCommonsIntegrationTest;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
 import static com.rb.biz.jsonapi.JsonTickerMapImplTest.jsonTickerMap;
 import static com.rb.biz.types.SignedMoney.signedMoney;
 import static com.rb.biz.types.asset.InstrumentId.instrumentId;
@@ -17,14 +24,17 @@ import static com.rb.nonbiz.json.RBGson.jsonDouble;
 import static com.rb.nonbiz.json.RBJsonObjectSimpleConstructors.emptyJsonObject;
 import static com.rb.nonbiz.json.RBJsonObjectSimpleConstructors.jsonObject;
 import static com.rb.nonbiz.testmatchers.RBJsonMatchers.jsonObjectEpsilonMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
 import static com.rb.nonbiz.types.Epsilon.epsilon;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
 
 public class PreciseValueIidMapJsonConverterTest extends RBCommonsIntegrationTest<PreciseValueIidMapJsonConverter> {
 
   private final JsonTickerMap TICKER_MAP = jsonTickerMap(iidMapOf(
       instrumentId(1), "S1",
-      instrumentId(2), "S2"));
+      instrumentId(2), "S2",
+      instrumentId(3), "A3"));
 
   @Test
   public void testRoundTripConversions_empty() {
@@ -44,6 +54,32 @@ public class PreciseValueIidMapJsonConverterTest extends RBCommonsIntegrationTes
             "S2", jsonDouble(-2.2)));
   }
 
+  @Test
+  public void keysAreWrittenInTickerOrder() throws IOException {
+    IidMap<SignedMoney> map = iidMapOf(
+        instrumentId(1), signedMoney(1.1),
+        instrumentId(2), signedMoney(-2.2),
+        instrumentId(3), signedMoney(3.3));
+    String expected = "{\"A3\":3.3,\"S1\":1.1,\"S2\":-2.2}";
+    assertEquals(expected, makeRealObject().toJsonObject(map, TICKER_MAP).toString());
+    assertEquals(expected, writeToString(map));
+  }
+
+  @Test
+  public void streamingReadPreservesDigitsWithoutGoingThroughDouble() throws IOException {
+    // This has more significant digits than a double can hold; reading the number as a string keeps all of them.
+    assertEquals(
+        "0.30000000000000000001",
+        readFromString("{\"S1\":0.30000000000000000001}").getOrThrow(instrumentId(1)).asBigDecimal().toPlainString());
+  }
+
+  @Test
+  public void unknownTicker_throws() {
+    assertIllegalArgumentException( () -> makeRealObject().fromJsonObject(
+        jsonObject("S1", jsonDouble(1.1), "XYZ", jsonDouble(2.2)), TICKER_MAP, v -> signedMoney(v)));
+    assertIllegalArgumentException( () -> readFromString("{\"S1\":1.1,\"XYZ\":2.2}"));
+  }
+
   private void testRoundTripConversionsHelper(IidMap<SignedMoney> map, JsonObject json) {
     assertThat(
         makeRealObject().toJsonObject(map, TICKER_MAP),
@@ -51,6 +87,36 @@ public class PreciseValueIidMapJsonConverterTest extends RBCommonsIntegrationTes
     assertThat(
         makeRealObject().fromJsonObject(json, TICKER_MAP, v -> signedMoney(v)),
         iidMapPreciseValueMatcher(map, epsilon(1e-14)));
+
+    // The streaming versions should give the same results.
+    try {
+      String written = writeToString(map);
+      assertThat(
+          JsonParser.parseString(written).getAsJsonObject(),
+          jsonObjectEpsilonMatcher(json));
+      assertThat(
+          readFromString(written),
+          iidMapPreciseValueMatcher(map, epsilon(1e-14)));
+      assertThat(
+          readFromString(json.toString()),
+          iidMapPreciseValueMatcher(map, epsilon(1e-14)));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private String writeToString(IidMap<SignedMoney> map) throws IOException {
+    StringWriter stringWriter = new StringWriter();
+    makeRealObject().writeJsonObject(new JsonWriter(stringWriter), map, TICKER_MAP);
+    return stringWriter.toString();
+  }
+
+  private IidMap<SignedMoney> readFromString(String json) {
+    try {
+      return makeRealObject().readJsonObject(new JsonReader(new StringReader(json)), TICKER_MAP, v -> signedMoney(v));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
   }
 
   @Override
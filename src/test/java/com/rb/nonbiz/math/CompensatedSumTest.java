@@ -0,0 +1,93 @@
+package com.rb.nonbiz.math;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.rb.nonbiz.math.CompensatedSum.MIN_SIZE_FOR_PARALLEL_SUM;
+import static com.rb.nonbiz.math.CompensatedSum.compensatedSum;
+import static com.rb.nonbiz.math.CompensatedSum.compensatedSumOfProducts;
+import static com.rb.nonbiz.math.CompensatedSum.compensatedSumOfSquaredDeviations;
+import static com.rb.nonbiz.math.CompensatedSum.compensatedSumOfWeightedSquaredDeviations;
+import static com.rb.nonbiz.math.CompensatedSum.emptyCompensatedSum;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.testutils.Asserters.doubleExplained;
+import static org.junit.Assert.assertEquals;
+
+public class CompensatedSumTest {
+
+  @Test
+  public void empty_isZero() {
+    assertEquals(0, emptyCompensatedSum().getSum(), 0);
+    assertEquals(0, compensatedSum(new double[] {}), 0);
+  }
+
+  @Test
+  public void keepsSmallValuesThatNaiveSumLoses() {
+    double[] values = { 1e16, 1.0, -1e16, 1.0 };
+    double naiveSum = 0;
+    for (double value : values) {
+      naiveSum += value;
+    }
+    // 1e16 + 1 rounds back to 1e16
+    assertEquals(1.0, naiveSum, 0);
+    assertEquals(2.0, compensatedSum(values), 0);
+    assertEquals(2.0, emptyCompensatedSum().add(1e16).add(1.0).add(-1e16).add(1.0).getSum(), 0);
+  }
+
+  @Test
+  public void manySmallValues_isAccurate() {
+    double[] values = new double[1_000_000];
+    Arrays.fill(values, 0.1);
+    assertEquals(doubleExplained(100_000, 1_000_000 * 0.1), compensatedSum(values), 1e-9);
+  }
+
+  @Test
+  public void merge_sameAsAddingEverything() {
+    CompensatedSum sum1 = emptyCompensatedSum().add(1e16).add(1.0);
+    CompensatedSum sum2 = emptyCompensatedSum().add(-1e16).add(1.0);
+    assertEquals(2.0, sum1.merge(sum2).getSum(), 0);
+    assertEquals(2.0, emptyCompensatedSum().merge(emptyCompensatedSum().add(2.0)).getSum(), 0);
+  }
+
+  @Test
+  public void parallelAndSequentialSums_agree() {
+    int size = 3 * MIN_SIZE_FOR_PARALLEL_SUM + 17;
+    double[] values = new double[size];
+    double[] weights = new double[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = i % 3 == 0 ? 1e12 : -0.5e12 + 0.001 * i;
+      weights[i] = 1 + (i % 5);
+    }
+    CompensatedSum sequentialSum = emptyCompensatedSum();
+    CompensatedSum sequentialDotProduct = emptyCompensatedSum();
+    for (int i = 0; i < size; i++) {
+      sequentialSum.add(values[i]);
+      sequentialDotProduct.add(values[i] * weights[i]);
+    }
+    assertEquals(sequentialSum.getSum(), compensatedSum(values), 1e-3);
+    assertEquals(sequentialDotProduct.getSum(), compensatedSumOfProducts(values, weights), 1e-3);
+  }
+
+  @Test
+  public void squaredDeviations() {
+    double[] values = { 1, 2, 6 };
+    double[] weights = { 1, 0, 2 };
+    assertEquals(
+        doubleExplained(14, 2 * 2 + 1 * 1 + 3 * 3),
+        compensatedSumOfSquaredDeviations(values, 3),
+        1e-14);
+    assertEquals(
+        doubleExplained(22, 1 * 2 * 2 + 0 * 1 * 1 + 2 * 3 * 3),
+        compensatedSumOfWeightedSquaredDeviations(values, weights, 3),
+        1e-14);
+  }
+
+  @Test
+  public void differentLengths_throws() {
+    assertIllegalArgumentException( () -> compensatedSumOfProducts(new double[] { 1, 2 }, new double[] { 1 }));
+    assertIllegalArgumentException( () -> compensatedSumOfWeightedSquaredDeviations(
+        new double[] { 1 }, new double[] { 1, 2 }, 0));
+  }
+
+}
@@ -0,0 +1,68 @@
+package com.rb.nonbiz.math.eigen;
+
+import com.rb.nonbiz.testutils.RBTestMatcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
+
+import static com.rb.nonbiz.math.eigen.EigensolverConvergenceReport.eigensolverConvergenceReport;
+import static com.rb.nonbiz.testmatchers.Match.match;
+import static com.rb.nonbiz.testmatchers.Match.matchUsingEquals;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.doubleArrayMatcher;
+import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
+import static org.junit.Assert.assertEquals;
+
+public class EigensolverConvergenceReportTest extends RBTestMatcher<EigensolverConvergenceReport> {
+
+  @Test
+  public void badNumIterations_throws() {
+    assertIllegalArgumentException( () -> eigensolverConvergenceReport(-1, new double[] { 1e-9 }, true));
+    assertIllegalArgumentException( () -> eigensolverConvergenceReport(0, new double[] { 1e-9 }, true));
+    EigensolverConvergenceReport doesNotThrow = eigensolverConvergenceReport(1, new double[] { 1e-9 }, true);
+  }
+
+  @Test
+  public void badResiduals_throws() {
+    assertIllegalArgumentException( () -> eigensolverConvergenceReport(1, new double[] { }, true));
+    assertIllegalArgumentException( () -> eigensolverConvergenceReport(1, new double[] { 1e-9, -1e-9 }, true));
+    assertIllegalArgumentException( () -> eigensolverConvergenceReport(1, new double[] { 1e-9, Double.NaN }, true));
+    assertIllegalArgumentException( () -> eigensolverConvergenceReport(1, new double[] { Double.POSITIVE_INFINITY }, true));
+    EigensolverConvergenceReport doesNotThrow = eigensolverConvergenceReport(1, new double[] { 1e-9, 0 }, true);
+  }
+
+  @Test
+  public void testGetMaxRelativeResidual() {
+    assertEquals(0.3, eigensolverConvergenceReport(7, new double[] { 0.1, 0.3, 0.2 }, false).getMaxRelativeResidual(), 1e-8);
+  }
+
+  @Override
+  public EigensolverConvergenceReport makeTrivialObject() {
+    return eigensolverConvergenceReport(1, new double[] { 0 }, true);
+  }
+
+  @Override
+  public EigensolverConvergenceReport makeNontrivialObject() {
+    return eigensolverConvergenceReport(17, new double[] { 1.1e-3, 2.2e-3 }, false);
+  }
+
+  @Override
+  public EigensolverConvergenceReport makeMatchingNontrivialObject() {
+    double e = 1e-9; // epsilon
+    return eigensolverConvergenceReport(17, new double[] { 1.1e-3 + e, 2.2e-3 + e }, false);
+  }
+
+  @Override
+  protected boolean willMatch(EigensolverConvergenceReport expected, EigensolverConvergenceReport actual) {
+    return eigensolverConvergenceReportMatcher(expected).matches(actual);
+  }
+
+  public static TypeSafeMatcher<EigensolverConvergenceReport> eigensolverConvergenceReportMatcher(
+      EigensolverConvergenceReport expected) {
+    return makeMatcher(expected,
+        matchUsingEquals(v -> v.getNumIterations()),
+        match(v -> v.getRelativeResiduals(), f -> doubleArrayMatcher(f, DEFAULT_EPSILON_1e_8)),
+        matchUsingEquals(v -> v.hasConverged()));
+  }
+
+}
@@ -0,0 +1,117 @@
+package com.rb.nonbiz.math.eigen;
+
+import com.rb.nonbiz.math.vectorspaces.RBVector;
+import com.rb.nonbiz.testutils.RBTestMatcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.rb.nonbiz.math.eigen.DecreasingPositiveDoublesTest.decreasingPositiveDoubles;
+import static com.rb.nonbiz.math.eigen.DecreasingPositiveDoublesTest.decreasingPositiveDoublesMatcher;
+import static com.rb.nonbiz.math.eigen.EigensolverConvergenceReport.eigensolverConvergenceReport;
+import static com.rb.nonbiz.math.eigen.EigensolverConvergenceReportTest.eigensolverConvergenceReportMatcher;
+import static com.rb.nonbiz.math.eigen.TruncatedEigendecomposition.truncatedEigendecomposition;
+import static com.rb.nonbiz.math.vectorspaces.RBVector.rbVector;
+import static com.rb.nonbiz.math.vectorspaces.RBVectorTest.rbVectorMatcher;
+import static com.rb.nonbiz.testmatchers.Match.match;
+import static com.rb.nonbiz.testmatchers.RBCollectionMatchers.orderedListMatcher;
+import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TruncatedEigendecompositionTest extends RBTestMatcher<TruncatedEigendecomposition> {
+
+  private final double SQRT_HALF = Math.sqrt(0.5);
+  private final EigensolverConvergenceReport TWO_CONVERGED = eigensolverConvergenceReport(3, new double[] { 0, 0 }, true);
+
+  @Test
+  public void mismatchedSizes_throws() {
+    RBVector v1 = rbVector(new double[] { 1, 0 });
+    RBVector v2 = rbVector(new double[] { 0, 1 });
+    assertIllegalArgumentException( () -> truncatedEigendecomposition(
+        rbVector(new double[] { 2, 1 }), singletonList(v1), TWO_CONVERGED));
+    assertIllegalArgumentException( () -> truncatedEigendecomposition(
+        rbVector(new double[] { 2 }), singletonList(v1), TWO_CONVERGED));
+    assertIllegalArgumentException( () -> truncatedEigendecomposition(
+        rbVector(new double[] { 2, 1 }), newArrayList(v1, rbVector(new double[] { 0, 0, 1 })), TWO_CONVERGED));
+    TruncatedEigendecomposition doesNotThrow = truncatedEigendecomposition(
+        rbVector(new double[] { 2, 1 }), newArrayList(v1, v2), TWO_CONVERGED);
+  }
+
+  @Test
+  public void eigenvaluesNotDecreasing_throws() {
+    assertIllegalArgumentException( () -> truncatedEigendecomposition(
+        rbVector(new double[] { 1, 2 }),
+        newArrayList(rbVector(new double[] { 1, 0 }), rbVector(new double[] { 0, 1 })),
+        TWO_CONVERGED));
+  }
+
+  @Test
+  public void eigenvectorsNotUnitVectors_throws() {
+    assertIllegalArgumentException( () -> truncatedEigendecomposition(
+        rbVector(new double[] { 2, 1 }),
+        newArrayList(rbVector(new double[] { 2, 0 }), rbVector(new double[] { 0, 1 })),
+        TWO_CONVERGED));
+  }
+
+  @Test
+  public void testGetEigenvaluesAsDecreasingPositiveDoubles() {
+    assertThat(
+        truncatedEigendecomposition(
+            rbVector(new double[] { 2, 1 }),
+            newArrayList(rbVector(new double[] { 1, 0 }), rbVector(new double[] { 0, 1 })),
+            TWO_CONVERGED)
+            .getEigenvaluesAsDecreasingPositiveDoubles(),
+        decreasingPositiveDoublesMatcher(decreasingPositiveDoubles(2.0, 1.0)));
+    assertIllegalArgumentException( () -> truncatedEigendecomposition(
+        rbVector(new double[] { 2, 0 }),
+        newArrayList(rbVector(new double[] { 1, 0 }), rbVector(new double[] { 0, 1 })),
+        TWO_CONVERGED)
+        .getEigenvaluesAsDecreasingPositiveDoubles());
+  }
+
+  @Override
+  public TruncatedEigendecomposition makeTrivialObject() {
+    return truncatedEigendecomposition(
+        rbVector(new double[] { 1 }),
+        singletonList(rbVector(new double[] { 1 })),
+        eigensolverConvergenceReport(1, new double[] { 0 }, true));
+  }
+
+  @Override
+  public TruncatedEigendecomposition makeNontrivialObject() {
+    return truncatedEigendecomposition(
+        rbVector(new double[] { 3.3, 1.1 }),
+        newArrayList(
+            rbVector(new double[] { SQRT_HALF, SQRT_HALF, 0 }),
+            rbVector(new double[] { SQRT_HALF, -SQRT_HALF, 0 })),
+        eigensolverConvergenceReport(12, new double[] { 1e-3, 2e-3 }, false));
+  }
+
+  @Override
+  public TruncatedEigendecomposition makeMatchingNontrivialObject() {
+    double e = 1e-9; // epsilon
+    return truncatedEigendecomposition(
+        rbVector(new double[] { 3.3 + e, 1.1 + e }),
+        newArrayList(
+            rbVector(new double[] { SQRT_HALF + e, SQRT_HALF - e, 0 }),
+            rbVector(new double[] { SQRT_HALF + e, -SQRT_HALF + e, 0 })),
+        eigensolverConvergenceReport(12, new double[] { 1e-3 + e, 2e-3 + e }, false));
+  }
+
+  @Override
+  protected boolean willMatch(TruncatedEigendecomposition expected, TruncatedEigendecomposition actual) {
+    return truncatedEigendecompositionMatcher(expected).matches(actual);
+  }
+
+  public static TypeSafeMatcher<TruncatedEigendecomposition> truncatedEigendecompositionMatcher(
+      TruncatedEigendecomposition expected) {
+    return makeMatcher(expected,
+        match(v -> v.getEigenvaluesDescending(), f -> rbVectorMatcher(f, DEFAULT_EPSILON_1e_8)),
+        match(v -> v.getEigenvectors(),          f -> orderedListMatcher(f, f2 -> rbVectorMatcher(f2, DEFAULT_EPSILON_1e_8))),
+        match(v -> v.getConvergenceReport(),     f -> eigensolverConvergenceReportMatcher(f)));
+  }
+
+}
@@ -0,0 +1,68 @@
+package com.rb.nonbiz.math.eigen;
+
+import com.rb.nonbiz.testutils.RBTestMatcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
+
+import static com.rb.nonbiz.math.eigen.TruncatedEigensolverSettings.truncatedEigensolverSettings;
+import static com.rb.nonbiz.testmatchers.Match.matchUsingDoubleAlmostEquals;
+import static com.rb.nonbiz.testmatchers.Match.matchUsingEquals;
+import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
+
+public class TruncatedEigensolverSettingsTest extends RBTestMatcher<TruncatedEigensolverSettings> {
+
+  @Test
+  public void badNumEigenpairs_throws() {
+    assertIllegalArgumentException( () -> truncatedEigensolverSettings(-1, 1e-8, 100));
+    assertIllegalArgumentException( () -> truncatedEigensolverSettings(0, 1e-8, 100));
+    TruncatedEigensolverSettings doesNotThrow = truncatedEigensolverSettings(1, 1e-8, 100);
+  }
+
+  @Test
+  public void badRelativeTolerance_throws() {
+    assertIllegalArgumentException( () -> truncatedEigensolverSettings(5, -1e-8, 100));
+    assertIllegalArgumentException( () -> truncatedEigensolverSettings(5, 0, 100));
+    assertIllegalArgumentException( () -> truncatedEigensolverSettings(5, 1, 100));
+    assertIllegalArgumentException( () -> truncatedEigensolverSettings(5, Double.NaN, 100));
+    TruncatedEigensolverSettings doesNotThrow = truncatedEigensolverSettings(5, 0.99, 100);
+  }
+
+  @Test
+  public void badMaxIterations_throws() {
+    assertIllegalArgumentException( () -> truncatedEigensolverSettings(5, 1e-8, -1));
+    assertIllegalArgumentException( () -> truncatedEigensolverSettings(5, 1e-8, 0));
+    TruncatedEigensolverSettings doesNotThrow = truncatedEigensolverSettings(5, 1e-8, 1);
+  }
+
+  @Override
+  public TruncatedEigensolverSettings makeTrivialObject() {
+    return truncatedEigensolverSettings(1, 0.5, 1);
+  }
+
+  @Override
+  public TruncatedEigensolverSettings makeNontrivialObject() {
+    return truncatedEigensolverSettings(20, 1e-6, 300);
+  }
+
+  @Override
+  public TruncatedEigensolverSettings makeMatchingNontrivialObject() {
+    double e = 1e-9; // epsilon
+    return truncatedEigensolverSettings(20, 1e-6 + e, 300);
+  }
+
+  @Override
+  protected boolean willMatch(TruncatedEigensolverSettings expected, TruncatedEigensolverSettings actual) {
+    return truncatedEigensolverSettingsMatcher(expected).matches(actual);
+  }
+
+  public static TypeSafeMatcher<TruncatedEigensolverSettings> truncatedEigensolverSettingsMatcher(
+      TruncatedEigensolverSettings expected) {
+    return makeMatcher(expected,
+        matchUsingEquals(v -> v.getNumEigenpairs()),
+        matchUsingDoubleAlmostEquals(v -> v.getRelativeTolerance(), DEFAULT_EPSILON_1e_8),
+        matchUsingEquals(v -> v.getMaxIterations()));
+  }
+
+}
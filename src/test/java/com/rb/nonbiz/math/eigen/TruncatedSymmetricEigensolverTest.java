@@ -0,0 +1,182 @@
+package com.rb.nonbiz.math.eigen;
+
+import com.rb.nonbiz.math.vectorspaces.RBMatrix.RBEigenvalueDecomposition;
+import com.rb.nonbiz.math.vectorspaces.RBSquareMatrix;
+import com.rb.nonbiz.math.vectorspaces.RBVector;
+import com.rb.nonbiz.testutils.RBTest;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.rb.nonbiz.math.eigen.TruncatedEigensolverSettings.truncatedEigensolverSettings;
+import static com.rb.nonbiz.math.eigen.TruncatedEigensolverSettings.truncatedEigensolverSettingsWithDefaults;
+import static com.rb.nonbiz.math.vectorspaces.MatrixColumnIndex.matrixColumnIndex;
+import static com.rb.nonbiz.math.vectorspaces.RBSquareMatrix.diagonalRBSquareMatrix;
+import static com.rb.nonbiz.math.vectorspaces.RBSquareMatrix.rbSquareMatrix;
+import static com.rb.nonbiz.math.vectorspaces.RBVector.rbVector;
+import static com.rb.nonbiz.math.vectorspaces.RBVectorTest.rbVectorMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
+import static com.rb.nonbiz.types.Epsilon.epsilon;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TruncatedSymmetricEigensolverTest extends RBTest<TruncatedSymmetricEigensolver> {
+
+  @Test
+  public void diagonalMatrix_eigenvectorsAreUnitVectorsInDecreasingEigenvalueOrder() {
+    TruncatedEigendecomposition decomposition = makeTestObject().calculate(
+        diagonalRBSquareMatrix(rbVector(new double[] { 2, 7, 1, 5 })),
+        truncatedEigensolverSettingsWithDefaults(2));
+    assertTrue(decomposition.getConvergenceReport().hasConverged());
+    assertThat(
+        decomposition.getEigenvaluesDescending(),
+        rbVectorMatcher(rbVector(new double[] { 7, 5 }), DEFAULT_EPSILON_1e_8));
+    // We make the largest component positive when there is no warm start.
+    assertThat(
+        decomposition.getEigenvectors().get(0),
+        rbVectorMatcher(rbVector(new double[] { 0, 1, 0, 0 }), DEFAULT_EPSILON_1e_8));
+    assertThat(
+        decomposition.getEigenvectors().get(1),
+        rbVectorMatcher(rbVector(new double[] { 0, 0, 0, 1 }), DEFAULT_EPSILON_1e_8));
+  }
+
+  @Test
+  public void allEigenpairs_matchesFullEigendecomposition() {
+    RBSquareMatrix matrix = rbSquareMatrix(new double[][] {
+        { 4, 1, 0 },
+        { 1, 3, 1 },
+        { 0, 1, 2 } });
+    assertMatchesFullEigendecomposition(matrix, 3);
+  }
+
+  @Test
+  public void largeRandomCovarianceMatrix_matchesFullEigendecomposition() {
+    // Large enough that the matrix-block product runs in parallel.
+    assertMatchesFullEigendecomposition(makeCovarianceMatrix(300, 0.0, new Random(1)), 5);
+    assertMatchesFullEigendecomposition(makeCovarianceMatrix(40, 0.0, new Random(2)), 8);
+  }
+
+  @Test
+  public void warmStartFromSlightlyDifferentMatrix_takesFewerIterationsAndKeepsSigns() {
+    TruncatedSymmetricEigensolver solver = makeTestObject();
+    TruncatedEigensolverSettings settings = truncatedEigensolverSettingsWithDefaults(5);
+    TruncatedEigendecomposition yesterday = solver.calculate(
+        makeCovarianceMatrix(120, 0.0, new Random(3)), settings);
+    // Same random seed, so this is the same matrix plus a small perturbation.
+    RBSquareMatrix todayMatrix = makeCovarianceMatrix(120, 1e-3, new Random(3));
+
+    TruncatedEigendecomposition coldStart = solver.calculate(todayMatrix, settings);
+    TruncatedEigendecomposition warmStart = solver.calculateWithWarmStart(
+        todayMatrix, settings, yesterday.getEigenvectors());
+
+    assertTrue(coldStart.getConvergenceReport().hasConverged());
+    assertTrue(warmStart.getConvergenceReport().hasConverged());
+    assertTrue(warmStart.getConvergenceReport().getNumIterations() < coldStart.getConvergenceReport().getNumIterations());
+    assertThat(
+        warmStart.getEigenvaluesDescending(),
+        rbVectorMatcher(coldStart.getEigenvaluesDescending(), epsilon(1e-6)));
+    for (int i = 0; i < 5; i++) {
+      assertTrue(warmStart.getEigenvectors().get(i).dotProduct(yesterday.getEigenvectors().get(i)) > 0.99);
+    }
+  }
+
+  @Test
+  public void tooFewIterations_returnsBestGuessButReportsNotConverged() {
+    TruncatedEigendecomposition decomposition = makeTestObject().calculate(
+        makeCovarianceMatrix(50, 0.0, new Random(4)),
+        truncatedEigensolverSettings(3, 1e-12, 1));
+    assertFalse(decomposition.getConvergenceReport().hasConverged());
+    assertEquals(1, decomposition.getConvergenceReport().getNumIterations());
+    assertTrue(decomposition.getConvergenceReport().getMaxRelativeResidual() > 1e-12);
+  }
+
+  @Test
+  public void badInputs_throw() {
+    TruncatedSymmetricEigensolver solver = makeTestObject();
+    RBSquareMatrix symmetric = rbSquareMatrix(new double[][] {
+        { 2, 1 },
+        { 1, 2 } });
+    assertIllegalArgumentException( () -> solver.calculate(symmetric, truncatedEigensolverSettingsWithDefaults(3)));
+    assertIllegalArgumentException( () -> solver.calculate(
+        rbSquareMatrix(new double[][] {
+            { 2, 1 },
+            { 1.1, 2 } }),
+        truncatedEigensolverSettingsWithDefaults(1)));
+    assertIllegalArgumentException( () -> solver.calculateWithWarmStart(
+        symmetric, truncatedEigensolverSettingsWithDefaults(1), singletonList(rbVector(new double[] { 1, 0, 0 }))));
+    TruncatedEigendecomposition doesNotThrow;
+    doesNotThrow = solver.calculate(symmetric, truncatedEigensolverSettingsWithDefaults(2));
+    // The warm start vectors do not have to be unit vectors, or independent.
+    doesNotThrow = solver.calculateWithWarmStart(
+        symmetric, truncatedEigensolverSettingsWithDefaults(2),
+        newArrayList(rbVector(new double[] { 3, 0 }), rbVector(new double[] { 6, 0 }), rbVector(new double[] { 0, 0 })));
+  }
+
+  private void assertMatchesFullEigendecomposition(RBSquareMatrix matrix, int numEigenpairs) {
+    int n = matrix.getNumRowsOrColumns();
+    TruncatedEigendecomposition truncated = makeTestObject().calculate(
+        matrix, truncatedEigensolverSettings(numEigenpairs, 1e-10, 1_000));
+    RBEigenvalueDecomposition full = matrix.calculateEigendecomposition();
+    assertTrue(truncated.getConvergenceReport().hasConverged());
+    for (int i = 0; i < numEigenpairs; i++) {
+      int fullIndex = n - 1 - i;
+      assertEquals(
+          full.getRealEigenvaluesAscending().get(fullIndex),
+          truncated.getEigenvaluesDescending().get(i),
+          1e-8);
+      RBVector fullEigenvector = full.getEigenvectors().getColumnVector(matrixColumnIndex(fullIndex));
+      // Eigenvectors are only unique up to sign.
+      assertEquals(1, Math.abs(fullEigenvector.dotProduct(truncated.getEigenvectors().get(i))), 1e-8);
+    }
+  }
+
+  /**
+   * Returns (1 / m) * B * B^T for an n x m matrix B with random entries, where each row of B has a common
+   * random 'market' component, so that (like a real covariance matrix) there are a few large eigenvalues.
+   * Entries of B get an extra perturbation of 'noise' times a random number.
+   */
+  private RBSquareMatrix makeCovarianceMatrix(int n, double noise, Random random) {
+    int m = 2 * n;
+    double[][] b = new double[n][m];
+    double[] factors = new double[m];
+    for (int j = 0; j < m; j++) {
+      factors[j] = random.nextGaussian();
+    }
+    for (int i = 0; i < n; i++) {
+      double beta = 1 + 0.5 * random.nextGaussian();
+      int sector = i % 3;
+      for (int j = 0; j < m; j++) {
+        b[i][j] = beta * factors[j] + (j % 3 == sector ? 0.5 : 0) + random.nextGaussian();
+      }
+    }
+    Random noiseRandom = new Random(random.nextLong());
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < m; j++) {
+        b[i][j] += noise * noiseRandom.nextGaussian();
+      }
+    }
+    double[][] covariance = new double[n][n];
+    for (int i = 0; i < n; i++) {
+      for (int i2 = i; i2 < n; i2++) {
+        double sum = 0;
+        for (int j = 0; j < m; j++) {
+          sum += b[i][j] * b[i2][j];
+        }
+        covariance[i][i2] = sum / m;
+        covariance[i2][i] = sum / m;
+      }
+    }
+    return rbSquareMatrix(covariance);
+  }
+
+  @Override
+  protected TruncatedSymmetricEigensolver makeTestObject() {
+    return new TruncatedSymmetricEigensolver();
+  }
+
+}
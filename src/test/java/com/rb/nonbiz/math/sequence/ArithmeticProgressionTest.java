@@ -23,10 +23,13 @@ import static com.rb.nonbiz.testmatchers.Match.matchUsingDoubleAlmostEquals;
 import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
 import static com.rb.nonbiz.testmatchers.RBValueMatchers.preciseValueMatcher;
 import static com.rb.nonbiz.testmatchers.RBValueMatchers.typeSafeEqualTo;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
 import static com.rb.nonbiz.testutils.Asserters.doubleExplained;
 import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 // This test class is not generic, but the publicly exposed static matcher is
 public class ArithmeticProgressionTest extends RBTestMatcher<ArithmeticProgression<Pair<String, Money>>> {
@@ -53,6 +56,27 @@ public class ArithmeticProgressionTest extends RBTestMatcher<ArithmeticProgressi
     assertEquals(103.3, iterator.next(), 1e-8);
   }
 
+  @Test
+  public void testRandomAccess_double_usesClosedForm() {
+    ArithmeticProgression<Double> progression = doubleArithmeticProgression(100.0, 1.1);
+    assertTrue(progression.hasConstantTimeRandomAccess());
+    assertEquals(100.0, progression.get(0), 1e-8);
+    assertEquals(101.1, progression.get(1), 1e-8);
+    assertEquals(doubleExplained(1_100_100, 100 + 1_000_000 * 1.1), progression.get(1_000_000), 1e-8);
+    assertIllegalArgumentException( () -> progression.get(-1));
+  }
+
+  @Test
+  public void testRandomAccess_generic() {
+    ArithmeticProgression<Integer> progression = naturalNumbersAsArithmeticProgression();
+    assertFalse(progression.hasConstantTimeRandomAccess());
+    assertEquals(0, progression.get(0).intValue());
+    assertEquals(77, progression.get(77).intValue());
+
+    assertTrue(allZeroesArithmeticProgression().hasConstantTimeRandomAccess());
+    assertEquals(0, allZeroesArithmeticProgression().get(1_000_000).intValue());
+  }
+
   @Test
   public void testGet_nonTrivialClassWithNumberInIt() {
     Iterator<Pair<String, Money>> iterator = arithmeticProgression(
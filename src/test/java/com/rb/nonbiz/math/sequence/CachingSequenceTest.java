@@ -0,0 +1,49 @@
+package com.rb.nonbiz.math.sequence;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.rb.nonbiz.math.sequence.ArithmeticProgression.arithmeticProgression;
+import static com.rb.nonbiz.math.sequence.CachingSequence.cachingSequence;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class CachingSequenceTest {
+
+  @Test
+  public void onlyGeneratesEachItemOnce() {
+    AtomicInteger numCalls = new AtomicInteger(0);
+    CachingSequence<Integer> sequence = cachingSequence(arithmeticProgression(0, 3, v -> {
+      numCalls.incrementAndGet();
+      return v + 3;
+    }));
+    assertFalse(sequence.hasConstantTimeRandomAccess());
+    assertEquals(1, sequence.getNumCachedItems());
+
+    assertEquals(30, sequence.get(10).intValue());
+    assertEquals(10, numCalls.get());
+    assertEquals(11, sequence.getNumCachedItems());
+
+    assertEquals(15, sequence.get(5).intValue());
+    assertEquals(30, sequence.get(10).intValue());
+    assertEquals(10, numCalls.get());
+
+    assertEquals(36, sequence.get(12).intValue());
+    assertEquals(12, numCalls.get());
+
+    Iterator<Integer> iterator = sequence.iterator();
+    for (int i = 0; i <= 12; i++) {
+      assertEquals(3 * i, iterator.next().intValue());
+    }
+    assertEquals(newArrayList(33, 36, 39), sequence.stream(11, 14).collect(Collectors.toList()));
+    assertEquals(13, numCalls.get());
+
+    assertIllegalArgumentException( () -> sequence.get(-1));
+  }
+
+}
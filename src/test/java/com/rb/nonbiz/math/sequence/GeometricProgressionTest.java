@@ -27,6 +27,8 @@ import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
 import static com.rb.nonbiz.types.PositiveMultiplier.positiveMultiplier;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 // This test class is not generic, but the publicly exposed static matcher is
 public class GeometricProgressionTest extends RBTestMatcher<GeometricProgression<Pair<String, Money>>> {
@@ -41,6 +43,34 @@ public class GeometricProgressionTest extends RBTestMatcher<GeometricProgression
     assertEquals(800, iterator.next(), 1e-8);
   }
 
+  @Test
+  public void testRandomAccess_double_usesClosedForm() {
+    GeometricProgression<Double> progression = doubleGeometricProgression(100.0, positiveMultiplier(1.01));
+    assertTrue(progression.hasConstantTimeRandomAccess());
+    assertEquals(100.0, progression.get(0), 1e-8);
+    assertEquals(101.0, progression.get(1), 1e-8);
+    assertEquals(100 * Math.pow(1.01, 2_000), progression.get(2_000), 1e-12 * progression.get(2_000));
+
+    // Same as iterating, other than floating point drift
+    Iterator<Double> iterator = progression.iterator();
+    for (int i = 0; i < 100; i++) {
+      assertEquals(iterator.next(), progression.get(i), 1e-8);
+    }
+  }
+
+  @Test
+  public void testRandomAccess_generic() {
+    GeometricProgression<Pair<String, Money>> progression = geometricProgression(
+        pair("x", money(100)),
+        positiveMultiplier(2.0),
+        v -> pair(v.getLeft(), v.getRight().multiply(2.0)));
+    assertFalse(progression.hasConstantTimeRandomAccess());
+    assertEquals(money(800), progression.get(3).getRight());
+
+    assertTrue(constantValueGeometricProgression(money(7)).hasConstantTimeRandomAccess());
+    assertEquals(money(7), constantValueGeometricProgression(money(7)).get(1_000_000));
+  }
+
   @Test
   public void testGet_nonTrivialClassWithNumberInIt() {
     Iterator<Pair<String, Money>> iterator = geometricProgression(
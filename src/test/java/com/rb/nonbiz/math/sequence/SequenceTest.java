@@ -5,22 +5,76 @@ import com.rb.biz.types.Money;
 import com.rb.nonbiz.collections.Pair;
 import com.rb.nonbiz.testmatchers.RBMatchers.MatcherGenerator;
 import com.rb.nonbiz.testutils.RBTestMatcher;
+import com.google.common.collect.ImmutableList;
 import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
+
+import java.util.stream.Collectors;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.rb.biz.types.Money.ZERO_MONEY;
 import static com.rb.nonbiz.collections.Pair.pair;
 import static com.rb.nonbiz.collections.PairTest.pairMatcher;
+import static com.rb.nonbiz.math.sequence.ArithmeticProgression.arithmeticProgression;
+import static com.rb.nonbiz.math.sequence.ArithmeticProgression.doubleArithmeticProgression;
+import static com.rb.nonbiz.math.sequence.ArithmeticProgressionTest.naturalNumbersAsArithmeticProgression;
 import static com.rb.nonbiz.math.sequence.ConstantSequence.constantSequence;
+import static com.rb.nonbiz.math.sequence.GeometricProgression.doubleGeometricProgression;
+import static com.rb.nonbiz.math.sequence.GeometricProgression.geometricProgression;
+import static com.rb.nonbiz.math.sequence.Sequence.fillDoubles;
 import static com.rb.nonbiz.testmatchers.Match.matchList;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.doubleArrayMatcher;
 import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
 import static com.rb.nonbiz.testmatchers.RBValueMatchers.preciseValueMatcher;
 import static com.rb.nonbiz.testmatchers.RBValueMatchers.typeSafeEqualTo;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
 import static com.rb.nonbiz.types.Epsilon.epsilon;
+import static com.rb.nonbiz.types.PositiveMultiplier.positiveMultiplier;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
 
 // This test class is not generic, but the publicly exposed static matcher is.
 public class SequenceTest extends RBTestMatcher<Sequence<Pair<String, Money>>> {
 
+  @Test
+  public void testStream() {
+    for (Sequence<Double> sequence : ImmutableList.<Sequence<Double>>of(
+        doubleArithmeticProgression(10.0, 2.0),
+        // no closed form here
+        arithmeticProgression(10.0, 2.0, v -> v + 2))) {
+      assertEquals(ImmutableList.of(14.0, 16.0, 18.0), sequence.stream(2, 5).collect(Collectors.toList()));
+      assertEquals(emptyList(), sequence.stream(3, 3).collect(Collectors.toList()));
+      assertEquals(
+          sequence.stream(0, 10_000).mapToDouble(v -> v).sum(),
+          sequence.stream(0, 10_000).parallel().mapToDouble(v -> v).sum(),
+          1e-6);
+      assertIllegalArgumentException( () -> sequence.stream(-1, 3));
+      assertIllegalArgumentException( () -> sequence.stream(3, 2));
+    }
+  }
+
+  @Test
+  public void testFillDoubles() {
+    for (Sequence<Double> sequence : ImmutableList.<Sequence<Double>>of(
+        doubleGeometricProgression(1.0, positiveMultiplier(2.0)),
+        // no closed form here
+        geometricProgression(1.0, positiveMultiplier(2.0), v -> v * 2))) {
+      double[] out = new double[] { -1, -1, -1, -1 };
+      fillDoubles(sequence, out, 2, 5);
+      assertThat(out, doubleArrayMatcher(new double[] { 4, 8, 16, -1 }, DEFAULT_EPSILON_1e_8));
+      fillDoubles(sequence, out, 0, 0);
+      assertThat(out, doubleArrayMatcher(new double[] { 4, 8, 16, -1 }, DEFAULT_EPSILON_1e_8));
+      assertIllegalArgumentException( () -> fillDoubles(sequence, new double[2], 2, 5));
+      assertIllegalArgumentException( () -> fillDoubles(sequence, new double[5], -1, 2));
+      assertIllegalArgumentException( () -> fillDoubles(sequence, new double[5], 3, 2));
+    }
+    double[] integers = new double[3];
+    fillDoubles(naturalNumbersAsArithmeticProgression(), integers, 1, 4);
+    assertThat(integers, doubleArrayMatcher(new double[] { 1, 2, 3 }, DEFAULT_EPSILON_1e_8));
+  }
+
   @Override
   public Sequence<Pair<String, Money>> makeTrivialObject() {
     return constantSequence(pair("", ZERO_MONEY));
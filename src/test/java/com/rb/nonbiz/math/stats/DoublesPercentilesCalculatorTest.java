@@ -0,0 +1,166 @@
+package com.rb.nonbiz.math.stats;
+
+import com.google.common.collect.ImmutableList;
+import com.rb.nonbiz.testutils.RBTest;
+import com.rb.nonbiz.types.UnitFraction;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+
+import static com.rb.nonbiz.math.stats.PercentileInterpolation.FLOOR_OF_FRACTION_TIMES_SIZE;
+import static com.rb.nonbiz.math.stats.PercentileInterpolation.HIGHER;
+import static com.rb.nonbiz.math.stats.PercentileInterpolation.LINEAR;
+import static com.rb.nonbiz.math.stats.PercentileInterpolation.LOWER;
+import static com.rb.nonbiz.math.stats.PercentileInterpolation.NEAREST;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.doubleArrayMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.testutils.Asserters.doubleExplained;
+import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
+import static com.rb.nonbiz.types.Epsilon.ZERO_EPSILON;
+import static com.rb.nonbiz.types.UnitFraction.UNIT_FRACTION_0;
+import static com.rb.nonbiz.types.UnitFraction.UNIT_FRACTION_1;
+import static com.rb.nonbiz.types.UnitFraction.unitFraction;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DoublesPercentilesCalculatorTest extends RBTest<DoublesPercentilesCalculator> {
+
+  // Unsorted on purpose; sorted, this is 10, 20, 30, 40, 50
+  private final double[] FIVE_VALUES = { 40, 10, 50, 30, 20 };
+
+  private final List<UnitFraction> PERCENTILES = ImmutableList.of(
+      unitFraction(0.5), UNIT_FRACTION_0, unitFraction(0.3), unitFraction(0.9), UNIT_FRACTION_1);
+
+  @Test
+  public void testInterpolationModes() {
+    // h = (n - 1) * p = 2, 0, 1.2, 3.6, 4
+    assertResult(FIVE_VALUES, LOWER, 30, 10, 20, 40, 50);
+    assertResult(FIVE_VALUES, HIGHER, 30, 10, 30, 50, 50);
+    assertResult(FIVE_VALUES, NEAREST, 30, 10, 20, 50, 50);
+    assertResult(FIVE_VALUES, LINEAR,
+        30, 10, doubleExplained(22, 20 + 0.2 * 10), doubleExplained(46, 40 + 0.6 * 10), 50);
+    // n * p = 2.5, 0, 1.5, 4.5, 5 (capped to the last item)
+    assertResult(FIVE_VALUES, FLOOR_OF_FRACTION_TIMES_SIZE, 30, 10, 20, 50, 50);
+  }
+
+  @Test
+  public void floorOfFractionTimesSize_sameAsPercentilesCalculator() {
+    double[] values = new Random(123).doubles(1_001, -10, 10).toArray();
+    List<UnitFraction> percentiles = ImmutableList.of(
+        unitFraction(0.05), unitFraction(0.1), unitFraction(0.5), unitFraction(0.9), unitFraction(0.95));
+    List<Double> sorted = DoubleStream.of(values).sorted().boxed().collect(Collectors.toList());
+    double[] expected = new PercentilesCalculator().getApproximatePercentiles(sorted, percentiles)
+        .stream()
+        .mapToDouble(v -> v)
+        .toArray();
+    assertThat(
+        makeTestObject().calculatePercentiles(values, percentiles, FLOOR_OF_FRACTION_TIMES_SIZE),
+        doubleArrayMatcher(expected, ZERO_EPSILON));
+  }
+
+  @Test
+  public void matchesFullSort_manySizesAndDuplicates() {
+    Random random = new Random(456);
+    List<UnitFraction> percentiles = ImmutableList.of(
+        UNIT_FRACTION_0, unitFraction(0.01), unitFraction(0.25), unitFraction(0.5),
+        unitFraction(0.75), unitFraction(0.99), UNIT_FRACTION_1);
+    for (int size : new int[] { 1, 2, 3, 31, 32, 33, 100, 1_000, 30_000 }) {
+      double[] continuous = random.doubles(size).toArray();
+      // Lots of duplicates, which are common in real data (e.g. zeros)
+      double[] discrete = random.ints(size, 0, 5).asDoubleStream().toArray();
+      double[] alreadySorted = DoubleStream.of(continuous).sorted().toArray();
+      for (double[] values : ImmutableList.of(continuous, discrete, alreadySorted)) {
+        for (PercentileInterpolation interpolation : PercentileInterpolation.values()) {
+          assertThat(
+              makeTestObject().calculatePercentiles(values, percentiles, interpolation),
+              doubleArrayMatcher(calculateUsingFullSort(values, percentiles, interpolation), DEFAULT_EPSILON_1e_8));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void parallel_sameAsSequential() {
+    double[] values = new Random(789).doubles(300_000, -1, 1).toArray();
+    List<UnitFraction> percentiles = ImmutableList.of(
+        unitFraction(0.05), unitFraction(0.5), unitFraction(0.95), unitFraction(0.999));
+    for (PercentileInterpolation interpolation : PercentileInterpolation.values()) {
+      assertThat(
+          makeTestObject().calculatePercentilesInParallel(values, percentiles, interpolation),
+          doubleArrayMatcher(calculateUsingFullSort(values, percentiles, interpolation), ZERO_EPSILON));
+    }
+  }
+
+  @Test
+  public void doesNotModifyInput_unlessInPlace() {
+    double[] values = FIVE_VALUES.clone();
+    makeTestObject().calculatePercentiles(values, PERCENTILES, LINEAR);
+    assertThat(values, doubleArrayMatcher(FIVE_VALUES, ZERO_EPSILON));
+    makeTestObject().calculatePercentilesInParallel(values, PERCENTILES, LINEAR);
+    assertThat(values, doubleArrayMatcher(FIVE_VALUES, ZERO_EPSILON));
+
+    assertThat(
+        makeTestObject().calculatePercentilesInPlace(values, PERCENTILES, LINEAR),
+        doubleArrayMatcher(new double[] { 30, 10, 22, 46, 50 }, DEFAULT_EPSILON_1e_8));
+    Arrays.sort(values);
+    // Same values, maybe in a different order
+    assertThat(values, doubleArrayMatcher(new double[] { 10, 20, 30, 40, 50 }, ZERO_EPSILON));
+  }
+
+  @Test
+  public void usingKeyExtractor() {
+    List<String> items = ImmutableList.of("aaaa", "a", "aaaaa", "aaa", "aa");
+    assertThat(
+        makeTestObject().calculatePercentiles(items, v -> v.length(), PERCENTILES, LINEAR),
+        doubleArrayMatcher(new double[] { 3, 1, 2.2, 4.6, 5 }, DEFAULT_EPSILON_1e_8));
+  }
+
+  @Test
+  public void badInputs_throw() {
+    assertIllegalArgumentException( () -> makeTestObject().calculatePercentiles(new double[] {}, PERCENTILES, LINEAR));
+    assertIllegalArgumentException( () -> makeTestObject().calculatePercentiles(FIVE_VALUES, emptyList(), LINEAR));
+    assertIllegalArgumentException( () -> makeTestObject().calculatePercentiles(
+        new double[] { 1, Double.NaN }, singletonList(unitFraction(0.5)), LINEAR));
+  }
+
+  private void assertResult(double[] values, PercentileInterpolation interpolation, double ... expected) {
+    assertThat(
+        makeTestObject().calculatePercentiles(values, PERCENTILES, interpolation),
+        doubleArrayMatcher(expected, DEFAULT_EPSILON_1e_8));
+  }
+
+  private double[] calculateUsingFullSort(
+      double[] values, List<UnitFraction> percentiles, PercentileInterpolation interpolation) {
+    double[] sorted = DoubleStream.of(values).sorted().toArray();
+    int n = sorted.length;
+    return percentiles
+        .stream()
+        .mapToDouble(percentile -> {
+          double p = percentile.doubleValue();
+          double h = (n - 1) * p;
+          switch (interpolation) {
+            case FLOOR_OF_FRACTION_TIMES_SIZE: return sorted[Math.min(n - 1, (int) Math.floor(n * p))];
+            case LOWER:                        return sorted[(int) Math.floor(h)];
+            case HIGHER:                       return sorted[(int) Math.ceil(h)];
+            case NEAREST:                      return sorted[(int) Math.floor(h + 0.5)];
+            case LINEAR:
+              int lower = (int) Math.floor(h);
+              return sorted[lower] + (sorted[Math.min(n - 1, lower + 1)] - sorted[lower]) * (h - lower);
+            default:
+              throw new IllegalArgumentException();
+          }
+        })
+        .toArray();
+  }
+
+  @Override
+  protected DoublesPercentilesCalculator makeTestObject() {
+    return new DoublesPercentilesCalculator();
+  }
+
+}
@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableList;
 import com.rb.biz.types.Money;
 import com.rb.biz.types.Price;
 import com.rb.nonbiz.testutils.RBCommonsIntegrationTest;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 import org.junit.Test;
 
 import java.util.List;
@@ -13,14 +14,18 @@ import static com.rb.biz.types.Money.money;
 import static com.rb.biz.types.Price.price;
 import static com.rb.nonbiz.collections.RBSet.rbSetOf;
 import static com.rb.nonbiz.math.stats.MutableNormalDistributionGenerator.mutableNormalDistributionGeneratorWithSeed;
+import static com.rb.nonbiz.math.stats.ParallelRandomStreams.parallelRandomStreams;
 import static com.rb.nonbiz.math.stats.NormalDistribution.NormalDistributionBuilder.normalDistributionBuilder;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.doubleArrayMatcher;
 import static com.rb.nonbiz.testmatchers.RBCollectionMatchers.preciseValueListMatcher;
 import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
 import static com.rb.nonbiz.testutils.Asserters.doubleExplained;
 import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
+import static com.rb.nonbiz.types.Epsilon.ZERO_EPSILON;
 import static com.rb.nonbiz.types.RandomNumberGeneratorSeed.randomNumberGeneratorSeed;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
 
 public class LogNormalDiffusionGeneratorTest extends RBCommonsIntegrationTest<LogNormalDiffusionGenerator> {
 
@@ -108,17 +113,73 @@ public class LogNormalDiffusionGeneratorTest extends RBCommonsIntegrationTest<Lo
             badSize)));
   }
 
+  @Test
+  public void generateAsDoubles_sameAsGenerate() {
+    List<Price> typed = makeRealObject().generate(
+        v -> price(v), price(100.0), makeMutableNormalDistributionGenerator(321), 5);
+    double[] doubles = makeRealObject().generateAsDoubles(100.0, makeMutableNormalDistributionGenerator(321), 5);
+    assertEquals(5, doubles.length);
+    for (int i = 0; i < 5; i++) {
+      assertEquals(typed.get(i).doubleValue(), doubles[i], 1e-8);
+    }
+    assertIllegalArgumentException( () -> makeRealObject().generateAsDoubles(
+        100.0, makeMutableNormalDistributionGenerator(321), 0));
+  }
+
+  @Test
+  public void generatePaths_doesNotDependOnBlocksOrParallelism() {
+    ParallelRandomStreams streams = parallelRandomStreams(randomNumberGeneratorSeed(123));
+    NormalDistribution movements = makeNormalDistribution();
+    // 1,000 x 50 is big enough to generate the paths in parallel.
+    LogNormalDiffusionPaths allPaths = makeRealObject().generatePaths(100, movements, streams, 1_000, 50);
+    LogNormalDiffusionPaths secondBlock = makeRealObject().generatePaths(100, movements, streams, 600, 400, 50);
+    assertEquals(600, secondBlock.getFirstPathIndex());
+    for (int p = 0; p < 400; p++) {
+      assertThat(secondBlock.copyPath(p), doubleArrayMatcher(allPaths.copyPath(600 + p), ZERO_EPSILON));
+    }
+    // A single small path is generated sequentially, but still gives the same numbers.
+    assertThat(
+        makeRealObject().generatePaths(100, movements, streams, 7, 1, 50).copyPath(0),
+        doubleArrayMatcher(allPaths.copyPath(7), ZERO_EPSILON));
+  }
+
+  @Test
+  public void generatePaths_followsLogNormalDiffusion() {
+    int pathLength = 21;
+    LogNormalDiffusionPaths paths = makeRealObject().generatePaths(
+        100, makeNormalDistribution(), parallelRandomStreams(randomNumberGeneratorSeed(456)), 20_000, pathLength);
+    SummaryStatistics logReturns = new SummaryStatistics();
+    for (int p = 0; p < paths.getNumPaths(); p++) {
+      assertEquals(100, paths.getValue(p, 0), 0);
+      logReturns.addValue(Math.log(paths.getValue(p, pathLength - 1) / 100));
+    }
+    // The log of the total return over 20 steps is normal, with mean 0 and stdev sqrt(20) times the daily one.
+    assertEquals(0, logReturns.getMean(), 0.001);
+    assertEquals(doubleExplained(0.0450749, 0.16 / Math.sqrt(252) * Math.sqrt(20)), logReturns.getStandardDeviation(), 0.001);
+  }
+
+  @Test
+  public void generatePaths_badSizes_throw() {
+    ParallelRandomStreams streams = parallelRandomStreams(randomNumberGeneratorSeed(123));
+    assertIllegalArgumentException( () -> makeRealObject().generatePaths(100, makeNormalDistribution(), streams, 0, 5));
+    assertIllegalArgumentException( () -> makeRealObject().generatePaths(100, makeNormalDistribution(), streams, 5, 0));
+    assertIllegalArgumentException( () -> makeRealObject().generatePaths(100, makeNormalDistribution(), streams, -1, 5, 5));
+    assertIllegalArgumentException( () -> makeRealObject().generatePaths(100, makeNormalDistribution(), streams, 100_000, 100_000));
+  }
+
   private MutableNormalDistributionGenerator makeMutableNormalDistributionGenerator(int seed) {
-    return mutableNormalDistributionGeneratorWithSeed(
-        normalDistributionBuilder()
+    return mutableNormalDistributionGeneratorWithSeed(makeNormalDistribution(), randomNumberGeneratorSeed(seed));
+  }
+
+  private NormalDistribution makeNormalDistribution() {
+    return normalDistributionBuilder()
             // 0 = flat
             .setMean(0)
             // 16% annualized volatility is fairly standard / reasonable.
             // We divide by sqrt(252) (approximately 16 - standard trick in the options world)
             // to get to a daily number.
             .setStandardDeviation(doubleExplained(0.01007905261, 0.16 / Math.sqrt(252)))
-            .build(),
-        randomNumberGeneratorSeed(seed));
+            .build();
   }
 
   @Override
@@ -0,0 +1,53 @@
+package com.rb.nonbiz.math.stats;
+
+import com.google.common.collect.ImmutableList;
+import com.rb.biz.types.Price;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.rb.biz.types.Price.price;
+import static com.rb.nonbiz.math.stats.LogNormalDiffusionPaths.logNormalDiffusionPaths;
+import static com.rb.nonbiz.testmatchers.RBArrayMatchers.doubleArrayMatcher;
+import static com.rb.nonbiz.testmatchers.RBCollectionMatchers.preciseValueListMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.types.Epsilon.ZERO_EPSILON;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class LogNormalDiffusionPathsTest {
+
+  @Test
+  public void testAccessors() {
+    LogNormalDiffusionPaths paths = logNormalDiffusionPaths(10, 2, 3, new double[] {
+        100, 101, 102,
+        100, 99, 98 });
+    assertEquals(10, paths.getFirstPathIndex());
+    assertEquals(2, paths.getNumPaths());
+    assertEquals(3, paths.getPathLength());
+    assertEquals(99, paths.getValue(1, 1), 0);
+    assertThat(paths.copyPath(1), doubleArrayMatcher(new double[] { 100, 99, 98 }, ZERO_EPSILON));
+    assertThat(paths.getFinalValues(), doubleArrayMatcher(new double[] { 102, 98 }, ZERO_EPSILON));
+
+    double[] buffer = new double[4];
+    paths.copyPathInto(0, buffer, 1);
+    assertThat(buffer, doubleArrayMatcher(new double[] { 0, 100, 101, 102 }, ZERO_EPSILON));
+
+    List<Price> typedPath = paths.getPath(0, v -> price(v));
+    assertEquals(3, typedPath.size());
+    assertThat(typedPath, preciseValueListMatcher(ImmutableList.of(price(100), price(101), price(102)), ZERO_EPSILON));
+
+    assertIllegalArgumentException( () -> paths.getValue(2, 0));
+    assertIllegalArgumentException( () -> paths.getValue(0, 3));
+    assertIllegalArgumentException( () -> paths.copyPath(-1));
+  }
+
+  @Test
+  public void badSizes_throw() {
+    assertIllegalArgumentException( () -> logNormalDiffusionPaths(0, 2, 2, new double[] { 1, 2, 3 }));
+    assertIllegalArgumentException( () -> logNormalDiffusionPaths(0, 0, 2, new double[] {}));
+    assertIllegalArgumentException( () -> logNormalDiffusionPaths(-1, 1, 1, new double[] { 1 }));
+    LogNormalDiffusionPaths doesNotThrow = logNormalDiffusionPaths(0, 1, 1, new double[] { 1 });
+  }
+
+}
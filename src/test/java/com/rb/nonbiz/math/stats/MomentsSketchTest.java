@@ -0,0 +1,121 @@
+package com.rb.nonbiz.math.stats;
+
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.stream.DoubleStream;
+
+import static com.rb.nonbiz.math.stats.MomentsSketch.emptyMomentsSketch;
+import static com.rb.nonbiz.math.stats.MomentsSketch.momentsSketch;
+import static com.rb.nonbiz.math.stats.StatisticalSummaryImplTest.statisticalSummaryImplMatcher;
+import static com.rb.nonbiz.math.stats.StatisticalSummaryImpl.statisticalSummaryImpl;
+import static com.rb.nonbiz.math.stats.StatisticalSummaryTest.statisticalSummaryMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.types.Epsilon.epsilon;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MomentsSketchTest {
+
+  @Test
+  public void matchesApacheSummaryStatistics() {
+    Random random = new Random(123);
+    SummaryStatistics apache = new SummaryStatistics();
+    MomentsSketch sketch = emptyMomentsSketch();
+    for (int i = 0; i < 1_000; i++) {
+      double value = 1_000 + random.nextGaussian() * 3;
+      apache.addValue(value);
+      sketch.add(value);
+    }
+    assertThat(sketch, statisticalSummaryMatcher(apache, epsilon(1e-8)));
+  }
+
+  @Test
+  public void mergingGivesSameResultAsAddingEverything() {
+    double[] values = new Random(456).doubles(10_000, -5, 5).toArray();
+    MomentsSketch all = momentsSketch(values);
+
+    // Merge uneven pieces, including an empty one
+    MomentsSketch merged = emptyMomentsSketch();
+    int[] boundaries = { 0, 0, 1, 17, 3_000, 9_999, 10_000 };
+    for (int i = 0; i < boundaries.length - 1; i++) {
+      MomentsSketch piece = emptyMomentsSketch();
+      for (int j = boundaries[i]; j < boundaries[i + 1]; j++) {
+        piece.add(values[j]);
+      }
+      merged.merge(piece);
+    }
+    assertThat(merged, statisticalSummaryMatcher(all, epsilon(1e-9)));
+
+    // Parallel streams merge the per-thread sketches
+    assertThat(
+        momentsSketch(DoubleStream.of(values).parallel()),
+        statisticalSummaryMatcher(all, epsilon(1e-9)));
+  }
+
+  @Test
+  public void merge_doesNotModifyOther() {
+    MomentsSketch other = momentsSketch(1, 2, 3);
+    momentsSketch(10).merge(other);
+    assertThat(other, statisticalSummaryMatcher(momentsSketch(1, 2, 3), epsilon(1e-12)));
+
+    // merging into an empty sketch copies; later changes to the copy should not affect the original
+    MomentsSketch empty = emptyMomentsSketch();
+    empty.merge(other).add(100);
+    assertEquals(3, other.getN());
+  }
+
+  @Test
+  public void populationVariance_dividesByN() {
+    MomentsSketch sketch = momentsSketch(1, 2, 6);
+    // mean is 3; squared deviations are 4, 1, 9
+    assertEquals(14 / 3.0, sketch.getPopulationVariance(), 1e-12);
+    assertEquals(14 / 2.0, sketch.getVariance(), 1e-12);
+    assertEquals(0, momentsSketch(5).getPopulationVariance(), 0);
+    assertTrue(Double.isNaN(emptyMomentsSketch().getPopulationVariance()));
+  }
+
+  @Test
+  public void testSmallCases() {
+    MomentsSketch sketch = emptyMomentsSketch();
+    assertTrue(sketch.isEmpty());
+    assertTrue(Double.isNaN(sketch.getMean()));
+    assertTrue(Double.isNaN(sketch.getVariance()));
+    assertIllegalArgumentException( () -> emptyMomentsSketch().toStatisticalSummaryImpl());
+
+    sketch.add(7);
+    assertEquals(7, sketch.getMean(), 1e-12);
+    assertEquals(0, sketch.getVariance(), 1e-12);
+    assertEquals(7, sketch.getMin(), 1e-12);
+    assertEquals(7, sketch.getMax(), 1e-12);
+
+    sketch.add(9);
+    assertEquals(8, sketch.getMean(), 1e-12);
+    assertEquals(2, sketch.getVariance(), 1e-12); // sample variance: ((7 - 8)^2 + (9 - 8)^2) / (2 - 1)
+    assertEquals(16, sketch.getSum(), 1e-12);
+  }
+
+  @Test
+  public void nonFiniteValues_throw() {
+    assertIllegalArgumentException( () -> emptyMomentsSketch().add(Double.NaN));
+    assertIllegalArgumentException( () -> emptyMomentsSketch().add(Double.POSITIVE_INFINITY));
+  }
+
+  @Test
+  public void testToStatisticalSummaryImpl() {
+    MomentsSketch sketch = momentsSketch(1, 2, 3, 10);
+    SummaryStatistics apache = new SummaryStatistics();
+    for (double value : new double[] { 1, 2, 3, 10 }) {
+      apache.addValue(value);
+    }
+    assertThat(
+        sketch.toStatisticalSummaryImpl(),
+        statisticalSummaryImplMatcher(statisticalSummaryImpl(apache)));
+
+    // all values the same
+    assertEquals(0, momentsSketch(0.1, 0.1, 0.1).toStatisticalSummaryImpl().getStandardDeviation(), 1e-12);
+  }
+
+}
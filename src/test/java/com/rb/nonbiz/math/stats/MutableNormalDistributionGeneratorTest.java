@@ -13,6 +13,7 @@ import static com.rb.nonbiz.math.stats.NormalDistributionTest.standardNormalDist
 import static com.rb.nonbiz.testmatchers.Match.match;
 import static com.rb.nonbiz.testmatchers.RBArrayMatchers.doubleArrayMatcher;
 import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
 import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
 import static com.rb.nonbiz.types.RandomNumberGeneratorSeed.randomNumberGeneratorSeed;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -64,6 +65,31 @@ public class MutableNormalDistributionGeneratorTest {
             DEFAULT_EPSILON_1e_8)));
   }
 
+  @Test
+  public void fill_sameAsRepeatedNextDouble() {
+    MutableNormalDistributionGenerator generator1 =
+        mutableNormalDistributionGeneratorWithSeed(standardNormalDistribution(), randomNumberGeneratorSeed(123));
+    MutableNormalDistributionGenerator generator2 =
+        mutableNormalDistributionGeneratorWithSeed(standardNormalDistribution(), randomNumberGeneratorSeed(123));
+    double[] expected = IntStream.range(0, 7)
+        .mapToDouble(ignored -> generator1.nextDouble())
+        .toArray();
+
+    double[] filled = new double[9];
+    generator2.fill(filled, 1, 4);
+    // Continuing with nextDoubles should pick up where fill left off.
+    System.arraycopy(generator2.nextDoubles(4), 0, filled, 4, 4);
+    assertEquals(0, filled[0], 0);
+    assertEquals(0, filled[8], 0);
+    for (int i = 0; i < 7; i++) {
+      assertEquals(expected[i], filled[i + 1], 0);
+    }
+
+    assertIllegalArgumentException( () -> generator2.fill(new double[3], 2, 1));
+    assertIllegalArgumentException( () -> generator2.fill(new double[3], 0, 4));
+    assertIllegalArgumentException( () -> generator2.nextDoubles(-1));
+  }
+
   @Test
   public void generatesFromNormalDistribution() {
     double mean = -1.23;
@@ -0,0 +1,41 @@
+package com.rb.nonbiz.math.stats;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static com.rb.nonbiz.math.stats.ParallelRandomStreams.parallelRandomStreams;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.types.RandomNumberGeneratorSeed.randomNumberGeneratorSeed;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ParallelRandomStreamsTest {
+
+  @Test
+  public void sameSeedAndStream_sameNumbers() {
+    SplittableRandom random1 = parallelRandomStreams(randomNumberGeneratorSeed(123)).makeRandomForStream(7);
+    SplittableRandom random2 = parallelRandomStreams(randomNumberGeneratorSeed(123)).makeRandomForStream(7);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(random1.nextLong(), random2.nextLong());
+    }
+  }
+
+  @Test
+  public void differentSeedsOrStreams_differentNumbers() {
+    ParallelRandomStreams streams = parallelRandomStreams(randomNumberGeneratorSeed(123));
+    long first = streams.makeRandomForStream(0).nextLong();
+    assertNotEquals(first, streams.makeRandomForStream(1).nextLong());
+    assertNotEquals(first, parallelRandomStreams(randomNumberGeneratorSeed(124)).makeRandomForStream(0).nextLong());
+    // Adjacent streams should not just be shifted copies of each other
+    SplittableRandom stream0 = streams.makeRandomForStream(0);
+    stream0.nextLong();
+    assertNotEquals(stream0.nextLong(), streams.makeRandomForStream(1).nextLong());
+  }
+
+  @Test
+  public void negativeStreamIndex_throws() {
+    assertIllegalArgumentException( () -> parallelRandomStreams(randomNumberGeneratorSeed(1)).makeRandomForStream(-1));
+  }
+
+}
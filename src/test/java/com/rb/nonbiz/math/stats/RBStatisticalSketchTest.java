@@ -0,0 +1,88 @@
+package com.rb.nonbiz.math.stats;
+
+import com.google.common.collect.ImmutableList;
+import com.rb.biz.types.Money;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.rb.biz.types.Money.money;
+import static com.rb.nonbiz.math.stats.RBStatisticalSketch.emptyDoubleStatisticalSketch;
+import static com.rb.nonbiz.math.stats.RBStatisticalSketch.emptyRBStatisticalSketch;
+import static com.rb.nonbiz.math.stats.RBStatisticalSummaryTest.rbStatisticalSummaryMatcher;
+import static com.rb.nonbiz.math.stats.RBStats.toStatisticalSummary;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.types.Epsilon.epsilon;
+import static com.rb.nonbiz.types.UnitFraction.UNIT_FRACTION_0;
+import static com.rb.nonbiz.types.UnitFraction.UNIT_FRACTION_1;
+import static com.rb.nonbiz.types.UnitFraction.unitFraction;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class RBStatisticalSketchTest {
+
+  @Test
+  public void typedValues() {
+    RBStatisticalSketch<Money> sketch = emptyRBStatisticalSketch(v -> v.doubleValue(), v -> money(v));
+    sketch.add(money(10)).add(money(30)).add(money(20));
+
+    assertEquals(3, sketch.getN());
+    assertEquals(money(20), sketch.getMean());
+    assertEquals(money(10), sketch.getMin());
+    assertEquals(money(30), sketch.getMax());
+    assertEquals(money(60), sketch.getSum());
+    assertEquals(100, sketch.getVariance(), 1e-9);
+
+    assertEquals(money(10), sketch.getApproximatePercentile(UNIT_FRACTION_0));
+    assertEquals(money(30), sketch.getApproximatePercentile(UNIT_FRACTION_1));
+    List<Money> percentiles = sketch.getApproximatePercentiles(ImmutableList.of(unitFraction(0.5)));
+    assertEquals(money(20), percentiles.get(0));
+
+    assertThat(
+        sketch.toRBStatisticalSummary(),
+        rbStatisticalSummaryMatcher(
+            RBStatisticalSummary.<Money>rbStatisticalSummary(toStatisticalSummary(10.0, 30.0, 20.0), v -> money(v)),
+            epsilon(1e-9)));
+  }
+
+  @Test
+  public void snapshotDoesNotChange_butSketchDoes() {
+    RBStatisticalSketch<Double> sketch = emptyDoubleStatisticalSketch();
+    sketch.addDouble(1).addDouble(2);
+    RBStatisticalSummary<Double> snapshot = sketch.toRBStatisticalSummary();
+    sketch.addDouble(100);
+    assertEquals(2, snapshot.getN());
+    assertEquals(3, sketch.getN());
+    assertEquals(100, sketch.getMax(), 0);
+  }
+
+  @Test
+  public void mergingAcrossDays() {
+    Random random = new Random(77);
+    RBStatisticalSketch<Double> allDays = emptyDoubleStatisticalSketch();
+    RBStatisticalSketch<Double> merged = emptyDoubleStatisticalSketch();
+    for (int day = 0; day < 20; day++) {
+      RBStatisticalSketch<Double> oneDay = emptyDoubleStatisticalSketch();
+      for (int i = 0; i < 500; i++) {
+        double value = random.nextGaussian();
+        oneDay.addDouble(value);
+        allDays.addDouble(value);
+      }
+      merged.merge(oneDay);
+    }
+    assertThat(
+        merged.toRBStatisticalSummary(),
+        rbStatisticalSummaryMatcher(allDays.toRBStatisticalSummary(), epsilon(1e-9)));
+    assertEquals(
+        allDays.getApproximatePercentile(unitFraction(0.95)),
+        merged.getApproximatePercentile(unitFraction(0.95)),
+        0.05);
+  }
+
+  @Test
+  public void emptySketch_cannotSnapshot() {
+    assertIllegalArgumentException( () -> emptyDoubleStatisticalSketch().toRBStatisticalSummary());
+  }
+
+}
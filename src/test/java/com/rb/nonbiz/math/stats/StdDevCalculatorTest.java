@@ -11,12 +11,14 @@ import org.junit.Test;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.DoubleStream;
 
 import static com.rb.biz.types.OnesBasedReturn.onesBasedGain;
 import static com.rb.biz.types.OnesBasedReturn.onesBasedLoss;
 import static com.rb.biz.types.SignedMoney.ZERO_SIGNED_MONEY;
 import static com.rb.biz.types.SignedMoney.signedMoney;
 import static com.rb.nonbiz.testutils.Asserters.assertAlmostEquals;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
 import static com.rb.nonbiz.testutils.Asserters.doubleExplained;
 import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
 import static com.rb.nonbiz.types.UnitFraction.UNIT_FRACTION_0;
@@ -175,6 +177,59 @@ public class StdDevCalculatorTest extends RBTest<StdDevCalculator> {
 
   }
 
+  @Test
+  public void doublesVersions_matchPreciseValueVersions() {
+    List<SignedMoney> values = ImmutableList.of(signedMoney(4), ZERO_SIGNED_MONEY, signedMoney(-3), signedMoney(1.7));
+    List<UnitFraction> weights = ImmutableList.of(unitFraction(0.1), UNIT_FRACTION_0, unitFraction(0.45), unitFraction(0.3));
+    double[] valuesArray = values.stream().mapToDouble(v -> v.doubleValue()).toArray();
+    double[] weightsArray = weights.stream().mapToDouble(v -> v.doubleValue()).toArray();
+    StdDevCalculator calculator = makeTestObject();
+    assertEquals(
+        calculator.calculateWeightedStandardDeviationForPopulation(values, weights),
+        calculator.calculateWeightedStandardDeviationForPopulation(valuesArray, weightsArray),
+        1e-12);
+    double unweighted = calculator.calculateStandardDeviationForPopulationWithOnePass(values);
+    assertEquals(unweighted, calculator.calculateStandardDeviationForPopulation(valuesArray), 1e-12);
+    assertEquals(unweighted, calculator.calculateStandardDeviationForPopulationWithOnePass(DoubleStream.of(valuesArray)), 1e-12);
+  }
+
+  @Test
+  public void doublesVersions_singleValue() {
+    assertEquals(0, makeTestObject().calculateStandardDeviationForPopulation(new double[] { 1.23 }), 1e-12);
+    assertEquals(0, makeTestObject().calculateStandardDeviationForPopulationWithOnePass(DoubleStream.of(1.23)), 1e-12);
+  }
+
+  @Test
+  public void doublesVersions_badInputs_throw() {
+    StdDevCalculator calculator = makeTestObject();
+    assertIllegalArgumentException( () -> calculator.calculateStandardDeviationForPopulation(new double[] {}));
+    assertIllegalArgumentException( () -> calculator.calculateStandardDeviationForPopulationWithOnePass(DoubleStream.empty()));
+    assertIllegalArgumentException( () -> calculator.calculateWeightedStandardDeviationForPopulation(
+        new double[] { 1, 2 }, new double[] { 1 }));
+    assertIllegalArgumentException( () -> calculator.calculateWeightedStandardDeviationForPopulation(
+        new double[] { 1 }, new double[] { 1 }));
+    assertIllegalArgumentException( () -> calculator.calculateWeightedStandardDeviationForPopulation(
+        new double[] { 1, 2 }, new double[] { 0, 0 }));
+  }
+
+  @Test
+  public void doublesVersions_numericalStressTest_largeAverage_smallDeviation_largeInput() {
+    // Large enough to get summed in parallel
+    int nItems = 300_000;
+    double[] values = new double[nItems];
+    double[] weights = new double[nItems];
+    for (int i = 0; i < nItems; i++) {
+      values[i] = i % 2 == 0 ? 1e10 + 1.234567890123456 : 1e10 - 1.234567890123456;
+      weights[i] = 0.3;
+    }
+    StdDevCalculator calculator = makeTestObject();
+    // 1e10 can only be represented as a double to within about 1e-6, so we can't expect better than that.
+    assertEquals(1.234567890123456, calculator.calculateWeightedStandardDeviationForPopulation(values, weights), 1e-6);
+    assertEquals(1.234567890123456, calculator.calculateStandardDeviationForPopulation(values), 1e-6);
+    assertEquals(1.234567890123456,
+        calculator.calculateStandardDeviationForPopulationWithOnePass(DoubleStream.of(values).parallel()), 1e-6);
+  }
+
   private List<SignedMoney> alternatingSample_helper(int nItems, SignedMoney smallOffset, SignedMoney largeAverage) {
     List<SignedMoney> v = Lists.newArrayListWithExpectedSize(nItems);
     for (int i = 0; i < nItems; i++) {
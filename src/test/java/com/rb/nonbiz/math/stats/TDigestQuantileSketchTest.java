@@ -0,0 +1,123 @@
+package com.rb.nonbiz.math.stats;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.DoubleStream;
+
+import static com.rb.nonbiz.math.stats.TDigestQuantileSketch.emptyTDigestQuantileSketch;
+import static com.rb.nonbiz.math.stats.TDigestQuantileSketch.tDigestQuantileSketch;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.types.UnitFraction.unitFraction;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TDigestQuantileSketchTest {
+
+  @Test
+  public void accurateForUniformData() {
+    double[] values = new Random(1).doubles(100_000).toArray();
+    TDigestQuantileSketch sketch = emptyTDigestQuantileSketch();
+    for (double value : values) {
+      sketch.add(value);
+    }
+    assertQuantilesClose(values, sketch);
+    assertEquals(100_000, sketch.getN());
+    // Fixed memory: the number of centroids does not grow with the number of values
+    assertTrue(sketch.getNumCentroids() <= 2 * TDigestQuantileSketch.DEFAULT_COMPRESSION);
+  }
+
+  @Test
+  public void accurateForSkewedData() {
+    Random random = new Random(2);
+    double[] values = new double[50_000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = Math.exp(random.nextGaussian()); // log-normal
+    }
+    assertQuantilesClose(values, tDigestQuantileSketch(DoubleStream.of(values)));
+  }
+
+  @Test
+  public void mergingPieces_isAboutAsAccurate() {
+    double[] values = new Random(3).doubles(80_000, -100, 100).toArray();
+    TDigestQuantileSketch merged = emptyTDigestQuantileSketch();
+    for (int piece = 0; piece < 8; piece++) {
+      TDigestQuantileSketch pieceSketch = emptyTDigestQuantileSketch();
+      for (int i = piece * 10_000; i < (piece + 1) * 10_000; i++) {
+        pieceSketch.add(values[i]);
+      }
+      merged.merge(pieceSketch);
+    }
+    assertQuantilesClose(values, merged);
+    assertQuantilesClose(values, tDigestQuantileSketch(DoubleStream.of(values).parallel()));
+  }
+
+  @Test
+  public void minAndMaxAreExact() {
+    TDigestQuantileSketch sketch = tDigestQuantileSketch(new Random(4).doubles(10_000, 0, 1));
+    TDigestQuantileSketch other = tDigestQuantileSketch(DoubleStream.of(-7, 8));
+    sketch.merge(other);
+    assertEquals(-7, sketch.getQuantile(0), 0);
+    assertEquals(8, sketch.getQuantile(1), 0);
+    assertEquals(-7, sketch.getMin(), 0);
+    assertEquals(8, sketch.getMax(), 0);
+  }
+
+  @Test
+  public void smallCases() {
+    TDigestQuantileSketch sketch = emptyTDigestQuantileSketch();
+    assertTrue(sketch.isEmpty());
+    assertIllegalArgumentException( () -> sketch.getQuantile(0.5));
+
+    sketch.add(3);
+    assertEquals(3, sketch.getQuantile(0), 1e-12);
+    assertEquals(3, sketch.getQuantile(0.5), 1e-12);
+    assertEquals(3, sketch.getQuantile(1), 1e-12);
+
+    sketch.add(5);
+    assertEquals(4, sketch.getQuantile(0.5), 1e-12);
+    assertIllegalArgumentException( () -> sketch.getQuantile(-0.1));
+    assertIllegalArgumentException( () -> sketch.getQuantile(1.1));
+    assertIllegalArgumentException( () -> sketch.add(Double.NaN));
+  }
+
+  @Test
+  public void testGetApproximatePercentiles() {
+    TDigestQuantileSketch sketch = tDigestQuantileSketch(DoubleStream.iterate(0, v -> v + 1).limit(1_001));
+    List<Double> percentiles = sketch.getApproximatePercentiles(ImmutableList.of(
+        unitFraction(0.9), unitFraction(0.1), unitFraction(0.5)));
+    assertEquals(900, percentiles.get(0), 2);
+    assertEquals(100, percentiles.get(1), 2);
+    assertEquals(500, percentiles.get(2), 2);
+  }
+
+  @Test
+  public void mergeWithSelf_doublesTheWeights() {
+    TDigestQuantileSketch sketch = tDigestQuantileSketch(DoubleStream.of(1, 2, 3, 4));
+    double median = sketch.getQuantile(0.5);
+    sketch.merge(sketch);
+    assertEquals(8, sketch.getN());
+    assertEquals(median, sketch.getQuantile(0.5), 1e-12);
+  }
+
+  private void assertQuantilesClose(double[] values, TDigestQuantileSketch sketch) {
+    double[] sorted = values.clone();
+    Arrays.sort(sorted);
+    double range = sorted[sorted.length - 1] - sorted[0];
+    for (double q : new double[] { 0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999 }) {
+      double exact = sorted[(int) Math.floor(q * (sorted.length - 1))];
+      // The error in rank terms is what the t-digest bounds; it's tighter at the tails.
+      double rankTolerance = 0.005 * Math.sqrt(q * (1 - q) * 4) + 0.0005;
+      int rankLow = (int) Math.floor(Math.max(0, q - rankTolerance) * (sorted.length - 1));
+      int rankHigh = (int) Math.ceil(Math.min(1, q + rankTolerance) * (sorted.length - 1));
+      double estimate = sketch.getQuantile(q);
+      assertTrue(
+          String.format("q= %s exact= %s estimate= %s range= %s", q, exact, estimate, range),
+          sorted[rankLow] <= estimate && estimate <= sorted[rankHigh]);
+    }
+  }
+
+}
@@ -0,0 +1,66 @@
+package com.rb.nonbiz.math.stats;
+
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static com.rb.nonbiz.math.stats.NormalDistribution.NormalDistributionBuilder.normalDistributionBuilder;
+import static com.rb.nonbiz.math.stats.ZigguratNormalSampler.nextStandardNormal;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ZigguratNormalSamplerTest {
+
+  @Test
+  public void generatesStandardNormals() {
+    SplittableRandom random = new SplittableRandom(123);
+    SummaryStatistics summaryStatistics = new SummaryStatistics();
+    int numBeyond1 = 0;
+    int numBeyond2 = 0;
+    int numBeyondTailStart = 0;
+    int n = 2_000_000;
+    for (int i = 0; i < n; i++) {
+      double x = nextStandardNormal(random);
+      summaryStatistics.addValue(x);
+      numBeyond1 += Math.abs(x) > 1 ? 1 : 0;
+      numBeyond2 += Math.abs(x) > 2 ? 1 : 0;
+      numBeyondTailStart += Math.abs(x) > 3.5 ? 1 : 0;
+    }
+    assertEquals(0, summaryStatistics.getMean(), 0.002);
+    assertEquals(1, summaryStatistics.getStandardDeviation(), 0.002);
+    // Probabilities of |x| > k for a standard normal
+    assertEquals(0.3173105, numBeyond1 / (double) n, 0.002);
+    assertEquals(0.0455003, numBeyond2 / (double) n, 0.001);
+    // This checks that the tail (beyond ~3.44) gets sampled correctly
+    assertEquals(0.0004653, numBeyondTailStart / (double) n, 0.0001);
+  }
+
+  @Test
+  public void sameRandomState_sameResults() {
+    SplittableRandom random1 = new SplittableRandom(456);
+    SplittableRandom random2 = new SplittableRandom(456);
+    for (int i = 0; i < 1_000; i++) {
+      assertEquals(nextStandardNormal(random1), nextStandardNormal(random2), 0);
+    }
+  }
+
+  @Test
+  public void fill_usesMeanAndStandardDeviation_andOnlyFillsRange() {
+    double[] array = new double[200_002];
+    ZigguratNormalSampler.fill(
+        new SplittableRandom(789),
+        normalDistributionBuilder().setMean(-1.23).setStandardDeviation(4.56).build(),
+        array, 1, array.length - 1);
+    assertEquals(0, array[0], 0);
+    assertEquals(0, array[array.length - 1], 0);
+    SummaryStatistics summaryStatistics = new SummaryStatistics();
+    for (int i = 1; i < array.length - 1; i++) {
+      summaryStatistics.addValue(array[i]);
+    }
+    assertEquals(-1.23, summaryStatistics.getMean(), 0.03);
+    assertEquals(4.56, summaryStatistics.getStandardDeviation(), 0.03);
+    assertTrue(summaryStatistics.getMin() < -1.23 - 3 * 4.56);
+  }
+
+}
@@ -25,6 +25,7 @@ import static com.rb.nonbiz.math.vectorspaces.MatrixRowIndexTest.matrixRowIndexM
 import static com.rb.nonbiz.math.vectorspaces.RBIndexableMatrix.rbIndexableMatrix;
 import static com.rb.nonbiz.math.vectorspaces.RBIndexableMatrixTest.rbIndexableMatrixMatcher;
 import static com.rb.nonbiz.math.vectorspaces.RBMatrix.rbMatrix;
+import static com.rb.nonbiz.math.vectorspaces.RBMatrix.rbMatrixSharingRowMajorArray;
 import static com.rb.nonbiz.math.vectorspaces.RBSquareMatrix.diagonalRBSquareMatrix;
 import static com.rb.nonbiz.math.vectorspaces.RBSquareMatrix.identityRBSquareMatrix;
 import static com.rb.nonbiz.math.vectorspaces.RBVectorTest.rbVector;
@@ -111,6 +112,24 @@ public class RBMatrixTest extends RBTestMatcher<RBMatrix> {
             })));
   }
 
+  @Test
+  public void testRbMatrixSharingRowMajorArray() {
+    assertThat(
+        rbMatrixSharingRowMajorArray(2, 3, new double[] { 1, 2, 3, 4, 5, 6 }),
+        rbMatrixMatcher(rbMatrix(new double[][] {
+            { 1, 2, 3 },
+            { 4, 5, 6 } })));
+    // The transpose is a Colt view over the same flat array, so this confirms that we set up the strides correctly.
+    assertThat(
+        rbMatrixSharingRowMajorArray(2, 3, new double[] { 1, 2, 3, 4, 5, 6 }).transpose(),
+        rbMatrixMatcher(rbMatrix(new double[][] {
+            { 1, 4 },
+            { 2, 5 },
+            { 3, 6 } })));
+    assertIllegalArgumentException( () -> rbMatrixSharingRowMajorArray(2, 3, new double[] { 1, 2, 3, 4, 5 }));
+    assertIllegalArgumentException( () -> rbMatrixSharingRowMajorArray(0, 0, new double[] { }));
+  }
+
   @Test
   public void matrixMultiplyByIdentity_noChange() {
     RBMatrix matrix2by3 = rbMatrix(new double[][] {
@@ -254,6 +273,23 @@ public class RBMatrixTest extends RBTestMatcher<RBMatrix> {
     assertIndexOutOfBoundsException( () -> matrix.get(matrixRowIndex(3), matrixColumnIndex(1)));
   }
 
+  @Test
+  public void testGetQuick() {
+    RBMatrix matrix = rbMatrix(new double[][] {
+        { 1.0, 2.0 },
+        { 3.0, 4.0 },
+        { 5.0, 6.0 }});
+    for (int row = 0; row < 3; row++) {
+      for (int column = 0; column < 2; column++) {
+        assertEquals(
+            matrix.get(matrixRowIndex(row), matrixColumnIndex(column)),
+            matrix.getQuick(row, column),
+            1e-8);
+      }
+    }
+    assertEquals(6.0, rbMatrixSharingRowMajorArray(3, 2, new double[] { 1, 2, 3, 4, 5, 6 }).getQuick(2, 1), 1e-8);
+  }
+
   @Test
   public void testTranspose() {
     // the transposition of a 1x1 matrix is itself
@@ -0,0 +1,48 @@
+package com.rb.nonbiz.reflection;
+
+import com.rb.nonbiz.io.http.JsonApiCallLatencyStats;
+import com.rb.nonbiz.io.http.JsonApiCallerUsingPost;
+import com.rb.nonbiz.io.http.PooledJsonApiCallerUsingPost;
+import com.rb.nonbiz.testutils.RBTest;
+import org.junit.Test;
+
+import java.io.Closeable;
+
+import static com.rb.nonbiz.collections.RBSet.emptyRBSet;
+import static com.rb.nonbiz.collections.RBSet.rbSetOf;
+import static com.rb.nonbiz.collections.RBSet.singletonRBSet;
+import static com.rb.nonbiz.reflection.AllRbTopLevelClasses.unsafeTestOnlyAllRbTopLevelClasses;
+import static com.rb.nonbiz.testmatchers.RBCollectionMatchers.rbSetEqualsMatcher;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class AllClassesThatImplementInterfacesRetrieverTest extends RBTest<AllClassesThatImplementInterfacesRetriever> {
+
+  @Test
+  public void bothWaysGiveSameResult() {
+    RbClassMetadataIndex index = new RbClassMetadataIndexRetriever().retrieve("com.rb.nonbiz.io.http");
+    AllRbTopLevelClasses allClasses = unsafeTestOnlyAllRbTopLevelClasses(rbSetOf(
+        JsonApiCallerUsingPost.class, PooledJsonApiCallerUsingPost.class, JsonApiCallLatencyStats.class));
+
+    AllClassesThatImplementInterfacesRetriever retriever = makeTestObject();
+    assertThat(
+        retriever.retrieve(index, singletonRBSet(Closeable.class)),
+        rbSetEqualsMatcher(singletonRBSet(PooledJsonApiCallerUsingPost.class)));
+    assertThat(
+        retriever.retrieve(allClasses, singletonRBSet(Closeable.class)),
+        rbSetEqualsMatcher(singletonRBSet(PooledJsonApiCallerUsingPost.class)));
+
+    // Only direct implementers count, same as the other overload; Closeable extends AutoCloseable.
+    assertThat(
+        retriever.retrieve(index, rbSetOf(Closeable.class, AutoCloseable.class, Runnable.class)),
+        rbSetEqualsMatcher(singletonRBSet(PooledJsonApiCallerUsingPost.class)));
+    assertThat(
+        retriever.retrieve(index, rbSetOf(AutoCloseable.class, Runnable.class)),
+        rbSetEqualsMatcher(emptyRBSet()));
+  }
+
+  @Override
+  protected AllClassesThatImplementInterfacesRetriever makeTestObject() {
+    return new AllClassesThatImplementInterfacesRetriever();
+  }
+
+}
@@ -0,0 +1,144 @@
+package com.rb.nonbiz.reflection;
+
+import com.rb.nonbiz.io.http.PooledJsonApiCallerUsingPost;
+import com.rb.nonbiz.testutils.RBTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static com.rb.nonbiz.reflection.RbClassMetadata.rbClassMetadata;
+import static com.rb.nonbiz.reflection.RbClassMetadataIndexTest.rbClassMetadataIndexMatcher;
+import static com.rb.nonbiz.reflection.RbClassMetadataTest.rbClassMetadataMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalEmpty;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalNonEmpty;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RbClassMetadataIndexRetrieverTest extends RBTest<RbClassMetadataIndexRetriever> {
+
+  // A small package, so that the test is fast
+  private static final String PACKAGE_PREFIX = "com.rb.nonbiz.io.http";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void buildsFromClassPath() {
+    RbClassMetadataIndex index = makeTestObject().buildFromClassPath(PACKAGE_PREFIX);
+    String className = PooledJsonApiCallerUsingPost.class.getName();
+    assertTrue(index.getSortedClassNames().contains(className));
+    // top-level classes only
+    assertTrue(index.getSortedClassNames().stream().noneMatch(name -> name.contains("$")));
+    assertThat(
+        index.getMetadataOrThrow(className),
+        rbClassMetadataMatcher(rbClassMetadata(PooledJsonApiCallerUsingPost.class)));
+    assertEquals(
+        Collections.singletonList(className),
+        index.getDirectImplementerNames(Closeable.class.getName()));
+  }
+
+  @Test
+  public void retrieve_onlyBuildsOncePerPackage() {
+    assertSame(
+        makeTestObject().retrieve(PACKAGE_PREFIX),
+        makeTestObject().retrieve(PACKAGE_PREFIX));
+  }
+
+  @Test
+  public void retrieve_buildsSeparatelyPerContextClassLoader() throws IOException {
+    RbClassMetadataIndexRetriever retriever = makeTestObject();
+    RbClassMetadataIndex forDefaultClassLoader = retriever.retrieve(PACKAGE_PREFIX);
+    Thread thread = Thread.currentThread();
+    ClassLoader originalClassLoader = thread.getContextClassLoader();
+    try (URLClassLoader otherClassLoader = new URLClassLoader(new URL[0], originalClassLoader)) {
+      thread.setContextClassLoader(otherClassLoader);
+      RbClassMetadataIndex forOtherClassLoader = retriever.retrieve(PACKAGE_PREFIX);
+      assertNotSame(forDefaultClassLoader, forOtherClassLoader);
+      assertSame(forOtherClassLoader, retriever.retrieve(PACKAGE_PREFIX));
+    } finally {
+      thread.setContextClassLoader(originalClassLoader);
+    }
+    assertSame(forDefaultClassLoader, retriever.retrieve(PACKAGE_PREFIX));
+  }
+
+  @Test
+  public void retrieve_doesNotCalculateClassPathKey() {
+    // The in-memory index is never saved, so it does not need a real key (which would need to list the classpath).
+    assertNotEquals(
+        makeTestObject().calculateClassPathKey(PACKAGE_PREFIX),
+        makeTestObject().retrieve(PACKAGE_PREFIX).getClassPathKey());
+  }
+
+  @Test
+  public void loadsClassesWithTheClassLoaderOfTheCallingThread_evenFromOtherThreads() throws InterruptedException {
+    RbClassMetadataIndex index = makeTestObject().buildFromClassPath(PACKAGE_PREFIX);
+    String className = PooledJsonApiCallerUsingPost.class.getName();
+    Class<?>[] loaded = new Class<?>[1];
+    // A thread with no context class loader, like some fork-join pool threads
+    Thread thread = new Thread(() -> loaded[0] = index.loadClass(className));
+    thread.setContextClassLoader(null);
+    thread.start();
+    thread.join();
+    assertSame(PooledJsonApiCallerUsingPost.class, loaded[0]);
+  }
+
+  @Test
+  public void writeAndRead_roundTrip() throws IOException {
+    RbClassMetadataIndexRetriever retriever = makeTestObject();
+    RbClassMetadataIndex index = retriever.buildFromClassPath(PACKAGE_PREFIX);
+    Path file = temporaryFolder.getRoot().toPath().resolve("index.txt");
+    retriever.write(index, file);
+
+    assertOptionalNonEmpty(
+        retriever.readIfUpToDate(file, index.getClassPathKey()),
+        rbClassMetadataIndexMatcher(index));
+    // stale key
+    assertOptionalEmpty(retriever.readIfUpToDate(file, "some other key"));
+    // missing file
+    assertOptionalEmpty(retriever.readIfUpToDate(file.resolveSibling("missing.txt"), index.getClassPathKey()));
+
+    // A corrupt file is treated as missing
+    Files.write(file, ("RBCMI\t1\t" + index.getClassPathKey() + "\nnot enough columns\n").getBytes(UTF_8));
+    assertOptionalEmpty(retriever.readIfUpToDate(file, index.getClassPathKey()));
+  }
+
+  @Test
+  public void retrieveUsingCacheFile_writesFileOnFirstCall() throws IOException {
+    RbClassMetadataIndexRetriever retriever = makeTestObject();
+    Path file = temporaryFolder.getRoot().toPath().resolve("subdirectory").resolve("index.txt");
+
+    RbClassMetadataIndex built = retriever.retrieveUsingCacheFile(PACKAGE_PREFIX, file);
+    assertTrue(Files.isRegularFile(file));
+    RbClassMetadataIndex fromFile = retriever.retrieveUsingCacheFile(PACKAGE_PREFIX, file);
+    assertThat(fromFile, rbClassMetadataIndexMatcher(built));
+  }
+
+  @Test
+  public void classPathKey_dependsOnPackage() {
+    assertEquals(
+        makeTestObject().calculateClassPathKey(PACKAGE_PREFIX),
+        makeTestObject().calculateClassPathKey(PACKAGE_PREFIX));
+    assertNotEquals(
+        makeTestObject().calculateClassPathKey(PACKAGE_PREFIX),
+        makeTestObject().calculateClassPathKey("com.rb.nonbiz.reflection"));
+  }
+
+  @Override
+  protected RbClassMetadataIndexRetriever makeTestObject() {
+    return new RbClassMetadataIndexRetriever();
+  }
+
+}
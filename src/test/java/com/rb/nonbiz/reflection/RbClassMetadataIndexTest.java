@@ -0,0 +1,107 @@
+package com.rb.nonbiz.reflection;
+
+import com.google.common.collect.ImmutableList;
+import com.rb.nonbiz.testutils.RBTestMatcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
+
+import static com.rb.nonbiz.reflection.RbClassMetadata.rbClassMetadata;
+import static com.rb.nonbiz.reflection.RbClassMetadataIndex.rbClassMetadataIndex;
+import static com.rb.nonbiz.reflection.RbClassMetadataTest.rbClassMetadataMatcher;
+import static com.rb.nonbiz.testmatchers.Match.matchRBMap;
+import static com.rb.nonbiz.testmatchers.Match.matchUsingEquals;
+import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.testutils.Asserters.assertOptionalEmpty;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class RbClassMetadataIndexTest extends RBTestMatcher<RbClassMetadataIndex> {
+
+  @Test
+  public void duplicateClassName_throws() {
+    assertIllegalArgumentException( () -> rbClassMetadataIndex("key", ImmutableList.of(
+        rbClassMetadata(ClassWithDepth.class),
+        rbClassMetadata(ClassWithDepth.class))));
+  }
+
+  @Test
+  public void testGetters() {
+    RbClassMetadataIndex index = makeNontrivialObject();
+    assertEquals(3, index.size());
+    assertEquals(
+        ImmutableList.of("com.rb.Bar", "com.rb.Baz", "com.rb.Foo"),
+        index.getSortedClassNames());
+    assertEquals("com.rb.Baz", index.getMetadataOrThrow("com.rb.Baz").getClassName());
+    assertOptionalEmpty(index.getOptionalMetadata("com.rb.Missing"));
+
+    assertEquals(ImmutableList.of("com.rb.Bar", "com.rb.Foo"), index.getDirectImplementerNames("java.lang.Runnable"));
+    assertEquals(ImmutableList.of("com.rb.Foo"), index.getDirectImplementerNames("java.io.Closeable"));
+    assertEquals(ImmutableList.of(), index.getDirectImplementerNames("java.lang.Comparable"));
+  }
+
+  @Test
+  public void testLoadClass() {
+    RbClassMetadataIndex index = rbClassMetadataIndex("key", ImmutableList.of(
+        rbClassMetadata(ClassWithDepth.class),
+        rbClassMetadata(RbClassMetadataIndex.class)));
+    assertSame(ClassWithDepth.class, index.loadClass(ClassWithDepth.class.getName()));
+    // second time comes from the cache, but it's the same class anyway
+    assertSame(ClassWithDepth.class, index.loadClass(ClassWithDepth.class.getName()));
+    // not in the index
+    assertIllegalArgumentException( () -> index.loadClass(RbClassMetadata.class.getName()));
+
+    // in the index, but not in the classpath
+    assertIllegalArgumentException( () -> makeNontrivialObject().loadClass("com.rb.Foo"));
+  }
+
+  @Override
+  public RbClassMetadataIndex makeTrivialObject() {
+    return rbClassMetadataIndex("", ImmutableList.of());
+  }
+
+  @Override
+  public RbClassMetadataIndex makeNontrivialObject() {
+    return rbClassMetadataIndex("key123", ImmutableList.of(
+        rbClassMetadata(
+            "com.rb.Foo",
+            ImmutableList.of("java.lang.Runnable", "java.io.Closeable"),
+            ImmutableList.of("int"),
+            ImmutableList.of("int")),
+        rbClassMetadata(
+            "com.rb.Bar",
+            ImmutableList.of("java.lang.Runnable"),
+            ImmutableList.of("java.util.List"),
+            ImmutableList.of("java.util.List<java.lang.String>")),
+        rbClassMetadata("com.rb.Baz", ImmutableList.of(), ImmutableList.of(), ImmutableList.of())));
+  }
+
+  @Override
+  public RbClassMetadataIndex makeMatchingNontrivialObject() {
+    // Same contents, in a different order
+    return rbClassMetadataIndex("key123", ImmutableList.of(
+        rbClassMetadata("com.rb.Baz", ImmutableList.of(), ImmutableList.of(), ImmutableList.of()),
+        rbClassMetadata(
+            "com.rb.Bar",
+            ImmutableList.of("java.lang.Runnable"),
+            ImmutableList.of("java.util.List"),
+            ImmutableList.of("java.util.List<java.lang.String>")),
+        rbClassMetadata(
+            "com.rb.Foo",
+            ImmutableList.of("java.lang.Runnable", "java.io.Closeable"),
+            ImmutableList.of("int"),
+            ImmutableList.of("int"))));
+  }
+
+  @Override
+  protected boolean willMatch(RbClassMetadataIndex expected, RbClassMetadataIndex actual) {
+    return rbClassMetadataIndexMatcher(expected).matches(actual);
+  }
+
+  public static TypeSafeMatcher<RbClassMetadataIndex> rbClassMetadataIndexMatcher(RbClassMetadataIndex expected) {
+    return makeMatcher(expected,
+        matchUsingEquals(v -> v.getClassPathKey()),
+        matchRBMap(v -> v.getMetadataByClassName(), f -> rbClassMetadataMatcher(f)));
+  }
+
+}
@@ -0,0 +1,95 @@
+package com.rb.nonbiz.reflection;
+
+import com.google.common.collect.ImmutableList;
+import com.rb.nonbiz.testutils.RBTestMatcher;
+import org.hamcrest.TypeSafeMatcher;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static com.rb.nonbiz.reflection.RbClassMetadata.rbClassMetadata;
+import static com.rb.nonbiz.testmatchers.Match.matchListUsingEquals;
+import static com.rb.nonbiz.testmatchers.Match.matchUsingEquals;
+import static com.rb.nonbiz.testmatchers.RBMatchers.makeMatcher;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RbClassMetadataTest extends RBTestMatcher<RbClassMetadata> {
+
+  private static class TestClass implements Closeable, Runnable {
+
+    private int anInt;
+    private List<String> stringList;
+    private Map<String, List<Double>>[] mapArray;
+
+    @Override
+    public void close() throws IOException {}
+
+    @Override
+    public void run() {}
+
+  }
+
+  @Test
+  public void fromClass() {
+    assertThat(
+        rbClassMetadata(TestClass.class),
+        rbClassMetadataMatcher(rbClassMetadata(
+            "com.rb.nonbiz.reflection.RbClassMetadataTest$TestClass",
+            ImmutableList.of("java.io.Closeable", "java.lang.Runnable"),
+            ImmutableList.of("int", "java.util.List", "[Ljava.util.Map;"),
+            ImmutableList.of(
+                "int",
+                "java.util.List<java.lang.String>",
+                "java.util.Map<java.lang.String, java.util.List<java.lang.Double>>[]"))));
+  }
+
+  @Test
+  public void fieldListsMustHaveSameSize() {
+    assertIllegalArgumentException( () -> rbClassMetadata(
+        "a.B", ImmutableList.of(), ImmutableList.of("int"), ImmutableList.of()));
+    assertIllegalArgumentException( () -> rbClassMetadata(
+        "", ImmutableList.of(), ImmutableList.of(), ImmutableList.of()));
+  }
+
+  @Override
+  public RbClassMetadata makeTrivialObject() {
+    return rbClassMetadata("a.B", ImmutableList.of(), ImmutableList.of(), ImmutableList.of());
+  }
+
+  @Override
+  public RbClassMetadata makeNontrivialObject() {
+    return rbClassMetadata(
+        "com.rb.Foo",
+        ImmutableList.of("java.lang.Runnable"),
+        ImmutableList.of("int", "java.util.List"),
+        ImmutableList.of("int", "java.util.List<java.lang.String>"));
+  }
+
+  @Override
+  public RbClassMetadata makeMatchingNontrivialObject() {
+    // Nothing to tweak here; these are all strings
+    return rbClassMetadata(
+        "com.rb.Foo",
+        ImmutableList.of("java.lang.Runnable"),
+        ImmutableList.of("int", "java.util.List"),
+        ImmutableList.of("int", "java.util.List<java.lang.String>"));
+  }
+
+  @Override
+  protected boolean willMatch(RbClassMetadata expected, RbClassMetadata actual) {
+    return rbClassMetadataMatcher(expected).matches(actual);
+  }
+
+  public static TypeSafeMatcher<RbClassMetadata> rbClassMetadataMatcher(RbClassMetadata expected) {
+    return makeMatcher(expected,
+        matchUsingEquals(v -> v.getClassName()),
+        matchListUsingEquals(v -> v.getInterfaceNames()),
+        matchListUsingEquals(v -> v.getFieldTypeNames()),
+        matchListUsingEquals(v -> v.getGenericFieldTypeNames()));
+  }
+
+}
@@ -17,6 +17,7 @@ import static com.rb.nonbiz.collections.ClosedRange.closedRange;
 import static com.rb.nonbiz.collections.Pair.pair;
 import static com.rb.nonbiz.collections.RBLists.listConcatenation;
 import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.testutils.Asserters.assertThrowsWithMessage;
 import static com.rb.nonbiz.testutils.RBCommonsTestConstants.DUMMY_STRING;
 import static com.rb.nonbiz.testutils.RBTest.DUMMY_POSITIVE_INTEGER;
 import static com.rb.nonbiz.types.Epsilon.DEFAULT_EPSILON_1e_8;
@@ -41,6 +42,28 @@ public class RBPreconditionsTest {
     assertIllegalArgumentException( () -> RBSimilarityPreconditions.checkAllSame(ImmutableList.of(pair(1, "a"), pair(2, "b")), fieldExtractor));
   }
 
+  @Test
+  public void testCheckArgumentWithoutAllocating() {
+    RBPreconditions.checkArgumentWithoutAllocating(true, "no args");
+    RBPreconditions.checkArgumentWithoutAllocating(true, "%s", 1);
+    RBPreconditions.checkArgumentWithoutAllocating(true, "%s %s", 1, 2);
+    RBPreconditions.checkArgumentWithoutAllocating(true, "%s %s %s", 1, 2, 3);
+    RBPreconditions.checkArgumentWithoutAllocating(true, "%s", 1L);
+    RBPreconditions.checkArgumentWithoutAllocating(true, "%s", 1.1);
+    RBPreconditions.checkArgumentWithoutAllocating(true, "%s", "x");
+
+    assertIllegalArgumentException( () -> RBPreconditions.checkArgumentWithoutAllocating(false, "no args"));
+    assertIllegalArgumentException( () -> RBPreconditions.checkArgumentWithoutAllocating(false, "%s", 1));
+    assertIllegalArgumentException( () -> RBPreconditions.checkArgumentWithoutAllocating(false, "%s %s", 1, 2));
+    assertIllegalArgumentException( () -> RBPreconditions.checkArgumentWithoutAllocating(false, "%s %s %s", 1, 2, 3));
+    assertIllegalArgumentException( () -> RBPreconditions.checkArgumentWithoutAllocating(false, "%s", 1L));
+    assertIllegalArgumentException( () -> RBPreconditions.checkArgumentWithoutAllocating(false, "%s", 1.1));
+    assertIllegalArgumentException( () -> RBPreconditions.checkArgumentWithoutAllocating(false, "%s", "x"));
+
+    // A char must not widen to the int overload, which would print it as a number.
+    assertThrowsWithMessage("'$'", () -> RBPreconditions.checkArgumentWithoutAllocating(false, "'%s'", '$'));
+  }
+
   @Test
   public void testCheckAllSameUsingPredicate() {
     class PairWithoutEquals {
@@ -0,0 +1,117 @@
+package com.rb.nonbiz.util;
+
+import com.rb.nonbiz.collections.Partition;
+import com.rb.nonbiz.math.vectorspaces.VectorSpaceOrthonormalBasis;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.rb.nonbiz.collections.Partition.partition;
+import static com.rb.nonbiz.collections.RBIncreasingSet.newRBIncreasingSet;
+import static com.rb.nonbiz.collections.RBMapSimpleConstructors.rbMapOf;
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.types.UnitFraction.unitFraction;
+import static com.rb.nonbiz.util.TieredPreconditions.checkTiered;
+import static com.rb.nonbiz.util.TieredPreconditions.getValidationTier;
+import static com.rb.nonbiz.util.TieredPreconditions.getValidationTimingStats;
+import static com.rb.nonbiz.util.TieredPreconditions.resetToDefaults;
+import static com.rb.nonbiz.util.TieredPreconditions.setDebugMode;
+import static com.rb.nonbiz.util.TieredPreconditions.setValidationTier;
+import static com.rb.nonbiz.util.ValidationTier.ALWAYS_VALIDATE;
+import static com.rb.nonbiz.util.ValidationTier.VALIDATE_ONLY_IN_DEBUG_MODE;
+import static com.rb.nonbiz.util.ValidationTier.sampledValidation;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TieredPreconditionsTest {
+
+  // This is global state, so we must not affect other tests.
+  @After
+  public void tearDown() {
+    resetToDefaults();
+  }
+
+  @Test
+  public void defaultIsToAlwaysValidate() {
+    assertSame(ALWAYS_VALIDATE, getValidationTier(Partition.class));
+    assertIllegalArgumentException( () -> partitionNotSummingTo1());
+  }
+
+  @Test
+  public void longestPackagePrefixWins() {
+    setValidationTier("com.rb", VALIDATE_ONLY_IN_DEBUG_MODE);
+    setValidationTier("com.rb.nonbiz.collections", ALWAYS_VALIDATE);
+    assertSame(ALWAYS_VALIDATE, getValidationTier(Partition.class));
+    assertSame(VALIDATE_ONLY_IN_DEBUG_MODE, getValidationTier(TieredPreconditions.class));
+    // Prefixes only match whole package names, so "com.rb.nonbiz.ut" does not apply to "com.rb.nonbiz.util".
+    setValidationTier("com.rb.nonbiz.ut", ALWAYS_VALIDATE);
+    assertSame(VALIDATE_ONLY_IN_DEBUG_MODE, getValidationTier(TieredPreconditions.class));
+
+    // The empty prefix applies to everything else
+    setValidationTier("", VALIDATE_ONLY_IN_DEBUG_MODE);
+    assertSame(VALIDATE_ONLY_IN_DEBUG_MODE, getValidationTier(String.class));
+  }
+
+  @Test
+  public void debugOnly_skipsChecksUnlessInDebugMode() {
+    setValidationTier("com.rb.nonbiz.collections", VALIDATE_ONLY_IN_DEBUG_MODE);
+    Partition<String> doesNotThrow = partitionNotSummingTo1();
+    setDebugMode(true);
+    assertIllegalArgumentException( () -> partitionNotSummingTo1());
+    setDebugMode(false);
+    doesNotThrow = partitionNotSummingTo1();
+
+    // Invariants that other code relies on (e.g. for binary search) are never tiered
+    assertIllegalArgumentException( () -> newRBIncreasingSet(2, 1));
+
+    // Other categories are not affected
+    assertIllegalArgumentException( () -> checkTiered(TieredPreconditions.class, () -> RBPreconditions.checkArgument(false)));
+  }
+
+  @Test
+  public void sampled_runsAboutTheRightFractionOfChecks() {
+    setValidationTier("com.rb.nonbiz.util", sampledValidation(unitFraction(0.25)));
+    AtomicInteger numRuns = new AtomicInteger(0);
+    for (int i = 0; i < 10_000; i++) {
+      checkTiered(TieredPreconditions.class, () -> numRuns.incrementAndGet());
+    }
+    assertTrue(numRuns.get() > 2_000);
+    assertTrue(numRuns.get() < 3_000);
+
+    ValidationTimingStats stats = getValidationTimingStats().getOrThrow(TieredPreconditions.class);
+    assertEquals(numRuns.get(), stats.getNumChecksRun());
+    assertEquals(10_000 - numRuns.get(), stats.getNumChecksSkipped());
+
+    // In debug mode, everything runs
+    setDebugMode(true);
+    for (int i = 0; i < 100; i++) {
+      checkTiered(TieredPreconditions.class, () -> numRuns.incrementAndGet());
+    }
+    assertEquals(
+        stats.getNumChecksRun() + 100,
+        getValidationTimingStats().getOrThrow(TieredPreconditions.class).getNumChecksRun());
+  }
+
+  @Test
+  public void countsChecksPerCategory_includingFailures() {
+    partition(rbMapOf("a", unitFraction(0.4), "b", unitFraction(0.6)));
+    partition(rbMapOf("a", unitFraction(0.3), "b", unitFraction(0.7)));
+    assertIllegalArgumentException( () -> partitionNotSummingTo1());
+    assertEquals(3, getValidationTimingStats().getOrThrow(Partition.class).getNumChecksRun());
+    assertEquals(0, getValidationTimingStats().getOrThrow(Partition.class).getNumChecksSkipped());
+    assertFalse(getValidationTimingStats().containsKey(VectorSpaceOrthonormalBasis.class));
+
+    resetToDefaults();
+    assertTrue(getValidationTimingStats().isEmpty());
+  }
+
+  private Partition<String> partitionNotSummingTo1() {
+    return partition(rbMapOf(
+        "a", unitFraction(0.4),
+        "b", unitFraction(0.59)));
+  }
+
+}
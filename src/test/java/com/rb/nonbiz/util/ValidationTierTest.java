@@ -0,0 +1,27 @@
+package com.rb.nonbiz.util;
+
+import org.junit.Test;
+
+import static com.rb.nonbiz.types.UnitFraction.UNIT_FRACTION_0;
+import static com.rb.nonbiz.types.UnitFraction.UNIT_FRACTION_1;
+import static com.rb.nonbiz.util.ValidationTier.ALWAYS_VALIDATE;
+import static com.rb.nonbiz.util.ValidationTier.VALIDATE_ONLY_IN_DEBUG_MODE;
+import static com.rb.nonbiz.util.ValidationTier.sampledValidation;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ValidationTierTest {
+
+  @Test
+  public void testShouldValidate() {
+    for (boolean debugMode : new boolean[] { false, true }) {
+      assertTrue(ALWAYS_VALIDATE.shouldValidate(debugMode));
+      assertTrue(sampledValidation(UNIT_FRACTION_1).shouldValidate(debugMode));
+    }
+    assertFalse(VALIDATE_ONLY_IN_DEBUG_MODE.shouldValidate(false));
+    assertTrue(VALIDATE_ONLY_IN_DEBUG_MODE.shouldValidate(true));
+    assertFalse(sampledValidation(UNIT_FRACTION_0).shouldValidate(false));
+    assertTrue(sampledValidation(UNIT_FRACTION_0).shouldValidate(true));
+  }
+
+}
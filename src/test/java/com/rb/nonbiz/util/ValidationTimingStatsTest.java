@@ -0,0 +1,27 @@
+package com.rb.nonbiz.util;
+
+import org.junit.Test;
+
+import static com.rb.nonbiz.testutils.Asserters.assertIllegalArgumentException;
+import static com.rb.nonbiz.util.ValidationTimingStats.validationTimingStats;
+
+public class ValidationTimingStatsTest {
+
+  @Test
+  public void negativeValues_throws() {
+    assertIllegalArgumentException( () -> validationTimingStats(-1, 0, 0));
+    assertIllegalArgumentException( () -> validationTimingStats(0, -1, 0));
+    assertIllegalArgumentException( () -> validationTimingStats(1, 0, -1));
+    ValidationTimingStats doesNotThrow;
+    doesNotThrow = validationTimingStats(0, 0, 0);
+    doesNotThrow = validationTimingStats(1, 0, 0);
+    doesNotThrow = validationTimingStats(1, 2, 3);
+  }
+
+  @Test
+  public void noChecksRun_mustHaveNoTime() {
+    assertIllegalArgumentException( () -> validationTimingStats(0, 5, 1));
+    ValidationTimingStats doesNotThrow = validationTimingStats(0, 5, 0);
+  }
+
+}